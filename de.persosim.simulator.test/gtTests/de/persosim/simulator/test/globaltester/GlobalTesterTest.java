@@ -62,7 +62,7 @@ public abstract class GlobalTesterTest extends PersoSimTestCase implements Tr031
 	@Before
 	public void setUp() throws Exception {
 		startSimulator();
-		configureGtServer();
+		configureGtServer(gtServer);
 	}
 	
 	@After
@@ -111,31 +111,39 @@ public abstract class GlobalTesterTest extends PersoSimTestCase implements Tr031
 		}
 	}
 	
-	private void configureGtServer() throws Exception {
+	/**
+	 * Configure the given GlobalTester instance for the personalization and
+	 * the profiles of this test.
+	 * 
+	 * @param connection
+	 *            connection to the GlobalTester instance to configure
+	 * @throws Exception
+	 */
+	void configureGtServer(GtServerConnection connection) throws Exception {
 		//disable dialogs
-		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_TESTMANAGER, "PROFILES_SHOW_DIALOG", "false");
-		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_TESTMANAGER, "INTEGRITY_WARNING_DIALOG", "false");
+		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_TESTMANAGER, "PROFILES_SHOW_DIALOG", "false");
+		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_TESTMANAGER, "INTEGRITY_WARNING_DIALOG", "false");
 		
 		//set logging options
-		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Test - Logging level", "0");
-		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Simulator - Logging level", "0");
-//		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "manualDirSettings", "true");
-//		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Test - Add single logfiles for Testcases", "false");
-//		gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Test - Logging directory", gtServer.getWorkspaceDir()+PATH_LOGGING);
+		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Test - Logging level", "0");
+		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Simulator - Logging level", "0");
+//		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "manualDirSettings", "true");
+//		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Test - Add single logfiles for Testcases", "false");
+//		connection.setPreferences(GtServerConnection.PREF_QUALIFIER_LOGGING, "GT Test - Logging directory", connection.getWorkspaceDir()+PATH_LOGGING);
 
 		//configure profiles
-		gtServer.setSupportedProfiles(getSupportedProfiles());
+		connection.setSupportedProfiles(getSupportedProfiles());
 		
 		
 		//TODO configureGtServer
-		transmitPasswords();
-		transmitEidData();
+		transmitPasswords(connection);
+		transmitEidData(connection);
 //		configureCertificates();
 //		transmitCertificates();
 //		generateCertificatesIfNeeded();
 	}
 	
-	private void transmitEidData() {
+	private void transmitEidData(GtServerConnection connection) {
 
 		CardFile dg18 = getEidDg(0x12);
 		if(dg18 instanceof ElementaryFile) {
@@ -144,7 +152,7 @@ public abstract class GlobalTesterTest extends PersoSimTestCase implements Tr031
 				f.setAccessible(true);
 				byte[] content = (byte[]) f.get(dg18); 
 				content = Arrays.copyOfRange(content, 4, content.length);
-				gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_EAC2, "pref_epa_communityID", HexString.encode(content));
+				connection.setPreferences(GtServerConnection.PREF_QUALIFIER_EAC2, "pref_epa_communityID", HexString.encode(content));
 			} catch (IOException | NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
 				// ignore communityId if it can't be extracted
 			}
@@ -168,14 +176,14 @@ public abstract class GlobalTesterTest extends PersoSimTestCase implements Tr031
 		return null;
 	}
 
-	private void transmitPasswords() throws IOException {
+	private void transmitPasswords(GtServerConnection connection) throws IOException {
 		String mrz = getMrz();
 		byte[] can = getPassword(ID_CAN);
 		byte[] pin = getPassword(ID_PIN);
 		byte[] puk = getPassword(ID_PUK);
 		
 		if (mrz != null) {
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Use MRZ Reader", "false");
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Use MRZ Reader", "false");
 			
 			String mrz1 = null;
 			String mrz2 = null; 
@@ -204,23 +212,23 @@ public abstract class GlobalTesterTest extends PersoSimTestCase implements Tr031
 				break;
 			}
 			
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Default definition of first line in MRZ", mrz1);
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Default definition of second line in MRZ", mrz2);
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Default definition of third line in MRZ", mrz3);
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Default definition of first line in MRZ", mrz1);
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Default definition of second line in MRZ", mrz2);
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Default definition of third line in MRZ", mrz3);
 			
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Activate third MRZ line", mrz3.length() > 0 ? "true" : "false");
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "Activate third MRZ line", mrz3.length() > 0 ? "true" : "false");
 		}
 		
 		if (can != null) {
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "pref_epa_can", new String(can));
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "pref_epa_can", new String(can));
 		}
 		
 		if (pin != null) {
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "pref_epa_pin", new String(pin));
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "pref_epa_pin", new String(pin));
 		}
 		
 		if (puk != null) {
-			gtServer.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "pref_epa_puk", new String(puk));
+			connection.setPreferences(GtServerConnection.PREF_QUALIFIER_SECUREMESSAGING, "pref_epa_puk", new String(puk));
 		}
 
 	}
@@ -0,0 +1,95 @@
+package de.persosim.simulator.test.globaltester;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Accumulated results of GlobalTester test suites, i.e. the number of
+ * executed test cases and the number of errors and warnings found within
+ * them.
+ * <p/>
+ * Results collected by different {@link GtServerConnection}s can be merged
+ * using {@link #add(GtResults)}.
+ * <p/>
+ * NOTE: the current implementation is not thread safe
+ */
+public class GtResults {
+
+	private int nrOfExecutedTestCases = 0;
+	private int collectedErrors = 0;
+	private int collectedWarnings = 0;
+
+	/**
+	 * Add the results of a single test suite.
+	 * 
+	 * @param testCases number of executed test cases
+	 * @param errors number of errors found
+	 * @param warnings number of warnings found
+	 */
+	public void add(int testCases, int errors, int warnings) {
+		nrOfExecutedTestCases += testCases;
+		collectedErrors += errors;
+		collectedWarnings += warnings;
+	}
+
+	/**
+	 * Add all results accumulated within other.
+	 * 
+	 * @param other
+	 */
+	public void add(GtResults other) {
+		add(other.nrOfExecutedTestCases, other.collectedErrors, other.collectedWarnings);
+	}
+
+	/**
+	 * Reset the accumulated results to 0.
+	 */
+	public void clear() {
+		nrOfExecutedTestCases = 0;
+		collectedErrors = 0;
+		collectedWarnings = 0;
+	}
+
+	public int getNrOfExecutedTestCases() {
+		return nrOfExecutedTestCases;
+	}
+
+	public int getCollectedErrors() {
+		return collectedErrors;
+	}
+
+	public int getCollectedWarnings() {
+		return collectedWarnings;
+	}
+
+	/**
+	 * Compare the accumulated results with expected values.
+	 * <p/>
+	 * In case of a mismatch between expected and accumulated values an
+	 * {@link AssertionError} is thrown.
+	 * 
+	 * @param expectedErrors
+	 * @param expectedWarnings
+	 */
+	public void check(int expectedErrors, int expectedWarnings) {
+		System.out
+				.printf("Executed %5d testcases via GlobalTester Servermode. Found/expected %5d/%-5d errors and %5d/%-5d warnings. ",
+						nrOfExecutedTestCases, collectedErrors, expectedErrors,
+						collectedWarnings, expectedWarnings);
+		if (nrOfExecutedTestCases <= 0) {
+			System.out.println("FAIL!");
+			assertTrue("No testcases have been executed", nrOfExecutedTestCases > 0);
+		} else if (expectedErrors != collectedErrors) {
+			System.out.println("FAIL!");
+			assertEquals("Unexpected number of errors in testsuite",
+					expectedErrors, collectedErrors);
+		} else if (expectedWarnings != collectedWarnings) {
+			System.out.println("FAIL!");
+			assertEquals("Unexpected number of warnings in testsuite",
+					expectedWarnings, collectedWarnings);
+		} else {
+			System.out.println("OK!");
+		}
+	}
+
+}
@@ -1,8 +1,5 @@
 package de.persosim.simulator.test.globaltester;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
-
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -42,9 +39,7 @@ public class GtServerConnection {
 	private PrintStream out = null;
 	private BufferedReader in = null;
 
-	private int collectedErrors = 0;
-	private int collectedWarnings = 0;
-	private int nrOfExecutedTestCases = 0;
+	private GtResults collectedResults = new GtResults();
 
 	/**
 	 * Constructor that provides connection information to acces GlobalTester
@@ -56,6 +51,16 @@ public class GtServerConnection {
 		serverHost = host;
 		cmdPort = port;
 	}
+
+	/**
+	 * Constructor that provides connection information to acces GlobalTester
+	 * @param host hostname under which the GT is running
+	 * @param port port in which GT is listening to accept commands
+	 */
+	public GtServerConnection(String host, int port) {
+		serverHost = host;
+		cmdPort = port;
+	}
 	
 	/**
 	 * Change the selected working directory on the remote GlobalTester.
@@ -106,9 +111,9 @@ public class GtServerConnection {
 					.matcher(result);
 
 			if (matcher.matches()) {
-				nrOfExecutedTestCases += Integer.parseInt(matcher.group(1));
-				collectedErrors += Integer.parseInt(matcher.group(2));
-				collectedWarnings += Integer.parseInt(matcher.group(3));
+				collectedResults.add(Integer.parseInt(matcher.group(1)),
+						Integer.parseInt(matcher.group(2)),
+						Integer.parseInt(matcher.group(3)));
 			}
 
 		}
@@ -133,18 +138,23 @@ public class GtServerConnection {
 	 * Reset the accumulated results to 0.
 	 */
 	public void clearCollectedResults() {
-		nrOfExecutedTestCases = 0;
-		collectedErrors = 0;
-		collectedWarnings = 0;
-
+		collectedResults.clear();
 	}
 
 	public int getCollectedErrors() {
-		return collectedErrors;
+		return collectedResults.getCollectedErrors();
 	}
 
 	public int getCollectedWarnings() {
-		return collectedWarnings;
+		return collectedResults.getCollectedWarnings();
+	}
+
+	/**
+	 * @return the results accumulated since the last call of
+	 *         {@link #clearCollectedResults()}
+	 */
+	public GtResults getCollectedResults() {
+		return collectedResults;
 	}
 
 	/**
@@ -160,24 +170,7 @@ public class GtServerConnection {
 	 * @param expectedWarnings
 	 */
 	public void checkResults(int expectedErrors, int expectedWarnings) {
-		System.out
-				.printf("Executed %5d testcases via GlobalTester Servermode. Found/expected %5d/%-5d errors and %5d/%-5d warnings. ",
-						nrOfExecutedTestCases, collectedErrors, expectedErrors,
-						collectedWarnings, expectedWarnings);
-		if (nrOfExecutedTestCases <= 0) {
-			System.out.println("FAIL!");
-			assertTrue("No testcases have been executed", nrOfExecutedTestCases > 0);
-		} else if (expectedErrors != collectedErrors) {
-			System.out.println("FAIL!");
-			assertEquals("Unexpected number of errors in testsuite",
-					expectedErrors, collectedErrors);
-		} else if (expectedWarnings != collectedWarnings) {
-			System.out.println("FAIL!");
-		assertEquals("Unexpected number of errors in testsuite",
-				expectedWarnings, collectedWarnings);
-		} else {
-			System.out.println("OK!");
-		}
+		collectedResults.check(expectedErrors, expectedWarnings);
 	}
 
 	/**
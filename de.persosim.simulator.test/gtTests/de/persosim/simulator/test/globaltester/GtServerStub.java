@@ -0,0 +1,121 @@
+package de.persosim.simulator.test.globaltester;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal local stand-in for the ServerMode of a GlobalTester instance. It
+ * allows to test the GlobalTester infrastructure without a GlobalTester
+ * installation.
+ * <p/>
+ * All commands are acknowledged. Instead of executing a test suite the stub
+ * powers on the simulator on its configured port and reports one test case
+ * for the suite, which fails if the simulator did not respond with an ATR.
+ */
+public class GtServerStub implements Runnable {
+
+	private static final Pattern SUITEPATTERN = Pattern.compile(".*<testsuite>(.*)</testsuite>.*");
+
+	private ServerSocket serverSocket;
+	private int simPort;
+	private Thread stubThread;
+
+	private List<String> executedSuites = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Create a new stub listening on a free local port and start it.
+	 * 
+	 * @param simPort
+	 *            port of the simulator to use for all suites
+	 * @throws IOException
+	 */
+	public GtServerStub(int simPort) throws IOException {
+		this.simPort = simPort;
+		serverSocket = new ServerSocket(0);
+
+		stubThread = new Thread(this, "GtServerStub " + serverSocket.getLocalPort());
+		stubThread.setDaemon(true);
+		stubThread.start();
+	}
+
+	/**
+	 * @return the port this stub accepts ServerMode connections on
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @return the names of all suites executed so far
+	 */
+	public List<String> getExecutedSuites() {
+		return executedSuites;
+	}
+
+	public void stop() throws IOException, InterruptedException {
+		serverSocket.close();
+		stubThread.join();
+	}
+
+	@Override
+	public void run() {
+		while (!serverSocket.isClosed()) {
+			try (Socket socket = serverSocket.accept()) {
+				handleConnection(socket);
+			} catch (IOException e) {
+				// expected when the stub is stopped
+			}
+		}
+	}
+
+	private void handleConnection(Socket socket) throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+		PrintStream out = new PrintStream(socket.getOutputStream());
+
+		String command;
+		while ((command = in.readLine()) != null) {
+			Matcher matcher = SUITEPATTERN.matcher(command);
+			if (matcher.matches()) {
+				executedSuites.add(matcher.group(1));
+				int failures = isSimulatorResponding() ? 0 : 1;
+				out.println("Testsuite " + matcher.group(1) + " finished: 1 testcases (" + failures + " failures, 0 warnings)");
+			} else if (command.contains("<getWorkspaceDir/>")) {
+				out.println("<workspaceDir></workspaceDir>");
+			} else {
+				out.println("OK");
+			}
+			out.flush();
+		}
+	}
+
+	/**
+	 * Power on the simulator and expect an ATR, then power it off again.
+	 */
+	private boolean isSimulatorResponding() {
+		try (Socket simSocket = new Socket("localhost", simPort)) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(simSocket.getInputStream()));
+			PrintStream out = new PrintStream(simSocket.getOutputStream());
+
+			out.println("FF010000");
+			out.flush();
+			String atr = in.readLine();
+
+			out.println("FF000000");
+			out.flush();
+			in.readLine();
+
+			return (atr != null) && atr.startsWith("3B");
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package de.persosim.simulator.test.globaltester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a GlobalTester instance together with the port of the simulator
+ * it is configured to use as card reader. Each endpoint is used by exactly one
+ * worker of the {@link ParallelGtRunner}.
+ */
+public class GtWorkerEndpoint {
+
+	private String gtHost;
+	private int gtPort;
+	private int simPort;
+
+	/**
+	 * @param gtHost
+	 *            hostname under which the GT is running
+	 * @param gtPort
+	 *            port in which GT is listening to accept commands
+	 * @param simPort
+	 *            port the simulator for this GT instance shall listen on
+	 */
+	public GtWorkerEndpoint(String gtHost, int gtPort, int simPort) {
+		this.gtHost = gtHost;
+		this.gtPort = gtPort;
+		this.simPort = simPort;
+	}
+
+	public String getGtHost() {
+		return gtHost;
+	}
+
+	public int getGtPort() {
+		return gtPort;
+	}
+
+	public int getSimPort() {
+		return simPort;
+	}
+
+	/**
+	 * Parse a comma separated list of endpoints, each given as
+	 * <code>host:gtPort:simPort</code>, e.g.
+	 * <code>localhost:6789:9876,localhost:6791:9877</code>.
+	 * 
+	 * @param endpoints
+	 *            the list of endpoints to parse
+	 * @return the parsed endpoints in the given order
+	 * @throws IllegalArgumentException
+	 *             if an endpoint is malformed
+	 */
+	public static List<GtWorkerEndpoint> parse(String endpoints) {
+		List<GtWorkerEndpoint> retVal = new ArrayList<>();
+		for (String curEndpoint : endpoints.split(",")) {
+			String[] parts = curEndpoint.trim().split(":");
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("endpoint must be given as host:gtPort:simPort but was " + curEndpoint);
+			}
+			try {
+				retVal.add(new GtWorkerEndpoint(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid port within endpoint " + curEndpoint, e);
+			}
+		}
+		return retVal;
+	}
+
+	@Override
+	public String toString() {
+		return gtHost + ":" + gtPort + " (simulator port " + simPort + ")";
+	}
+
+}
@@ -0,0 +1,197 @@
+package de.persosim.simulator.test.globaltester;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.persosim.simulator.SocketSimulator;
+
+/**
+ * Executes the GlobalTester jobs of several {@link GlobalTesterTest}s in
+ * parallel on a pool of workers.
+ * <p/>
+ * Every worker uses its own GlobalTester instance and its own in-process
+ * simulator, as described by a {@link GtWorkerEndpoint}. The jobs of each
+ * test are split into shards at every {@link SimulatorReset}. Each shard is
+ * executed against a newly created simulator with a fresh instance of the
+ * test class and thus a fresh personalization, so shards are independent of
+ * each other and are distributed to whichever worker becomes idle first. The
+ * results of all workers are merged afterwards.
+ * <p/>
+ * Wall clock time therefore scales with the number of workers, as long as
+ * there are more shards than workers.
+ */
+public class ParallelGtRunner {
+
+	/**
+	 * A sequence of suites that is executed on a single simulator instance
+	 */
+	private static class Shard {
+		private final Class<? extends GlobalTesterTest> persoTest;
+		private final List<GtSuiteDescriptor> suites = new ArrayList<>();
+
+		Shard(Class<? extends GlobalTesterTest> persoTest) {
+			this.persoTest = persoTest;
+		}
+	}
+
+	private List<GtWorkerEndpoint> endpoints;
+
+	/**
+	 * @param endpoints
+	 *            the endpoints to be used by the workers, one worker is
+	 *            started per endpoint
+	 */
+	public ParallelGtRunner(List<GtWorkerEndpoint> endpoints) {
+		if (endpoints.isEmpty()) {
+			throw new IllegalArgumentException("at least one endpoint is required");
+		}
+		this.endpoints = new ArrayList<>(endpoints);
+	}
+
+	/**
+	 * Execute all applicable GlobalTester jobs of the given tests and return
+	 * the merged results. This method returns after all workers are
+	 * finished.
+	 * 
+	 * @param persoTests
+	 *            the tests to execute, each needs to provide a constructor
+	 *            without arguments
+	 * @return the results of all executed suites
+	 * @throws Exception
+	 *             the first failure of any worker, e.g. if the connection to
+	 *             a GlobalTester instance failed
+	 */
+	public GtResults run(Collection<Class<? extends GlobalTesterTest>> persoTests) throws Exception {
+		final Queue<Shard> shards = new ConcurrentLinkedQueue<>(createShards(persoTests));
+
+		ExecutorService executor = Executors.newFixedThreadPool(endpoints.size());
+		try {
+			List<Future<GtResults>> workers = new ArrayList<>();
+			for (final GtWorkerEndpoint curEndpoint : endpoints) {
+				workers.add(executor.submit(new Callable<GtResults>() {
+					@Override
+					public GtResults call() throws Exception {
+						return runShards(curEndpoint, shards);
+					}
+				}));
+			}
+
+			GtResults retVal = new GtResults();
+			Exception failure = null;
+			for (Future<GtResults> curWorker : workers) {
+				try {
+					retVal.add(curWorker.get());
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+					}
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+			return retVal;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Split the jobs of all given tests into shards. The shards are sorted by
+	 * decreasing number of suites so that long running shards do not end up
+	 * at the end of the queue.
+	 */
+	private static List<Shard> createShards(Collection<Class<? extends GlobalTesterTest>> persoTests) throws Exception {
+		List<Shard> retVal = new ArrayList<>();
+		for (Class<? extends GlobalTesterTest> curPersoTest : persoTests) {
+			Shard curShard = new Shard(curPersoTest);
+			for (JobDescriptor curJob : newInstance(curPersoTest).getAllApplicableGtTests()) {
+				if (curJob instanceof SimulatorReset) {
+					retVal.add(curShard);
+					curShard = new Shard(curPersoTest);
+				} else if (curJob instanceof GtSuiteDescriptor) {
+					curShard.suites.add((GtSuiteDescriptor) curJob);
+				}
+			}
+			retVal.add(curShard);
+		}
+
+		for (int i = retVal.size() - 1; i >= 0; i--) {
+			if (retVal.get(i).suites.isEmpty()) {
+				retVal.remove(i);
+			}
+		}
+
+		Collections.sort(retVal, new Comparator<Shard>() {
+			@Override
+			public int compare(Shard s1, Shard s2) {
+				return s2.suites.size() - s1.suites.size();
+			}
+		});
+		return retVal;
+	}
+
+	/**
+	 * Execute shards from the given queue until it is empty.
+	 * 
+	 * @return the results of all shards executed by this worker
+	 */
+	private static GtResults runShards(GtWorkerEndpoint endpoint, Queue<Shard> shards) throws Exception {
+		GtResults retVal = new GtResults();
+		GtServerConnection connection = new GtServerConnection(endpoint.getGtHost(), endpoint.getGtPort());
+		connection.connect();
+		try {
+			Shard curShard;
+			while ((curShard = shards.poll()) != null) {
+				connection.clearCollectedResults();
+				runShard(connection, endpoint.getSimPort(), curShard);
+
+				GtResults shardResults = connection.getCollectedResults();
+				System.out.printf("Executed %5d testcases of %s on %s with %d errors and %d warnings%n",
+						shardResults.getNrOfExecutedTestCases(), curShard.persoTest.getSimpleName(), endpoint,
+						shardResults.getCollectedErrors(), shardResults.getCollectedWarnings());
+				retVal.add(shardResults);
+			}
+		} finally {
+			connection.closeConnection();
+		}
+		return retVal;
+	}
+
+	private static void runShard(GtServerConnection connection, int simPort, Shard shard) throws Exception {
+		GlobalTesterTest persoTest = newInstance(shard.persoTest);
+
+		SocketSimulator simulator = new SocketSimulator(persoTest.getPersonalization(), simPort);
+		try {
+			if (!simulator.start()) {
+				throw new IllegalStateException("simulator could not be started on port " + simPort);
+			}
+
+			persoTest.configureGtServer(connection);
+			for (GtSuiteDescriptor curSuite : shard.suites) {
+				connection.runSuiteAndSaveResults(curSuite);
+			}
+		} finally {
+			simulator.stop();
+		}
+	}
+
+	private static GlobalTesterTest newInstance(Class<? extends GlobalTesterTest> persoTest) throws Exception {
+		Constructor<? extends GlobalTesterTest> constructor = persoTest.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		return constructor.newInstance();
+	}
+
+}
@@ -0,0 +1,113 @@
+package de.persosim.simulator.test.globaltester;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.test.globaltester.perso.GtDebugPersoTest;
+import de.persosim.simulator.test.globaltester.perso.GtDefaultPersoTest;
+
+/**
+ * Tests the {@link ParallelGtRunner} against {@link GtServerStub}s, so no
+ * GlobalTester instance is needed.
+ */
+public class ParallelGtRunnerTest extends PersoSimTestCase {
+
+	private List<GtServerStub> stubs = new ArrayList<>();
+	private List<GtWorkerEndpoint> endpoints = new ArrayList<>();
+
+	@Before
+	public void setUp() throws IOException {
+		for (int i = 0; i < 2; i++) {
+			int simPort = getFreePort();
+			GtServerStub stub = new GtServerStub(simPort);
+			stubs.add(stub);
+			endpoints.add(new GtWorkerEndpoint("localhost", stub.getPort(), simPort));
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (GtServerStub curStub : stubs) {
+			curStub.stop();
+		}
+	}
+
+	/**
+	 * Positive test: all suites of all tests are executed exactly once against
+	 * a running simulator and the results of all workers are merged.
+	 */
+	@Test
+	public void testRun() throws Exception {
+		Collection<Class<? extends GlobalTesterTest>> persoTests = new ArrayList<>();
+		persoTests.add(GtDefaultPersoTest.class);
+		persoTests.add(GtDebugPersoTest.class);
+
+		GtResults results = new ParallelGtRunner(endpoints).run(persoTests);
+
+		List<String> executedSuites = new ArrayList<>();
+		for (GtServerStub curStub : stubs) {
+			executedSuites.addAll(curStub.getExecutedSuites());
+		}
+		int expectedSuites = countSuites(new GtDefaultPersoTest()) + countSuites(new GtDebugPersoTest());
+		assertEquals(expectedSuites, executedSuites.size());
+		assertEquals(expectedSuites, results.getNrOfExecutedTestCases());
+		assertEquals(0, results.getCollectedErrors());
+		assertEquals(0, results.getCollectedWarnings());
+	}
+
+	/**
+	 * Negative test: a worker that can not reach its GlobalTester instance
+	 * fails the run while the remaining shards are executed by the other
+	 * workers.
+	 */
+	@Test
+	public void testRun_UnreachableGtServer() throws Exception {
+		int unusedPort = getFreePort();
+		endpoints.add(new GtWorkerEndpoint("localhost", unusedPort, getFreePort()));
+
+		Collection<Class<? extends GlobalTesterTest>> persoTests = new ArrayList<>();
+		persoTests.add(GtDebugPersoTest.class);
+
+		try {
+			new ParallelGtRunner(endpoints).run(persoTests);
+			fail("expected exception was not thrown");
+		} catch (IOException e) {
+			// expected
+		}
+
+		HashSet<String> executedSuites = new HashSet<>();
+		for (GtServerStub curStub : stubs) {
+			executedSuites.addAll(curStub.getExecutedSuites());
+		}
+		assertEquals(countSuites(new GtDebugPersoTest()), executedSuites.size());
+	}
+
+	private static int countSuites(GlobalTesterTest persoTest) {
+		int retVal = 0;
+		for (JobDescriptor curJob : persoTest.getAllApplicableGtTests()) {
+			if (curJob instanceof GtSuiteDescriptor) {
+				retVal++;
+			}
+		}
+		return retVal;
+	}
+
+	private static int getFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package de.persosim.simulator.test.globaltester.perso;
+
+import static org.junit.Assume.assumeNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.Test;
+
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.test.globaltester.GlobalTesterTest;
+import de.persosim.simulator.test.globaltester.GtResults;
+import de.persosim.simulator.test.globaltester.GtWorkerEndpoint;
+import de.persosim.simulator.test.globaltester.ParallelGtRunner;
+
+/**
+ * Executes the GlobalTester tests of all personalizations in parallel using
+ * the {@link ParallelGtRunner}. This is intended for nightly conformance runs
+ * on machines providing several GlobalTester instances.
+ * <p/>
+ * The available GlobalTester instances are given by the system property
+ * {@value #PROPERTY_WORKERS} as described in
+ * {@link GtWorkerEndpoint#parse(String)}, each of them needs to be configured
+ * to use the given simulator port. If the property is not set this test is
+ * skipped.
+ */
+public class GtParallelPersoTest extends PersoSimTestCase {
+
+	public static final String PROPERTY_WORKERS = "persosim.gt.workers";
+
+	@Test
+	public void testAllPersonalizations() throws Exception {
+		String workers = System.getProperty(PROPERTY_WORKERS);
+		assumeNotNull(workers);
+
+		Collection<Class<? extends GlobalTesterTest>> persoTests = new ArrayList<>();
+		persoTests.add(GtDefaultPersoTest.class);
+		persoTests.add(GtXmlDefaultPersoTest.class);
+		persoTests.add(DefaultPersoTestPkiTemplate01Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate02Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate03Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate04Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate05Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate06Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate07Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate08Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate09Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate10Test.class);
+		persoTests.add(DefaultPersoTestPkiTemplate11Test.class);
+
+		GtResults results = new ParallelGtRunner(GtWorkerEndpoint.parse(workers)).run(persoTests);
+		results.check(0, 0);
+	}
+
+}
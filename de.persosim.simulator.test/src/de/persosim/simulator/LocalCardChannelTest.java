@@ -0,0 +1,123 @@
+package de.persosim.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.utils.HexString;
+
+public class LocalCardChannelTest extends PersoSimTestCase {
+
+	private static final byte[] SELECT_APDU = HexString.toByteArray(PersoSimTest.SELECT_APDU);
+	private static final byte[] READ_BINARY_APDU = HexString.toByteArray(PersoSimTest.READ_BINARY_APDU);
+	private static final byte[] SW_NO_ERROR = HexString.toByteArray(PersoSimTest.SW_NO_ERROR);
+
+	LocalCardChannel channel;
+
+	@Before
+	public void setUp() {
+		channel = new LocalCardChannel(new DefaultPersoTestPki());
+	}
+
+	@After
+	public void tearDown() {
+		channel.close();
+	}
+
+	/**
+	 * Positive test: APDUs are processed after the card has been powered on,
+	 * the ATR is returned on power on and reset.
+	 */
+	@Test
+	public void testTransmit() {
+		byte[] atr = channel.powerOn();
+
+		assertEquals(0x3B, atr[0]);
+		assertArrayEquals(SW_NO_ERROR, channel.transmit(SELECT_APDU));
+		assertEquals(6, channel.transmit(READ_BINARY_APDU).length);
+		assertArrayEquals(atr, channel.reset());
+	}
+
+	/**
+	 * Negative test: APDUs are rejected while the card is powered off.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testTransmit_PoweredOff() {
+		channel.powerOn();
+		channel.powerOff();
+
+		channel.transmit(SELECT_APDU);
+	}
+
+	/**
+	 * Positive test: the response is written at the position of the response
+	 * buffer and both buffer positions are advanced.
+	 */
+	@Test
+	public void testTransmit_ByteBuffer() {
+		channel.powerOn();
+		channel.transmit(SELECT_APDU);
+
+		ByteBuffer command = ByteBuffer.allocateDirect(16);
+		command.put(READ_BINARY_APDU).flip();
+		ByteBuffer response = ByteBuffer.allocate(LocalCardChannel.MAX_RESPONSE_LENGTH);
+		response.put((byte) 0xAA);
+
+		int responseLength = channel.transmit(command, response);
+
+		assertEquals(6, responseLength);
+		assertEquals(0, command.remaining());
+		assertEquals(1 + responseLength, response.position());
+		assertEquals((byte) 0x90, response.get(responseLength - 1));
+		assertEquals((byte) 0x00, response.get(responseLength));
+	}
+
+	/**
+	 * Positive test: asynchronous transmissions are processed in order of
+	 * submission and completion is signaled to the handler.
+	 */
+	@Test
+	public void testTransmitAsync() throws Exception {
+		channel.powerOn();
+		Future<byte[]> selectResponse = channel.transmitAsync(SELECT_APDU);
+
+		final CountDownLatch completed = new CountDownLatch(1);
+		final AtomicReference<Integer> responseLength = new AtomicReference<>();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		ByteBuffer response = ByteBuffer.allocate(LocalCardChannel.MAX_RESPONSE_LENGTH);
+		channel.transmitAsync(ByteBuffer.wrap(READ_BINARY_APDU), response, "attachment", new CompletionHandler<Integer, String>() {
+			@Override
+			public void completed(Integer result, String attachment) {
+				responseLength.set(result);
+				completed.countDown();
+			}
+
+			@Override
+			public void failed(Throwable exc, String attachment) {
+				failure.set(exc);
+				completed.countDown();
+			}
+		});
+
+		assertTrue(completed.await(10, TimeUnit.SECONDS));
+		assertArrayEquals(SW_NO_ERROR, selectResponse.get());
+		assertNull(failure.get());
+		assertEquals(Integer.valueOf(6), responseLength.get());
+		assertEquals((byte) 0x90, response.get(4));
+	}
+
+}
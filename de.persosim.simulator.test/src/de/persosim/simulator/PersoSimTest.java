@@ -1,5 +1,6 @@
 package de.persosim.simulator;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -15,9 +16,12 @@ import java.io.UnsupportedEncodingException;
 import java.net.ConnectException;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.xml.bind.JAXBException;
 
+import mockit.Deencapsulation;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
 
@@ -25,11 +29,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import de.persosim.simulator.cardobjects.FileIdentifier;
 import de.persosim.simulator.perso.DefaultPersoTestPki;
 import de.persosim.simulator.perso.MinimumPersonalization;
 import de.persosim.simulator.perso.Personalization;
 import de.persosim.simulator.test.PersoSimTestCase;
 import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.PersoSimLogger;
 
 public class PersoSimTest extends PersoSimTestCase {
 	
@@ -70,6 +76,7 @@ public class PersoSimTest extends PersoSimTestCase {
 		}
 		
 		System.setOut(origOut);
+		PersoSimLogger.setLogLevel(PersoSimLogger.TRACE);
 	}
 	
 	/**
@@ -389,6 +396,34 @@ public class PersoSimTest extends PersoSimTestCase {
 		assertNotNull(perso);
 	}
 	
+	/**
+	 * Positive test case: parse several personalizations in parallel, the
+	 * results are returned in the order of the file names.
+	 * @throws Exception
+	 */
+	@Test
+	public void testParsePersonalizations() throws Exception {
+		List<Personalization> persos = PersoSim.parsePersonalizations(Arrays.asList(DUMMY_PERSONALIZATION_FILE_1, DUMMY_PERSONALIZATION_FILE_2, DUMMY_PERSONALIZATION_FILE_1));
+		
+		assertEquals(3, persos.size());
+		assertArrayEquals(EF_CS_CONTENT_1, getEfCardAccessContent(persos.get(0)));
+		assertArrayEquals(EF_CS_CONTENT_2, getEfCardAccessContent(persos.get(1)));
+		assertArrayEquals(EF_CS_CONTENT_1, getEfCardAccessContent(persos.get(2)));
+	}
+	
+	private static byte[] getEfCardAccessContent(Personalization perso) {
+		return Deencapsulation.getField(perso.getObjectTree().findChild(new FileIdentifier(0x011C)), "content");
+	}
+	
+	/**
+	 * Negative test case: parse personalizations with a non-existing file.
+	 * @throws Exception
+	 */
+	@Test(expected = FileNotFoundException.class)
+	public void testParsePersonalizations_FileNotFound() throws Exception {
+		PersoSim.parsePersonalizations(Arrays.asList(DUMMY_PERSONALIZATION_FILE_1, "file not found"));
+	}
+	
 	/**
 	 * Negative test case: parse personalization from a non-existing file.
 	 * @throws Exception
@@ -438,6 +473,38 @@ public class PersoSimTest extends PersoSimTestCase {
 		assertEquals(responseReadBinaryExpected, responseReadBinary);
 	}
 	
+	/**
+	 * Positive test case: a connection established before the personalization
+	 * is replaced keeps working on the previous personalization, new
+	 * connections use the new one.
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoadPersonalization_ExistingConnection() throws Exception {
+		persoSim = new PersoSim(new String[]{PersoSim.ARG_LOAD_PERSONALIZATION, DUMMY_PERSONALIZATION_FILE_1});
+		
+		persoSim.startSimulator();
+		
+		try (Socket socket = new Socket(PersoSim.DEFAULT_SIM_HOST, PersoSim.DEFAULT_SIM_PORT)) {
+			PrintStream out = new PrintStream(socket.getOutputStream());
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+			
+			out.println(SELECT_APDU);
+			out.flush();
+			assertEquals(SW_NO_ERROR, extractStatusWord(in.readLine()));
+			
+			assertTrue(persoSim.loadPersonalization(DUMMY_PERSONALIZATION_FILE_2));
+			
+			out.println(READ_BINARY_APDU);
+			out.flush();
+			assertEquals(HexString.encode(EF_CS_CONTENT_1).toUpperCase(), extractResponse(in.readLine()).toUpperCase());
+		}
+		
+		assertEquals(SW_NO_ERROR, extractStatusWord(exchangeApdu(SELECT_APDU)));
+		String responseReadBinary = (extractResponse(exchangeApdu(READ_BINARY_APDU))).toUpperCase();
+		assertEquals(HexString.encode(EF_CS_CONTENT_2).toUpperCase(), responseReadBinary);
+	}
+	
 	/**
 	 * Negative test case: test setting of new personalization via user arguments with argument referencing existing file containing invalid personalization.
 	 * @throws Exception 
@@ -481,5 +548,51 @@ public class PersoSimTest extends PersoSimTestCase {
 		
 		assertEquals(SW_NO_ERROR, responseSelect);
 	}
+	
+	/**
+	 * Positive test case: set the log level via user command.
+	 * @throws Exception
+	 */
+	@Test
+	public void testExecuteUserCommands_SetLogLevel() throws Exception {
+		persoSim = new PersoSim((String) null);
+		
+		persoSim.executeUserCommands(PersoSim.CMD_SET_LOG_LEVEL, "info");
+		
+		assertFalse(PersoSimLogger.isLoggable(PersoSimLogger.DEBUG));
+		assertTrue(PersoSimLogger.isLoggable(PersoSimLogger.INFO));
+	}
+	
+	/**
+	 * Negative test case: set an unknown log level via user command.
+	 * @throws Exception
+	 */
+	@Test
+	public void testExecuteUserCommands_SetLogLevelUnknown() throws Exception {
+		persoSim = new PersoSim((String) null);
+		
+		activateStdOutRedirection();
+		
+		persoSim.executeUserCommands(PersoSim.CMD_SET_LOG_LEVEL, "verbose");
+		
+		String response = readRedStdOut();
+		
+		assertTrue(response.startsWith("unable to set log level"));
+		assertTrue(PersoSimLogger.isLoggable(PersoSimLogger.TRACE));
+	}
+	
+	/**
+	 * Positive test case: the log level set via command line arguments is
+	 * kept when the logger is initialized afterwards.
+	 * @throws Exception
+	 */
+	@Test
+	public void testArgSetLogLevel() throws Exception {
+		persoSim = new PersoSim(PersoSim.ARG_SET_LOG_LEVEL, "WARN");
+		PersoSimLogger.init();
+		
+		assertFalse(PersoSimLogger.isLoggable(PersoSimLogger.INFO));
+		assertTrue(PersoSimLogger.isLoggable(PersoSimLogger.WARN));
+	}
 
 }
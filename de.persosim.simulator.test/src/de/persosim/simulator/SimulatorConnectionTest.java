@@ -0,0 +1,82 @@
+package de.persosim.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.test.PersoSimTestCase;
+
+public class SimulatorConnectionTest extends PersoSimTestCase {
+
+	public static final int PORT = PersoSim.DEFAULT_SIM_PORT + 10;
+
+	SocketSimulator simulator;
+
+	@Before
+	public void setUp() {
+		simulator = new SocketSimulator(new DefaultPersoTestPki(), PORT);
+		assertTrue(simulator.start());
+	}
+
+	@After
+	public void tearDown() {
+		simulator.stop();
+	}
+
+	/**
+	 * Positive test: consecutive APDUs are served by the same connection
+	 * without powering the card.
+	 */
+	@Test
+	public void testTransmit_ConsecutiveApdus() throws Exception {
+		try (SimulatorConnection connection = new SimulatorConnection(PersoSim.DEFAULT_SIM_HOST, PORT)) {
+			assertEquals(PersoSimTest.SW_NO_ERROR, connection.transmit(PersoSimTest.SELECT_APDU));
+			assertEquals(PersoSimTest.SW_NO_ERROR, PersoSimTest.extractStatusWord(connection.transmit(PersoSimTest.READ_BINARY_APDU)));
+		}
+	}
+
+	/**
+	 * Positive test: pipelined responses are returned in order of the
+	 * commands, also if the batch exceeds the pipeline depth.
+	 */
+	@Test
+	public void testTransmit_Pipelined() throws Exception {
+		List<String> apdus = Arrays.asList(PersoSimTest.SELECT_APDU, PersoSimTest.READ_BINARY_APDU, "00B0 0002 02", PersoSimTest.SELECT_APDU, PersoSimTest.READ_BINARY_APDU);
+
+		try (SimulatorConnection connection = new SimulatorConnection(PersoSim.DEFAULT_SIM_HOST, PORT, 2)) {
+			List<SimulatorConnection.Response> responses = connection.transmit(apdus);
+
+			assertEquals(apdus.size(), responses.size());
+			assertEquals("00B0000202", responses.get(2).getCommandApdu());
+			assertEquals(PersoSimTest.SW_NO_ERROR, responses.get(0).getResponseApdu());
+			String content = PersoSimTest.extractResponse(responses.get(1).getResponseApdu());
+			assertEquals(8, content.length());
+			assertEquals(content.substring(4) + PersoSimTest.SW_NO_ERROR, responses.get(2).getResponseApdu());
+			assertEquals(PersoSimTest.SW_NO_ERROR, responses.get(3).getResponseApdu());
+			assertEquals(responses.get(1).getResponseApdu(), responses.get(4).getResponseApdu());
+			assertTrue(responses.get(4).getRoundTripNanos() > 0);
+		}
+	}
+
+	/**
+	 * Negative test: the simulator closes the connection after the card has
+	 * been powered off.
+	 */
+	@Test(expected = IOException.class)
+	public void testTransmit_AfterPowerOff() throws Exception {
+		try (SimulatorConnection connection = new SimulatorConnection(PersoSim.DEFAULT_SIM_HOST, PORT)) {
+			connection.transmit("FF010000");
+			connection.transmit("FF000000");
+			connection.transmit(PersoSimTest.SELECT_APDU);
+		}
+	}
+
+}
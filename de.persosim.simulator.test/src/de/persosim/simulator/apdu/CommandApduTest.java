@@ -4,10 +4,13 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 import de.persosim.simulator.test.PersoSimTestCase;
 import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.Utils;
 
 public class CommandApduTest extends PersoSimTestCase {
 	/**
@@ -173,6 +176,24 @@ public class CommandApduTest extends PersoSimTestCase {
 		createAndCheck(apduString, true, true, 65536);
 	}
 
+	/**
+	 * Positive test: Nc exceeding the range of a signed short is parsed and
+	 * encoded correctly.
+	 */
+	@Test
+	public void testIsoCase4Extended_LargeNc() {
+		byte[] data = new byte[40000];
+		Arrays.fill(data, (byte) 0x5A);
+		byte[] apdu = Utils.concatByteArrays(HexString.toByteArray("00800000009C40"), data, HexString.toByteArray("0000"));
+		
+		CommandApdu commandApdu = new CommandApduImpl(apdu);
+		
+		assertEquals(40000, commandApdu.getNc());
+		assertEquals(40000, commandApdu.getCommandData().getLength());
+		assertEquals(65536, commandApdu.getNe());
+		assertArrayEquals(apdu, commandApdu.toByteArray());
+	}
+
 	@Test
 	public void testIsNeZeroEncoded_extended000100(){
 		CommandApdu commandApdu = createApduFromString("00800000|000100");
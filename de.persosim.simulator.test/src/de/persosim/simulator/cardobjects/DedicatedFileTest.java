@@ -1,12 +1,20 @@
 package de.persosim.simulator.cardobjects;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+
 import mockit.Mocked;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import de.persosim.simulator.secstatus.SecCondition;
 import de.persosim.simulator.secstatus.SecStatus;
 import de.persosim.simulator.test.PersoSimTestCase;
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
@@ -36,4 +44,58 @@ public class DedicatedFileTest extends PersoSimTestCase {
 		assertTrue(fcp.containsTlvDataObject(dfNameTag));
 		assertArrayEquals(dfName, fcp.getTlvDataObject(dfNameTag).getValueField());
 	}
+	
+	/**
+	 * Positive test: children are found by all of their identifiers.
+	 */
+	@Test
+	public void testFindChild(){
+		ElementaryFile ef = createElementaryFile(0x011C, 3);
+		df.addChild(createElementaryFile(0x011D, 4));
+		df.addChild(ef);
+		
+		assertSame(ef, df.findChild(new FileIdentifier(0x011C)));
+		assertSame(ef, df.findChild(new ShortFileIdentifier(3)));
+		assertNull(df.findChild(new FileIdentifier(0x011E)));
+	}
+	
+	/**
+	 * Positive test: the index is kept up to date when children are removed.
+	 */
+	@Test
+	public void testFindChild_AfterRemoveChild(){
+		ElementaryFile ef = createElementaryFile(0x011C, 3);
+		df.addChild(ef);
+		assertSame(ef, df.findChild(new FileIdentifier(0x011C)));
+		
+		df.removeChild(ef);
+		assertNull(df.findChild(new FileIdentifier(0x011C)));
+		assertNull(df.findChild(new ShortFileIdentifier(3)));
+	}
+	
+	/**
+	 * Positive test: identifiers not suitable for the index (e.g. wildcards)
+	 * are still matched against all children.
+	 */
+	@Test
+	public void testFindChildren_NotIndexed(){
+		KeyObject key1 = new KeyObject(null, new KeyIdentifier(1));
+		KeyObject key2 = new KeyObject(null, new KeyIdentifier(2));
+		df.addChild(key1);
+		df.addChild(key2);
+		
+		Collection<CardObject> keys = df.findChildren(new KeyIdentifier());
+		assertEquals(2, keys.size());
+		assertTrue(keys.contains(key1));
+		assertTrue(keys.contains(key2));
+		
+		keys = df.findChildren(new KeyIdentifier(2));
+		assertEquals(1, keys.size());
+		assertTrue(keys.contains(key2));
+	}
+	
+	private ElementaryFile createElementaryFile(int fid, int sfi) {
+		Collection<SecCondition> noConditions = Collections.emptySet();
+		return new ElementaryFile(new FileIdentifier(fid), new ShortFileIdentifier(sfi), new byte[0], noConditions, noConditions, noConditions);
+	}
 }
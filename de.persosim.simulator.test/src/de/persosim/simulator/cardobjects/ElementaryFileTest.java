@@ -1,20 +1,16 @@
 package de.persosim.simulator.cardobjects;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
-import java.util.HashSet;
 import java.util.LinkedList;
 
-import mockit.Mocked;
-import mockit.NonStrictExpectations;
-
 import org.junit.Before;
 import org.junit.Test;
 
 import de.persosim.simulator.secstatus.NullSecurityCondition;
 import de.persosim.simulator.secstatus.SecCondition;
-import de.persosim.simulator.secstatus.SecMechanism;
 import de.persosim.simulator.secstatus.SecStatus;
 import de.persosim.simulator.test.PersoSimTestCase;
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
@@ -22,25 +18,15 @@ import de.persosim.simulator.tlv.TlvTag;
 
 public class ElementaryFileTest extends PersoSimTestCase {
 
-	@Mocked
-	SecStatus mockedSecurityStatus;
 	ElementaryFile file;
 	
 	@Before
 	public void setUp() throws ReflectiveOperationException{
-		// prepare the mock
-		new NonStrictExpectations(SecStatus.class) {
-			{
-				mockedSecurityStatus.getCurrentMechanisms(null, null);
-				result = new HashSet<Class<? extends SecMechanism>>();
-			}
-		};
-		
 		// create file to test
 		LinkedList<SecCondition> unprotected = new LinkedList<>();
 		unprotected.add(new NullSecurityCondition());
 		file = new ElementaryFile(new FileIdentifier(0), new ShortFileIdentifier(1), new byte[] { 1, 2, 3, 4 }, unprotected, unprotected, unprotected);
-		file.setSecStatus(mockedSecurityStatus);
+		file.setSecStatus(new SecStatus());
 				
 	}
 	
@@ -60,4 +46,29 @@ public class ElementaryFileTest extends PersoSimTestCase {
 		assertTrue(fcp.containsTlvDataObject(new TlvTag((byte)0x80)));
 		assertTrue(fcp.containsTlvDataObject(new TlvTag((byte)0x88)));
 	}
+	
+	/**
+	 * Positive test: content of a file with {@link FileContentProvider} is
+	 * created once on first access.
+	 */
+	@Test
+	public void testGetContent_ContentProvider() throws Exception {
+		final int[] invocations = new int[1];
+		LinkedList<SecCondition> unprotected = new LinkedList<>();
+		unprotected.add(new NullSecurityCondition());
+		ElementaryFile lazyFile = new ElementaryFile(new FileIdentifier(0), new ShortFileIdentifier(1), new FileContentProvider() {
+			@Override
+			public byte[] createContent() {
+				invocations[0]++;
+				return new byte[] { 1, 2, 3, 4 };
+			}
+		}, unprotected, unprotected, unprotected);
+		lazyFile.setSecStatus(new SecStatus());
+		
+		assertEquals(0, invocations[0]);
+		
+		lazyFile.getFileControlParameterDataObject();
+		assertArrayEquals(new byte[] { 1, 2, 3, 4 }, lazyFile.getContent());
+		assertEquals(1, invocations[0]);
+	}
 }
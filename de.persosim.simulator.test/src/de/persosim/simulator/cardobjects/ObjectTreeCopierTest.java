@@ -0,0 +1,113 @@
+package de.persosim.simulator.cardobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+import javax.xml.bind.JAXBException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.crypto.StandardizedDomainParameters;
+import de.persosim.simulator.secstatus.NullSecurityCondition;
+import de.persosim.simulator.secstatus.SecCondition;
+import de.persosim.simulator.secstatus.SecStatus;
+import de.persosim.simulator.test.PersoSimTestCase;
+
+public class ObjectTreeCopierTest extends PersoSimTestCase {
+
+	MasterFile masterFile;
+	DedicatedFile emptyDedicatedFile;
+	LinkedList<SecCondition> unprotected;
+
+	/**
+	 * Set up a fresh object tree for each test.
+	 * 
+	 * MF ------DF(0110)
+	 *    \
+	 *     ---- EF(011C,3)
+	 *      \
+	 *       -- domain parameters 13
+	 */
+	@Before
+	public void setUp() {
+		unprotected = new LinkedList<>();
+		unprotected.add(new NullSecurityCondition());
+
+		masterFile = new MasterFile();
+		emptyDedicatedFile = new DedicatedFile(new FileIdentifier(0x0110), new DedicatedFileIdentifier(new byte[] { 0x0A, 0x00, 0x00, 0x01 }));
+		masterFile.addChild(emptyDedicatedFile);
+		masterFile.addChild(new ElementaryFile(new FileIdentifier(0x011C), new ShortFileIdentifier(3), new byte[] { 1, 2, 3 }, unprotected, unprotected, unprotected));
+		masterFile.addChild(new DomainParameterSetCardObject(StandardizedDomainParameters.getDomainParameterSetById(13), new DomainParameterSetIdentifier(13)));
+		masterFile.setSecStatus(new SecStatus());
+	}
+
+	private static ElementaryFile getElementaryFile(MasterFile masterFile, int fileIdentifier) {
+		return (ElementaryFile) masterFile.findChildren(new FileIdentifier(fileIdentifier)).iterator().next();
+	}
+
+	/**
+	 * Positive test: updates of the copy do not affect the original.
+	 */
+	@Test
+	public void testCopy_Independent() throws Exception {
+		MasterFile copy = ObjectTreeCopier.copy(masterFile);
+		copy.setSecStatus(new SecStatus());
+
+		ElementaryFile copiedFile = getElementaryFile(copy, 0x011C);
+		assertNotSame(getElementaryFile(masterFile, 0x011C), copiedFile);
+		copiedFile.update(0, new byte[] { 9 });
+
+		assertArrayEquals(new byte[] { 9, 2, 3 }, copiedFile.getContent());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, getElementaryFile(masterFile, 0x011C).getContent());
+	}
+
+	/**
+	 * Positive test: the original object tree is unchanged by copying, also
+	 * where the JAXB callbacks strip it for marshalling.
+	 */
+	@Test
+	public void testCopy_OriginalUnchanged() throws JAXBException {
+		ObjectTreeCopier.copy(masterFile);
+
+		assertEquals(Collections.emptyList(), emptyDedicatedFile.getChildren());
+		DomainParameterSetCardObject domainParameters = (DomainParameterSetCardObject) masterFile
+				.findChildren(new DomainParameterSetIdentifier(13)).iterator().next();
+		assertNotNull(domainParameters.getDomainParameterSet());
+	}
+
+	/**
+	 * Positive test: content that is not yet created is created once for the
+	 * original and all copies.
+	 */
+	@Test
+	public void testCopy_PendingContent() throws Exception {
+		final int[] noOfCalls = new int[1];
+		masterFile.addChild(new ElementaryFile(new FileIdentifier(0x011D), new ShortFileIdentifier(4), new FileContentProvider() {
+			@Override
+			public byte[] createContent() {
+				noOfCalls[0]++;
+				return new byte[] { 4, 5, 6 };
+			}
+		}, unprotected, unprotected, unprotected));
+
+		MasterFile firstCopy = ObjectTreeCopier.copy(masterFile);
+		firstCopy.setSecStatus(new SecStatus());
+		MasterFile secondCopy = ObjectTreeCopier.copy(masterFile);
+		secondCopy.setSecStatus(new SecStatus());
+		assertEquals(0, noOfCalls[0]);
+
+		getElementaryFile(firstCopy, 0x011D).update(0, new byte[] { 9 });
+
+		assertArrayEquals(new byte[] { 9, 5, 6 }, getElementaryFile(firstCopy, 0x011D).getContent());
+		assertArrayEquals(new byte[] { 4, 5, 6 }, getElementaryFile(secondCopy, 0x011D).getContent());
+		assertArrayEquals(new byte[] { 4, 5, 6 }, getElementaryFile(masterFile, 0x011D).getContent());
+		assertEquals(1, noOfCalls[0]);
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.persosim.simulator.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.utils.HexString;
+
+public class KeyDerivationFunctionTest extends PersoSimTestCase {
+	
+	private byte[] secret;
+	private byte[] nonce;
+	private CryptoSupport cryptoSupport;
+	
+	@Before
+	public void setUp() {
+		secret = HexString.toByteArray("28768D20701247DAE81804C9E780EDE582A9996DB4A315020B2733197DB84925");
+		nonce = HexString.toByteArray("0102030405060708");
+		cryptoSupport = new CryptoSupportAes("AES/CBC/NoPadding", "AESCMAC");
+	}
+	
+	/**
+	 * Positive test case: derive multiple keys at once and compare them to the result of single derivations.
+	 */
+	@Test
+	public void testDeriveKeys() {
+		KeyDerivationFunction kdf = new KeyDerivationFunction(16);
+		
+		byte[][] keys = kdf.deriveKeys(secret, nonce, KeyDerivationFunction.COUNTER_ENC, KeyDerivationFunction.COUNTER_MAC, KeyDerivationFunction.COUNTER_PI);
+		
+		assertEquals(3, keys.length);
+		assertArrayEquals("ENC", kdf.deriveENC(secret, nonce), keys[0]);
+		assertArrayEquals("MAC", kdf.deriveMAC(secret, nonce), keys[1]);
+		assertArrayEquals("PI", kdf.deriveKey(secret, nonce, KeyDerivationFunction.COUNTER_PI), keys[2]);
+	}
+	
+	/**
+	 * Positive test case: derive session keys without nonce and without PI key.
+	 */
+	@Test
+	public void testDeriveSessionKeys_NoNonce() {
+		KeyDerivationFunction kdf = new KeyDerivationFunction(32);
+		
+		SessionKeys sessionKeys = kdf.deriveSessionKeys(secret, null, cryptoSupport);
+		
+		assertArrayEquals("ENC", kdf.deriveENC(secret), sessionKeys.getKeyEnc().getEncoded());
+		assertArrayEquals("MAC", kdf.deriveMAC(secret), sessionKeys.getKeyMac().getEncoded());
+		assertEquals("ENC algorithm", "AES/CBC/NoPadding", sessionKeys.getKeyEnc().getAlgorithm());
+		assertEquals("MAC algorithm", "AESCMAC", sessionKeys.getKeyMac().getAlgorithm());
+		assertNull("PI", sessionKeys.getKeyPi());
+	}
+	
+	/**
+	 * Positive test case: derive session keys including PI key.
+	 */
+	@Test
+	public void testDeriveSessionKeys_WithPi() {
+		KeyDerivationFunction kdf = new KeyDerivationFunction(16);
+		
+		SessionKeys sessionKeys = kdf.deriveSessionKeys(secret, nonce, cryptoSupport, true);
+		
+		assertArrayEquals("ENC", kdf.deriveENC(secret, nonce), sessionKeys.getKeyEnc().getEncoded());
+		assertArrayEquals("MAC", kdf.deriveMAC(secret, nonce), sessionKeys.getKeyMac().getEncoded());
+		assertArrayEquals("PI", kdf.deriveKey(secret, nonce, KeyDerivationFunction.COUNTER_PI), sessionKeys.getKeyPi().getEncoded());
+	}
+	
+	/**
+	 * Positive test case: derived key matches SHA-1(secret||counter) stripped to key length.
+	 */
+	@Test
+	public void testDeriveKey_KnownValue() throws Exception {
+		KeyDerivationFunction kdf = new KeyDerivationFunction(16);
+		
+		byte[] input = new byte[secret.length + 4];
+		System.arraycopy(secret, 0, input, 0, secret.length);
+		System.arraycopy(KeyDerivationFunction.COUNTER_ENC, 0, input, secret.length, 4);
+		byte[] expected = Arrays.copyOf(MessageDigest.getInstance("SHA-1").digest(input), 16);
+		
+		assertArrayEquals(expected, kdf.deriveENC(secret));
+	}
+	
+}
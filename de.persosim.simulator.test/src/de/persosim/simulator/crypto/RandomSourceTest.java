@@ -0,0 +1,120 @@
+package de.persosim.simulator.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RandomSourceTest {
+
+	@After
+	public void tearDown() {
+		RandomSource.useNonBlocking();
+	}
+
+	private static byte[] nextBytes() {
+		byte[] bytes = new byte[32];
+		RandomSource.nextBytes(bytes);
+		return bytes;
+	}
+
+	private static SecureRandom getSecureRandomOfNewThread() throws InterruptedException {
+		final SecureRandom[] result = new SecureRandom[1];
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				result[0] = RandomSource.getSecureRandom();
+			}
+		});
+		thread.start();
+		thread.join();
+		return result[0];
+	}
+
+	/**
+	 * Positive test: the same thread is always provided with the same
+	 * generator.
+	 */
+	@Test
+	public void testGetSecureRandom_SameThread() {
+		assertSame(RandomSource.getSecureRandom(), RandomSource.getSecureRandom());
+	}
+
+	/**
+	 * Positive test: different threads are provided with different generators.
+	 */
+	@Test
+	public void testGetSecureRandom_DifferentThreads() throws InterruptedException {
+		assertNotSame(RandomSource.getSecureRandom(), getSecureRandomOfNewThread());
+	}
+
+	/**
+	 * Positive test: using the same seed reproduces the same values.
+	 */
+	@Test
+	public void testUseDeterministicSeed_Reproducible() {
+		RandomSource.useDeterministicSeed(42);
+		assertTrue(RandomSource.isDeterministic());
+		byte[] first = nextBytes();
+
+		RandomSource.useDeterministicSeed(42);
+		byte[] second = nextBytes();
+
+		assertArrayEquals(first, second);
+	}
+
+	/**
+	 * Positive test: different seeds produce different values, a seed of 0 is
+	 * a valid seed as well.
+	 */
+	@Test
+	public void testUseDeterministicSeed_DifferentSeeds() {
+		RandomSource.useDeterministicSeed(0);
+		byte[] first = nextBytes();
+
+		RandomSource.useDeterministicSeed(1);
+		byte[] second = nextBytes();
+
+		RandomSource.useDeterministicSeed(0);
+		byte[] third = nextBytes();
+
+		assertFalse(Arrays.equals(first, second));
+		assertArrayEquals(first, third);
+	}
+
+	/**
+	 * Positive test: switching back to non-blocking mode replaces the
+	 * deterministic generator.
+	 */
+	@Test
+	public void testUseNonBlocking() {
+		RandomSource.useDeterministicSeed(42);
+		SecureRandom deterministic = RandomSource.getSecureRandom();
+
+		RandomSource.useNonBlocking();
+
+		assertFalse(RandomSource.isDeterministic());
+		assertNotSame(deterministic, RandomSource.getSecureRandom());
+	}
+
+	/**
+	 * Positive test: a provided generator is used by all threads.
+	 */
+	@Test
+	public void testUseSecureRandom() throws InterruptedException {
+		SecureRandom provided = new SecureRandom();
+
+		RandomSource.useSecureRandom(provided);
+
+		assertSame(provided, RandomSource.getSecureRandom());
+		assertSame(provided, getSecureRandomOfNewThread());
+	}
+
+}
@@ -0,0 +1,63 @@
+package de.persosim.simulator.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.persosim.simulator.monitoring.ApduTraceBuffer.TraceEvent;
+
+public class ApduTraceBufferTest {
+
+	/**
+	 * Positive test case: records are rendered in order of recording.
+	 */
+	@Test
+	public void testToText() {
+		ApduTraceBuffer trace = new ApduTraceBuffer(4);
+		trace.recordCommand(ApduTraceBuffer.NO_LAYER, TraceEvent.HARDWARE_COMMAND, new byte[] {0x00, (byte) 0x84, 0x00, 0x00, 0x08});
+		trace.recordResponse(ApduTraceBuffer.NO_LAYER, TraceEvent.HARDWARE_RESPONSE, new byte[] {(byte) 0x6D, 0x00}, (short) 0x6D00);
+
+		String[] lines = trace.toText().split("\n");
+
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].contains("HARDWARE_COMMAND"));
+		assertTrue(lines[0].contains("----  0084000008"));
+		assertTrue(lines[1].contains("HARDWARE_RESPONSE"));
+		assertTrue(lines[1].contains("6D00  6D00"));
+	}
+
+	/**
+	 * Positive test case: the oldest records are overwritten when the buffer
+	 * is full.
+	 */
+	@Test
+	public void testRecord_Overwrite() {
+		ApduTraceBuffer trace = new ApduTraceBuffer(2);
+		for (int i = 0; i < 5; i++) {
+			trace.recordCommand(i, TraceEvent.ASCENDING, new byte[] {(byte) i});
+		}
+
+		assertEquals(2, trace.size());
+		String text = trace.toText();
+		assertFalse(text.contains("  02\n"));
+		assertTrue(text.contains("  03\n"));
+		assertTrue(text.contains("  04\n"));
+	}
+
+	/**
+	 * Positive test case: no records are available after clearing the buffer.
+	 */
+	@Test
+	public void testClear() {
+		ApduTraceBuffer trace = new ApduTraceBuffer(2);
+		trace.recordCommand(0, TraceEvent.ASCENDING, new byte[] {0x01});
+
+		trace.clear();
+
+		assertEquals(0, trace.size());
+		assertEquals("", trace.toText());
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.persosim.simulator.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+	
+	/**
+	 * Positive test case: bucket boundaries are continuous and each value lies within its bucket.
+	 */
+	@Test
+	public void testGetBucketIndex() {
+		int previousIndex = 0;
+		for (long value = 0; value < 100000; value++) {
+			int index = LatencyHistogram.getBucketIndex(value);
+			assertTrue("index must not decrease", index >= previousIndex);
+			assertTrue("index must increase by at most 1", index <= previousIndex + 1);
+			assertTrue("value must not exceed upper bound", value <= LatencyHistogram.getBucketUpperBound(index));
+			previousIndex = index;
+		}
+	}
+	
+	/**
+	 * Positive test case: the largest possible value can be recorded.
+	 */
+	@Test
+	public void testRecord_MaxValue() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		histogram.record(Long.MAX_VALUE);
+		
+		assertEquals(1, histogram.getCount());
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+	}
+	
+	/**
+	 * Positive test case: percentiles are reported within the precision of the histogram.
+	 */
+	@Test
+	public void testGetValueAtPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value * 1000);
+		}
+		
+		assertEquals(10000, histogram.getCount());
+		assertEquals(1000, histogram.getMin());
+		assertEquals(10000000, histogram.getMax());
+		assertEquals(5000500, histogram.getMean(), 0.1);
+		
+		long p50 = histogram.getValueAtPercentile(50);
+		assertTrue("p50 is " + p50, p50 >= 5000000 && p50 <= 5000000 * 1.04);
+		
+		long p99 = histogram.getValueAtPercentile(99);
+		assertTrue("p99 is " + p99, p99 >= 9900000 && p99 <= 9900000 * 1.04);
+		
+		assertEquals(10000000, histogram.getValueAtPercentile(100));
+	}
+	
+	/**
+	 * Positive test case: reset removes all recorded values.
+	 */
+	@Test
+	public void testReset() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		histogram.record(42);
+		histogram.reset();
+		
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+	
+}
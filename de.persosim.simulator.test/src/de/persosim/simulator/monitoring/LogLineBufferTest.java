@@ -0,0 +1,86 @@
+package de.persosim.simulator.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LogLineBufferTest {
+
+	/**
+	 * Positive test case: lines are drained in order of offering, limited to
+	 * the requested number of lines.
+	 */
+	@Test
+	public void testDrainTo() {
+		LogLineBuffer buffer = new LogLineBuffer(8);
+		buffer.offer("first");
+		buffer.offer("second");
+		buffer.offer("third");
+
+		List<String> lines = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(lines, 2));
+		assertEquals(1, buffer.drainTo(lines, 2));
+
+		assertEquals(Arrays.asList("first", "second", "third"), lines);
+		assertTrue(buffer.isEmpty());
+	}
+
+	/**
+	 * Positive test case: the oldest lines are dropped when the buffer is
+	 * full.
+	 */
+	@Test
+	public void testDrainTo_DropOldest() {
+		LogLineBuffer buffer = new LogLineBuffer(2);
+		for (int i = 0; i < 5; i++) {
+			buffer.offer("line " + i);
+		}
+
+		List<String> lines = new ArrayList<>();
+		buffer.drainTo(lines, 10);
+
+		assertEquals(Arrays.asList("line 3", "line 4"), lines);
+		assertEquals(3, buffer.getDroppedCount());
+	}
+
+	/**
+	 * Positive test case: all lines offered concurrently are either drained
+	 * or counted as dropped.
+	 */
+	@Test
+	public void testOffer_Concurrent() throws InterruptedException {
+		final LogLineBuffer buffer = new LogLineBuffer(64);
+		final int linesPerThread = 10000;
+		Thread[] producers = new Thread[4];
+		for (int i = 0; i < producers.length; i++) {
+			producers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < linesPerThread; j++) {
+						buffer.offer("line");
+					}
+				}
+			});
+			producers[i].start();
+		}
+
+		long drained = 0;
+		List<String> lines = new ArrayList<>();
+		for (Thread curProducer : producers) {
+			while (curProducer.isAlive()) {
+				drained += buffer.drainTo(lines, 16);
+				lines.clear();
+			}
+			curProducer.join();
+		}
+		drained += buffer.drainTo(lines, Integer.MAX_VALUE);
+
+		assertEquals(producers.length * linesPerThread, drained + buffer.getDroppedCount());
+	}
+
+}
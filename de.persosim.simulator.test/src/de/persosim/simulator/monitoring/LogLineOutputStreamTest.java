@@ -0,0 +1,40 @@
+package de.persosim.simulator.monitoring;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LogLineOutputStreamTest {
+
+	/**
+	 * Positive test case: text is split at all kinds of line terminators,
+	 * also if written in several parts, and passed on to the mirror stream.
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		LogLineBuffer buffer = new LogLineBuffer(8);
+		ByteArrayOutputStream mirror = new ByteArrayOutputStream();
+		byte[] text = "first\nsec".getBytes();
+		byte[] text2 = "ond\r\nthird\r".getBytes();
+		byte[] text3 = "\nfourth\n\nlast".getBytes();
+
+		try (LogLineOutputStream out = new LogLineOutputStream(buffer, mirror)) {
+			out.write(text);
+			out.write(text2);
+			out.write(text3);
+		}
+
+		List<String> lines = new ArrayList<>();
+		buffer.drainTo(lines, 10);
+		assertEquals(Arrays.asList("first", "second", "third", "fourth", "", "last"), lines);
+		assertArrayEquals("first\nsecond\r\nthird\r\nfourth\n\nlast".getBytes(), mirror.toByteArray());
+	}
+
+}
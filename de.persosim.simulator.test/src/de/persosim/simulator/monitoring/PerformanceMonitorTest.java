@@ -0,0 +1,91 @@
+package de.persosim.simulator.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.utils.HexString;
+
+public class PerformanceMonitorTest {
+	
+	@Before
+	public void setUp() {
+		PerformanceMonitor.reset();
+	}
+	
+	@After
+	public void tearDown() {
+		PerformanceMonitor.setEnabled(false);
+		PerformanceMonitor.reset();
+	}
+	
+	/**
+	 * Positive test case: nothing is recorded while collection is disabled.
+	 */
+	@Test
+	public void testDisabled() {
+		PerformanceMonitor.setEnabled(false);
+		
+		long start = PerformanceMonitor.start();
+		PerformanceMonitor.recordLayer("layer", true, start);
+		PerformanceMonitor.recordApdu(HexString.toByteArray("00A4020C"), HexString.toByteArray("9000"), start);
+		
+		assertEquals(PerformanceMonitor.NOT_MEASURED, start);
+		assertNull(PerformanceMonitor.getLayerHistogram("layer", true));
+		assertEquals(0, PerformanceMonitor.getApduHistogram().getCount());
+		assertEquals(0, PerformanceMonitor.getStatusWordCount((short) 0x9000));
+	}
+	
+	/**
+	 * Positive test case: measurements are grouped as expected while collection is enabled.
+	 */
+	@Test
+	public void testEnabled() {
+		PerformanceMonitor.setEnabled(true);
+		
+		long start = PerformanceMonitor.start();
+		PerformanceMonitor.recordLayer("layer", true, start);
+		PerformanceMonitor.recordProtocol("FM", start);
+		PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_MAC, start);
+		PerformanceMonitor.recordApdu(HexString.toByteArray("00A4020C"), HexString.toByteArray("9000"), start);
+		PerformanceMonitor.recordApdu(HexString.toByteArray("00B08100"), HexString.toByteArray("6A82"), start);
+		
+		assertEquals(1, PerformanceMonitor.getLayerHistogram("layer", true).getCount());
+		assertNull(PerformanceMonitor.getLayerHistogram("layer", false));
+		assertEquals(1, PerformanceMonitor.getProtocolHistogram("FM").getCount());
+		assertEquals(1, PerformanceMonitor.getCryptoHistogram(PerformanceMonitor.CRYPTO_MAC).getCount());
+		assertEquals(2, PerformanceMonitor.getApduHistogram().getCount());
+		assertNotNull(PerformanceMonitor.getInsHistogram((byte) 0xA4));
+		assertEquals(1, PerformanceMonitor.getInsHistogram((byte) 0xB0).getCount());
+		assertEquals(1, PerformanceMonitor.getStatusWordCount((short) 0x9000));
+		assertEquals(1, PerformanceMonitor.getStatusWordCount((short) 0x6A82));
+	}
+	
+	/**
+	 * Positive test case: dumps contain the collected measurements.
+	 */
+	@Test
+	public void testDump() {
+		PerformanceMonitor.setEnabled(true);
+		
+		long start = PerformanceMonitor.start();
+		PerformanceMonitor.recordProtocol("PACE", start);
+		PerformanceMonitor.recordApdu(HexString.toByteArray("0086000000"), HexString.toByteArray("6300"), start);
+		
+		String text = PerformanceMonitor.toText();
+		assertTrue(text.contains("PACE"));
+		assertTrue(text.contains("INS 86"));
+		assertTrue(text.contains("6300: 1"));
+		
+		String json = PerformanceMonitor.toJson();
+		assertTrue(json.startsWith("{") && json.endsWith("}"));
+		assertTrue(json.contains("\"PACE\":{\"count\":1"));
+		assertTrue(json.contains("\"statusWords\":{\"6300\":1}"));
+	}
+	
+}
@@ -0,0 +1,102 @@
+package de.persosim.simulator.perso;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.PersoSim;
+import de.persosim.simulator.cardobjects.FileIdentifier;
+import de.persosim.simulator.test.PersoSimTestCase;
+
+public class BulkPersoGeneratorTest extends PersoSimTestCase {
+
+	private static final int COUNT = 10;
+
+	BulkPersoGenerator generator;
+
+	@Before
+	public void setUp() {
+		generator = new BulkPersoGenerator(new Profile01(), 42);
+		generator.setBatchSize(4);
+	}
+
+	/**
+	 * Positive test: the same seed and index always result in the same
+	 * personalization data, different seeds in different data.
+	 */
+	@Test
+	public void testGenerate_Deterministic() throws Exception {
+		GeneratedProfile perso = generator.generate(3);
+		GeneratedProfile sameSeed = new BulkPersoGenerator(new Profile01(), 42).generate(3);
+		GeneratedProfile otherSeed = new BulkPersoGenerator(new Profile01(), 43).generate(3);
+
+		assertEquals(perso.getMrz(), sameSeed.getMrz());
+		assertEquals(perso.getPin(), sameSeed.getPin());
+		assertEquals(perso.getCan(), sameSeed.getCan());
+		assertEquals(perso.persoDataContainer.getCaKeys().get(0).getPublic(), sameSeed.persoDataContainer.getCaKeys().get(0).getPublic());
+		assertFalse(perso.getMrz().equals(otherSeed.getMrz()));
+	}
+
+	/**
+	 * Positive test: all personalizations are handed over in order of their
+	 * index and contain individual data and keys.
+	 */
+	@Test
+	public void testGenerate_Unique() throws Exception {
+		final List<GeneratedProfile> persos = new ArrayList<>();
+		generator.generate(COUNT, new BulkPersoGenerator.PersonalizationHandler() {
+			@Override
+			public void handle(int index, GeneratedProfile perso) {
+				assertEquals(persos.size(), index);
+				persos.add(perso);
+			}
+		});
+
+		assertEquals(COUNT, persos.size());
+		Set<String> mrzs = new HashSet<>();
+		Set<String> pins = new HashSet<>();
+		Set<String> cans = new HashSet<>();
+		Set<Object> caKeys = new HashSet<>();
+		for (GeneratedProfile curPerso : persos) {
+			assertEquals(90, curPerso.getMrz().length());
+			mrzs.add(curPerso.getMrz());
+			pins.add(curPerso.getPin());
+			cans.add(curPerso.getCan());
+			caKeys.add(curPerso.persoDataContainer.getCaKeys().get(0).getPublic());
+			assertNotNull(curPerso.getObjectTree().findChild(new FileIdentifier(0x011D)));
+		}
+		assertEquals(COUNT, mrzs.size());
+		assertEquals(COUNT, pins.size());
+		assertEquals(COUNT, cans.size());
+		assertEquals(COUNT, caKeys.size());
+	}
+
+	/**
+	 * Positive test: written personalizations can be parsed again.
+	 */
+	@Test
+	public void testWriteToDirectory() throws Exception {
+		File directory = new File("tmp/bulkPersos");
+		generator.writeToDirectory(2, directory);
+
+		for (int i = 0; i < 2; i++) {
+			File persoFile = new File(directory, BulkPersoGenerator.getFileName(i));
+			assertTrue(persoFile.exists());
+			Personalization perso = PersoSim.parsePersonalization(persoFile.getPath());
+			assertNotNull(perso.getObjectTree().findChild(new FileIdentifier(0x011D)));
+			persoFile.delete();
+		}
+		directory.delete();
+	}
+
+}
@@ -1,6 +1,8 @@
 package de.persosim.simulator.perso;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -120,7 +122,7 @@ public class DefaultNpaUnmarshallerCallbackTest extends PersoSimTestCase {
 		ElementaryFile efCardSecurity = (ElementaryFile) files.iterator().next();
 		byte[] expecedEContent = HexString.toByteArray("310F310301010131030101023103010103");
 		
-		byte[] fileContent = Deencapsulation.getField(efCardSecurity, "content");
+		byte[] fileContent = Deencapsulation.invoke(efCardSecurity, "getContentInternal");
 		
 		ConstructedTlvDataObject fileContentTlv = new ConstructedTlvDataObject(fileContent);
 		
@@ -162,7 +164,7 @@ public class DefaultNpaUnmarshallerCallbackTest extends PersoSimTestCase {
 		ElementaryFile efChipSecurity = (ElementaryFile) files.iterator().next();
 		byte[] expecedEContent = HexString.toByteArray("310F310301010131030101023103010103");
 		
-		byte[] fileContent = Deencapsulation.getField(efChipSecurity, "content");
+		byte[] fileContent = Deencapsulation.invoke(efChipSecurity, "getContentInternal");
 		
 		ConstructedTlvDataObject fileContentTlv = new ConstructedTlvDataObject(fileContent);
 		
@@ -171,4 +173,50 @@ public class DefaultNpaUnmarshallerCallbackTest extends PersoSimTestCase {
 		SecInfoCmsBuilderTest.checkSignedData(cmsTlv.toByteArray(), expecedEContent);
 	}
 
+	/**
+	 * Positive test: check that EF.CardSecurity is not signed before its
+	 * content is accessed
+	 * @throws Exception 
+	 */
+	@Test
+	public void testAfterUnmarshall_cardSecuritySignedLazily() throws Exception {
+		new DefaultNpaUnmarshallerCallback().afterUnmarshall(mockedPerso);
+		
+		ElementaryFile efCardSecurity = (ElementaryFile) masterFile.findChild(new FileIdentifier(0x011D));
+		
+		assertNull(Deencapsulation.getField(efCardSecurity, "content"));
+	}
+	
+	/**
+	 * Positive test: check that identical SecInfos share the same signature
+	 * @throws Exception 
+	 */
+	@Test
+	public void testAfterUnmarshall_signatureReused() throws Exception {
+		ElementaryFile firstFile = new DefaultNpaUnmarshallerCallback().createEfCardSecurity(mockedPerso);
+		byte[] firstContent = Deencapsulation.invoke(firstFile, "getContentInternal");
+		
+		ElementaryFile secondFile = new DefaultNpaUnmarshallerCallback().createEfCardSecurity(mockedPerso);
+		byte[] secondContent = Deencapsulation.invoke(secondFile, "getContentInternal");
+		
+		assertArrayEquals(firstContent, secondContent);
+	}
+
+	/**
+	 * Positive test: check that all missing files are created and added to the
+	 * object tree in a fixed order, independent of the order of completion of
+	 * the parallel tasks
+	 * @throws Exception 
+	 */
+	@Test
+	public void testAfterUnmarshall_addAllFilesInOrder() throws Exception {
+		new DefaultNpaUnmarshallerCallback().afterUnmarshall(mockedPerso);
+		
+		Object[] children = masterFile.getChildren().toArray();
+		assertEquals(3, children.length);
+		assertEquals(masterFile.findChild(new FileIdentifier(0x011C)), children[0]);
+		assertEquals(masterFile.findChild(new FileIdentifier(0x011D)), children[1]);
+		assertEquals(masterFile.findChild(new FileIdentifier(0x011B)), children[2]);
+	}
+
 }
@@ -76,6 +76,20 @@ public class Iso7816LibTest extends PersoSimTestCase implements Iso7816 {
 				0x00, 0x01, (byte) 0xFF, 0x00, 0x00 };
 	}
 
+	/**
+	 * Positive test: extended Lc exceeding the range of a signed short.
+	 */
+	@Test
+	public void testGetNcIsoCase3ExtendedMsbSet() {
+		byte[] apdu = new byte[7 + 0x8000];
+		apdu[1] = (byte) 0x80;
+		apdu[5] = (byte) 0x80;
+
+		assertEquals(ISO_CASE_3, Iso7816Lib.getISOcase(apdu));
+		assertEquals(32768, Iso7816Lib.getNc(apdu));
+		assertEquals(32768, Iso7816Lib.getCommandData(apdu).getLength());
+	}
+
 	@Test
 	public void testGetNeIsoCase1() {
 		assertEquals(0, Iso7816Lib.getNe(iso1));
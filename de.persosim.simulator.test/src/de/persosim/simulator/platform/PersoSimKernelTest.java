@@ -0,0 +1,181 @@
+package de.persosim.simulator.platform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.PersoSimTest;
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.test.benchmark.ProtocolFlows;
+import de.persosim.simulator.test.terminal.ApduChannel;
+import de.persosim.simulator.test.terminal.PaceTerminal;
+import de.persosim.simulator.test.terminal.SmSession;
+import de.persosim.simulator.test.terminal.TerminalUtils;
+import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.Utils;
+
+public class PersoSimKernelTest extends PersoSimTestCase {
+
+	PersoSimKernel kernel;
+
+	private static ApduChannel getApduChannel(final PersoSimKernel kernel) {
+		return new ApduChannel() {
+			@Override
+			public byte[] transmit(byte[] commandApdu) {
+				return kernel.process(commandApdu);
+			}
+		};
+	}
+
+	@Before
+	public void setUp() {
+		kernel = new PersoSimKernel(new DefaultPersoTestPki());
+		kernel.init();
+		kernel.powerOn();
+	}
+
+	/**
+	 * Positive test: the file selected when creating the checkpoint is
+	 * selected again after the checkpoint was restored, also after a reset
+	 * and as often as the checkpoint is restored.
+	 */
+	@Test
+	public void testRestoreCheckpoint_SelectedFile() {
+		kernel.process(HexString.toByteArray(PersoSimTest.SELECT_APDU));
+		byte[] expectedContent = kernel.process(HexString.toByteArray(PersoSimTest.READ_BINARY_APDU));
+		SessionCheckpoint checkpoint = kernel.createCheckpoint();
+
+		kernel.reset();
+		assertFalse(Arrays.equals(expectedContent, kernel.process(HexString.toByteArray(PersoSimTest.READ_BINARY_APDU))));
+
+		kernel.restoreCheckpoint(checkpoint);
+		assertArrayEquals(expectedContent, kernel.process(HexString.toByteArray(PersoSimTest.READ_BINARY_APDU)));
+
+		kernel.process(HexString.toByteArray("00A4000C023F00"));
+		kernel.restoreCheckpoint(checkpoint);
+		assertArrayEquals(expectedContent, kernel.process(HexString.toByteArray(PersoSimTest.READ_BINARY_APDU)));
+	}
+
+	/**
+	 * Negative test: a checkpoint can only be restored by the kernel that
+	 * created it.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRestoreCheckpoint_OtherKernel() {
+		PersoSimKernel otherKernel = new PersoSimKernel(new DefaultPersoTestPki());
+		otherKernel.init();
+
+		otherKernel.restoreCheckpoint(kernel.createCheckpoint());
+	}
+
+	/**
+	 * Positive test: every processed APDU is traced on its way up and down
+	 * through all layers.
+	 */
+	@Test
+	public void testProcess_Trace() {
+		kernel.getTrace().clear();
+
+		kernel.process(HexString.toByteArray(PersoSimTest.SELECT_APDU));
+
+		// hardware command, 4 layers ascending, 4 layers descending, hardware response
+		assertEquals(10, kernel.getTrace().size());
+		String[] lines = kernel.getTrace().toText().split("\n");
+		assertTrue(lines[0].contains(PersoSimTest.SELECT_APDU));
+		assertTrue(lines[9].endsWith(PersoSimTest.SW_NO_ERROR));
+	}
+
+	/**
+	 * Positive test: a GET RESPONSE without buffered response is processed
+	 * by all layers and rejected as before.
+	 */
+	@Test
+	public void testProcess_GetResponseWithoutBufferedResponse() {
+		byte[] response = kernel.process(HexString.toByteArray("00C0000000"));
+
+		assertEquals(Iso7816.SW_6D00_INS_NOT_SUPPORTED, Utils.concatenate(response[0], response[1]));
+	}
+
+	/**
+	 * Positive test: EF.ATR/INFO is read by its SFI 01 without access
+	 * restrictions.
+	 */
+	@Test
+	public void testProcess_ReadBinarySfiEfAtrInfo() {
+		byte[] response = kernel.process(HexString.toByteArray("00B0810000"));
+
+		assertEquals("7F660A020300FFFF020300FFFF9000", HexString.encode(response));
+	}
+
+	/**
+	 * Negative test: READ BINARY with SFI 1D still reaches EF.CardSecurity,
+	 * which can not be read without prior authentication.
+	 */
+	@Test
+	public void testProcess_ReadBinarySfiEfCardSecurity() {
+		byte[] response = kernel.process(HexString.toByteArray("00B09D0000"));
+
+		assertEquals(Iso7816.SW_6985_CONDITIONS_OF_USE_NOT_SATISFIED, Utils.concatenate(response[0], response[1]));
+	}
+
+	/**
+	 * Positive test: a secure messaging APDU with wrong MAC is still
+	 * propagated through all layers up to the command processor and rejected
+	 * by the secure messaging layer.
+	 */
+	@Test
+	public void testProcess_SmMacFailure() throws GeneralSecurityException {
+		SmSession session = new PaceTerminal(getApduChannel(kernel)).performPace(Pace.PWD_PIN, ProtocolFlows.DEFAULT_PIN.getBytes());
+
+		byte[] securedApdu = session.wrap(HexString.toByteArray(PersoSimTest.SELECT_APDU));
+		// flip the last byte of the MAC (8E 08 followed by the MAC and Le)
+		securedApdu[securedApdu.length - 2] ^= 0x01;
+
+		kernel.getTrace().clear();
+		byte[] response = kernel.process(securedApdu);
+
+		assertEquals(Iso7816.SW_6988_INCORRECT_SM_DATA_OBJECTS, Utils.concatenate(response[0], response[1]));
+		// hardware command, 4 layers ascending, 4 layers descending, hardware response
+		assertEquals(10, kernel.getTrace().size());
+	}
+
+	/**
+	 * Positive test: kernels using the same personalization check access
+	 * against their own security status. A file protected by PACE is readable
+	 * by the kernel that performed PACE only, even if the other kernel was
+	 * initialized later.
+	 */
+	@Test
+	public void testProcess_SharedPersonalization() throws GeneralSecurityException {
+		Personalization perso = new DefaultPersoTestPki();
+		PersoSimKernel firstKernel = new PersoSimKernel(perso);
+		firstKernel.init();
+		firstKernel.powerOn();
+		PersoSimKernel secondKernel = new PersoSimKernel(perso);
+		secondKernel.init();
+		secondKernel.powerOn();
+		byte[] selectEpass = HexString.toByteArray("00A4040C07A0000002471001");
+		byte[] readEpassDg1 = HexString.toByteArray("00B0810000");
+
+		ApduChannel firstChannel = getApduChannel(firstKernel);
+		SmSession session = new PaceTerminal(firstChannel).performPace(Pace.PWD_PIN, ProtocolFlows.DEFAULT_PIN.getBytes());
+		TerminalUtils.checkStatusWord(session.unwrap(firstKernel.process(session.wrap(selectEpass))), Iso7816.SW_9000_NO_ERROR, "SELECT");
+		byte[] response = session.unwrap(firstKernel.process(session.wrap(readEpassDg1)));
+		assertEquals(Iso7816.SW_9000_NO_ERROR, TerminalUtils.getStatusWord(response));
+
+		secondKernel.process(selectEpass);
+		response = secondKernel.process(readEpassDg1);
+		assertEquals(Iso7816.SW_6985_CONDITIONS_OF_USE_NOT_SATISFIED, TerminalUtils.getStatusWord(response));
+	}
+
+}
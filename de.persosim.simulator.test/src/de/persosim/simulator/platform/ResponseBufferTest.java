@@ -0,0 +1,94 @@
+package de.persosim.simulator.platform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.apdu.CommandApduFactory;
+import de.persosim.simulator.apdu.ResponseApdu;
+import de.persosim.simulator.processing.ProcessingData;
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.tlv.TlvValuePlain;
+import de.persosim.simulator.utils.HexString;
+
+public class ResponseBufferTest extends PersoSimTestCase {
+
+	ResponseBuffer responseBuffer;
+	byte[] responseData;
+
+	@Before
+	public void setUp() {
+		responseBuffer = new ResponseBuffer(0);
+		responseData = new byte[300];
+		for (int i = 0; i < responseData.length; i++) {
+			responseData[i] = (byte) i;
+		}
+	}
+
+	/**
+	 * Process the given command APDU through the {@link ResponseBuffer}. If
+	 * it is not answered by the layer itself, the given response is returned
+	 * by the layers above.
+	 */
+	private ResponseApdu process(String commandApdu, ResponseApdu response) {
+		ProcessingData processingData = new ProcessingData();
+		processingData.updateCommandApdu(this, "test command APDU",
+				CommandApduFactory.createCommandApdu(HexString.toByteArray(commandApdu)));
+
+		responseBuffer.processAscending(processingData);
+		if (processingData.getUpdatePropagations(BufferedResponsePropagation.class).isEmpty()) {
+			processingData.updateResponseAPDU(this, "test response APDU", response);
+		}
+		responseBuffer.processDescending(processingData);
+
+		return processingData.getResponseApdu();
+	}
+
+	/**
+	 * Positive test: a response exceeding Ne is returned in chunks, the last
+	 * chunk carries the original status word.
+	 */
+	@Test
+	public void testProcess_GetResponse() {
+		ResponseApdu first = process("00B0000010", new ResponseApdu(new TlvValuePlain(responseData), Iso7816.SW_9000_NO_ERROR));
+		assertEquals(16, first.getData().getLength());
+		assertEquals(Iso7816.SW_6100_BYTES_REMAINING, first.getStatusWord());
+
+		ResponseApdu second = process("00C00000FF", null);
+		assertEquals(255, second.getData().getLength());
+		assertEquals((short) 0x611D, second.getStatusWord());
+
+		ResponseApdu third = process("00C000001D", null);
+		assertEquals(Iso7816.SW_9000_NO_ERROR, third.getStatusWord());
+
+		byte[] received = HexString.toByteArray(first.getData().toString() + second.getData() + third.getData());
+		assertArrayEquals(responseData, received);
+	}
+
+	/**
+	 * Positive test: responses not exceeding Ne are not modified.
+	 */
+	@Test
+	public void testProcess_ResponseFitsNe() {
+		ResponseApdu response = new ResponseApdu(new TlvValuePlain(responseData), Iso7816.SW_9000_NO_ERROR);
+
+		assertSame(response, process("00B0000000012C", response));
+	}
+
+	/**
+	 * Negative test: any other command discards the buffered response.
+	 */
+	@Test
+	public void testProcess_OtherCommandDiscardsBuffer() {
+		process("00B0000010", new ResponseApdu(new TlvValuePlain(responseData), Iso7816.SW_9000_NO_ERROR));
+		process("00A4000C023F00", new ResponseApdu(Iso7816.SW_9000_NO_ERROR));
+
+		ResponseApdu response = process("00C0000000", new ResponseApdu(Iso7816.SW_6D00_INS_NOT_SUPPORTED));
+
+		assertEquals(Iso7816.SW_6D00_INS_NOT_SUPPORTED, response.getStatusWord());
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.persosim.simulator.protocols;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.persosim.simulator.protocols.ca.Ca;
+import de.persosim.simulator.protocols.ca.CaOid;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.protocols.pace.PaceOid;
+import de.persosim.simulator.protocols.ri.Ri;
+import de.persosim.simulator.protocols.ri.RiOid;
+import de.persosim.simulator.protocols.ta.TaOid;
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.utils.Utils;
+
+public class OidRegistryTest extends PersoSimTestCase {
+
+	/**
+	 * Positive test: the shared instances of all supported OID types are
+	 * returned for a copy of their byte array representation.
+	 */
+	@Test
+	public void testGetOid() {
+		assertSame(Pace.OID_id_PACE_ECDH_GM_AES_CBC_CMAC_128, OidRegistry.getOid(Pace.id_PACE_ECDH_GM_AES_CBC_CMAC_128.clone(), PaceOid.class));
+		assertSame(Ca.OID_id_CA_ECDH_AES_CBC_CMAC_256, OidRegistry.getOid(Ca.id_CA_ECDH_AES_CBC_CMAC_256.clone(), CaOid.class));
+		assertSame(Ri.OID_id_RI_ECDH_SHA_256, OidRegistry.getOid(Ri.id_RI_ECDH_SHA_256.clone(), RiOid.class));
+		assertSame(TaOid.id_AT, OidRegistry.getOid(TaOid.id_AT.toByteArray().clone(), TaOid.class));
+	}
+
+	/**
+	 * Positive test: an OID embedded in a larger byte array, e.g. a TLV data
+	 * object, is resolved without copying it.
+	 */
+	@Test
+	public void testGetOid_Range() {
+		byte[] oid = Pace.id_PACE_DH_GM_3DES_CBC_CBC;
+		byte[] tlv = Utils.appendBytes(new byte[] { (byte) 0x80, (byte) oid.length }, oid);
+		tlv = Utils.appendBytes(tlv, (byte) 0x84, (byte) 0x01, (byte) 0x0D);
+
+		PaceOid paceOid = OidRegistry.getOid(tlv, 2, oid.length, PaceOid.class);
+
+		assertSame(Pace.OID_id_PACE_DH_GM_3DES_CBC_CBC, paceOid);
+		assertEquals("DH", paceOid.getKeyAgreementName());
+		assertEquals(16, paceOid.getSymmetricCipherKeyLengthInBytes());
+	}
+
+	/**
+	 * Negative test: an unknown OID is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetOid_Unknown() {
+		OidRegistry.getOid(Utils.appendBytes(Pace.id_PACE, (byte) 0x05, (byte) 0x01), PaceOid.class);
+	}
+
+	/**
+	 * Negative test: a known OID of a different type is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetOid_WrongType() {
+		OidRegistry.getOid(Ca.id_CA_DH_3DES_CBC_CBC, PaceOid.class);
+	}
+
+	/**
+	 * Positive test: only supported OIDs are registered.
+	 */
+	@Test
+	public void testIsRegistered() {
+		assertTrue(OidRegistry.isRegistered(TaOid.id_TA_ECDSA_SHA_256.toByteArray()));
+		assertFalse(OidRegistry.isRegistered(Utils.appendBytes(Pace.id_PACE, (byte) 0x05, (byte) 0x01)));
+	}
+
+}
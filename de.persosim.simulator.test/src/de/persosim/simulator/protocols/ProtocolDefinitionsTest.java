@@ -0,0 +1,93 @@
+package de.persosim.simulator.protocols;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.persosim.simulator.apdumatching.ApduSpecification;
+import de.persosim.simulator.protocols.file.DefaultFileProtocol;
+import de.persosim.simulator.protocols.pace.DefaultPaceProtocol;
+import de.persosim.simulator.protocols.ri.RiProtocol;
+import de.persosim.simulator.test.PersoSimTestCase;
+
+public class ProtocolDefinitionsTest extends PersoSimTestCase {
+
+	/**
+	 * Positive test: every definition is replaced by a new instance of the
+	 * same class.
+	 */
+	@Test
+	public void testCreateSessionInstances() {
+		List<Protocol> definitions = Arrays.<Protocol> asList(new DefaultPaceProtocol(), new RiProtocol());
+
+		List<Protocol> instances = ProtocolDefinitions.createSessionInstances(definitions);
+
+		assertEquals(definitions.size(), instances.size());
+		for (int i = 0; i < definitions.size(); i++) {
+			assertNotSame(definitions.get(i), instances.get(i));
+			assertSame(definitions.get(i).getClass(), instances.get(i).getClass());
+		}
+	}
+
+	/**
+	 * Positive test: instances are initialized like their definitions.
+	 */
+	@Test
+	public void testCreateSessionInstance_Initialized() {
+		DefaultPaceProtocol initialized = new DefaultPaceProtocol();
+		initialized.init();
+
+		assertTrue(((DefaultPaceProtocol) ProtocolDefinitions.createSessionInstance(initialized)).isInitialized());
+		assertFalse(((DefaultPaceProtocol) ProtocolDefinitions.createSessionInstance(new DefaultPaceProtocol())).isInitialized());
+	}
+
+	/**
+	 * Positive test: definitions that can not be instantiated are used as
+	 * session instance.
+	 */
+	@Test
+	public void testCreateSessionInstance_AnonymousClass() {
+		Protocol definition = new DefaultFileProtocol() {
+		};
+
+		assertSame(definition, ProtocolDefinitions.createSessionInstance(definition));
+	}
+
+	/**
+	 * Positive test: instances of the same protocol class share their
+	 * {@link ApduSpecification}s.
+	 */
+	@Test
+	public void testRegisterApduSpecification_SharedBetweenInstances() {
+		DefaultFileProtocol first = new DefaultFileProtocol();
+		first.reset();
+		DefaultFileProtocol second = new DefaultFileProtocol();
+		second.reset();
+
+		Collection<ApduSpecification> firstApdus = first.getApduSet();
+		Collection<ApduSpecification> secondApdus = second.getApduSet();
+		assertFalse(firstApdus.isEmpty());
+		assertEquals(firstApdus.size(), secondApdus.size());
+		for (ApduSpecification curSpecification : firstApdus) {
+			assertSame(curSpecification, getById(secondApdus, curSpecification.getId()));
+		}
+	}
+
+	private static ApduSpecification getById(Collection<ApduSpecification> specifications, String id) {
+		for (ApduSpecification curSpecification : specifications) {
+			if (curSpecification.getId().equals(id)) {
+				return curSpecification;
+			}
+		}
+		return null;
+	}
+
+}
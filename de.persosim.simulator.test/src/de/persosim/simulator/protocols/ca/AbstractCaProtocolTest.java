@@ -13,11 +13,11 @@ import java.util.Collection;
 import javax.crypto.spec.SecretKeySpec;
 
 import mockit.Deencapsulation;
-import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -32,8 +32,8 @@ import de.persosim.simulator.cardobjects.NullCardObject;
 import de.persosim.simulator.cardobjects.OidIdentifier;
 import de.persosim.simulator.cardobjects.PasswordAuthObject;
 import de.persosim.simulator.cardobjects.Scope;
-import de.persosim.simulator.crypto.CryptoUtil;
 import de.persosim.simulator.crypto.DomainParameterSetEcdh;
+import de.persosim.simulator.crypto.RandomSource;
 import de.persosim.simulator.crypto.StandardizedDomainParameters;
 import de.persosim.simulator.platform.CardStateAccessor;
 import de.persosim.simulator.platform.Iso7816;
@@ -59,8 +59,6 @@ public class AbstractCaProtocolTest extends PersoSimTestCase {
 	@Mocked
 	SecStatus mockedSecurityStatus;
 	@Mocked
-	SecureRandom secRandom;
-	@Mocked
 	MasterFile mockedMf;
 	PasswordAuthObject passwordAuthObject;
 	ConstructedTlvDataObject cvcaIsTlv;
@@ -123,6 +121,11 @@ public class AbstractCaProtocolTest extends PersoSimTestCase {
 		taMechanismCollection.add(taMechanism);
 	}
 	
+	@After
+	public void tearDown() {
+		RandomSource.useNonBlocking();
+	}
+	
 	/**
 	 * Positive test case: perform Set AT command with data from valid CA test run, explicit key reference (Tag 84 is present).
 	 */
@@ -268,21 +271,15 @@ public class AbstractCaProtocolTest extends PersoSimTestCase {
 	@SuppressWarnings("unchecked")  //jmockit
 	@Test
 	public void testGeneralAuthenticateEcdh(){
-		new NonStrictExpectations(CryptoUtil.class) {
-            {
-            	secRandom.nextBytes(
-            			withInstanceOf(byte[].class));
-            	
-            	// eliminate true randomness by providing fixed "random" values
-                result = new Delegate<Object>() {
-                    @SuppressWarnings("unused") // JMockit
-					void nextBytes(byte[] bytes) {
-                        System.arraycopy(ecdhRPiccNonce, 0, bytes, 0, ecdhRPiccNonce.length);
-                        return;
-                     }
-                };
-            }
-        };
+		// eliminate true randomness by providing fixed "random" values
+		RandomSource.useSecureRandom(new SecureRandom() {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void nextBytes(byte[] bytes) {
+				System.arraycopy(ecdhRPiccNonce, 0, bytes, 0, ecdhRPiccNonce.length);
+			}
+		});
         
         new NonStrictExpectations() {
 			{
@@ -277,6 +277,47 @@ public class AbstractFileProtocolTest extends PersoSimTestCase {
 				.getStatusWord() == Iso7816.SW_9000_NO_ERROR);
 	}
 
+	/**
+	 * Read a file larger than 256 bytes using a single extended length APDU
+	 * with Le=0000 (NE=65536) and check that the whole content is returned.
+	 * 
+	 * @throws FileNotFoundException
+	 */
+	@Test
+	public void testReadBinaryExtendedLength() throws FileNotFoundException {
+		final byte[] largeContent = new byte[4000];
+		Arrays.fill(largeContent, (byte) 0xA5);
+		LinkedList<SecCondition> unprotected = new LinkedList<>();
+		unprotected.add(new NullSecurityCondition());
+		final ElementaryFile largeFile = new ElementaryFile(new FileIdentifier(0x011B), new ShortFileIdentifier(2), largeContent, unprotected, unprotected, unprotected);
+		largeFile.setSecStatus(new SecStatus());
+		
+		// prepare the mock
+		new Expectations() {
+			{
+				mockedCardStateAccessor
+						.getCurrentFile();
+				result = largeFile;
+				mockedCardStateAccessor.selectFile();
+			}
+		};
+
+		// read binary APDU
+		ProcessingData processingData = new ProcessingData();
+		byte[] apduBytes = new byte[] { 0x00, (byte) 0xB0, 0x00, 0x00, 0x00, 0x00, 0x00 };
+		processingData.updateCommandApdu(this, "read binary APDU",
+				CommandApduFactory.createCommandApdu(apduBytes));
+
+		// call mut
+		fileProtocol.process(processingData);
+
+		// check results
+		assertEquals("Incorrect status word", Iso7816.SW_9000_NO_ERROR,
+				processingData.getResponseApdu().getStatusWord());
+		assertArrayEquals("file content not as expected", largeContent,
+				processingData.getResponseApdu().getData().toByteArray());
+	}
+
 	/**
 	 * Try to read 0 bytes of a file and check for the correct status word.
 	 * 
@@ -0,0 +1,65 @@
+package de.persosim.simulator.recording;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.persosim.simulator.utils.HexString;
+
+public class ApduTraceTest {
+
+	/**
+	 * Positive test case: plain and secured exchanges survive a write/read
+	 * round trip.
+	 */
+	@Test
+	public void testWriteRead() throws Exception {
+		ApduExchange plain = new ApduExchange(HexString.toByteArray("00A4020C02011C"), HexString.toByteArray("9000"), null, null);
+		ApduExchange secured = new ApduExchange(HexString.toByteArray("0CB0000003970100"), HexString.toByteArray("99029000"),
+				HexString.toByteArray("00B0000000"), HexString.toByteArray("0102039000"));
+
+		StringWriter stringWriter = new StringWriter();
+		PrintWriter out = new PrintWriter(stringWriter);
+		ApduTrace.write(out, plain);
+		ApduTrace.write(out, secured);
+		out.flush();
+
+		List<ApduExchange> exchanges = ApduTrace.read(new StringReader(stringWriter.toString()));
+
+		assertEquals(2, exchanges.size());
+		assertFalse(exchanges.get(0).isSecured());
+		assertArrayEquals(plain.getCommand(), exchanges.get(0).getApplicationCommand());
+		assertTrue(exchanges.get(1).isSecured());
+		assertArrayEquals(secured.getCommand(), exchanges.get(1).getCommand());
+		assertArrayEquals(secured.getApplicationCommand(), exchanges.get(1).getApplicationCommand());
+		assertArrayEquals(secured.getApplicationResponse(), exchanges.get(1).getApplicationResponse());
+	}
+
+	/**
+	 * Positive test case: comments and empty lines are ignored.
+	 */
+	@Test
+	public void testReadComments() throws Exception {
+		List<ApduExchange> exchanges = ApduTrace.read(new StringReader("# comment\n\nCMD 00B0000004\nRSP 6982\n"));
+
+		assertEquals(1, exchanges.size());
+		assertArrayEquals(HexString.toByteArray("6982"), exchanges.get(0).getResponse());
+	}
+
+	/**
+	 * Negative test case: a command without response is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReadMissingResponse() throws Exception {
+		ApduTrace.read(new StringReader("CMD 00B0000004\nCMD 00B0000004\nRSP 9000\n"));
+	}
+
+}
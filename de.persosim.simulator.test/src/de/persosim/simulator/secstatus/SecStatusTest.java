@@ -1,20 +1,97 @@
 package de.persosim.simulator.secstatus;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
 import mockit.Mocked;
 
 import org.junit.Before;
+import org.junit.Test;
 
+import de.persosim.simulator.processing.ProcessingData;
+import de.persosim.simulator.secstatus.SecStatus.SecContext;
 import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.utils.InfoSource;
 
 public class SecStatusTest extends PersoSimTestCase{
-	
+
 	SecStatus securityStatus;
 	@Mocked SecMechanism mechanism;
-	
+	@Mocked InfoSource source;
+
 	@Before
 	public void setUp(){
 		securityStatus = new SecStatus();
 	}
-	
-	//TODO define tests for SecStatus
+
+	/**
+	 * Positive test: a condition needing a mechanism is fulfilled as long as
+	 * the mechanism is present in the checked context.
+	 */
+	@Test
+	public void testCheckAccessConditions() {
+		Collection<SecCondition> conditions = Collections.<SecCondition> singleton(new PaceSecurityCondition());
+		assertFalse(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+
+		addMechanism(SecContext.APPLICATION, new PaceMechanism(null, null, null));
+
+		assertTrue(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+		assertFalse(securityStatus.checkAccessConditions(SecContext.GLOBAL, conditions));
+	}
+
+	/**
+	 * Positive test: conditions without needed mechanisms are checked as well.
+	 */
+	@Test
+	public void testCheckAccessConditions_Alternatives() {
+		Collection<SecCondition> conditions = Arrays.<SecCondition> asList(new PaceSecurityCondition(), new NullSecurityCondition());
+		assertTrue(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+		assertFalse(securityStatus.checkAccessConditions(SecContext.APPLICATION, Collections.<SecCondition> emptySet()));
+	}
+
+	/**
+	 * Positive test: mechanisms removed by an event no longer fulfill a
+	 * condition.
+	 */
+	@Test
+	public void testCheckAccessConditions_AfterEvent() {
+		Collection<SecCondition> conditions = Collections.<SecCondition> singleton(new PaceSecurityCondition());
+		addMechanism(SecContext.APPLICATION, new PaceMechanism(null, null, null));
+		assertTrue(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+
+		ProcessingData processingData = new ProcessingData();
+		processingData.addUpdatePropagation(source, "end session", new SecStatusEventUpdatePropagation(SecurityEvent.SECURE_MESSAGING_SESSION_ENDED));
+		securityStatus.updateSecStatus(processingData);
+
+		assertFalse(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+		assertTrue(securityStatus.getCurrentMechanisms(SecContext.APPLICATION, new PaceSecurityCondition().getNeededMechanisms()).isEmpty());
+	}
+
+	/**
+	 * Positive test: a copy is not affected by changes of the original and
+	 * restores all mechanisms.
+	 */
+	@Test
+	public void testRestore() {
+		Collection<SecCondition> conditions = Collections.<SecCondition> singleton(new PaceSecurityCondition());
+		addMechanism(SecContext.APPLICATION, new PaceMechanism(null, null, null));
+		SecStatus copy = new SecStatus(securityStatus);
+
+		securityStatus.reset();
+		assertFalse(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+		assertTrue(copy.checkAccessConditions(SecContext.APPLICATION, conditions));
+
+		securityStatus.restore(copy);
+		assertTrue(securityStatus.checkAccessConditions(SecContext.APPLICATION, conditions));
+	}
+
+	private void addMechanism(SecContext context, SecMechanism mechanism) {
+		ProcessingData processingData = new ProcessingData();
+		processingData.addUpdatePropagation(source, "add mechanism", new SecStatusMechanismUpdatePropagation(context, mechanism));
+		securityStatus.updateSecStatus(processingData);
+	}
 }
@@ -2,6 +2,7 @@ package de.persosim.simulator.securemessaging;
 
 import static mockit.Deencapsulation.setField;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
@@ -158,6 +159,46 @@ public class SecureMessagingTest extends PersoSimTestCase {
 						commandApdu.toByteArray());
 	}
 	
+	/**
+	 * Positive test: an extended length SM APDU with extended Le in DO'97 is
+	 * unwrapped to an extended length plain APDU with Ne = 65536.
+	 */
+	@Test
+	public void extractPlainTextAPDU_isoCase2ExtendedLe() {
+		SecureMessaging secureMessaging = new SecureMessaging(0);
+		ProcessingData pData = new ProcessingData();
+		pData.updateCommandApdu(this, "test command APDU", CommandApduFactory.createCommandApdu(
+				HexString.toByteArray("0CB0000000000E970200008E0801020304050607080000")));
+		setField(secureMessaging, "processingData", pData);
+
+		// call mut
+		CommandApdu commandApdu = secureMessaging.extractPlainTextAPDU();
+
+		assertArrayEquals("unwrapped APDU incorrect", HexString.toByteArray("00B00000000000"),
+				commandApdu.toByteArray());
+		assertEquals(65536, commandApdu.getNe());
+	}
+	
+	/**
+	 * Positive test: a short Le in DO'97 of an extended length SM APDU is
+	 * encoded as extended Le in the plain APDU.
+	 */
+	@Test
+	public void extractPlainTextAPDU_isoCase2ShortLeInExtendedApdu() {
+		SecureMessaging secureMessaging = new SecureMessaging(0);
+		ProcessingData pData = new ProcessingData();
+		pData.updateCommandApdu(this, "test command APDU", CommandApduFactory.createCommandApdu(
+				HexString.toByteArray("0CB0000000000D9701008E0801020304050607080000")));
+		setField(secureMessaging, "processingData", pData);
+
+		// call mut
+		CommandApdu commandApdu = secureMessaging.extractPlainTextAPDU();
+
+		assertArrayEquals("unwrapped APDU incorrect", HexString.toByteArray("00B00000000100"),
+				commandApdu.toByteArray());
+		assertEquals(256, commandApdu.getNe());
+	}
+	
 	/**
 	 * Check the correct update of SM data provider otherwise similar to
 	 * {@link #processAscending_isoCase3()}
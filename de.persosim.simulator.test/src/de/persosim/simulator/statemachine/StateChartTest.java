@@ -0,0 +1,143 @@
+package de.persosim.simulator.statemachine;
+
+import static de.persosim.simulator.statemachine.StateChart.ALWAYS;
+import static de.persosim.simulator.statemachine.StateChart.NONE;
+import static de.persosim.simulator.statemachine.StateChart.TOP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StateChartTest {
+
+	private static final int IDLE = 0;
+	private static final int ACTIVE = 1;
+	private static final int ACTIVE_FIRST = 2;
+	private static final int ACTIVE_SECOND = 3;
+	private static final int FAILED = 4;
+
+	private static final int GUARD_START = 0;
+	private static final int GUARD_NEXT = 1;
+	private static final int GUARD_ABORT = 2;
+
+	private static final int ACTION_ENTER_SECOND = 0;
+	private static final int ACTION_ABORT = 1;
+	private static final int ACTION_IDLE = 2;
+
+	private StateChart chart;
+	private int[] activeStates;
+	private boolean[] guards;
+	private List<String> trace;
+
+	private StateChartHandler handler = new StateChartHandler() {
+		@Override
+		public boolean evaluateGuard(int guard) {
+			return guards[guard];
+		}
+
+		@Override
+		public void performAction(int action) {
+			trace.add("action " + action);
+		}
+
+		@Override
+		public void logs(String state) {
+			trace.add(state);
+		}
+	};
+
+	@Before
+	public void setUp() {
+		chart = new StateChart(5, IDLE);
+		chart.addState(IDLE, TOP, "IDLE", NONE);
+		chart.addCompositeState(ACTIVE, TOP, ACTIVE_FIRST, true, "ACTIVE", NONE);
+		chart.addState(ACTIVE_FIRST, ACTIVE, "FIRST", NONE);
+		chart.addState(ACTIVE_SECOND, ACTIVE, "SECOND", ACTION_ENTER_SECOND);
+		chart.addState(FAILED, TOP, "FAILED", NONE);
+		chart.addDoAction(IDLE, ACTION_IDLE);
+
+		chart.addTransition(IDLE, GUARD_START, NONE, ACTIVE);
+		chart.addTransition(ACTIVE_FIRST, GUARD_NEXT, NONE, ACTIVE_SECOND);
+		chart.addTransition(ACTIVE, GUARD_ABORT, ACTION_ABORT, FAILED);
+		chart.addTransition(FAILED, ALWAYS, NONE, ACTIVE);
+
+		activeStates = chart.createActiveStates();
+		chart.initialize(activeStates);
+		guards = new boolean[3];
+		trace = new ArrayList<>();
+	}
+
+	/**
+	 * Positive test: entering a composite state performs the entry actions of
+	 * the state and its initial child, outermost first.
+	 */
+	@Test
+	public void testProcessStep_EnterComposite() {
+		guards[GUARD_START] = true;
+
+		assertTrue(chart.processStep(activeStates, handler));
+
+		assertEquals(Arrays.asList("action " + ACTION_IDLE, "ACTIVE", "FIRST"), trace);
+		assertEquals(ACTIVE_FIRST, chart.getInnermostActiveState(activeStates));
+		assertTrue(chart.isActive(activeStates, ACTIVE));
+		assertFalse(chart.isActive(activeStates, IDLE));
+	}
+
+	/**
+	 * Positive test: transitions of the enclosing state are taken if no
+	 * transition of the inner state is enabled, the last active child is
+	 * reentered due to history.
+	 */
+	@Test
+	public void testProcessStep_History() {
+		guards[GUARD_START] = true;
+		guards[GUARD_NEXT] = true;
+		chart.processStep(activeStates, handler);
+		chart.processStep(activeStates, handler);
+		guards[GUARD_NEXT] = false;
+		guards[GUARD_ABORT] = true;
+		trace.clear();
+
+		chart.processStep(activeStates, handler);
+		assertEquals(FAILED, chart.getInnermostActiveState(activeStates));
+		chart.processStep(activeStates, handler);
+
+		assertEquals(Arrays.asList("action " + ACTION_ABORT, "FAILED", "ACTIVE", "SECOND", "action " + ACTION_ENTER_SECOND), trace);
+		assertEquals(ACTIVE_SECOND, chart.getInnermostActiveState(activeStates));
+	}
+
+	/**
+	 * Negative test: no transition is taken if no guard is fulfilled, do
+	 * actions are performed anyway.
+	 */
+	@Test
+	public void testProcessStep_NoTransitionEnabled() {
+		assertFalse(chart.processStep(activeStates, handler));
+
+		assertEquals(Arrays.asList("action " + ACTION_IDLE), trace);
+		assertEquals(IDLE, chart.getInnermostActiveState(activeStates));
+	}
+
+	/**
+	 * Positive test: initialization clears the history.
+	 */
+	@Test
+	public void testInitialize() {
+		guards[GUARD_START] = true;
+		guards[GUARD_NEXT] = true;
+		chart.processStep(activeStates, handler);
+		chart.processStep(activeStates, handler);
+
+		chart.initialize(activeStates);
+		chart.processStep(activeStates, handler);
+
+		assertEquals(ACTIVE_FIRST, chart.getInnermostActiveState(activeStates));
+	}
+
+}
@@ -0,0 +1,27 @@
+package de.persosim.simulator.test.benchmark;
+
+import de.persosim.simulator.test.terminal.KernelApduChannel;
+
+/**
+ * A scripted terminal interaction that is executed repeatedly by
+ * {@link FlowBenchmark}. One execution of {@link #run(KernelApduChannel)}
+ * counts as one operation.
+ */
+public interface BenchmarkFlow {
+
+	/**
+	 * @return a short name identifying this flow in benchmark reports
+	 */
+	public abstract String getName();
+
+	/**
+	 * Execute the flow once.
+	 *
+	 * @param channel
+	 *            the channel to the simulated card
+	 * @throws Exception
+	 *             if the card does not respond as expected
+	 */
+	public abstract void run(KernelApduChannel channel) throws Exception;
+
+}
@@ -0,0 +1,63 @@
+package de.persosim.simulator.test.benchmark;
+
+import de.persosim.simulator.monitoring.LatencyHistogram;
+
+/**
+ * Result of measuring a single {@link BenchmarkFlow}.
+ */
+public class BenchmarkResult {
+
+	public static final long NOT_MEASURED = -1;
+
+	private LatencyHistogram latencies;
+	private long elapsedNanos;
+	private long allocatedBytes;
+
+	public BenchmarkResult(LatencyHistogram latencies, long elapsedNanos, long allocatedBytes) {
+		this.latencies = latencies;
+		this.elapsedNanos = elapsedNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public String getName() {
+		return latencies.getName();
+	}
+
+	public long getOperations() {
+		return latencies.getCount();
+	}
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	public double getOperationsPerSecond() {
+		if (elapsedNanos <= 0) {
+			return 0;
+		}
+		return getOperations() * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * @return the average number of bytes allocated per operation or
+	 *         {@link #NOT_MEASURED} if the JVM does not support allocation
+	 *         accounting
+	 */
+	public long getAllocatedBytesPerOperation() {
+		if ((allocatedBytes == NOT_MEASURED) || (getOperations() == 0)) {
+			return NOT_MEASURED;
+		}
+		return allocatedBytes / getOperations();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-20s %8d ops %10.1f ops/s  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms  %10d B/op",
+				getName(), getOperations(), getOperationsPerSecond(),
+				latencies.getValueAtPercentile(50) / 1e6,
+				latencies.getValueAtPercentile(99) / 1e6,
+				latencies.getMax() / 1e6,
+				getAllocatedBytesPerOperation());
+	}
+
+}
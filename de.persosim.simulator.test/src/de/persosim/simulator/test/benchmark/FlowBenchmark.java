@@ -0,0 +1,132 @@
+package de.persosim.simulator.test.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import de.persosim.simulator.monitoring.LatencyHistogram;
+import de.persosim.simulator.monitoring.PerformanceMonitor;
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.test.terminal.KernelApduChannel;
+
+/**
+ * Throughput benchmark driving {@link BenchmarkFlow}s against an in-process
+ * {@link de.persosim.simulator.platform.PersoSimKernel}.
+ *
+ * For each flow a fresh kernel is created, the flow is executed for a number
+ * of warmup iterations and then measured. Reported are operations per second,
+ * latency percentiles and the number of bytes allocated per operation (where
+ * supported by the JVM).
+ *
+ * Usage: FlowBenchmark [iterations [warmupIterations [flowName...]]]
+ *
+ * For reproducible runs set the system property
+ * {@value de.persosim.simulator.crypto.RandomSource#PROPERTY_SEED} in order to
+ * draw all nonces and ephemeral keys from seeded generators.
+ */
+public class FlowBenchmark {
+
+	public static final int DEFAULT_ITERATIONS = 200;
+	public static final int DEFAULT_WARMUP_ITERATIONS = 50;
+
+	private FlowBenchmark() {
+	}
+
+	/**
+	 * Measure a single flow.
+	 *
+	 * @param flow
+	 *            the flow to be measured
+	 * @param perso
+	 *            the personalization of the simulated card
+	 * @param warmupIterations
+	 *            number of unmeasured executions
+	 * @param iterations
+	 *            number of measured executions
+	 * @return the measurement result
+	 * @throws Exception
+	 *             if the flow fails
+	 */
+	public static BenchmarkResult run(BenchmarkFlow flow, Personalization perso, int warmupIterations, int iterations) throws Exception {
+		KernelApduChannel channel = new KernelApduChannel(perso);
+
+		for (int i = 0; i < warmupIterations; i++) {
+			flow.run(channel);
+		}
+
+		ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+		boolean allocationSupported = isAllocationAccountingSupported(threadMxBean);
+		long threadId = Thread.currentThread().getId();
+
+		LatencyHistogram latencies = new LatencyHistogram(flow.getName());
+		long allocatedBefore = allocationSupported ? getAllocatedBytes(threadMxBean, threadId) : 0;
+		long startOfRun = System.nanoTime();
+
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			flow.run(channel);
+			latencies.record(System.nanoTime() - start);
+		}
+
+		long elapsed = System.nanoTime() - startOfRun;
+		long allocated = allocationSupported ? getAllocatedBytes(threadMxBean, threadId) - allocatedBefore : BenchmarkResult.NOT_MEASURED;
+
+		return new BenchmarkResult(latencies, elapsed, allocated);
+	}
+
+	static boolean isAllocationAccountingSupported(ThreadMXBean threadMxBean) {
+		if (!(threadMxBean instanceof com.sun.management.ThreadMXBean)) {
+			return false;
+		}
+		com.sun.management.ThreadMXBean sunThreadMxBean = (com.sun.management.ThreadMXBean) threadMxBean;
+		if (!sunThreadMxBean.isThreadAllocatedMemorySupported()) {
+			return false;
+		}
+		sunThreadMxBean.setThreadAllocatedMemoryEnabled(true);
+		return sunThreadMxBean.isThreadAllocatedMemoryEnabled();
+	}
+
+	static long getAllocatedBytes(ThreadMXBean threadMxBean, long threadId) {
+		return ((com.sun.management.ThreadMXBean) threadMxBean).getThreadAllocatedBytes(threadId);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+		int warmupIterations = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_WARMUP_ITERATIONS;
+
+		if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+			Security.addProvider(new BouncyCastleProvider());
+		}
+
+		Map<String, BenchmarkFlow> allFlows = ProtocolFlows.getAllFlows();
+		List<String> selectedFlows = new ArrayList<>(allFlows.keySet());
+		if (args.length > 2) {
+			selectedFlows = Arrays.asList(Arrays.copyOfRange(args, 2, args.length));
+		}
+
+		Personalization perso = new DefaultPersoTestPki();
+
+		for (String flowName : selectedFlows) {
+			BenchmarkFlow flow = allFlows.get(flowName);
+			if (flow == null) {
+				System.out.println("unknown flow " + flowName + ", available flows are " + allFlows.keySet());
+				continue;
+			}
+
+			System.out.println(run(flow, perso, warmupIterations, iterations));
+		}
+
+		if (PerformanceMonitor.isEnabled()) {
+			System.out.println();
+			System.out.println(PerformanceMonitor.toText());
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package de.persosim.simulator.test.benchmark;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.security.Security;
+import java.util.Arrays;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import de.persosim.simulator.PersoSim;
+import de.persosim.simulator.monitoring.LatencyHistogram;
+
+/**
+ * Benchmark for loading personalizations from XML files, as done by
+ * {@link PersoSim#parsePersonalization(String)}.
+ *
+ * Every profile is loaded for a number of warmup iterations and then
+ * measured. Reported are loads per second, latency percentiles, the number
+ * of bytes allocated per load (where supported by the JVM) and the peak heap
+ * usage while loading.
+ *
+ * Usage: PersoLoadingBenchmark [iterations [warmupIterations [profileDirectory]]]
+ */
+public class PersoLoadingBenchmark {
+
+	public static final int DEFAULT_ITERATIONS = 20;
+	public static final int DEFAULT_WARMUP_ITERATIONS = 5;
+
+	private PersoLoadingBenchmark() {
+	}
+
+	/**
+	 * Measure loading of a single profile.
+	 *
+	 * @param profile
+	 *            the file containing the personalization
+	 * @param warmupIterations
+	 *            number of unmeasured loads
+	 * @param iterations
+	 *            number of measured loads
+	 * @return the measurement result
+	 * @throws Exception
+	 *             if the profile can not be loaded
+	 */
+	public static BenchmarkResult run(File profile, int warmupIterations, int iterations) throws Exception {
+		for (int i = 0; i < warmupIterations; i++) {
+			PersoSim.parsePersonalization(profile.getPath());
+		}
+
+		ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+		boolean allocationSupported = FlowBenchmark.isAllocationAccountingSupported(threadMxBean);
+		long threadId = Thread.currentThread().getId();
+
+		LatencyHistogram latencies = new LatencyHistogram(profile.getName());
+		long allocatedBefore = allocationSupported ? FlowBenchmark.getAllocatedBytes(threadMxBean, threadId) : 0;
+		long startOfRun = System.nanoTime();
+
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			PersoSim.parsePersonalization(profile.getPath());
+			latencies.record(System.nanoTime() - start);
+		}
+
+		long elapsed = System.nanoTime() - startOfRun;
+		long allocated = allocationSupported ? FlowBenchmark.getAllocatedBytes(threadMxBean, threadId) - allocatedBefore : BenchmarkResult.NOT_MEASURED;
+
+		return new BenchmarkResult(latencies, elapsed, allocated);
+	}
+
+	private static void resetPeakHeapUsage() {
+		for (MemoryPoolMXBean curPool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (curPool.getType() == MemoryType.HEAP) {
+				curPool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long getPeakHeapUsage() {
+		long peak = 0;
+		for (MemoryPoolMXBean curPool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (curPool.getType() == MemoryType.HEAP) {
+				peak += curPool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+		int warmupIterations = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_WARMUP_ITERATIONS;
+		File profileDirectory = new File((args.length > 2) ? args[2] : PersoSim.persoPath);
+
+		if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+			Security.addProvider(new BouncyCastleProvider());
+		}
+
+		File[] profiles = profileDirectory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(PersoSim.persoFilePostfix);
+			}
+		});
+		if (profiles == null) {
+			System.out.println("no profiles found in " + profileDirectory.getAbsolutePath());
+			return;
+		}
+		Arrays.sort(profiles);
+
+		for (File curProfile : profiles) {
+			System.gc();
+			resetPeakHeapUsage();
+			BenchmarkResult result = run(curProfile, warmupIterations, iterations);
+			System.out.println(result + String.format("  peak heap %8d kB", getPeakHeapUsage() / 1024));
+		}
+	}
+
+}
@@ -0,0 +1,186 @@
+package de.persosim.simulator.test.benchmark;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.persosim.simulator.cardobjects.AuthObjectIdentifier;
+import de.persosim.simulator.cardobjects.MrzAuthObject;
+import de.persosim.simulator.platform.Iso7816;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.test.terminal.ApduChannel;
+import de.persosim.simulator.test.terminal.KernelApduChannel;
+import de.persosim.simulator.test.terminal.PaceTerminal;
+import de.persosim.simulator.test.terminal.SmSession;
+import de.persosim.simulator.test.terminal.TerminalUtils;
+
+/**
+ * Collection of {@link BenchmarkFlow}s covering the typical terminal
+ * interactions with the default personalization.
+ *
+ * Flows requiring terminal authentication (TA, CA and RI) are not covered as
+ * the test bundle does not provide terminal key material. For the same reason
+ * secured reads are limited to files accessible after PACE only.
+ */
+public class ProtocolFlows {
+
+	public static final String DEFAULT_MRZ = "P<D<<C11T002JM4<<<<<<<<<<<<<<<9608122F2310314D<<<<<<<<<<<<<4MUSTERMANN<<ERIKA<<<<<<<<<<<<<";
+	public static final String DEFAULT_CAN = "500540";
+	public static final String DEFAULT_PIN = "123456";
+	public static final String DEFAULT_PUK = "9876543210";
+
+	public static final short FID_EF_CARD_ACCESS = 0x011C;
+
+	/**
+	 * Maximum number of bytes requested by a single READ BINARY, chosen such
+	 * that the SM protected response still fits into a short APDU
+	 */
+	public static final int READ_BINARY_CHUNK_SIZE = 0xDF;
+
+	private ProtocolFlows() {
+	}
+
+	/**
+	 * @return all available flows mapped by their name
+	 */
+	public static Map<String, BenchmarkFlow> getAllFlows() {
+		Map<String, BenchmarkFlow> flows = new LinkedHashMap<>();
+		try {
+			addFlow(flows, readFile("cardAccess", FID_EF_CARD_ACCESS));
+			addFlow(flows, pace("pacePin", Pace.PWD_PIN, DEFAULT_PIN.getBytes("UTF-8")));
+			addFlow(flows, pace("paceCan", Pace.PWD_CAN, DEFAULT_CAN.getBytes("UTF-8")));
+			addFlow(flows, pace("paceMrz", Pace.PWD_MRZ, getMrzPassword(DEFAULT_MRZ)));
+			addFlow(flows, paceSecuredRead("paceSecuredRead", Pace.PWD_PIN, DEFAULT_PIN.getBytes("UTF-8"), FID_EF_CARD_ACCESS));
+		} catch (GeneralSecurityException | IOException e) {
+			throw new IllegalStateException("unable to construct benchmark flows", e);
+		}
+		return flows;
+	}
+
+	private static void addFlow(Map<String, BenchmarkFlow> flows, BenchmarkFlow flow) {
+		flows.put(flow.getName(), flow);
+	}
+
+	/**
+	 * Compute the PACE password derived from the given MRZ as done by the
+	 * card.
+	 *
+	 * @param mrz
+	 *            the machine readable zone
+	 * @return the PACE password
+	 * @throws GeneralSecurityException
+	 */
+	public static byte[] getMrzPassword(String mrz) throws GeneralSecurityException {
+		try {
+			return new MrzAuthObject(new AuthObjectIdentifier(Pace.PWD_MRZ), mrz).getPassword();
+		} catch (IOException e) {
+			throw new GeneralSecurityException(e);
+		}
+	}
+
+	/**
+	 * Flow selecting an elementary file by its file identifier and reading it
+	 * completely without secure messaging.
+	 */
+	public static BenchmarkFlow readFile(final String name, final short fid) {
+		return new BenchmarkFlow() {
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public void run(KernelApduChannel channel) {
+				readFile(channel, null, fid);
+			}
+		};
+	}
+
+	/**
+	 * Flow performing a complete PACE run.
+	 */
+	public static BenchmarkFlow pace(final String name, final byte passwordReference, final byte[] password) {
+		return new BenchmarkFlow() {
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public void run(KernelApduChannel channel) throws Exception {
+				new PaceTerminal(channel).performPace(passwordReference, password);
+			}
+		};
+	}
+
+	/**
+	 * Flow performing a complete PACE run followed by reading the given file
+	 * using secure messaging.
+	 */
+	public static BenchmarkFlow paceSecuredRead(final String name, final byte passwordReference, final byte[] password, final short fid) {
+		return new BenchmarkFlow() {
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public void run(KernelApduChannel channel) throws Exception {
+				SmSession session = new PaceTerminal(channel).performPace(passwordReference, password);
+				readFile(channel, session, fid);
+			}
+		};
+	}
+
+	/**
+	 * Select the given file and read its complete content.
+	 *
+	 * @param channel
+	 *            the channel to the card
+	 * @param session
+	 *            the secure messaging session to be used, may be null
+	 * @param fid
+	 *            the file identifier
+	 * @return the content of the file
+	 */
+	public static byte[] readFile(ApduChannel channel, SmSession session, short fid) {
+		byte[] select = TerminalUtils.buildApdu(0x00, 0xA4, 0x02, 0x0C, new byte[]{(byte) (fid >> 8), (byte) fid}, -1);
+		TerminalUtils.checkStatusWord(transmit(channel, session, select), Iso7816.SW_9000_NO_ERROR, "SELECT");
+
+		byte[] content = new byte[0];
+		while (true) {
+			byte[] readBinary = TerminalUtils.buildApdu(0x00, 0xB0, content.length >> 8, content.length, null, READ_BINARY_CHUNK_SIZE);
+			byte[] response = transmit(channel, session, readBinary);
+			short sw = TerminalUtils.getStatusWord(response);
+			byte[] data = TerminalUtils.getData(response);
+
+			if ((sw != Iso7816.SW_9000_NO_ERROR) && (sw != Iso7816.SW_6282_END_OF_FILE_REACHED_BEFORE_READING_NE_BYTES)) {
+				if ((content.length > 0) && (data.length == 0)) {
+					/* previous chunk ended exactly at the end of the file */
+					return content;
+				}
+				TerminalUtils.checkStatusWord(response, Iso7816.SW_9000_NO_ERROR, "READ BINARY");
+			}
+
+			content = Arrays.copyOf(content, content.length + data.length);
+			System.arraycopy(data, 0, content, content.length - data.length, data.length);
+
+			if ((sw == Iso7816.SW_6282_END_OF_FILE_REACHED_BEFORE_READING_NE_BYTES) || (data.length < READ_BINARY_CHUNK_SIZE)) {
+				return content;
+			}
+		}
+	}
+
+	private static byte[] transmit(ApduChannel channel, SmSession session, byte[] plainApdu) {
+		if (session == null) {
+			return channel.transmit(plainApdu);
+		}
+		return session.unwrap(channel.transmit(session.wrap(plainApdu)));
+	}
+
+}
@@ -0,0 +1,67 @@
+package de.persosim.simulator.test.benchmark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.test.terminal.KernelApduChannel;
+import de.persosim.simulator.test.terminal.PaceTerminal;
+import de.persosim.simulator.test.terminal.SmSession;
+
+public class ProtocolFlowsTest extends PersoSimTestCase {
+
+	private DefaultPersoTestPki perso;
+
+	@Before
+	public void setUp() {
+		perso = new DefaultPersoTestPki();
+	}
+
+	/**
+	 * Positive test case: every flow completes successfully on the default
+	 * personalization.
+	 */
+	@Test
+	public void testAllFlows() throws Exception {
+		KernelApduChannel channel = new KernelApduChannel(perso);
+
+		for (BenchmarkFlow flow : ProtocolFlows.getAllFlows().values()) {
+			flow.run(channel);
+		}
+	}
+
+	/**
+	 * Positive test case: EF.CardAccess read via secure messaging matches the
+	 * content read without secure messaging.
+	 */
+	@Test
+	public void testReadFileSecured() throws Exception {
+		KernelApduChannel channel = new KernelApduChannel(perso);
+		SmSession session = new PaceTerminal(channel).performPace(Pace.PWD_CAN, ProtocolFlows.DEFAULT_CAN.getBytes("UTF-8"));
+
+		byte[] plainCardAccess = ProtocolFlows.readFile(new KernelApduChannel(perso), null, ProtocolFlows.FID_EF_CARD_ACCESS);
+		byte[] securedCardAccess = ProtocolFlows.readFile(channel, session, ProtocolFlows.FID_EF_CARD_ACCESS);
+
+		assertTrue(plainCardAccess.length > 0);
+		assertArrayEquals(plainCardAccess, securedCardAccess);
+	}
+
+	/**
+	 * Positive test case: the benchmark reports one latency sample per
+	 * measured iteration.
+	 */
+	@Test
+	public void testRun() throws Exception {
+		BenchmarkResult result = FlowBenchmark.run(ProtocolFlows.getAllFlows().get("cardAccess"), perso, 1, 5);
+
+		assertEquals(5, result.getOperations());
+		assertTrue(result.getOperationsPerSecond() > 0);
+	}
+
+}
@@ -0,0 +1,167 @@
+package de.persosim.simulator.test.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.security.SecureRandom;
+import java.util.concurrent.CountDownLatch;
+
+import de.persosim.simulator.crypto.RandomSource;
+
+/**
+ * Throughput and contention benchmark for the strategies to draw protocol
+ * nonces from.
+ * <p/>
+ * Each worker thread draws a number of 8 byte nonces. Compared are a new
+ * {@link SecureRandom} per session (as previously created by every protocol
+ * instance), a single {@link SecureRandom} shared by all threads and the per
+ * thread generators provided by {@link RandomSource}. Reported are the
+ * overall nonces per second and the time the worker threads spent blocked on
+ * monitors (where supported by the JVM).
+ *
+ * Usage: RandomSourceBenchmark [noncesPerThread [threadCount...]]
+ */
+public class RandomSourceBenchmark {
+
+	public static final int DEFAULT_NONCES_PER_THREAD = 20000;
+	public static final int[] DEFAULT_THREAD_COUNTS = { 1, 4, 16 };
+
+	private static final int NONCE_LENGTH = 8;
+
+	/**
+	 * A strategy for drawing a single nonce.
+	 */
+	private interface Strategy {
+		String getName();
+
+		void nextNonce(byte[] nonce);
+	}
+
+	private static final Strategy NEW_PER_SESSION = new Strategy() {
+		@Override
+		public String getName() {
+			return "newPerSession";
+		}
+
+		@Override
+		public void nextNonce(byte[] nonce) {
+			new SecureRandom().nextBytes(nonce);
+		}
+	};
+
+	private static final Strategy SHARED = new Strategy() {
+		private final SecureRandom shared = new SecureRandom();
+
+		@Override
+		public String getName() {
+			return "shared";
+		}
+
+		@Override
+		public void nextNonce(byte[] nonce) {
+			shared.nextBytes(nonce);
+		}
+	};
+
+	private static final Strategy RANDOM_SOURCE = new Strategy() {
+		@Override
+		public String getName() {
+			return RandomSource.isDeterministic() ? "randomSourceSeeded" : "randomSource";
+		}
+
+		@Override
+		public void nextNonce(byte[] nonce) {
+			RandomSource.nextBytes(nonce);
+		}
+	};
+
+	private RandomSourceBenchmark() {
+	}
+
+	/**
+	 * Measure a single strategy.
+	 *
+	 * @param strategy
+	 *            the strategy to be measured
+	 * @param threadCount
+	 *            number of concurrent worker threads
+	 * @param noncesPerThread
+	 *            number of nonces drawn by every thread
+	 * @return a single line describing the result
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the workers
+	 */
+	private static String run(final Strategy strategy, int threadCount, final int noncesPerThread) throws InterruptedException {
+		final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+		final boolean contentionSupported = threadMxBean.isThreadContentionMonitoringSupported();
+		if (contentionSupported) {
+			threadMxBean.setThreadContentionMonitoringEnabled(true);
+		}
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threadCount);
+		final long[] blockedMillis = new long[threadCount];
+		Thread[] workers = new Thread[threadCount];
+
+		for (int i = 0; i < threadCount; i++) {
+			final int workerIndex = i;
+			workers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					byte[] nonce = new byte[NONCE_LENGTH];
+					try {
+						start.await();
+						for (int j = 0; j < noncesPerThread; j++) {
+							strategy.nextNonce(nonce);
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						if (contentionSupported) {
+							ThreadInfo info = threadMxBean.getThreadInfo(Thread.currentThread().getId());
+							blockedMillis[workerIndex] = info.getBlockedTime();
+						}
+						done.countDown();
+					}
+				}
+			}, "nonce-" + i);
+			workers[i].start();
+		}
+
+		long startOfRun = System.nanoTime();
+		start.countDown();
+		done.await();
+		long elapsed = System.nanoTime() - startOfRun;
+
+		long blocked = 0;
+		for (long curBlocked : blockedMillis) {
+			blocked += curBlocked;
+		}
+
+		double noncesPerSecond = ((double) threadCount) * noncesPerThread * 1e9 / elapsed;
+		return String.format("%-20s %3d threads %12.1f nonces/s  blocked %8s ms", strategy.getName(), threadCount,
+				noncesPerSecond, contentionSupported ? Long.toString(blocked) : "n/a");
+	}
+
+	public static void main(String[] args) throws Exception {
+		int noncesPerThread = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NONCES_PER_THREAD;
+		int[] threadCounts = DEFAULT_THREAD_COUNTS;
+		if (args.length > 1) {
+			threadCounts = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				threadCounts[i - 1] = Integer.parseInt(args[i]);
+			}
+		}
+
+		Strategy[] strategies = { NEW_PER_SESSION, SHARED, RANDOM_SOURCE };
+
+		for (int threadCount : threadCounts) {
+			for (Strategy curStrategy : strategies) {
+				// warmup
+				run(curStrategy, threadCount, noncesPerThread / 10);
+				System.out.println(run(curStrategy, threadCount, noncesPerThread));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+package de.persosim.simulator.test.loadgen;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import de.persosim.simulator.PersoSim;
+import de.persosim.simulator.SocketSimulator;
+import de.persosim.simulator.monitoring.LatencyHistogram;
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.recording.ApduExchange;
+import de.persosim.simulator.recording.ApduTrace;
+import de.persosim.simulator.test.terminal.SocketApduChannel;
+
+/**
+ * Load generator replaying a recorded APDU trace (see
+ * {@link de.persosim.simulator.recording.ApduRecorder}) with a number of
+ * concurrent virtual terminals.
+ * <p/>
+ * As a {@link SocketSimulator} serves a single terminal at a time, every
+ * virtual terminal gets its own simulator instance listening on consecutive
+ * ports starting at the given base port. Each terminal resets its card and
+ * replays the complete trace for the given number of iterations over a
+ * single connection.
+ * <p/>
+ * Usage: LoadGenerator &lt;trace file&gt; [terminals [iterations [base port]]]
+ */
+public class LoadGenerator {
+
+	public static final int DEFAULT_TERMINALS = 4;
+	public static final int DEFAULT_ITERATIONS = 10;
+	public static final int DEFAULT_BASE_PORT = PersoSim.DEFAULT_SIM_PORT + 1;
+
+	private List<ApduExchange> trace;
+	private TraceReplayer replayer;
+
+	public LoadGenerator(List<ApduExchange> trace, TraceReplayer replayer) {
+		this.trace = trace;
+		this.replayer = replayer;
+	}
+
+	/**
+	 * Run the load test.
+	 *
+	 * @param terminals
+	 *            number of concurrent virtual terminals
+	 * @param iterations
+	 *            number of trace replays per terminal
+	 * @param basePort
+	 *            port of the first simulator instance
+	 * @param latencies
+	 *            histogram receiving the round trip time of every APDU
+	 * @return the merged counters of all terminals
+	 * @throws Exception
+	 *             if a terminal could not be run
+	 */
+	public ReplayResult run(int terminals, final int iterations, int basePort, final LatencyHistogram latencies) throws Exception {
+		List<SocketSimulator> simulators = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(terminals);
+
+		try {
+			List<Future<ReplayResult>> futures = new ArrayList<>();
+
+			for (int i = 0; i < terminals; i++) {
+				final int port = basePort + i;
+				SocketSimulator simulator = new SocketSimulator(new DefaultPersoTestPki(), port);
+				if (!simulator.start()) {
+					throw new IOException("unable to start simulator on port " + port);
+				}
+				simulators.add(simulator);
+
+				futures.add(executor.submit(new Callable<ReplayResult>() {
+
+					@Override
+					public ReplayResult call() throws Exception {
+						return runTerminal(port, iterations, latencies);
+					}
+				}));
+			}
+
+			ReplayResult result = new ReplayResult();
+			for (Future<ReplayResult> future : futures) {
+				result.merge(future.get());
+			}
+			return result;
+		} finally {
+			executor.shutdownNow();
+			for (SocketSimulator simulator : simulators) {
+				simulator.stop();
+			}
+		}
+	}
+
+	private ReplayResult runTerminal(int port, int iterations, LatencyHistogram latencies) throws IOException {
+		ReplayResult result = new ReplayResult();
+
+		try (SocketApduChannel channel = new SocketApduChannel(PersoSim.DEFAULT_SIM_HOST, port)) {
+			TimedApduChannel timedChannel = new TimedApduChannel(channel, latencies);
+
+			for (int i = 0; i < iterations; i++) {
+				channel.reset();
+				result.merge(replayer.replay(timedChannel, trace));
+			}
+		}
+
+		return result;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Usage: LoadGenerator <trace file> [terminals [iterations [base port]]]");
+			return;
+		}
+
+		int terminals = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_TERMINALS;
+		int iterations = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+		int basePort = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_BASE_PORT;
+
+		if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+			Security.addProvider(new BouncyCastleProvider());
+		}
+
+		List<ApduExchange> trace;
+		try (Reader reader = new FileReader(args[0])) {
+			trace = ApduTrace.read(reader);
+		}
+
+		LoadGenerator loadGenerator = new LoadGenerator(trace, new TraceReplayer(TraceReplayer.getDefaultPasswords()));
+		LatencyHistogram latencies = new LatencyHistogram("apdu");
+
+		long start = System.nanoTime();
+		ReplayResult result = loadGenerator.run(terminals, iterations, basePort, latencies);
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("replayed " + trace.size() + " recorded exchanges " + iterations + " times on each of " + terminals + " terminals");
+		System.out.println(result);
+		System.out.println(String.format("%d APDUs in %.3f s, %.1f APDUs/s, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+				latencies.getCount(), elapsed / 1e9, latencies.getCount() * 1e9 / elapsed,
+				latencies.getValueAtPercentile(50) / 1e6,
+				latencies.getValueAtPercentile(99) / 1e6,
+				latencies.getValueAtPercentile(99.9) / 1e6,
+				latencies.getMax() / 1e6));
+	}
+
+}
@@ -0,0 +1,63 @@
+package de.persosim.simulator.test.loadgen;
+
+/**
+ * Counters collected while replaying APDU traces.
+ */
+public class ReplayResult {
+
+	private long verified;
+	private long mismatched;
+	private long skipped;
+	private long paceRuns;
+
+	public long getVerified() {
+		return verified;
+	}
+
+	public long getMismatched() {
+		return mismatched;
+	}
+
+	public long getSkipped() {
+		return skipped;
+	}
+
+	public long getPaceRuns() {
+		return paceRuns;
+	}
+
+	void addVerified() {
+		verified++;
+	}
+
+	void addMismatched() {
+		mismatched++;
+	}
+
+	void addSkipped() {
+		skipped++;
+	}
+
+	void addPaceRun() {
+		paceRuns++;
+	}
+
+	/**
+	 * Add all counters of the given result to this one.
+	 *
+	 * @param other
+	 *            the result to be merged into this one
+	 */
+	public synchronized void merge(ReplayResult other) {
+		verified += other.verified;
+		mismatched += other.mismatched;
+		skipped += other.skipped;
+		paceRuns += other.paceRuns;
+	}
+
+	@Override
+	public String toString() {
+		return "verified: " + verified + ", mismatched: " + mismatched + ", skipped: " + skipped + ", PACE runs: " + paceRuns;
+	}
+
+}
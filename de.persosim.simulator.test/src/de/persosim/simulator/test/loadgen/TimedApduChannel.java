@@ -0,0 +1,37 @@
+package de.persosim.simulator.test.loadgen;
+
+import de.persosim.simulator.monitoring.LatencyHistogram;
+import de.persosim.simulator.test.terminal.ApduChannel;
+
+/**
+ * {@link ApduChannel} decorator recording the round trip time of every
+ * transmitted APDU.
+ */
+public class TimedApduChannel implements ApduChannel {
+
+	private ApduChannel channel;
+	private LatencyHistogram latencies;
+
+	/**
+	 * @param channel
+	 *            the channel to delegate to
+	 * @param latencies
+	 *            the histogram round trip times are recorded in, may be
+	 *            shared between several channels
+	 */
+	public TimedApduChannel(ApduChannel channel, LatencyHistogram latencies) {
+		this.channel = channel;
+		this.latencies = latencies;
+	}
+
+	@Override
+	public byte[] transmit(byte[] commandApdu) {
+		long start = System.nanoTime();
+		try {
+			return channel.transmit(commandApdu);
+		} finally {
+			latencies.record(System.nanoTime() - start);
+		}
+	}
+
+}
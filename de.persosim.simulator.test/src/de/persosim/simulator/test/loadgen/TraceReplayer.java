@@ -0,0 +1,207 @@
+package de.persosim.simulator.test.loadgen;
+
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.persosim.simulator.platform.Iso7816;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.protocols.pace.PaceOid;
+import de.persosim.simulator.recording.ApduExchange;
+import de.persosim.simulator.test.benchmark.ProtocolFlows;
+import de.persosim.simulator.test.terminal.ApduChannel;
+import de.persosim.simulator.test.terminal.PaceTerminal;
+import de.persosim.simulator.test.terminal.SmSession;
+import de.persosim.simulator.test.terminal.TerminalUtils;
+import de.persosim.simulator.tlv.TlvConstants;
+import de.persosim.simulator.tlv.TlvDataObject;
+import de.persosim.simulator.tlv.TlvDataObjectContainer;
+import de.persosim.simulator.utils.Utils;
+
+/**
+ * Replays a recorded APDU trace against a simulated card and verifies the
+ * responses.
+ * <p/>
+ * Recorded exchanges can not simply be resent as PACE and secure messaging
+ * depend on random values. Therefore PACE runs found in the trace are
+ * performed again with a live {@link PaceTerminal} (using the configured
+ * passwords) and SM protected exchanges are re-wrapped with the new session
+ * keys, based on the recorded plain APDUs. Responses are compared on
+ * application level; for commands returning random data (GET CHALLENGE,
+ * GENERAL AUTHENTICATE) only the status word is compared.
+ * <p/>
+ * Protocols relying on terminal signatures (TA) can not be recomputed and
+ * will show up as mismatches.
+ */
+public class TraceReplayer implements TlvConstants {
+
+	private static final int MAX_PACE_GENERAL_AUTHENTICATE_STEPS = 4;
+
+	private Map<Byte, byte[]> passwords;
+
+	/**
+	 * @param passwords
+	 *            PACE passwords mapped by their password reference
+	 */
+	public TraceReplayer(Map<Byte, byte[]> passwords) {
+		this.passwords = passwords;
+	}
+
+	/**
+	 * @return the PACE passwords of the default personalization
+	 */
+	public static Map<Byte, byte[]> getDefaultPasswords() {
+		Map<Byte, byte[]> passwords = new HashMap<>();
+		try {
+			passwords.put(Pace.PWD_MRZ, ProtocolFlows.getMrzPassword(ProtocolFlows.DEFAULT_MRZ));
+			passwords.put(Pace.PWD_CAN, ProtocolFlows.DEFAULT_CAN.getBytes("UTF-8"));
+			passwords.put(Pace.PWD_PIN, ProtocolFlows.DEFAULT_PIN.getBytes("UTF-8"));
+			passwords.put(Pace.PWD_PUK, ProtocolFlows.DEFAULT_PUK.getBytes("UTF-8"));
+		} catch (GeneralSecurityException | UnsupportedEncodingException e) {
+			throw new IllegalStateException("unable to construct default passwords", e);
+		}
+		return passwords;
+	}
+
+	/**
+	 * Replay the given trace once.
+	 *
+	 * @param channel
+	 *            the channel to a freshly reset card
+	 * @param trace
+	 *            the recorded exchanges
+	 * @return the counters of this replay
+	 */
+	public ReplayResult replay(ApduChannel channel, List<ApduExchange> trace) {
+		ReplayResult result = new ReplayResult();
+		SmSession session = null;
+
+		int i = 0;
+		while (i < trace.size()) {
+			ApduExchange exchange = trace.get(i);
+
+			if (isPaceSetAt(exchange)) {
+				int endOfPace = i + 1;
+				while ((endOfPace < trace.size()) && (endOfPace - i <= MAX_PACE_GENERAL_AUTHENTICATE_STEPS) && isPlainGeneralAuthenticate(trace.get(endOfPace))) {
+					endOfPace++;
+				}
+
+				session = replayPace(channel, exchange, trace.get(endOfPace - 1), result);
+				i = endOfPace;
+				continue;
+			}
+
+			if (exchange.isSecured()) {
+				if (session == null) {
+					result.addSkipped();
+				} else {
+					try {
+						byte[] response = session.unwrap(channel.transmit(session.wrap(exchange.getApplicationCommand())));
+						compare(exchange, response, result);
+					} catch (RuntimeException e) {
+						result.addMismatched();
+						session = null;
+					}
+				}
+			} else {
+				// the card discards the SM session on receipt of a plain APDU
+				session = null;
+				compare(exchange, channel.transmit(exchange.getCommand()), result);
+			}
+
+			i++;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Perform PACE as described by the recorded MSE:Set AT. The run is
+	 * considered verified if it succeeds exactly when the recorded run
+	 * succeeded.
+	 *
+	 * @return the new SM session or null if PACE did not succeed
+	 */
+	private SmSession replayPace(ApduChannel channel, ApduExchange setAt, ApduExchange lastRecordedStep, ReplayResult result) {
+		byte[] command = setAt.getApplicationCommand();
+		byte[] mseData = Arrays.copyOfRange(command, 5, 5 + (command[4] & 0xFF));
+		TlvDataObjectContainer mseDataObjects = new TlvDataObjectContainer(mseData);
+
+		byte[] password = passwords.get(mseDataObjects.getTlvDataObject(TAG_83).getValueField()[0]);
+		if (password == null) {
+			result.addSkipped();
+			return null;
+		}
+
+		TlvDataObject domainParameterReference = mseDataObjects.getTlvDataObject(TAG_84);
+		int domainParameterId = (domainParameterReference != null) ? Utils.getIntFromUnsignedByteArray(domainParameterReference.getValueField()) : PaceTerminal.DEFAULT_DOMAIN_PARAMETER_ID;
+
+		boolean recordedSuccess = (lastRecordedStep != setAt) && (TerminalUtils.getStatusWord(lastRecordedStep.getResponse()) == Iso7816.SW_9000_NO_ERROR);
+
+		SmSession session = null;
+		try {
+			PaceOid paceOid = new PaceOid(mseDataObjects.getTlvDataObject(TAG_80).getValueField());
+			session = new PaceTerminal(channel, paceOid, domainParameterId).performPace(mseData, password);
+		} catch (GeneralSecurityException | RuntimeException e) {
+			session = null;
+		}
+
+		if (recordedSuccess == (session != null)) {
+			result.addVerified();
+		} else {
+			result.addMismatched();
+		}
+		result.addPaceRun();
+
+		return session;
+	}
+
+	private static boolean isPaceSetAt(ApduExchange exchange) {
+		byte[] command = exchange.getApplicationCommand();
+
+		if (exchange.isSecured() || (command.length < 6) || (exchange.getIns() != Iso7816.INS_22_MANAGE_SECURITY_ENVIRONMENT)) {
+			return false;
+		}
+
+		if ((command[2] != (byte) 0xC1) || (command[3] != (byte) 0xA4)) {
+			return false;
+		}
+
+		try {
+			TlvDataObjectContainer mseData = new TlvDataObjectContainer(Arrays.copyOfRange(command, 5, 5 + (command[4] & 0xFF)));
+			TlvDataObject oid = mseData.getTlvDataObject(TAG_80);
+			return (oid != null) && (mseData.getTlvDataObject(TAG_83) != null) && Utils.arrayHasPrefix(oid.getValueField(), Pace.id_PACE);
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	private static boolean isPlainGeneralAuthenticate(ApduExchange exchange) {
+		return !exchange.isSecured() && (exchange.getIns() == Iso7816.INS_86_GENERAL_AUTHENTICATE);
+	}
+
+	private static void compare(ApduExchange exchange, byte[] response, ReplayResult result) {
+		byte[] expected = exchange.getApplicationResponse();
+		boolean match;
+
+		switch (exchange.getIns()) {
+		case Iso7816.INS_84_GET_CHALLENGE:
+		case Iso7816.INS_86_GENERAL_AUTHENTICATE:
+			match = TerminalUtils.getStatusWord(expected) == TerminalUtils.getStatusWord(response);
+			break;
+		default:
+			match = Arrays.equals(expected, response);
+			break;
+		}
+
+		if (match) {
+			result.addVerified();
+		} else {
+			result.addMismatched();
+		}
+	}
+
+}
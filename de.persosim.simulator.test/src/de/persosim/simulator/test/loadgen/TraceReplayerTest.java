@@ -0,0 +1,76 @@
+package de.persosim.simulator.test.loadgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.recording.ApduExchange;
+import de.persosim.simulator.recording.ApduRecorder;
+import de.persosim.simulator.recording.ApduTrace;
+import de.persosim.simulator.test.PersoSimTestCase;
+import de.persosim.simulator.test.benchmark.ProtocolFlows;
+import de.persosim.simulator.test.terminal.KernelApduChannel;
+import de.persosim.simulator.test.terminal.PaceTerminal;
+import de.persosim.simulator.test.terminal.SmSession;
+
+public class TraceReplayerTest extends PersoSimTestCase {
+
+	/**
+	 * Positive test case: a recorded session including PACE and secured reads
+	 * is replayed on a fresh card without mismatches.
+	 */
+	@Test
+	public void testReplay() throws Exception {
+		StringWriter trace = new StringWriter();
+		ApduRecorder recorder = new ApduRecorder(trace);
+
+		KernelApduChannel recordingChannel = new KernelApduChannel(new DefaultPersoTestPki());
+		recordingChannel.addApduListener(recorder);
+
+		ProtocolFlows.readFile(recordingChannel, null, ProtocolFlows.FID_EF_CARD_ACCESS);
+		SmSession session = new PaceTerminal(recordingChannel).performPace(Pace.PWD_PIN, ProtocolFlows.DEFAULT_PIN.getBytes("UTF-8"));
+		ProtocolFlows.readFile(recordingChannel, session, ProtocolFlows.FID_EF_CARD_ACCESS);
+		recorder.close();
+
+		List<ApduExchange> exchanges = ApduTrace.read(new StringReader(trace.toString()));
+		assertTrue(exchanges.size() > 5);
+
+		ReplayResult result = new TraceReplayer(TraceReplayer.getDefaultPasswords()).replay(new KernelApduChannel(new DefaultPersoTestPki()), exchanges);
+
+		assertEquals(0, result.getMismatched());
+		assertEquals(0, result.getSkipped());
+		assertEquals(1, result.getPaceRuns());
+		// the 4 General Authenticate steps are verified as part of the PACE run
+		assertEquals(exchanges.size() - 4, result.getVerified());
+	}
+
+	/**
+	 * Negative test case: PACE with a wrong password is replayed as mismatch
+	 * when the recorded run succeeded.
+	 */
+	@Test
+	public void testReplayWrongPassword() throws Exception {
+		StringWriter trace = new StringWriter();
+		ApduRecorder recorder = new ApduRecorder(trace);
+
+		KernelApduChannel recordingChannel = new KernelApduChannel(new DefaultPersoTestPki());
+		recordingChannel.addApduListener(recorder);
+		new PaceTerminal(recordingChannel).performPace(Pace.PWD_CAN, ProtocolFlows.DEFAULT_CAN.getBytes("UTF-8"));
+		recorder.close();
+
+		java.util.Map<Byte, byte[]> passwords = TraceReplayer.getDefaultPasswords();
+		passwords.put(Pace.PWD_CAN, "111111".getBytes("UTF-8"));
+
+		ReplayResult result = new TraceReplayer(passwords).replay(new KernelApduChannel(new DefaultPersoTestPki()), ApduTrace.read(new StringReader(trace.toString())));
+
+		assertEquals(1, result.getMismatched());
+	}
+
+}
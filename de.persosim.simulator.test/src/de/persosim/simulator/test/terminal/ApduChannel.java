@@ -0,0 +1,19 @@
+package de.persosim.simulator.test.terminal;
+
+/**
+ * Minimal transport abstraction used by terminal side test code to exchange
+ * APDUs with a simulated card.
+ */
+public interface ApduChannel {
+
+	/**
+	 * Send a single command APDU and return the complete response APDU
+	 * (including the trailing status word).
+	 *
+	 * @param commandApdu
+	 *            the plain command APDU to be sent
+	 * @return the response APDU as returned by the card
+	 */
+	public abstract byte[] transmit(byte[] commandApdu);
+
+}
@@ -0,0 +1,49 @@
+package de.persosim.simulator.test.terminal;
+
+import de.persosim.simulator.LocalCardChannel;
+import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.platform.ApduListener;
+
+/**
+ * {@link ApduChannel} that drives a simulated card directly within the
+ * current JVM using a {@link LocalCardChannel}, i.e. without any socket or
+ * hex encoding overhead.
+ */
+public class KernelApduChannel implements ApduChannel {
+
+	private LocalCardChannel channel;
+
+	/**
+	 * Create a new channel to a freshly initialized and powered on card
+	 * using the given personalization.
+	 *
+	 * @param perso
+	 *            the personalization to be used by the simulated card
+	 */
+	public KernelApduChannel(Personalization perso) {
+		channel = new LocalCardChannel(perso);
+		channel.powerOn();
+	}
+
+	@Override
+	public byte[] transmit(byte[] commandApdu) {
+		return channel.transmit(commandApdu);
+	}
+
+	/**
+	 * @see LocalCardChannel#addApduListener(ApduListener)
+	 */
+	public void addApduListener(ApduListener listener) {
+		channel.addApduListener(listener);
+	}
+
+	/**
+	 * Perform a cold reset of the simulated card.
+	 *
+	 * @return the ATR
+	 */
+	public byte[] reset() {
+		return channel.reset();
+	}
+
+}
@@ -0,0 +1,170 @@
+package de.persosim.simulator.test.terminal;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.KeyAgreement;
+
+import de.persosim.simulator.crypto.Crypto;
+import de.persosim.simulator.crypto.CryptoSupport;
+import de.persosim.simulator.crypto.CryptoUtil;
+import de.persosim.simulator.crypto.DomainParameterSet;
+import de.persosim.simulator.crypto.KeyDerivationFunction;
+import de.persosim.simulator.crypto.SessionKeys;
+import de.persosim.simulator.crypto.StandardizedDomainParameters;
+import de.persosim.simulator.platform.Iso7816;
+import de.persosim.simulator.protocols.TR03110Utils;
+import de.persosim.simulator.protocols.pace.GenericMapping;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.protocols.pace.PaceOid;
+import de.persosim.simulator.tlv.ConstructedTlvDataObject;
+import de.persosim.simulator.tlv.PrimitiveTlvDataObject;
+import de.persosim.simulator.tlv.TlvConstants;
+import de.persosim.simulator.tlv.TlvDataObjectContainer;
+import de.persosim.simulator.tlv.TlvPath;
+import de.persosim.simulator.tlv.TlvTag;
+
+/**
+ * Terminal side implementation of PACE with generic mapping as defined in BSI
+ * TR-03110.
+ *
+ * This implementation reuses the simulator's own crypto primitives and is
+ * intended for driving the simulator in tests and benchmarks, not as a
+ * reference implementation.
+ */
+public class PaceTerminal implements TlvConstants {
+
+	public static final int DEFAULT_DOMAIN_PARAMETER_ID = 13;
+
+	private ApduChannel channel;
+	private PaceOid paceOid;
+	private int domainParameterId;
+	private SecureRandom secureRandom;
+
+	/**
+	 * Create a PACE terminal using id-PACE-ECDH-GM-AES-CBC-CMAC-128 on
+	 * brainpoolP256r1.
+	 *
+	 * @param channel
+	 *            the channel to the card
+	 */
+	public PaceTerminal(ApduChannel channel) {
+		this(channel, Pace.OID_id_PACE_ECDH_GM_AES_CBC_CMAC_128, DEFAULT_DOMAIN_PARAMETER_ID);
+	}
+
+	public PaceTerminal(ApduChannel channel, PaceOid paceOid, int domainParameterId) {
+		if (!(paceOid.getMapping() instanceof GenericMapping)) {
+			throw new IllegalArgumentException("only generic mapping is supported");
+		}
+
+		this.channel = channel;
+		this.paceOid = paceOid;
+		this.domainParameterId = domainParameterId;
+		this.secureRandom = new SecureRandom();
+	}
+
+	/**
+	 * Perform a complete PACE run with the given password.
+	 *
+	 * @param passwordReference
+	 *            the password reference as used in MSE:Set AT, e.g.
+	 *            {@link Pace#PWD_PIN}
+	 * @param password
+	 *            the raw password, for the MRZ this is the SHA-1 hash of the
+	 *            relevant MRZ fields
+	 * @return a secure messaging session using the negotiated keys
+	 * @throws GeneralSecurityException
+	 *             if a cryptographic operation fails or the card's
+	 *             authentication token does not verify
+	 */
+	public SmSession performPace(byte passwordReference, byte[] password) throws GeneralSecurityException {
+		TlvDataObjectContainer mseData = new TlvDataObjectContainer(
+				new PrimitiveTlvDataObject(TAG_80, paceOid.toByteArray()),
+				new PrimitiveTlvDataObject(TAG_83, new byte[]{passwordReference}),
+				new PrimitiveTlvDataObject(TAG_84, new byte[]{(byte) domainParameterId}));
+		return performPace(mseData.toByteArray(), password);
+	}
+
+	/**
+	 * Perform a complete PACE run using the provided MSE:Set AT data, e.g. in
+	 * order to include a CHAT. The data must match the PACE OID and domain
+	 * parameters this terminal has been created with.
+	 *
+	 * @param mseSetAtData
+	 *            the complete command data of MSE:Set AT
+	 * @param password
+	 *            the raw password
+	 * @return a secure messaging session using the negotiated keys
+	 * @throws GeneralSecurityException
+	 *             if a cryptographic operation fails or the card's
+	 *             authentication token does not verify
+	 */
+	public SmSession performPace(byte[] mseSetAtData, byte[] password) throws GeneralSecurityException {
+		CryptoSupport cryptoSupport = paceOid.getCryptoSupport();
+		KeyDerivationFunction kdf = new KeyDerivationFunction(paceOid.getSymmetricCipherKeyLengthInBytes());
+		DomainParameterSet domainParametersUnmapped = StandardizedDomainParameters.getDomainParameterSetById(domainParameterId);
+		GenericMapping mapping = (GenericMapping) paceOid.getMapping();
+
+		/* MSE:Set AT */
+		byte[] response = channel.transmit(TerminalUtils.buildApdu(0x00, 0x22, 0xC1, 0xA4, mseSetAtData, -1));
+		TerminalUtils.checkStatusWord(response, Iso7816.SW_9000_NO_ERROR, "MSE:Set AT");
+
+		/* General Authenticate: encrypted nonce */
+		byte[] encryptedNonce = generalAuthenticate(true, null, null, TAG_80, "get nonce");
+		byte[] nonceS = cryptoSupport.decryptWithIvZero(encryptedNonce, cryptoSupport.generateSecretKeySpecCipher(kdf.derivePI(password)));
+
+		/* General Authenticate: map nonce */
+		KeyPair mappingKeyPair = CryptoUtil.generateKeyPair(domainParametersUnmapped, secureRandom);
+		byte[] mappingResponse = generalAuthenticate(true, TAG_81, domainParametersUnmapped.encodePublicKey(mappingKeyPair.getPublic()), TAG_82, "map nonce");
+		PublicKey mappingPublicKeyPicc = domainParametersUnmapped.reconstructPublicKey(mappingResponse);
+
+		byte[] mappingSecret = mapping.performKeyAgreement(domainParametersUnmapped, mappingKeyPair.getPrivate(), mappingPublicKeyPicc);
+		DomainParameterSet domainParametersMapped = mapping.performGenericMappingOfDomainParameters(domainParametersUnmapped, new BigInteger(1, nonceS), mappingSecret);
+
+		/* General Authenticate: key agreement */
+		KeyPair ephemeralKeyPair = CryptoUtil.generateKeyPair(domainParametersMapped, secureRandom);
+		byte[] ephemeralPublicKeyPiccRaw = generalAuthenticate(true, TAG_83, domainParametersMapped.encodePublicKey(ephemeralKeyPair.getPublic()), TAG_84, "key agreement");
+		PublicKey ephemeralPublicKeyPicc = domainParametersMapped.reconstructPublicKey(ephemeralPublicKeyPiccRaw);
+
+		KeyAgreement keyAgreement = KeyAgreement.getInstance(paceOid.getKeyAgreementName(), Crypto.getCryptoProvider());
+		keyAgreement.init(ephemeralKeyPair.getPrivate());
+		keyAgreement.doPhase(ephemeralPublicKeyPicc, true);
+		SessionKeys sessionKeys = kdf.deriveSessionKeys(keyAgreement.generateSecret(), null, cryptoSupport);
+
+		/* General Authenticate: mutual authentication */
+		TlvDataObjectContainer pcdTokenInput = TR03110Utils.buildAuthenticationTokenInput(ephemeralPublicKeyPicc, domainParametersMapped, paceOid);
+		TlvDataObjectContainer piccTokenInput = TR03110Utils.buildAuthenticationTokenInput(ephemeralKeyPair.getPublic(), domainParametersMapped, paceOid);
+		byte[] pcdToken = Arrays.copyOf(cryptoSupport.macAuthenticationToken(pcdTokenInput.toByteArray(), sessionKeys.getKeyMac()), 8);
+		byte[] expectedPiccToken = Arrays.copyOf(cryptoSupport.macAuthenticationToken(piccTokenInput.toByteArray(), sessionKeys.getKeyMac()), 8);
+
+		byte[] piccToken = generalAuthenticate(false, TAG_85, pcdToken, TAG_86, "mutual authentication");
+		if (!Arrays.equals(expectedPiccToken, piccToken)) {
+			throw new GeneralSecurityException("authentication token received from PICC does not match expected one");
+		}
+
+		return new SmSession(sessionKeys.getKeyEnc(), sessionKeys.getKeyMac());
+	}
+
+	/**
+	 * Send a single General Authenticate command and extract the expected
+	 * data object from the dynamic authentication data in the response.
+	 */
+	private byte[] generalAuthenticate(boolean chained, TlvTag commandTag, byte[] commandValue, TlvTag responseTag, String step) {
+		ConstructedTlvDataObject dynamicAuthenticationData = new ConstructedTlvDataObject(TAG_7C);
+		if (commandTag != null) {
+			dynamicAuthenticationData.addTlvDataObject(new PrimitiveTlvDataObject(commandTag, commandValue));
+		}
+
+		int cla = chained ? 0x10 : 0x00;
+		byte[] response = channel.transmit(TerminalUtils.buildApdu(cla, 0x86, 0x00, 0x00, dynamicAuthenticationData.toByteArray(), 0x00));
+		TerminalUtils.checkStatusWord(response, Iso7816.SW_9000_NO_ERROR, "General Authenticate (" + step + ")");
+
+		TlvDataObjectContainer responseData = new TlvDataObjectContainer(TerminalUtils.getData(response));
+		return responseData.getTlvDataObject(new TlvPath(TAG_7C, responseTag)).getValueField();
+	}
+
+}
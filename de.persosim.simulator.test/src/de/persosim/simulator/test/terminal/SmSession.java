@@ -0,0 +1,137 @@
+package de.persosim.simulator.test.terminal;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import de.persosim.simulator.crypto.CryptoSupport;
+import de.persosim.simulator.securemessaging.SecureMessaging;
+import de.persosim.simulator.securemessaging.SmDataProviderTr03110;
+import de.persosim.simulator.tlv.PrimitiveTlvDataObject;
+import de.persosim.simulator.tlv.TlvDataObject;
+import de.persosim.simulator.tlv.TlvDataObjectContainer;
+import de.persosim.simulator.utils.Utils;
+
+/**
+ * Terminal side of a secure messaging session according to BSI TR-03110.
+ *
+ * Plain command APDUs are wrapped into SM APDUs and SM response APDUs are
+ * verified and unwrapped again. The send sequence counter is kept in sync
+ * with the card, so each call to {@link #wrap(byte[])} must be followed by
+ * exactly one call to {@link #unwrap(byte[])}.
+ */
+public class SmSession {
+
+	private SmDataProviderTr03110 dataProvider;
+	private int blockSize;
+
+	public SmSession(SecretKeySpec keyEnc, SecretKeySpec keyMac) throws GeneralSecurityException {
+		dataProvider = new SmDataProviderTr03110(keyEnc, keyMac);
+		blockSize = dataProvider.getCipher().getBlockSize();
+	}
+
+	/**
+	 * Wrap a plain short command APDU into a secure messaging APDU.
+	 *
+	 * @param plainApdu
+	 *            the plain command APDU
+	 * @return the SM protected command APDU
+	 */
+	public byte[] wrap(byte[] plainApdu) {
+		dataProvider.nextOutgoing();
+
+		byte[] header = Arrays.copyOf(plainApdu, 4);
+		header[0] |= (byte) 0x0C;
+
+		byte[] data = null;
+		byte[] le = null;
+
+		if (plainApdu.length == 5) {
+			le = new byte[]{plainApdu[4]};
+		} else if (plainApdu.length > 5) {
+			int lc = plainApdu[4] & 0xFF;
+			data = Arrays.copyOfRange(plainApdu, 5, 5 + lc);
+			if (plainApdu.length > 5 + lc) {
+				le = new byte[]{plainApdu[5 + lc]};
+			}
+		}
+
+		TlvDataObjectContainer smData = new TlvDataObjectContainer();
+
+		if (data != null) {
+			byte[] paddedData = SecureMessaging.padData(data, blockSize);
+			byte[] encryptedData = CryptoSupport.encrypt(dataProvider.getCipher(), paddedData, dataProvider.getKeyEnc(), dataProvider.getCipherIv());
+			smData.addTlvDataObject(new PrimitiveTlvDataObject(SecureMessaging.TAG_87, Utils.concatByteArrays(new byte[]{(byte) 0x01}, encryptedData)));
+		}
+
+		if (le != null) {
+			smData.addTlvDataObject(new PrimitiveTlvDataObject(SecureMessaging.TAG_97, le));
+		}
+
+		byte[] macInput = SecureMessaging.padData(header, blockSize);
+		if (smData.getNoOfElements() > 0) {
+			macInput = SecureMessaging.padData(Utils.concatByteArrays(macInput, smData.toByteArray()), blockSize);
+		}
+
+		smData.addTlvDataObject(new PrimitiveTlvDataObject(SecureMessaging.TAG_8E, computeMac(macInput)));
+
+		return TerminalUtils.buildApdu(header[0], header[1], header[2], header[3], smData.toByteArray(), 0x00);
+	}
+
+	/**
+	 * Verify and unwrap a secure messaging response APDU.
+	 *
+	 * Responses without data (e.g. errors reported before the card's SM layer
+	 * was involved) are returned unmodified.
+	 *
+	 * @param smResponse
+	 *            the SM protected response APDU
+	 * @return the plain response APDU
+	 * @throws IllegalStateException
+	 *             if the response MAC does not verify
+	 */
+	public byte[] unwrap(byte[] smResponse) {
+		dataProvider.nextIncoming();
+
+		byte[] responseData = TerminalUtils.getData(smResponse);
+		if (responseData.length == 0) {
+			return smResponse;
+		}
+
+		TlvDataObjectContainer smData = new TlvDataObjectContainer(responseData);
+		TlvDataObject tlvObject87 = smData.getTlvDataObject(SecureMessaging.TAG_87);
+		TlvDataObject tlvObject99 = smData.getTlvDataObject(SecureMessaging.TAG_99);
+		TlvDataObject tlvObject8E = smData.getTlvDataObject(SecureMessaging.TAG_8E);
+
+		if ((tlvObject99 == null) || (tlvObject8E == null)) {
+			throw new IllegalStateException("SM response is expected to contain tags 99 and 8E");
+		}
+
+		byte[] macInput = tlvObject99.toByteArray();
+		if (tlvObject87 != null) {
+			macInput = Utils.concatByteArrays(tlvObject87.toByteArray(), macInput);
+		}
+
+		byte[] expectedMac = computeMac(SecureMessaging.padData(macInput, blockSize));
+		if (!Arrays.equals(expectedMac, tlvObject8E.getValueField())) {
+			throw new IllegalStateException("MAC of SM response does not verify");
+		}
+
+		byte[] plainData = new byte[0];
+		if (tlvObject87 != null) {
+			byte[] formattedData = tlvObject87.getValueField();
+			byte[] encryptedData = Arrays.copyOfRange(formattedData, 1, formattedData.length);
+			byte[] paddedData = CryptoSupport.decrypt(dataProvider.getCipher(), encryptedData, dataProvider.getKeyEnc(), dataProvider.getCipherIv());
+			plainData = SecureMessaging.unpadData(paddedData, blockSize);
+		}
+
+		return Utils.concatByteArrays(plainData, tlvObject99.getValueField());
+	}
+
+	private byte[] computeMac(byte[] paddedMacInput) {
+		return CryptoSupport.mac(dataProvider.getMac(), dataProvider.getMacAuxiliaryData(), dataProvider.getCipher(),
+				paddedMacInput, dataProvider.getKeyMac(), dataProvider.getMacLength());
+	}
+
+}
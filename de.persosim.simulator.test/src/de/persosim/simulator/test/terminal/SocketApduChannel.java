@@ -0,0 +1,81 @@
+package de.persosim.simulator.test.terminal;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.Socket;
+
+import de.persosim.simulator.SocketSimulator;
+import de.persosim.simulator.utils.HexString;
+
+/**
+ * {@link ApduChannel} using a single long lived connection to a
+ * {@link SocketSimulator}.
+ *
+ * The simulator keeps a connection open only while the simulated card is
+ * powered, so the card is powered on when the channel is opened.
+ */
+public class SocketApduChannel implements ApduChannel, Closeable {
+
+	public static final byte[] CONTROL_POWER_ON = HexString.toByteArray("FF010000");
+	public static final byte[] CONTROL_RESET = HexString.toByteArray("FFFF0000");
+
+	private Socket socket;
+	private BufferedReader in;
+	private PrintStream out;
+
+	/**
+	 * Connect to the simulator and power on the simulated card.
+	 *
+	 * @param host
+	 *            host name of the simulator
+	 * @param port
+	 *            port of the simulator
+	 * @throws IOException
+	 *             if the connection can not be established
+	 */
+	public SocketApduChannel(String host, int port) throws IOException {
+		socket = new Socket(host, port);
+		socket.setTcpNoDelay(true);
+		in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+		out = new PrintStream(socket.getOutputStream());
+
+		transmit(CONTROL_POWER_ON);
+	}
+
+	@Override
+	public byte[] transmit(byte[] commandApdu) {
+		out.println(HexString.encode(commandApdu));
+		out.flush();
+
+		String responseLine;
+		try {
+			responseLine = in.readLine();
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to receive response from simulator", e);
+		}
+
+		if (responseLine == null) {
+			throw new IllegalStateException("connection closed by simulator");
+		}
+
+		return HexString.toByteArray(responseLine);
+	}
+
+	/**
+	 * Perform a cold reset of the simulated card.
+	 *
+	 * @return the ATR
+	 */
+	public byte[] reset() {
+		return transmit(CONTROL_RESET);
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+}
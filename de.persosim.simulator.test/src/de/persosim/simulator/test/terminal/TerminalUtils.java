@@ -0,0 +1,94 @@
+package de.persosim.simulator.test.terminal;
+
+import java.util.Arrays;
+
+import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.Utils;
+
+/**
+ * Helper methods for building and evaluating short APDUs on the terminal
+ * side.
+ */
+public class TerminalUtils {
+
+	private TerminalUtils() {
+	}
+
+	/**
+	 * Build a short command APDU.
+	 *
+	 * @param cla
+	 *            class byte
+	 * @param ins
+	 *            instruction byte
+	 * @param p1
+	 *            parameter byte 1
+	 * @param p2
+	 *            parameter byte 2
+	 * @param data
+	 *            command data, may be null or empty if no data is to be sent
+	 * @param le
+	 *            expected length (0x00 meaning 256) or -1 if no Le field is to
+	 *            be sent
+	 * @return the encoded command APDU
+	 */
+	public static byte[] buildApdu(int cla, int ins, int p1, int p2, byte[] data, int le) {
+		byte[] header = new byte[]{(byte) cla, (byte) ins, (byte) p1, (byte) p2};
+
+		if ((data != null) && (data.length > 255)) {
+			throw new IllegalArgumentException("only short APDUs are supported");
+		}
+
+		byte[] body = new byte[0];
+		if ((data != null) && (data.length > 0)) {
+			body = Utils.concatByteArrays(new byte[]{(byte) data.length}, data);
+		}
+
+		if (le >= 0) {
+			body = Utils.appendBytes(body, (byte) le);
+		}
+
+		return Utils.concatByteArrays(header, body);
+	}
+
+	/**
+	 * @param responseApdu
+	 *            complete response APDU
+	 * @return the status word of the provided response APDU
+	 */
+	public static short getStatusWord(byte[] responseApdu) {
+		if (responseApdu.length < 2) {
+			throw new IllegalArgumentException("response APDU must contain a status word");
+		}
+		return Utils.concatenate(responseApdu[responseApdu.length - 2], responseApdu[responseApdu.length - 1]);
+	}
+
+	/**
+	 * @param responseApdu
+	 *            complete response APDU
+	 * @return the response data, i.e. the response APDU without status word
+	 */
+	public static byte[] getData(byte[] responseApdu) {
+		return Arrays.copyOf(responseApdu, responseApdu.length - 2);
+	}
+
+	/**
+	 * Check that the given response APDU carries the expected status word.
+	 *
+	 * @param responseApdu
+	 *            complete response APDU
+	 * @param expected
+	 *            the expected status word
+	 * @param step
+	 *            human readable name of the step, used in the exception message
+	 * @throws IllegalStateException
+	 *             if the status word does not match
+	 */
+	public static void checkStatusWord(byte[] responseApdu, short expected, String step) {
+		short sw = getStatusWord(responseApdu);
+		if (sw != expected) {
+			throw new IllegalStateException(step + " failed with SW " + HexString.encode(Utils.toUnsignedByteArray(sw)));
+		}
+	}
+
+}
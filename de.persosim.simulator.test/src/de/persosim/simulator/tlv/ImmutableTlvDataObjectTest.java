@@ -0,0 +1,109 @@
+package de.persosim.simulator.tlv;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.persosim.simulator.utils.HexString;
+
+public class ImmutableTlvDataObjectTest {
+
+	/**
+	 * Positive test: the encoding of the source object is preserved.
+	 */
+	@Test
+	public void testConstructor_TlvDataObject() {
+		ConstructedTlvDataObject source = new ConstructedTlvDataObject(HexString.toByteArray("3006020101020102"));
+
+		ImmutableTlvDataObject immutable = new ImmutableTlvDataObject(source);
+
+		assertArrayEquals(source.toByteArray(), immutable.toByteArray());
+		assertArrayEquals(HexString.toByteArray("020101020102"), immutable.getValueField());
+		assertEquals(new TlvTag(Asn1.SEQUENCE), immutable.getTlvTag());
+		assertEquals(8, immutable.getLength());
+		assertEquals(source.toString(), immutable.toString());
+	}
+
+	/**
+	 * Positive test: only the bytes of the TLV data object itself are copied
+	 * from a larger array.
+	 */
+	@Test
+	public void testConstructor_Range() {
+		ImmutableTlvDataObject immutable = new ImmutableTlvDataObject(HexString.toByteArray("FF020101FFFF"), 1, 6);
+
+		assertArrayEquals(HexString.toByteArray("020101"), immutable.toByteArray());
+	}
+
+	/**
+	 * Positive test: later modifications of the source object do not affect
+	 * the immutable copy.
+	 */
+	@Test
+	public void testConstructor_SourceModified() {
+		ConstructedTlvDataObject source = new ConstructedTlvDataObject(HexString.toByteArray("3003020101"));
+		ImmutableTlvDataObject immutable = new ImmutableTlvDataObject(source);
+
+		source.addTlvDataObject(new PrimitiveTlvDataObject(HexString.toByteArray("020102")));
+
+		assertArrayEquals(HexString.toByteArray("3003020101"), immutable.toByteArray());
+	}
+
+	/**
+	 * Positive test: immutable objects are equal to and share the hash code
+	 * of modifiable objects with the same encoding, in both directions.
+	 */
+	@Test
+	public void testEqualsAndHashCode() {
+		TlvDataObject modifiable = TlvDataObjectFactory.createTLVDataObject("3006020101020102");
+		ImmutableTlvDataObject immutable = new ImmutableTlvDataObject(modifiable);
+
+		assertTrue(immutable.equals(modifiable));
+		assertTrue(modifiable.equals(immutable));
+		assertTrue(immutable.equals(new ImmutableTlvDataObject(modifiable)));
+		assertEquals(modifiable.hashCode(), immutable.hashCode());
+
+		Set<TlvDataObject> set = new HashSet<>();
+		set.add(immutable);
+		assertTrue(set.contains(modifiable));
+	}
+
+	/**
+	 * Negative test: objects with different encodings are not equal.
+	 */
+	@Test
+	public void testEquals_DifferentEncoding() {
+		ImmutableTlvDataObject immutable = new ImmutableTlvDataObject(HexString.toByteArray("020101"));
+
+		assertFalse(immutable.equals(new ImmutableTlvDataObject(HexString.toByteArray("020102"))));
+		assertFalse(immutable.equals(TlvDataObjectFactory.createTLVDataObject("02020101")));
+	}
+
+	/**
+	 * Positive test: hash codes of encodings containing zero bytes still
+	 * differ.
+	 */
+	@Test
+	public void testHashCode_ZeroBytes() {
+		TlvDataObject first = TlvDataObjectFactory.createTLVDataObject("02020001");
+		TlvDataObject second = TlvDataObjectFactory.createTLVDataObject("02020002");
+
+		assertNotEquals(first.hashCode(), second.hashCode());
+	}
+
+	/**
+	 * Negative test: modifications are rejected.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSetTag() {
+		new ImmutableTlvDataObject(HexString.toByteArray("020101")).setTag(new TlvTag((byte) 0x04));
+	}
+
+}
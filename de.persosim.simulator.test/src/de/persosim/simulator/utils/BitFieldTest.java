@@ -2,6 +2,7 @@ package de.persosim.simulator.utils;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
@@ -123,4 +124,42 @@ public class BitFieldTest extends PersoSimTestCase {
 		
 		assertEquals(expected, result);
 	}
+	
+	/**
+	 * Positive test: conversion to big endian is the inverse of
+	 * {@link BitField#buildFromBigEndian(int, byte[])}.
+	 */
+	@Test
+	public void testGetAsBigEndianByteArray(){
+		byte [] bigEndian = new byte [] {0b00000011, (byte) 0b10110100};
+		BitField field = BitField.buildFromBigEndian(10, bigEndian);
+		
+		assertArrayEquals(bigEndian, field.getAsBigEndianByteArray());
+	}
+	
+	/**
+	 * Positive test: concatenation across word boundaries
+	 */
+	@Test
+	public void testConcatenate_MultipleWords(){
+		BitField first = new BitField(70).flipBit(0).flipBit(69);
+		BitField second = new BitField(60).flipBit(1).flipBit(59);
+		
+		BitField result = first.concatenate(second);
+		
+		assertEquals(130, result.getNumberOfBits());
+		for (int i = 0; i < 130; i++){
+			assertEquals("bit " + i, i == 0 || i == 69 || i == 71 || i == 129, result.getBit(i));
+		}
+	}
+	
+	@Test
+	public void testIsSubsetOf(){
+		BitField subset = new BitField(16, new byte []{(byte) 0x0F, 0b00010001});
+		
+		assertTrue(subset.isSubsetOf(field1.or(subset)));
+		assertFalse(field1.or(subset).isSubsetOf(subset));
+		assertFalse(field1.isSubsetOf(new BitField(16)));
+		assertFalse(field1.or(field2).isSubsetOf(field1));
+	}
 }
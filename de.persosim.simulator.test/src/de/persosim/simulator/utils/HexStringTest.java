@@ -69,5 +69,28 @@ public class HexStringTest {
 		
 		assertArrayEquals(exp, recv);
 	}
+	
+	/**
+	 * Positive test case: convert String containing whitespace and lower case
+	 * digits to byte array.
+	 */
+	@Test
+	public void testToByteArray_Whitespace() {
+		String s = " 7f ff\n\t00 ";
+		byte[] exp = new byte[]{(byte) 0x7F, (byte) 0xFF, (byte) 0x00};
+		
+		byte[] recv = HexString.toByteArray(s);
+		
+		assertArrayEquals(exp, recv);
+	}
+	
+	/**
+	 * Negative test case: convert String containing non hexadecimal
+	 * characters.
+	 */
+	@Test(expected = NumberFormatException.class)
+	public void testToByteArray_IllegalCharacter() {
+		HexString.toByteArray("7FXF");
+	}
 
 }
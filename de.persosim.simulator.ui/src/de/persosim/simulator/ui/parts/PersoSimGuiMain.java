@@ -2,13 +2,13 @@ package de.persosim.simulator.ui.parts;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
-import java.util.Arrays;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -25,6 +25,8 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Text;
 
 import de.persosim.simulator.PersoSim;
+import de.persosim.simulator.monitoring.LogLineBuffer;
+import de.persosim.simulator.monitoring.LogLineOutputStream;
 import de.persosim.simulator.ui.utils.TextLengthLimiter;
 
 /**
@@ -35,6 +37,12 @@ public class PersoSimGuiMain {
 	
 	public static final int LOG_LIMIT = 1000;
 	
+	/** interval in ms between checks for new output to be displayed */
+	public static final int GUI_UPDATE_INTERVAL = 100;
+	
+	/** maximum number of output lines appended to the GUI at once */
+	public static final int MAX_LINES_PER_GUI_UPDATE = 200;
+	
 	// get UISynchronize injected as field
 	@Inject UISynchronize sync;
 	
@@ -48,6 +56,10 @@ public class PersoSimGuiMain {
 	
 	private PrintWriter inWriter;
 	
+	private final LogLineBuffer outputBuffer = new LogLineBuffer();
+	private final AtomicBoolean guiUpdatePending = new AtomicBoolean(false);
+	private long reportedDroppedLines = 0;
+	
 	Composite parent;
 
 	@PostConstruct
@@ -102,64 +114,26 @@ public class PersoSimGuiMain {
 			public void run() {
 				while (true) {
 					try {
-						Thread.sleep(100);
+						Thread.sleep(GUI_UPDATE_INTERVAL);
 					} catch (InterruptedException e) {
 						// ignore, timing is not critical here
 					}
-					appendToGui("");
+					scheduleGuiUpdate();
 				}
 			}
 		});
+		uiBufferThread.setDaemon(true);
 		uiBufferThread.start();
 		
 	}
 		
 	/**
-	 * This method activates redirection of System.out.
+	 * This method activates redirection of System.out. All output is
+	 * collected line by line within {@link #outputBuffer} and still passed
+	 * to the original System.out.
 	 */
 	private void grabSysOut() {
-	    OutputStream out = new OutputStream() {
-
-			char [] buffer = new char [80];
-			int currentPosition = 0;
-			boolean checkNextForNewline = false;
-			
-			@Override
-			public void write(int b) throws IOException {
-				final char value = (char) b;
-				
-				if (checkNextForNewline){
-					checkNextForNewline = false;
-					if (value == '\n'){
-						return;
-					}
-				}
-
-				if (currentPosition < buffer.length - 1 && !(value == '\n' || value == '\r')){
-					buffer [currentPosition++] = value;
-				} else {
-					if (value == '\n' || value == '\r'){
-						if (value == '\r'){
-							checkNextForNewline = true;
-						}
-						buffer [currentPosition++] = '\n';
-					} else {
-						buffer [currentPosition++] = value;
-					}
-
-					final String toPrint = new String(Arrays.copyOf(buffer, currentPosition));
-					originalSystemOut.print(toPrint);
-					appendToGui(toPrint);
-					
-					
-					currentPosition = 0;
-				}
-				
-				
-			}
-		};
-
-		newSystemOut = new PrintStream(out, true);
+		newSystemOut = new PrintStream(new LogLineOutputStream(outputBuffer, originalSystemOut), true);
 		
 		System.setOut(newSystemOut);
 		
@@ -169,29 +143,49 @@ public class PersoSimGuiMain {
 	    
 	}
 	
-	StringBuilder guiStringBuilder = new StringBuilder();
-	long lastGuiFlush = 0;
-	//XXX ensure that this method is called often enough, so that the last updates are correctly reflected
-	protected void appendToGui(String s) {
-		if((guiStringBuilder.length() > 0) || (s.length() > 0)) {
-			if(s.length() > 0) {
-				guiStringBuilder.append(s);
-			}
+	/**
+	 * Schedule the update of the GUI with the buffered output, unless no
+	 * output is available or the previous update is still pending. This
+	 * ensures that the UI thread is never flooded with updates, output
+	 * produced faster than it can be displayed is dropped by the
+	 * {@link #outputBuffer}.
+	 */
+	protected void scheduleGuiUpdate() {
+		if (outputBuffer.isEmpty() || !guiUpdatePending.compareAndSet(false, true)) {
+			return;
+		}
+		
+		sync.asyncExec(new Runnable() {
 			
-			long currentTime = new Date().getTime();
-			if (currentTime-lastGuiFlush > 50) {
-				lastGuiFlush = currentTime;
-				//XXX MBK check why syncExec blocks (possible deadlock with System.out.print())
-				final String toPrint = guiStringBuilder.toString();
-				guiStringBuilder = new StringBuilder();
-				sync.asyncExec(new Runnable() {
-					
-					@Override
-					public void run() {
-						txtOutput.append(toPrint);
-					}
-				});
+			@Override
+			public void run() {
+				guiUpdatePending.set(false);
+				appendToGui();
 			}
+		});
+	}
+	
+	/**
+	 * Append the buffered output to the GUI, must be called from the UI thread.
+	 */
+	protected void appendToGui() {
+		List<String> lines = new ArrayList<>();
+		outputBuffer.drainTo(lines, MAX_LINES_PER_GUI_UPDATE);
+		
+		StringBuilder sb = new StringBuilder();
+		long droppedLines = outputBuffer.getDroppedCount();
+		if (droppedLines > reportedDroppedLines) {
+			sb.append("[" + (droppedLines - reportedDroppedLines) + " lines of output dropped]");
+			sb.append(System.lineSeparator());
+			reportedDroppedLines = droppedLines;
+		}
+		for (String curLine : lines) {
+			sb.append(curLine);
+			sb.append(System.lineSeparator());
+		}
+		
+		if (sb.length() > 0) {
+			txtOutput.append(sb.toString());
 		}
 	}
 
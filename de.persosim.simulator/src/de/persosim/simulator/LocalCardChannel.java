@@ -0,0 +1,268 @@
+package de.persosim.simulator;
+
+import java.io.Closeable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.persosim.simulator.monitoring.ApduTraceBuffer;
+import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.platform.ApduListener;
+import de.persosim.simulator.platform.PersoSimKernel;
+import de.persosim.simulator.platform.SessionCheckpoint;
+
+/**
+ * In-process connection to a simulated card.
+ * <p/>
+ * This provides the operations of the control APDUs known from the
+ * {@link SocketSimulator} (power on/off, reset and session checkpoints) and
+ * the transmission of APDUs, but drives its {@link PersoSimKernel} directly,
+ * i.e. without socket and hex encoding. Every channel owns its own kernel, so
+ * any number of channels can be used concurrently within the same JVM.
+ * <p/>
+ * All operations of a channel are serialized. Asynchronous transmissions are
+ * processed in order of submission by a worker thread of this channel, which
+ * is started on first use and terminated by {@link #close()}.
+ */
+public class LocalCardChannel implements Closeable {
+
+	/**
+	 * Size of the largest possible response APDU, i.e. 65536 bytes of data
+	 * and the status word
+	 */
+	public static final int MAX_RESPONSE_LENGTH = 65538;
+
+	private PersoSimKernel kernel;
+	private boolean isPowerOn = false;
+	private boolean isClosed = false;
+	private ExecutorService asyncExecutor;
+
+	/**
+	 * Create a new channel to a freshly initialized card using the given
+	 * personalization. The card needs to be powered on before APDUs can be
+	 * transmitted.
+	 *
+	 * @param perso
+	 *            the personalization to be used by the simulated card
+	 */
+	public LocalCardChannel(Personalization perso) {
+		kernel = new PersoSimKernel(perso);
+		kernel.init();
+	}
+
+	/**
+	 * Power on the simulated card.
+	 *
+	 * @return the ATR
+	 */
+	public synchronized byte[] powerOn() {
+		ensureOpen();
+		isPowerOn = true;
+		return kernel.powerOn();
+	}
+
+	/**
+	 * Power off the simulated card.
+	 *
+	 * @return the status word
+	 */
+	public synchronized byte[] powerOff() {
+		ensureOpen();
+		isPowerOn = false;
+		return kernel.powerOff();
+	}
+
+	/**
+	 * Perform a cold reset of the simulated card, this also powers on the card
+	 * if it was powered off.
+	 *
+	 * @return the ATR
+	 */
+	public synchronized byte[] reset() {
+		ensureOpen();
+		isPowerOn = true;
+		return kernel.reset();
+	}
+
+	public synchronized boolean isPowerOn() {
+		return isPowerOn;
+	}
+
+	/**
+	 * Send a single command APDU to the simulated card.
+	 *
+	 * @param commandApdu
+	 *            the command APDU
+	 * @return the response APDU including the trailing status word
+	 * @throws IllegalStateException
+	 *             if the card is not powered on or the channel is closed
+	 */
+	public synchronized byte[] transmit(byte[] commandApdu) {
+		ensureOpen();
+		if (!isPowerOn) {
+			throw new IllegalStateException("card is not powered on");
+		}
+		return kernel.process(commandApdu);
+	}
+
+	/**
+	 * Send the command APDU contained in the remaining bytes of command to the
+	 * simulated card and write the response APDU (including the status word)
+	 * to response, starting at its current position.
+	 * <p/>
+	 * The position of command is advanced to its limit, the position of
+	 * response is advanced by the length of the response APDU. response needs
+	 * to provide enough remaining space for the complete response APDU, up to
+	 * {@link #MAX_RESPONSE_LENGTH} bytes if extended length responses are
+	 * expected.
+	 *
+	 * @param command
+	 *            buffer containing the command APDU
+	 * @param response
+	 *            buffer to receive the response APDU
+	 * @return the length of the response APDU
+	 * @throws BufferOverflowException
+	 *             if the response APDU does not fit into response, the
+	 *             response is lost in this case
+	 * @throws IllegalStateException
+	 *             if the card is not powered on or the channel is closed
+	 */
+	public int transmit(ByteBuffer command, ByteBuffer response) {
+		byte[] commandApdu = new byte[command.remaining()];
+		command.get(commandApdu);
+
+		byte[] responseApdu = transmit(commandApdu);
+		if (responseApdu.length > response.remaining()) {
+			throw new BufferOverflowException();
+		}
+		response.put(responseApdu);
+		return responseApdu.length;
+	}
+
+	/**
+	 * Send a single command APDU to the simulated card asynchronously.
+	 *
+	 * @param commandApdu
+	 *            the command APDU
+	 * @return a {@link Future} providing the response APDU
+	 * @see #transmit(byte[])
+	 */
+	public Future<byte[]> transmitAsync(final byte[] commandApdu) {
+		return getAsyncExecutor().submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() throws Exception {
+				return transmit(commandApdu);
+			}
+		});
+	}
+
+	/**
+	 * Send the command APDU contained in command to the simulated card
+	 * asynchronously. The buffers must not be accessed until the handler is
+	 * called.
+	 *
+	 * @param command
+	 *            buffer containing the command APDU
+	 * @param response
+	 *            buffer to receive the response APDU
+	 * @param attachment
+	 *            object passed to the handler, may be null
+	 * @param handler
+	 *            handler called with the length of the response APDU after
+	 *            completion or with the exception if the transmission failed
+	 * @see #transmit(ByteBuffer, ByteBuffer)
+	 */
+	public <A> void transmitAsync(final ByteBuffer command, final ByteBuffer response, final A attachment,
+			final CompletionHandler<Integer, ? super A> handler) {
+		getAsyncExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				int responseLength;
+				try {
+					responseLength = transmit(command, response);
+				} catch (RuntimeException e) {
+					handler.failed(e, attachment);
+					return;
+				}
+				handler.completed(responseLength, attachment);
+			}
+		});
+	}
+
+	/**
+	 * @see PersoSimKernel#createCheckpoint()
+	 */
+	public synchronized SessionCheckpoint createCheckpoint() {
+		ensureOpen();
+		return kernel.createCheckpoint();
+	}
+
+	/**
+	 * @see PersoSimKernel#restoreCheckpoint(SessionCheckpoint)
+	 */
+	public synchronized byte[] restoreCheckpoint(SessionCheckpoint checkpoint) {
+		ensureOpen();
+		return kernel.restoreCheckpoint(checkpoint);
+	}
+
+	/**
+	 * @see PersoSimKernel#addApduListener(ApduListener)
+	 */
+	public void addApduListener(ApduListener listener) {
+		kernel.addApduListener(listener);
+	}
+
+	/**
+	 * @see PersoSimKernel#removeApduListener(ApduListener)
+	 */
+	public void removeApduListener(ApduListener listener) {
+		kernel.removeApduListener(listener);
+	}
+
+	/**
+	 * @return the trace of the APDUs recently processed by the simulated card
+	 */
+	public ApduTraceBuffer getTrace() {
+		return kernel.getTrace();
+	}
+
+	/**
+	 * Close this channel. Asynchronous transmissions that are not yet
+	 * processed fail with an {@link IllegalStateException}.
+	 */
+	@Override
+	public synchronized void close() {
+		isClosed = true;
+		isPowerOn = false;
+		if (asyncExecutor != null) {
+			asyncExecutor.shutdown();
+		}
+	}
+
+	private void ensureOpen() {
+		if (isClosed) {
+			throw new IllegalStateException("channel is closed");
+		}
+	}
+
+	private synchronized ExecutorService getAsyncExecutor() {
+		ensureOpen();
+		if (asyncExecutor == null) {
+			asyncExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "LocalCardChannel");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return asyncExecutor;
+	}
+
+}
@@ -1,23 +1,29 @@
 package de.persosim.simulator;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.net.Socket;
 import java.net.URL;
 import java.security.Security;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.eclipse.core.runtime.FileLocator;
@@ -25,8 +31,11 @@ import org.eclipse.core.runtime.Platform;
 import org.osgi.framework.Bundle;
 
 import de.persosim.simulator.jaxb.PersoSimJaxbContextProvider;
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 import de.persosim.simulator.perso.DefaultPersoTestPki;
+import de.persosim.simulator.perso.PersoTaskPool;
 import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.recording.ApduRecorder;
 import de.persosim.simulator.utils.PersoSimLogger;
 
 /**
@@ -51,6 +60,7 @@ public class PersoSim implements Runnable {
 	 * Due to this possibility access to this variable should be performed by calling the getPersonalization() method. 
 	 */
 	private Personalization currentPersonalization = new DefaultPersoTestPki();
+	private ApduRecorder apduRecorder;
 	
 	public static final String CMD_START                      = "start";
 	public static final String CMD_RESTART                    = "restart";
@@ -58,9 +68,15 @@ public class PersoSim implements Runnable {
 	public static final String CMD_EXIT                       = "exit";
 	public static final String CMD_SET_PORT                   = "setport";
 	public static final String ARG_SET_PORT                   = "-port";
+	public static final String CMD_SET_LOG_LEVEL              = "setloglevel";
+	public static final String ARG_SET_LOG_LEVEL              = "-loglevel";
 	public static final String CMD_LOAD_PERSONALIZATION       = "loadperso";
 	public static final String ARG_LOAD_PERSONALIZATION       = "-perso";
 	public static final String CMD_SEND_APDU                  = "sendapdu";
+	public static final String CMD_SEND_BATCH                 = "sendbatch";
+	public static final String CMD_STATISTICS                 = "stats";
+	public static final String CMD_RECORD                     = "record";
+	public static final String CMD_TRACE                      = "trace";
 	public static final String CMD_HELP                       = "help";
 	public static final String ARG_HELP                       = "-h";
 	public static final String CMD_CONSOLE_ONLY               = "--consoleOnly";
@@ -77,6 +93,9 @@ public class PersoSim implements Runnable {
 	public static final String persoFilePrefix = "Profile";
 	public static final String persoFilePostfix = ".xml";
 	
+	private static final int PERSO_BUFFER_SIZE = 8 * 1024;
+	private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+	
 	private int simPort = DEFAULT_SIM_PORT; // default
 	private boolean executeUserCommands = false;
 	private boolean processingCommandLineArguments = false;
@@ -86,6 +105,10 @@ public class PersoSim implements Runnable {
 		if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
 			Security.addProvider(new BouncyCastleProvider());
 		}
+		
+		//personalizations neither need DTDs nor external entities
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
 	}
 	
 	public PersoSim(String... args) {
@@ -174,6 +197,9 @@ public class PersoSim implements Runnable {
 		}
 		
 		SocketSimulator newSimulator = new SocketSimulator(getPersonalization(), simPort);
+		if (apduRecorder != null) {
+			newSimulator.addApduListener(apduRecorder);
+		}
 		
 		if(newSimulator.start()) {
 			simulator = newSimulator;
@@ -294,6 +320,7 @@ public class PersoSim implements Runnable {
 		System.out.println(LOG_SIM_EXIT);
 		
 		boolean stopped = stopSimulator();
+		stopRecording();
 		
 		if(stopped) {
 			System.out.println("The simulator has been terminated and will no longer respond to incoming APDUs or commands");
@@ -319,6 +346,11 @@ public class PersoSim implements Runnable {
 	
 	/**
 	 * This method parses a {@link Personalization} object from a file identified by its name.
+	 * <p/>
+	 * The file is read through a StAX parser with DTDs and external
+	 * entities disabled, using the encoding declared by the document. JAXB
+	 * still creates the complete object tree of the personalization.
+	 * 
 	 * @param persoFileName the name of the file to contain the personalization
 	 * @return the parsed personalization
 	 * @throws FileNotFoundException 
@@ -329,7 +361,71 @@ public class PersoSim implements Runnable {
 		
 		Unmarshaller um = PersoSimJaxbContextProvider.getContext().createUnmarshaller();
 		System.out.println("Parsing personalization from file " + persoFileName);
-		return (Personalization) um.unmarshal(new FileReader(persoFile));
+		
+		InputStream persoStream = new BufferedInputStream(new FileInputStream(persoFile), PERSO_BUFFER_SIZE);
+		try {
+			XMLStreamReader xmlReader = createXmlStreamReader(persoStream);
+			try {
+				return (Personalization) um.unmarshal(xmlReader);
+			} finally {
+				xmlReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new JAXBException("unable to read personalization from file " + persoFileName, e);
+		} finally {
+			try {
+				persoStream.close();
+			} catch (IOException e) {
+				// nothing to do, the personalization is already parsed or parsing failed anyhow
+			}
+		}
+	}
+	
+	private static XMLStreamReader createXmlStreamReader(InputStream in) throws XMLStreamException {
+		// the factory is not guaranteed to be thread-safe, parsePersonalizations() uses it concurrently
+		synchronized (XML_INPUT_FACTORY) {
+			return XML_INPUT_FACTORY.createXMLStreamReader(in);
+		}
+	}
+	
+	/**
+	 * This method parses several {@link Personalization} objects in parallel.
+	 * Completion of each personalization (e.g. signing of missing SecInfo
+	 * files) shares the same pool, so it is parallelized across all
+	 * personalizations as well.
+	 * 
+	 * @param persoFileNames
+	 *            the names of the files containing the personalizations
+	 * @return the parsed personalizations in the order of the given file names
+	 * @throws FileNotFoundException
+	 * @throws JAXBException
+	 *             if parsing of any personalization was not successful
+	 */
+	public static List<Personalization> parsePersonalizations(List<String> persoFileNames) throws FileNotFoundException, JAXBException {
+		List<Callable<Personalization>> tasks = new ArrayList<>();
+		for (final String curFileName : persoFileNames) {
+			tasks.add(new Callable<Personalization>() {
+				@Override
+				public Personalization call() throws Exception {
+					return parsePersonalization(curFileName);
+				}
+			});
+		}
+		
+		try {
+			return PersoTaskPool.invokeAll(tasks);
+		} catch (RuntimeException e) {
+			// checked exceptions are wrapped (possibly several times) by the pool
+			for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+				if (cause instanceof FileNotFoundException) {
+					throw (FileNotFoundException) cause;
+				}
+				if (cause instanceof JAXBException) {
+					throw (JAXBException) cause;
+				}
+			}
+			throw e;
+		}
 	}
 	
 	/**
@@ -430,47 +526,92 @@ public class PersoSim implements Runnable {
 	private String exchangeApdu(String cmdApdu, String host, int port) {
 		cmdApdu = cmdApdu.replaceAll("\\s", ""); // remove any whitespace
 
-		Socket socket;
-		try {
-			socket = new Socket(host, port);
-		} catch (IOException e) {
-			socket = null;
-			showExceptionToUser(e);
-			return null;
-		}
-
-		PrintStream out = null;
-		BufferedReader in = null;
-		try {
-			out = new PrintStream(socket.getOutputStream());
-			in = new BufferedReader(new InputStreamReader(
-					socket.getInputStream()));
-		} catch (IOException e) {
-			showExceptionToUser(e);
-		}
-
-		out.println(cmdApdu);
-		out.flush();
-
 		String respApdu = null;
-		try {
-			respApdu = in.readLine();
+		try (SimulatorConnection connection = new SimulatorConnection(host, port)) {
+			respApdu = connection.transmit(cmdApdu);
 		} catch (IOException e) {
 			showExceptionToUser(e);
 		} finally {
 			System.out.println("> " + cmdApdu);
 			System.out.println("< " + respApdu);
-			if (socket != null) {
-				try {
-					socket.close();
+		}
+
+		return respApdu;
+		
+	}
+	
+	/**
+	 * This method processes the command for sending a batch of APDUs read
+	 * from a file. All APDUs are pipelined over a single connection to the
+	 * simulator and each response is printed together with its round trip
+	 * time. The file contains one HexString APDU per line, empty lines and
+	 * lines starting with '#' are ignored.
+	 * 
+	 * @param args
+	 *            the name of the file containing the APDUs
+	 * @return whether processing of the command has been successful
+	 */
+	public boolean cmdSendBatch(List<String> args) {
+		if((args != null) && (args.size() >= 2)) {
+			String cmd = args.get(0);
+			
+			if(cmd.equals(CMD_SEND_BATCH)) {
+				String fileName = args.get(1).trim();
+				args.remove(0);
+				args.remove(0);
+				
+				List<String> apdus = new ArrayList<String>();
+				try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if ((line.length() > 0) && !line.startsWith("#")) {
+							apdus.add(line);
+						}
+					}
 				} catch (IOException e) {
-					showExceptionToUser(e);
+					System.out.println("unable to read APDUs from " + fileName + ", reason is: " + e.getMessage());
+					return false;
 				}
+				
+				return sendBatch(apdus, DEFAULT_SIM_HOST, simPort);
 			}
 		}
-
-		return respApdu;
 		
+		return false;
+	}
+	
+	/**
+	 * Transmit all given APDUs over a single connection to the simulator
+	 * identified by host name and port number and print each response
+	 * together with its round trip time.
+	 * 
+	 * @param apdus
+	 *            HexStrings containing the CommandAPDUs
+	 * @param host
+	 *            the host to contact
+	 * @param port
+	 *            the port to query
+	 * @return whether all APDUs have been answered
+	 */
+	private boolean sendBatch(List<String> apdus, String host, int port) {
+		long start = System.nanoTime();
+		List<SimulatorConnection.Response> responses;
+		try (SimulatorConnection connection = new SimulatorConnection(host, port)) {
+			responses = connection.transmit(apdus);
+		} catch (IOException e) {
+			showExceptionToUser(e);
+			return false;
+		}
+		long elapsed = System.nanoTime() - start;
+		
+		for (SimulatorConnection.Response response : responses) {
+			System.out.println("> " + response.getCommandApdu());
+			System.out.println(String.format("< %s (%.3f ms)", response.getResponseApdu(), response.getRoundTripNanos() / 1e6));
+		}
+		System.out.println(String.format("%d APDUs sent in %.3f ms", responses.size(), elapsed / 1e6));
+		
+		return true;
 	}
 	
 	/**
@@ -480,6 +621,7 @@ public class PersoSim implements Runnable {
 		System.out.println("Available commands:");
 		System.out.println(ARG_LOAD_PERSONALIZATION + " <file name>");
 		System.out.println(ARG_SET_PORT + " <port number>");
+		System.out.println(ARG_SET_LOG_LEVEL + " <trace|debug|info|warn|error|fatal>");
 		System.out.println(ARG_HELP);
 	}
 	
@@ -489,8 +631,13 @@ public class PersoSim implements Runnable {
 	private void printHelpCmd() {
 		System.out.println("Available commands:");
 		System.out.println(CMD_SEND_APDU + " <hexstring>");
+		System.out.println(CMD_SEND_BATCH + " <file name>");
 		System.out.println(CMD_LOAD_PERSONALIZATION + " <file name>");
 		System.out.println(CMD_SET_PORT + " <port number>");
+		System.out.println(CMD_SET_LOG_LEVEL + " <trace|debug|info|warn|error|fatal>");
+		System.out.println(CMD_STATISTICS + " <on|off|reset|text|json|every <seconds> [json]>");
+		System.out.println(CMD_RECORD + " <file name|stop>");
+		System.out.println(CMD_TRACE + " [clear]");
 		System.out.println(CMD_START);
 		System.out.println(CMD_RESTART);
 		System.out.println(CMD_STOP);
@@ -522,6 +669,15 @@ public class PersoSim implements Runnable {
 		return false;
 	}
 	
+	/**
+	 * This method loads a personalization from the profile with the given
+	 * number or the file with the given name. If the simulator is running,
+	 * the personalization is replaced without restarting it (see
+	 * {@link SocketSimulator#loadPersonalization(Personalization)}).
+	 * 
+	 * @param identifier profile number or file name of the personalization
+	 * @return whether the personalization has been loaded successfully
+	 */
 	public boolean loadPersonalization(String identifier) {
 		currentPersonalization = null;
 
@@ -550,6 +706,11 @@ public class PersoSim implements Runnable {
 			currentPersonalization = parsePersonalization(identifier);
 			if(processingCommandLineArguments) {
 				return true;
+			} else if (simulator != null && simulator.isRunning()) {
+				// swap the card without interrupting the server socket
+				simulator.loadPersonalization(currentPersonalization);
+				System.out.println("The personalization has been replaced, new connections will use the new personalization");
+				return true;
 			} else{
 				return restartSimulator();
 			}
@@ -593,6 +754,195 @@ public class PersoSim implements Runnable {
 		return false;
 	}
 	
+	/**
+	 * This method processes the set log level command according to the
+	 * provided arguments. Messages below the given level are neither created
+	 * nor written to the log.
+	 * 
+	 * @param args
+	 *            the arguments provided for processing the set log level
+	 *            command
+	 * @return whether processing of the set log level command has been
+	 *         successful
+	 */
+	public boolean cmdSetLogLevel(List<String> args) {
+		if((args != null) && (args.size() >= 2)) {
+			String cmd = args.get(0);
+			
+			if(cmd.equals(CMD_SET_LOG_LEVEL) || cmd.equals(ARG_SET_LOG_LEVEL)) {
+				String arg = args.get(1).trim();
+				args.remove(0);
+				args.remove(0);
+				
+				try {
+					PersoSimLogger.setLogLevel(PersoSimLogger.parseLogLevel(arg));
+					System.out.println("log level set to " + arg);
+					return true;
+				} catch (IllegalArgumentException e) {
+					System.out.println("unable to set log level, reason is: " + e.getMessage());
+					return false;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * This method processes the statistics command according to the provided
+	 * arguments. Supported parameters are "on" and "off" for enabling and
+	 * disabling collection of statistics, "reset" for clearing all collected
+	 * values, "text" and "json" for printing the current values and
+	 * "every &lt;seconds&gt; [json]" for printing them periodically. A period of
+	 * 0 seconds stops periodic printing.
+	 * 
+	 * @param args the arguments provided for processing the statistics command
+	 * @return whether processing of the statistics command has been successful
+	 */
+	public boolean cmdStatistics(List<String> args) {
+		if((args != null) && (args.size() >= 2)) {
+			String cmd = args.get(0);
+			
+			if(cmd.equals(CMD_STATISTICS)) {
+				String[] params = args.get(1).trim().split("\\s+");
+				args.remove(0);
+				args.remove(0);
+				
+				switch (params[0]) {
+				case "on":
+					PerformanceMonitor.setEnabled(true);
+					System.out.println("collection of statistics enabled");
+					return true;
+				case "off":
+					PerformanceMonitor.setEnabled(false);
+					System.out.println("collection of statistics disabled");
+					return true;
+				case "reset":
+					PerformanceMonitor.reset();
+					System.out.println("statistics have been reset");
+					return true;
+				case "text":
+					System.out.println(PerformanceMonitor.toText());
+					return true;
+				case "json":
+					System.out.println(PerformanceMonitor.toJson());
+					return true;
+				case "every":
+					try {
+						long period = Long.parseLong(params[1]);
+						if (period == 0) {
+							PerformanceMonitor.stopPeriodicDump();
+							System.out.println("periodic printing of statistics stopped");
+						} else {
+							boolean json = (params.length > 2) && params[2].equals("json");
+							PerformanceMonitor.startPeriodicDump(period, System.out, json);
+							System.out.println("statistics will be printed every " + period + " seconds");
+						}
+						return true;
+					} catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+						System.out.println("unable to print statistics periodically, reason is: " + e.getMessage());
+						return false;
+					}
+				default:
+					System.out.println("unknown parameter for statistics command: " + params[0]);
+					return false;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * This method processes the command for recording all APDUs processed by
+	 * the simulator into a trace file, e.g. for later replay by a load
+	 * generator. The recording survives restarts of the simulator.
+	 * 
+	 * @param args
+	 *            the file name to record to or "stop" to end recording
+	 * @return whether processing of the command has been successful
+	 */
+	public boolean cmdRecord(List<String> args) {
+		if((args != null) && (args.size() >= 2)) {
+			String cmd = args.get(0);
+			
+			if(cmd.equals(CMD_RECORD)) {
+				String param = args.get(1).trim();
+				args.remove(0);
+				args.remove(0);
+				
+				stopRecording();
+				
+				if(param.equals("stop")) {
+					System.out.println("recording of APDUs stopped");
+					return true;
+				}
+				
+				try {
+					apduRecorder = new ApduRecorder(new FileWriter(param));
+				} catch (IOException e) {
+					System.out.println("unable to record APDUs to " + param + ", reason is: " + e.getMessage());
+					return false;
+				}
+				
+				if (simulator != null) {
+					simulator.addApduListener(apduRecorder);
+				}
+				System.out.println("recording APDUs to " + param);
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * This method processes the command for showing the trace of the APDUs
+	 * recently processed by the simulated card.
+	 * 
+	 * @param args
+	 *            optionally followed by "clear" to remove all trace records
+	 * @return whether processing of the command has been successful
+	 */
+	public boolean cmdTrace(List<String> args) {
+		if((args != null) && (args.size() >= 1)) {
+			String cmd = args.get(0);
+			
+			if(cmd.equals(CMD_TRACE)) {
+				args.remove(0);
+				boolean clear = (args.size() >= 1) && args.get(0).trim().equals("clear");
+				if (clear) {
+					args.remove(0);
+				}
+				
+				if (simulator == null) {
+					System.out.println("simulator is not running, no trace available");
+					return false;
+				}
+				
+				if (clear) {
+					simulator.getTrace().clear();
+					System.out.println("trace has been cleared");
+				} else {
+					System.out.println(simulator.getTrace().toText());
+				}
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private void stopRecording() {
+		if (apduRecorder != null) {
+			if (simulator != null) {
+				simulator.removeApduListener(apduRecorder);
+			}
+			apduRecorder.close();
+			apduRecorder = null;
+		}
+	}
+	
 	/**
 	 * This method implements the behavior of the user command prompt. E.g.
 	 * prints the prompt, reads the user commands and forwards this to the the
@@ -681,7 +1031,12 @@ public class PersoSim implements Runnable {
 			
 			cmdLoadPersonalization(currentArgs);
 			cmdSetPortNo(currentArgs);
+			cmdSetLogLevel(currentArgs);
 			cmdSendApdu(currentArgs);
+			cmdSendBatch(currentArgs);
+			cmdStatistics(currentArgs);
+			cmdRecord(currentArgs);
+			cmdTrace(currentArgs);
 			cmdStartSimulator(currentArgs);
 			cmdRestartSimulator(currentArgs);
 			cmdStopSimulator(currentArgs);
@@ -727,6 +1082,7 @@ public class PersoSim implements Runnable {
 			
 			cmdLoadPersonalization(currentArgs);
 			cmdSetPortNo(currentArgs);
+			cmdSetLogLevel(currentArgs);
 			cmdHelp(currentArgs);
 			
 			if(currentArgs.size() > 0) {
@@ -0,0 +1,164 @@
+package de.persosim.simulator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Long lived client connection to a {@link SocketSimulator}.
+ * <p/>
+ * In contrast to opening a new socket for every single APDU this connection
+ * is kept open until it is closed explicitly, so longer APDU sequences (e.g.
+ * scripted personalization checks) do not pay the connection setup for each
+ * command. Multiple APDUs may be pipelined, i.e. further commands are sent
+ * before the responses of previous ones have been received.
+ * <p/>
+ * The simulator keeps the connection open until the peer closes it or the
+ * simulated card is powered off by a control APDU.
+ */
+public class SimulatorConnection implements Closeable {
+
+	/**
+	 * Default number of commands sent ahead of the oldest unanswered one.
+	 * This is limited in order not to stall both sides on full socket buffers
+	 * for long batches.
+	 */
+	public static final int DEFAULT_PIPELINE_DEPTH = 16;
+
+	private Socket socket;
+	private BufferedReader in;
+	private PrintStream out;
+	private int pipelineDepth;
+
+	/**
+	 * Response to a single command APDU together with its round trip time.
+	 * For pipelined commands the round trip time includes the time spent
+	 * waiting for the responses to the preceding commands.
+	 */
+	public static class Response {
+		private String commandApdu;
+		private String responseApdu;
+		private long roundTripNanos;
+
+		public Response(String commandApdu, String responseApdu, long roundTripNanos) {
+			this.commandApdu = commandApdu;
+			this.responseApdu = responseApdu;
+			this.roundTripNanos = roundTripNanos;
+		}
+
+		public String getCommandApdu() {
+			return commandApdu;
+		}
+
+		public String getResponseApdu() {
+			return responseApdu;
+		}
+
+		public long getRoundTripNanos() {
+			return roundTripNanos;
+		}
+	}
+
+	/**
+	 * Connect to the simulator using the {@link #DEFAULT_PIPELINE_DEPTH}.
+	 *
+	 * @param host
+	 *            host name of the simulator
+	 * @param port
+	 *            port of the simulator
+	 * @throws IOException
+	 *             if the connection can not be established
+	 */
+	public SimulatorConnection(String host, int port) throws IOException {
+		this(host, port, DEFAULT_PIPELINE_DEPTH);
+	}
+
+	/**
+	 * Connect to the simulator.
+	 *
+	 * @param host
+	 *            host name of the simulator
+	 * @param port
+	 *            port of the simulator
+	 * @param pipelineDepth
+	 *            maximum number of unanswered commands, 1 disables pipelining
+	 * @throws IOException
+	 *             if the connection can not be established
+	 */
+	public SimulatorConnection(String host, int port, int pipelineDepth) throws IOException {
+		if (pipelineDepth < 1) {
+			throw new IllegalArgumentException("pipeline depth must be positive");
+		}
+		this.pipelineDepth = pipelineDepth;
+
+		socket = new Socket(host, port);
+		socket.setTcpNoDelay(true);
+		in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+		out = new PrintStream(socket.getOutputStream());
+	}
+
+	/**
+	 * Transmit a single APDU and wait for its response.
+	 *
+	 * @param commandApdu
+	 *            HexString containing the command APDU, whitespace is ignored
+	 * @return HexString containing the response APDU
+	 * @throws IOException
+	 *             if the response could not be received
+	 */
+	public String transmit(String commandApdu) throws IOException {
+		return transmit(Collections.singletonList(commandApdu)).get(0).getResponseApdu();
+	}
+
+	/**
+	 * Transmit all given APDUs over this connection, keeping up to the
+	 * configured pipeline depth of commands in flight.
+	 *
+	 * @param commandApdus
+	 *            HexStrings containing the command APDUs, whitespace is
+	 *            ignored
+	 * @return the responses in the order of the commands
+	 * @throws IOException
+	 *             if a response could not be received
+	 */
+	public List<Response> transmit(List<String> commandApdus) throws IOException {
+		int noOfApdus = commandApdus.size();
+		String[] commands = new String[noOfApdus];
+		long[] sendTimes = new long[noOfApdus];
+		List<Response> responses = new ArrayList<>(noOfApdus);
+
+		int sent = 0;
+		while (responses.size() < noOfApdus) {
+			// fill the pipeline
+			while ((sent < noOfApdus) && (sent - responses.size() < pipelineDepth)) {
+				commands[sent] = commandApdus.get(sent).replaceAll("\\s", ""); // remove any whitespace
+				sendTimes[sent] = System.nanoTime();
+				out.println(commands[sent]);
+				sent++;
+			}
+			out.flush();
+
+			// receive the oldest outstanding response
+			String responseApdu = in.readLine();
+			if (responseApdu == null) {
+				throw new IOException("connection closed by simulator");
+			}
+			int index = responses.size();
+			responses.add(new Response(commands[index], responseApdu, System.nanoTime() - sendTimes[index]));
+		}
+
+		return responses;
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+}
@@ -7,10 +7,17 @@ import java.io.PrintStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import de.persosim.simulator.monitoring.ApduTraceBuffer;
 import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.platform.ApduListener;
 import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.platform.PersoSimKernel;
+import de.persosim.simulator.platform.SessionCheckpoint;
 import de.persosim.simulator.utils.HexString;
 import de.persosim.simulator.utils.Utils;
 
@@ -22,6 +29,11 @@ import de.persosim.simulator.utils.Utils;
  * charge of simulating behavior "outside" the card, like power on/off or reset
  * of the card. Therefore it provides it's own APDU handler that handles some
  * special control APDUs
+ * <p/>
+ * The personalization can be replaced while the simulator is running (see
+ * {@link #loadPersonalization(Personalization)}). Every connection uses the
+ * kernel that was current when the connection was accepted, so existing
+ * sessions finish on the old card while new connections get the new one.
  * 
  * @author amay
  * 
@@ -35,10 +47,20 @@ public class SocketSimulator implements Runnable {
 	private Thread simThread = null;
 	private boolean isRunning;
 
-	private PersoSimKernel kernel;
+	/**
+	 * The kernel used for new connections
+	 */
+	private volatile PersoSimKernel kernel;
+	private List<ApduListener> apduListeners = new CopyOnWriteArrayList<>();
 	private boolean isPowerOn;
 	private ServerSocket server;
 	private Socket clientSocket;
+	
+	/**
+	 * Session checkpoints stored by control APDUs, the key is the P1 byte of
+	 * the control APDU
+	 */
+	private Map<Byte, SessionCheckpoint> checkpoints = new ConcurrentHashMap<>();
 
 	/**
 	 * Create new instance.
@@ -52,6 +74,32 @@ public class SocketSimulator implements Runnable {
 		kernel = new PersoSimKernel(perso);
 		kernel.init();
 	}
+	
+	/**
+	 * Replace the personalization of the simulated card without interrupting
+	 * the server socket.
+	 * <p/>
+	 * The new kernel is completely built on the calling thread and then
+	 * published for all connections accepted afterwards. Connections that are
+	 * already established keep using the previous kernel until they are
+	 * closed. Registered {@link ApduListener}s are transferred to the new
+	 * kernel, stored session checkpoints are discarded.
+	 * 
+	 * @param perso
+	 *            the new personalization
+	 */
+	public void loadPersonalization(Personalization perso) {
+		PersoSimKernel newKernel = new PersoSimKernel(perso);
+		newKernel.init();
+		
+		synchronized (apduListeners) {
+			for (ApduListener curListener : apduListeners) {
+				newKernel.addApduListener(curListener);
+			}
+			kernel = newKernel;
+		}
+		checkpoints.clear();
+	}
 
 	/**
 	 * Start execution of the simulation (within its own thread).
@@ -98,6 +146,41 @@ public class SocketSimulator implements Runnable {
 	public boolean isRunning() {
 		return isRunning;
 	}
+	
+	/**
+	 * Register a listener to be notified about every APDU processed by the
+	 * simulated card.
+	 * 
+	 * @param listener
+	 *            the listener to add
+	 */
+	public void addApduListener(ApduListener listener) {
+		synchronized (apduListeners) {
+			apduListeners.add(listener);
+			kernel.addApduListener(listener);
+		}
+	}
+	
+	/**
+	 * Remove a previously registered listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 */
+	public void removeApduListener(ApduListener listener) {
+		synchronized (apduListeners) {
+			apduListeners.remove(listener);
+			kernel.removeApduListener(listener);
+		}
+	}
+
+	/**
+	 * @return the trace of the APDUs recently processed by the kernel used
+	 *         for new connections
+	 */
+	public ApduTraceBuffer getTrace() {
+		return kernel.getTrace();
+	}
 
 	public boolean stop() {
 		isRunning = false;
@@ -163,6 +246,10 @@ public class SocketSimulator implements Runnable {
 	/**
 	 * Handles a single connection from ServerSocket.
 	 * 
+	 * The connection is kept open and serves an arbitrary number of APDUs
+	 * until it is either closed by the peer or the simulated card is powered
+	 * off.
+	 * 
 	 * @param server
 	 */
 	private void handleConnection(ServerSocket server) {
@@ -174,10 +261,12 @@ public class SocketSimulator implements Runnable {
 		clientSocket = null;
 		try {
 			clientSocket = server.accept();
+			PersoSimKernel sessionKernel = kernel;
 
 			BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
 			PrintStream out = new PrintStream(clientSocket.getOutputStream());
 
+			boolean powerOffReceived = false;
 			do {
 				// read APDU from socket
 				String apduLine = null;
@@ -206,14 +295,15 @@ public class SocketSimulator implements Runnable {
 				}
 
 				// process the APDU, generate response
-				response = processCommand(apdu);
+				response = processCommand(sessionKernel, apdu);
+				powerOffReceived = isPowerOffCommand(apdu);
 
 				// encode response and return it
 				String respLine = HexString.encode(response);
 				out.println(respLine);
 				out.flush();
 
-			} while (isPowerOn);
+			} while (!powerOffReceived);
 
 		} catch (IOException e) {
 			//show the exception only if the server is still running, otherwise it is expected behavior
@@ -232,33 +322,95 @@ public class SocketSimulator implements Runnable {
 
 	}
 
+	/**
+	 * Stores a checkpoint of the current session within the slot given by P1
+	 * of the control APDU (FF10 P1 00). A checkpoint previously stored in the
+	 * same slot is replaced.
+	 * 
+	 * @param sessionKernel
+	 * @param apdu
+	 * @return ACK if the checkpoint was stored, NACK otherwise
+	 */
+	private byte[] storeCheckpoint(PersoSimKernel sessionKernel, byte[] apdu) {
+		if (apdu.length < 3) {
+			return NACK;
+		}
+		
+		try {
+			checkpoints.put(apdu[2], sessionKernel.createCheckpoint());
+			return ACK;
+		} catch (IllegalStateException e) {
+			PersoSim.showExceptionToUser(e);
+			return NACK;
+		}
+	}
+	
+	/**
+	 * Restores the checkpoint stored within the slot given by P1 of the
+	 * control APDU (FF11 P1 00). The stored checkpoint is kept, so it can be
+	 * restored again, e.g. after a reset before every iteration of a
+	 * benchmark.
+	 * 
+	 * @param sessionKernel
+	 * @param apdu
+	 * @return ACK if the checkpoint was restored, NACK otherwise
+	 */
+	private byte[] restoreCheckpoint(PersoSimKernel sessionKernel, byte[] apdu) {
+		if (apdu.length < 3) {
+			return NACK;
+		}
+		
+		SessionCheckpoint checkpoint = checkpoints.get(apdu[2]);
+		if (checkpoint == null) {
+			return NACK;
+		}
+		
+		try {
+			return sessionKernel.restoreCheckpoint(checkpoint);
+		} catch (IllegalArgumentException e) {
+			// checkpoint was created before the personalization was replaced
+			PersoSim.showExceptionToUser(e);
+			return NACK;
+		}
+	}
+
+	private static boolean isPowerOffCommand(byte[] apdu) {
+		return (apdu != null) && (apdu.length >= 2) && (apdu[0] == (byte) 0xFF) && (apdu[1] == 0x00);
+	}
+
 	/**
 	 * Handles APDUs received via command socket. Control APDUs are filtered and
 	 * the respective methods of the kernel are called. All other APDUs are
 	 * simply forwarded to the kernels process() method.
 	 * 
+	 * @param sessionKernel
+	 *            the kernel used by the current connection
 	 * @param apdu
 	 * @return
 	 */
-	private byte[] processCommand(byte[] apdu) {
+	private byte[] processCommand(PersoSimKernel sessionKernel, byte[] apdu) {
 		int clains = Utils.maskUnsignedShortToInt(Utils.concatenate(apdu[0], apdu[1]));
 		switch (clains) {
 		case 0xFF00:
 			isPowerOn = false;
-			return kernel.powerOff();
+			return sessionKernel.powerOff();
 		case 0xFF01:
 			isPowerOn = true;
-			return kernel.powerOn();
+			return sessionKernel.powerOn();
+		case 0xFF10:
+			return storeCheckpoint(sessionKernel, apdu);
+		case 0xFF11:
+			return restoreCheckpoint(sessionKernel, apdu);
 		case 0xFF6F:
 			return NACK;
 		case 0xFF90:
 			return ACK;
 		case 0xFFFF:
-			return kernel.reset();
+			return sessionKernel.reset();
 		default:
 			// all other (unknown) APDUs are forwarded to the
 			// PersoSimKernel
-			return kernel.process(apdu);
+			return sessionKernel.process(apdu);
 		}
 	}
 
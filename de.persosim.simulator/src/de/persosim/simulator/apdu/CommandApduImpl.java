@@ -29,7 +29,7 @@ public class CommandApduImpl implements CommandApdu {
 	private boolean isExtendedLength;
 	private byte isoCase;
 	private int ne;
-	private short nc;
+	private int nc;
 	private TlvValue commandData;
 
 	private CommandApdu predecessor = null;
@@ -241,8 +241,8 @@ public class CommandApduImpl implements CommandApdu {
 			if (isExtendedLength) {
 				byte[] retVal = new byte[3];
 				retVal[0] = 0;
-				retVal[1] = (byte) ((nc & (short) 0xFF00) >> 8);
-				retVal[2] = (byte) (nc & (short) 0x00FF);
+				retVal[1] = (byte) ((nc & 0xFF00) >> 8);
+				retVal[2] = (byte) (nc & 0x00FF);
 				return retVal;
 			} else {
 				return new byte[]{(byte) nc};
@@ -256,7 +256,8 @@ public class CommandApduImpl implements CommandApdu {
 	 * Constructs valid byte encoding of Le.
 	 * <p/>
 	 * If Le is absent an empty array is returned.
-	 * If extended length is used Le is encoded in two bytes.
+	 * If extended length is used Le is encoded in two bytes, Ne = 65536 is
+	 * encoded as 0x0000.
 	 * If data field is absent and extended length is used the returned byte array contains the
 	 * required leading zero byte.
 	 * 
@@ -270,8 +271,8 @@ public class CommandApduImpl implements CommandApdu {
 				} else {
 					byte[] retVal = new byte[3];
 					retVal[0] = 0;
-					retVal[1] = (byte) ((ne & (short) 0xFF00) >> 8);
-					retVal[2] = (byte) (ne & (short) 0x00FF);
+					retVal[1] = (byte) ((ne & 0xFF00) >> 8);
+					retVal[2] = (byte) (ne & 0x00FF);
 					return retVal;
 				}
 				
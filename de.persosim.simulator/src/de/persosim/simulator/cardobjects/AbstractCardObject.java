@@ -142,6 +142,18 @@ public abstract class AbstractCardObject implements CardObject, Iso7816LifeCycle
 		}
 	}
 	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to restore the children erased before marshalling
+	 * @param m
+	 */
+	protected void afterMarshal(Marshaller m){
+		if (children == null) {
+			children = new ArrayList<>();
+		}
+	}
+	
 	/**
 	 * JAXB callback
 	 * <p/>
@@ -23,5 +23,18 @@ public abstract class AbstractCardObjectIdentifier implements
 		}
 		return false;
 	}
+	
+	/**
+	 * Returns whether this identifier matches exactly those identifiers that
+	 * are equal to it. Such identifiers implement {@link #equals(Object)} and
+	 * {@link #hashCode()} accordingly and are used as keys of the child index
+	 * maintained by {@link DedicatedFile}. Identifiers using generic matching
+	 * strategies (e.g. wildcards or prefixes) must return false.
+	 * 
+	 * @return true iff matching is equivalent to equality
+	 */
+	protected boolean isExactMatch() {
+		return false;
+	}
 
 }
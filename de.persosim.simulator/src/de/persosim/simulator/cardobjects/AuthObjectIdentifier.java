@@ -38,5 +38,23 @@ public class AuthObjectIdentifier extends AbstractCardObjectIdentifier {
 	public int getIdentifier() {
 		return identifier;
 	}
+	
+	@Override
+	protected boolean isExactMatch() {
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		}
+		return ((AuthObjectIdentifier) obj).identifier == identifier;
+	}
+	
+	@Override
+	public int hashCode() {
+		return identifier;
+	}
 
 }
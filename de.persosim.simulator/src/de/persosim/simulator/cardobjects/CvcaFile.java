@@ -42,12 +42,10 @@ public class CvcaFile extends AbstractFile {
 	 *             when writing access is denied because of security conditions
 	 */
 	public void update(PublicKeyReference certificateAuthorityReference) throws AccessDeniedException {
-		for (SecCondition condition : updatingConditions){
-			if (condition.check(securityStatus.getCurrentMechanisms(SecContext.APPLICATION, condition.getNeededMechanisms()))){
-				previousCertificateAuthorityReference = currentCertificateAuthorityReference;
-				currentCertificateAuthorityReference = certificateAuthorityReference;				
-				return;
-			}
+		if (securityStatus.checkAccessConditions(SecContext.APPLICATION, updatingConditions)){
+			previousCertificateAuthorityReference = currentCertificateAuthorityReference;
+			currentCertificateAuthorityReference = certificateAuthorityReference;				
+			return;
 		}
 		throw new AccessDeniedException("Updating forbidden");
 	}
@@ -57,10 +55,8 @@ public class CvcaFile extends AbstractFile {
 	 * @throws AccessDeniedException
 	 */
 	public PublicKeyReference getCurrentCertificateAuthorityReference() throws AccessDeniedException {
-		for (SecCondition condition : readingConditions){
-			if (condition.check(securityStatus.getCurrentMechanisms(SecContext.APPLICATION, condition.getNeededMechanisms()))){
-				return currentCertificateAuthorityReference;
-			}
+		if (securityStatus.checkAccessConditions(SecContext.APPLICATION, readingConditions)){
+			return currentCertificateAuthorityReference;
 		}
 		throw new AccessDeniedException("Reading forbidden");
 	}
@@ -71,10 +67,8 @@ public class CvcaFile extends AbstractFile {
 	 * @throws AccessDeniedException
 	 */
 	public PublicKeyReference getPreviousCertificateAuthorityReference() throws AccessDeniedException {
-		for (SecCondition condition : readingConditions){
-			if (condition.check(securityStatus.getCurrentMechanisms(SecContext.APPLICATION, condition.getNeededMechanisms()))){
-				return previousCertificateAuthorityReference;
-			}
+		if (securityStatus.checkAccessConditions(SecContext.APPLICATION, readingConditions)){
+			return previousCertificateAuthorityReference;
 		}
 		throw new AccessDeniedException("Reading forbidden");
 	}
@@ -1,9 +1,14 @@
 package de.persosim.simulator.cardobjects;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
 import de.persosim.simulator.tlv.PrimitiveTlvDataObject;
@@ -12,6 +17,13 @@ import de.persosim.simulator.tlv.TlvTag;
 
 /**
  * Implementation for an ISO7816 DF in the file hierarchy.
+ * <p/>
+ * Children are indexed by all their identifiers that match by equality (see
+ * {@link AbstractCardObjectIdentifier#isExactMatch()}), so lookups by file
+ * identifier, short file identifier, DF name, key or password reference do
+ * not need to iterate over all children. The index is built on first use and
+ * kept up to date by {@link #addChild(CardObject)} and
+ * {@link #removeChild(CardObject)}.
  * 
  * @author mboonk
  * 
@@ -21,6 +33,9 @@ public class DedicatedFile extends AbstractFile {
 
 	@XmlElement
 	protected DedicatedFileIdentifier dedicatedFileName;
+	
+	@XmlTransient
+	private volatile Map<CardObjectIdentifier, List<CardObject>> childIndex;
 
 	public DedicatedFile() {
 		
@@ -44,5 +59,118 @@ public class DedicatedFile extends AbstractFile {
 		result.add(dedicatedFileName);
 		return result;
 	}
+	
+	@Override
+	public void addChild(CardObject newChild) {
+		super.addChild(newChild);
+		if (childIndex != null) {
+			indexChild(childIndex, newChild);
+		}
+	}
+	
+	@Override
+	public void removeChild(CardObject child) {
+		if (children.contains(child) && (childIndex != null)) {
+			for (CardObjectIdentifier curIdentifier : child.getAllIdentifiers()) {
+				if (isIndexable(curIdentifier)) {
+					List<CardObject> indexedChildren = childIndex.get(curIdentifier);
+					if (indexedChildren != null) {
+						indexedChildren.remove(child);
+						if (indexedChildren.isEmpty()) {
+							childIndex.remove(curIdentifier);
+						}
+					}
+				}
+			}
+		}
+		super.removeChild(child);
+	}
+	
+	/**
+	 * Find the first child matching the given {@link CardObjectIdentifier}.
+	 * 
+	 * @param cardObjectIdentifier
+	 *            to match the children with
+	 * @return the first matching child in order of insertion or null if no
+	 *         child matches
+	 */
+	public CardObject findChild(CardObjectIdentifier cardObjectIdentifier) {
+		if (isIndexable(cardObjectIdentifier)) {
+			List<CardObject> indexedChildren = getChildIndex().get(cardObjectIdentifier);
+			return (indexedChildren != null) ? indexedChildren.get(0) : null;
+		}
+		
+		for (CardObject curChild : getChildren()) {
+			if (cardObjectIdentifier.matches(curChild)) {
+				return curChild;
+			}
+		}
+		return null;
+	}
+	
+	@Override
+	public Collection<CardObject> findChildren(CardObjectIdentifier... cardObjectIdentifiers) {
+		for (CardObjectIdentifier indexedIdentifier : cardObjectIdentifiers) {
+			if (isIndexable(indexedIdentifier)) {
+				List<CardObject> indexedChildren = getChildIndex().get(indexedIdentifier);
+				Collection<CardObject> matchingChildren = new ArrayList<>();
+				if (indexedChildren == null) {
+					return matchingChildren;
+				}
+				
+				// only the candidates need to be checked against the remaining identifiers
+				for (CardObject curChild : indexedChildren) {
+					boolean fullMatch = true;
+					for (CardObjectIdentifier cardObjectIdentifier : cardObjectIdentifiers) {
+						if ((cardObjectIdentifier != indexedIdentifier) && !cardObjectIdentifier.matches(curChild)) {
+							fullMatch = false;
+							break;
+						}
+					}
+					
+					if (fullMatch) {
+						matchingChildren.add(curChild);
+					}
+				}
+				return matchingChildren;
+			}
+		}
+		
+		return super.findChildren(cardObjectIdentifiers);
+	}
+	
+	private Map<CardObjectIdentifier, List<CardObject>> getChildIndex() {
+		Map<CardObjectIdentifier, List<CardObject>> index = childIndex;
+		if (index == null) {
+			// children may also be populated directly, e.g. by JAXB
+			// the index is published only when complete, so concurrent readers
+			// (e.g. while completing a personalization) never see a partial one
+			index = new HashMap<>();
+			for (CardObject curChild : getChildren()) {
+				indexChild(index, curChild);
+			}
+			childIndex = index;
+		}
+		return index;
+	}
+	
+	private static void indexChild(Map<CardObjectIdentifier, List<CardObject>> childIndex, CardObject child) {
+		for (CardObjectIdentifier curIdentifier : child.getAllIdentifiers()) {
+			if (isIndexable(curIdentifier)) {
+				List<CardObject> indexedChildren = childIndex.get(curIdentifier);
+				if (indexedChildren == null) {
+					indexedChildren = new ArrayList<>(1);
+					childIndex.put(curIdentifier, indexedChildren);
+				}
+				if (!indexedChildren.contains(child)) {
+					indexedChildren.add(child);
+				}
+			}
+		}
+	}
+	
+	private static boolean isIndexable(CardObjectIdentifier identifier) {
+		return (identifier instanceof AbstractCardObjectIdentifier) && ((AbstractCardObjectIdentifier) identifier).isExactMatch();
+	}
 
 }
@@ -48,5 +48,23 @@ public class DedicatedFileIdentifier extends AbstractCardObjectIdentifier {
 	public byte[] getDedicatedFileName() {
 		return Arrays.copyOf(fileName, fileName.length);
 	}
+	
+	@Override
+	protected boolean isExactMatch() {
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		}
+		return Arrays.equals(((DedicatedFileIdentifier) obj).fileName, fileName);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(fileName);
+	}
 
 }
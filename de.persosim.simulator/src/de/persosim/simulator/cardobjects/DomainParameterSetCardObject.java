@@ -82,6 +82,18 @@ public class DomainParameterSetCardObject extends AbstractCardObject {
 		}
 	}
 	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to restore standardized domain parameters erased before marshalling
+	 * @param m
+	 */
+	@Override
+	protected void afterMarshal(Marshaller m){
+		super.afterMarshal(m);
+		initStandardizedDomainParameterSet();
+	}
+	
 	/**
 	 * JAXB callback
 	 * <p/>
@@ -92,7 +104,10 @@ public class DomainParameterSetCardObject extends AbstractCardObject {
 	@Override
 	protected void afterUnmarshal(Unmarshaller u, Object parent) {
 		super.afterUnmarshal(u, parent);
-		
+		initStandardizedDomainParameterSet();
+	}
+	
+	private void initStandardizedDomainParameterSet() {
 		if ((domainParameterSet == null)
 				&& (primaryIdentifier != null)
 				&& (primaryIdentifier.getInteger() <= StandardizedDomainParameters.NO_OF_STANDARDIZED_DOMAIN_PARAMETERS)) {
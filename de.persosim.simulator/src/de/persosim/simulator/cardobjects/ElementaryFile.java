@@ -33,6 +33,11 @@ public class ElementaryFile extends AbstractFile {
 	@XmlJavaTypeAdapter(HexBinaryAdapter.class)
 	private byte[] content;
 	
+	/**
+	 * Creates the content on first access, null if the content is available
+	 */
+	private volatile FileContentProvider contentProvider;
+	
 	@XmlElement
 	private ShortFileIdentifier shortFileIdentifier;
 
@@ -64,6 +69,16 @@ public class ElementaryFile extends AbstractFile {
 		this.writingConditions = writingConditions;
 		this.erasingConditions = erasingConditions;
 	}
+	
+	/**
+	 * Constructor for files whose content is created by the given provider on
+	 * first access, i.e. on first SELECT or READ BINARY.
+	 */
+	public ElementaryFile(FileIdentifier fileIdentifier,
+			ShortFileIdentifier shortFileIdentifier, FileContentProvider contentProvider, Collection<SecCondition> readingConditions, Collection<SecCondition> writingConditions, Collection<SecCondition> erasingConditions) {
+		this(fileIdentifier, shortFileIdentifier, (byte[]) null, readingConditions, writingConditions, erasingConditions);
+		this.contentProvider = contentProvider;
+	}
 
 	@Override
 	public Collection<CardObject> getChildren() {
@@ -75,10 +90,9 @@ public class ElementaryFile extends AbstractFile {
 	 * @return stored data as byte array
 	 */
 	public byte[] getContent() throws AccessDeniedException {
-		for (SecCondition condition : readingConditions){
-			if (condition.check(securityStatus.getCurrentMechanisms(SecContext.APPLICATION, condition.getNeededMechanisms()))){
-				return Arrays.copyOf(content, content.length);
-			}
+		if (securityStatus.checkAccessConditions(SecContext.APPLICATION, readingConditions)){
+			byte[] currentContent = getContentInternal();
+			return Arrays.copyOf(currentContent, currentContent.length);
 		}
 		throw new AccessDeniedException("Reading forbidden");
 	}
@@ -88,16 +102,54 @@ public class ElementaryFile extends AbstractFile {
 	 * @param data to be used as a replacement
 	 */
 	public void update(int offset, byte[] data) throws AccessDeniedException {
-		for (SecCondition condition : writingConditions){
-			if (condition.check(securityStatus.getCurrentMechanisms(SecContext.APPLICATION, condition.getNeededMechanisms()))){
-				for(int i = 0; i < data.length; i++){
-					content[i + offset] = data[i];
-				}
-				return;
+		if (securityStatus.checkAccessConditions(SecContext.APPLICATION, writingConditions)){
+			byte[] content = getContentInternal();
+			for(int i = 0; i < data.length; i++){
+				content[i + offset] = data[i];
 			}
+			return;
 		}
 		throw new AccessDeniedException("Updating forbidden");
 	}
+	
+	/**
+	 * Used by {@link ObjectTreeCopier} on copies of this file: if the content
+	 * has not been copied, because it was not yet created, it is taken from
+	 * the original file on first access.
+	 * 
+	 * @param original
+	 *            the file this file was copied from
+	 */
+	void shareContentOf(final ElementaryFile original) {
+		if (content != null) {
+			return;
+		}
+		
+		contentProvider = new FileContentProvider() {
+			@Override
+			public byte[] createContent() {
+				byte[] originalContent = original.getContentInternal();
+				return (originalContent != null) ? Arrays.copyOf(originalContent, originalContent.length) : null;
+			}
+		};
+	}
+
+	/**
+	 * Returns the internal data, creating it first if a
+	 * {@link FileContentProvider} is pending.
+	 */
+	private byte[] getContentInternal() {
+		if (contentProvider != null) {
+			synchronized (this) {
+				FileContentProvider pendingProvider = contentProvider;
+				if (pendingProvider != null) {
+					content = pendingProvider.createContent();
+					contentProvider = null;
+				}
+			}
+		}
+		return content;
+	}
 
 	@Override
 	public void addChild(CardObject newChild) {
@@ -110,7 +162,7 @@ public class ElementaryFile extends AbstractFile {
 
 		result.addTlvDataObject(new PrimitiveTlvDataObject(new TlvTag(
 				(byte) 0x80), Utils.removeLeadingZeroBytes(Utils
-				.toUnsignedByteArray(content.length))));
+				.toUnsignedByteArray(getContentInternal().length))));
 
 		result.addTlvDataObject(new PrimitiveTlvDataObject(new TlvTag(
 				(byte) 0x88), Utils
@@ -136,6 +188,9 @@ public class ElementaryFile extends AbstractFile {
 	@Override
 	protected void beforeMarshal(Marshaller m){
 		super.beforeMarshal(m);
+		if (!ObjectTreeCopier.isCopying(m)) {
+			getContentInternal();
+		}
 		if ((readingConditions != null) && (readingConditions.isEmpty())) {
 			readingConditions = null;
 		}
@@ -147,6 +202,20 @@ public class ElementaryFile extends AbstractFile {
 		}
 	}
 	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to restore the empty collections erased before marshalling
+	 * @param m
+	 */
+	@Override
+	protected void afterMarshal(Marshaller m){
+		super.afterMarshal(m);
+		if (readingConditions == null) readingConditions = Collections.emptySet();
+		if (writingConditions == null) writingConditions = Collections.emptySet();
+		if (erasingConditions == null) erasingConditions = Collections.emptySet();
+	}
+	
 	/**
 	 * JAXB callback
 	 * <p/>
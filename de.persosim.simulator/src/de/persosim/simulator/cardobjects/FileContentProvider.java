@@ -0,0 +1,18 @@
+package de.persosim.simulator.cardobjects;
+
+/**
+ * Creates the content of an {@link ElementaryFile} whose content is expensive
+ * to compute and might never be read, e.g. signed SecInfos. The content is
+ * created on first access to the file.
+ */
+public interface FileContentProvider {
+
+	/**
+	 * Create the content of the file. This method is called at most once per
+	 * file.
+	 * 
+	 * @return the file content
+	 */
+	byte[] createContent();
+
+}
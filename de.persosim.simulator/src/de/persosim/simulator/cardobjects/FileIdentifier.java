@@ -47,4 +47,22 @@ public class FileIdentifier extends AbstractCardObjectIdentifier {
 	public int getFileIdentifier() {
 		return identifier;
 	}
+	
+	@Override
+	protected boolean isExactMatch() {
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		}
+		return ((FileIdentifier) obj).identifier == identifier;
+	}
+	
+	@Override
+	public int hashCode() {
+		return identifier;
+	}
 }
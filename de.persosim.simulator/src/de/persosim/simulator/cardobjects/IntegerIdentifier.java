@@ -48,6 +48,25 @@ public abstract class IntegerIdentifier extends AbstractCardObjectIdentifier {
 		return integer;
 	}
 	
+	@Override
+	protected boolean isExactMatch() {
+		// subclasses are expected to restrict matching to their own type
+		return integer != MATCHES_ALWAYS;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		}
+		return ((IntegerIdentifier) obj).integer == integer;
+	}
+	
+	@Override
+	public int hashCode() {
+		return integer;
+	}
+	
 	public abstract String getNameOfIdentifiedObject();
 	
 }
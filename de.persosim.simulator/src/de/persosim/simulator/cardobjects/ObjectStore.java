@@ -200,10 +200,9 @@ public class ObjectStore {
 		}
 		
 		//check the immediate children of the current DF
-		for (CardObject curChild : currentDf.getChildren()){
-			if (id.matches(curChild)){
-				return curChild;
-			}
+		CardObject matchingChild = currentDf.findChild(id);
+		if (matchingChild != null){
+			return matchingChild;
 		}
 		
 		//check the parentDF
@@ -212,10 +211,9 @@ public class ObjectStore {
 			return parentDf;
 		}
 		//check for parent DF immediate children
-		for (CardObject curChild : parentDf.getChildren()){
-			if (id.matches(curChild)){
-				return curChild;
-			}
+		matchingChild = parentDf.findChild(id);
+		if (matchingChild != null){
+			return matchingChild;
 		}
 		
 		// No fitting child found
@@ -0,0 +1,104 @@
+package de.persosim.simulator.cardobjects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.util.JAXBSource;
+
+import de.persosim.simulator.jaxb.PersoSimJaxbContextProvider;
+import de.persosim.simulator.perso.Personalization;
+
+/**
+ * This class creates independent copies of object trees. Every card session
+ * using the same {@link Personalization} works on its own copy, i.e. on its
+ * own file contents and retry counters, and checks access against its own
+ * SecStatus.
+ * <p/>
+ * The copy is created through the JAXB mapping of the card objects that is
+ * also used for XML personalizations. Content of {@link ElementaryFile}s that
+ * is not yet created (see {@link FileContentProvider}) is not created for
+ * copying. Instead the copy takes the content from the original file on its
+ * own first access, so expensive content is still created at most once.
+ */
+public class ObjectTreeCopier {
+
+	/**
+	 * Ensure that this type can not be instantiated
+	 */
+	private ObjectTreeCopier() {
+	}
+
+	/**
+	 * Create a copy of the object tree below the given {@link MasterFile}.
+	 * 
+	 * @param masterFile
+	 *            the root of the object tree to be copied
+	 * @return the root of the copy
+	 * @throws JAXBException
+	 *             if the object tree can not be mapped by JAXB
+	 */
+	public static MasterFile copy(MasterFile masterFile) throws JAXBException {
+		JAXBContext context = PersoSimJaxbContextProvider.getContext();
+		CopyMarshallerListener marshallerListener = new CopyMarshallerListener();
+		CopyUnmarshallerListener unmarshallerListener = new CopyUnmarshallerListener();
+		
+		Marshaller marshaller = context.createMarshaller();
+		marshaller.setListener(marshallerListener);
+		Unmarshaller unmarshaller = context.createUnmarshaller();
+		unmarshaller.setListener(unmarshallerListener);
+		
+		MasterFile copy;
+		// the JAXB callbacks of the card objects modify them while marshalling
+		synchronized (masterFile) {
+			copy = (MasterFile) unmarshaller.unmarshal(new JAXBSource(marshaller, masterFile));
+		}
+		
+		// both lists are in document order
+		List<ElementaryFile> originals = marshallerListener.elementaryFiles;
+		List<ElementaryFile> copies = unmarshallerListener.elementaryFiles;
+		if (originals.size() != copies.size()) {
+			throw new IllegalStateException("copy of object tree does not match original");
+		}
+		for (int i = 0; i < originals.size(); i++) {
+			copies.get(i).shareContentOf(originals.get(i));
+		}
+		
+		return copy;
+	}
+
+	/**
+	 * Returns whether the given {@link Marshaller} is used to create a copy.
+	 */
+	static boolean isCopying(Marshaller marshaller) {
+		return marshaller.getListener() instanceof CopyMarshallerListener;
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	private static class CopyMarshallerListener extends Marshaller.Listener {
+		final List<ElementaryFile> elementaryFiles = new ArrayList<>();
+
+		@Override
+		public void beforeMarshal(Object source) {
+			if (source instanceof ElementaryFile) {
+				elementaryFiles.add((ElementaryFile) source);
+			}
+		}
+	}
+
+	private static class CopyUnmarshallerListener extends Unmarshaller.Listener {
+		final List<ElementaryFile> elementaryFiles = new ArrayList<>();
+
+		@Override
+		public void afterUnmarshal(Object target, Object parent) {
+			if (target instanceof ElementaryFile) {
+				elementaryFiles.add((ElementaryFile) target);
+			}
+		}
+	}
+
+}
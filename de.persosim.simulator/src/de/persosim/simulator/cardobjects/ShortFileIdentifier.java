@@ -35,5 +35,23 @@ public class ShortFileIdentifier extends AbstractCardObjectIdentifier {
 	public int getShortFileIdentifier() {
 		return identifier;
 	}
+	
+	@Override
+	protected boolean isExactMatch() {
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		}
+		return ((ShortFileIdentifier) obj).identifier == identifier;
+	}
+	
+	@Override
+	public int hashCode() {
+		return identifier;
+	}
 
 }
@@ -42,5 +42,23 @@ public class TrustPointIdentifier extends AbstractCardObjectIdentifier {
 	public TerminalType getTerminalType() {
 		return terminalType;
 	}
+	
+	@Override
+	protected boolean isExactMatch() {
+		return true;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if ((obj == null) || (obj.getClass() != getClass())) {
+			return false;
+		}
+		return ((TrustPointIdentifier) obj).terminalType == terminalType;
+	}
+	
+	@Override
+	public int hashCode() {
+		return (terminalType != null) ? terminalType.hashCode() : 0;
+	}
 
 }
@@ -17,6 +17,7 @@ import javax.crypto.Mac;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 import de.persosim.simulator.utils.HexString;
 
 public abstract class CryptoSupport {
@@ -108,6 +109,7 @@ public abstract class CryptoSupport {
 	
 	public static byte[] encrypt(Cipher cipher, byte[] plainText, Key key, IvParameterSpec ivParams) {
 		byte[] encryptedNonce;
+		long start = PerformanceMonitor.start();
 		
 		try {
 			cipher.init(Cipher.ENCRYPT_MODE, key, ivParams);
@@ -123,6 +125,8 @@ public abstract class CryptoSupport {
 			throw new IllegalArgumentException("illegal blocksize");
 		} catch (BadPaddingException e) {
 			throw new IllegalArgumentException("bad padding");
+		} finally {
+			PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_ENCRYPT, start);
 		}
 	}
 	
@@ -136,6 +140,7 @@ public abstract class CryptoSupport {
 	
 	public static byte[] decrypt(Cipher cipher, byte[] cipherText, Key key, AlgorithmParameterSpec aps) {
 		byte[] plainText;
+		long start = PerformanceMonitor.start();
 		
 		try {
 			if(aps != null) {
@@ -155,6 +160,8 @@ public abstract class CryptoSupport {
 			throw new IllegalArgumentException("illegal blocksize");
 		} catch (BadPaddingException e) {
 			throw new IllegalArgumentException("bad padding");
+		} finally {
+			PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_DECRYPT, start);
 		}
 	}
 	
@@ -175,12 +182,15 @@ public abstract class CryptoSupport {
 	}
 	
 	public static byte[] macPlain(Mac mac, byte[] tokenPlain, Key key) {
+		long start = PerformanceMonitor.start();
 		try {
 			mac.init(key);
 			log(CryptoSupport.class, "used mac algorithm is: " + mac.getAlgorithm());
 			return mac.doFinal(tokenPlain);
 		} catch (InvalidKeyException e) {
 			throw new IllegalArgumentException(e);
+		} finally {
+			PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_MAC, start);
 		}
 	}
 	
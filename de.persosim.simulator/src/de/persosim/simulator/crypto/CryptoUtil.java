@@ -23,6 +23,7 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.util.Arrays;
 
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 import de.persosim.simulator.tlv.Asn1;
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
 import de.persosim.simulator.tlv.PrimitiveTlvDataObject;
@@ -275,13 +276,30 @@ public class CryptoUtil {
 				yBytes);
 	}
 	
+	/**
+	 * This method generates a key pair for the provided domain parameters
+	 * using the generator of the calling thread provided by
+	 * {@link RandomSource}.
+	 * 
+	 * @param domParamSet the domain parameters to generate the key pair for
+	 * @return the generated key pair
+	 */
+	public static KeyPair generateKeyPair(DomainParameterSet domParamSet) throws NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException {
+		return generateKeyPair(domParamSet, RandomSource.getSecureRandom());
+	}
+	
 	public static KeyPair generateKeyPair(DomainParameterSet domParamSet, SecureRandom secRandom) throws NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException {
 		KeyPairGenerator keyPairGenerator;
+		long start = PerformanceMonitor.start();
 		
-		keyPairGenerator = KeyPairGenerator.getInstance(domParamSet.getKeyAgreementAlgorithm(), Crypto.getCryptoProvider());
-		keyPairGenerator.initialize(domParamSet.getKeySpec(), secRandom);
-		
-		return keyPairGenerator.generateKeyPair();
+		try {
+			keyPairGenerator = KeyPairGenerator.getInstance(domParamSet.getKeyAgreementAlgorithm(), Crypto.getCryptoProvider());
+			keyPairGenerator.initialize(domParamSet.getKeySpec(), secRandom);
+			
+			return keyPairGenerator.generateKeyPair();
+		} finally {
+			PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_KEY_PAIR_GENERATION, start);
+		}
 	}
 	
 	/**
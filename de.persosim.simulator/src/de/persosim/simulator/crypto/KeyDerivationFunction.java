@@ -6,7 +6,9 @@ import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.util.Arrays;
 
-import de.persosim.simulator.utils.Utils;
+import javax.crypto.spec.SecretKeySpec;
+
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 
 /**
  * @author slutters
@@ -69,13 +71,121 @@ public class KeyDerivationFunction {
 	 * @return key material derived derived from SHA1(secret||nonce||counter) stripped to key length
 	 */
 	public byte[] deriveKey(byte[] secret, byte[] nonce, byte[] counter) {
-		int inputLength;
-		byte[] input, digest;
+		if(counter == null) {throw new NullPointerException();}
+		
+		long start = PerformanceMonitor.start();
+		
+		absorbPrefix(secret, nonce, counter.length);
+		
+		byte[] digest = this.messageDigest.digest(counter);
+		
+		PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_KDF, start);
+		
+		return Arrays.copyOf(digest, this.keyLengthInBytes);
+	}
+	
+	/**
+	 * Returns key material for each of the provided counters, derived from
+	 * SHA1(secret||nonce||counter) stripped to key length. The common prefix
+	 * secret||nonce is hashed only once, the digest state is then cloned for
+	 * every counter.
+	 * @param secret the common secret shared by PICC and ICD
+	 * @param nonce optional nonce, may be null
+	 * @param counters the counters to derive key material for
+	 * @return key material in the same order as the provided counters
+	 */
+	public byte[][] deriveKeys(byte[] secret, byte[] nonce, byte[]... counters) {
+		if(counters == null) {throw new NullPointerException();}
 		
+		byte[][] keys = new byte[counters.length][];
+		
+		if(counters.length == 0) {
+			return keys;
+		}
+		
+		for(byte[] counter : counters) {
+			if(counter == null) {throw new NullPointerException();}
+		}
+		
+		long start = PerformanceMonitor.start();
+		
+		absorbPrefix(secret, nonce, counters[0].length);
+		
+		for(int i = 0; i < counters.length; i++) {
+			MessageDigest currentDigest;
+			
+			if(i == counters.length - 1) {
+				/* last counter may consume the original state */
+				currentDigest = this.messageDigest;
+			} else{
+				try {
+					currentDigest = (MessageDigest) this.messageDigest.clone();
+				} catch (CloneNotSupportedException e) {
+					/* digest implementation does not support cloning, fall back to hashing the prefix for each counter */
+					for(int j = i; j < counters.length; j++) {
+						keys[j] = deriveKey(secret, nonce, counters[j]);
+					}
+					return keys;
+				}
+			}
+			
+			keys[i] = Arrays.copyOf(currentDigest.digest(counters[i]), this.keyLengthInBytes);
+		}
+		
+		PerformanceMonitor.recordCrypto(PerformanceMonitor.CRYPTO_KDF, start);
+		
+		return keys;
+	}
+	
+	/**
+	 * Returns the session keys for ENC and MAC, and optionally PI, derived
+	 * from the same secret and nonce within a single pass over the common
+	 * input prefix.
+	 * @param secret the common secret shared by PICC and ICD
+	 * @param nonce optional nonce, may be null
+	 * @param cryptoSupport the {@link CryptoSupport} used to create the key specs
+	 * @param derivePi whether to additionally derive a PI key
+	 * @return the derived session keys
+	 */
+	public SessionKeys deriveSessionKeys(byte[] secret, byte[] nonce, CryptoSupport cryptoSupport, boolean derivePi) {
+		if(cryptoSupport == null) {throw new NullPointerException();}
+		
+		byte[][] keyMaterial;
+		if(derivePi) {
+			keyMaterial = deriveKeys(secret, nonce, COUNTER_ENC, COUNTER_MAC, COUNTER_PI);
+		} else{
+			keyMaterial = deriveKeys(secret, nonce, COUNTER_ENC, COUNTER_MAC);
+		}
+		
+		SecretKeySpec keyEnc = cryptoSupport.generateSecretKeySpecCipher(keyMaterial[0]);
+		SecretKeySpec keyMac = cryptoSupport.generateSecretKeySpecMac(keyMaterial[1]);
+		SecretKeySpec keyPi = derivePi ? cryptoSupport.generateSecretKeySpecCipher(keyMaterial[2]) : null;
+		
+		return new SessionKeys(keyEnc, keyMac, keyPi);
+	}
+	
+	/**
+	 * Returns the session keys for ENC and MAC derived from the same secret
+	 * and nonce within a single pass over the common input prefix.
+	 * @param secret the common secret shared by PICC and ICD
+	 * @param nonce optional nonce, may be null
+	 * @param cryptoSupport the {@link CryptoSupport} used to create the key specs
+	 * @return the derived session keys
+	 */
+	public SessionKeys deriveSessionKeys(byte[] secret, byte[] nonce, CryptoSupport cryptoSupport) {
+		return deriveSessionKeys(secret, nonce, cryptoSupport, false);
+	}
+	
+	/**
+	 * Resets the digest and feeds it with secret||nonce.
+	 * @param secret the common secret shared by PICC and ICD
+	 * @param nonce optional nonce, may be null
+	 * @param counterLength the length of the counter appended afterwards
+	 */
+	private void absorbPrefix(byte[] secret, byte[] nonce, int counterLength) {
 		if(secret == null) {throw new NullPointerException();}
-		if(counter == null) {throw new NullPointerException();}
 		
-		inputLength = secret.length + counter.length;
+		int inputLength = secret.length + counterLength;
 		
 		if(nonce != null) {
 			inputLength += nonce.length;
@@ -85,18 +195,12 @@ public class KeyDerivationFunction {
 			throw new IllegalArgumentException("KDF input length must be > 0");
 		}
 		
-		input = new byte[inputLength];
+		this.messageDigest.reset();
+		this.messageDigest.update(secret);
 		
-		if(nonce == null) {
-			input = Utils.concatByteArrays(secret, counter);
-		} else{
-			input = Utils.concatByteArrays(secret, nonce);
-			input = Utils.concatByteArrays(input, counter);
+		if(nonce != null) {
+			this.messageDigest.update(nonce);
 		}
-		
-		digest = this.messageDigest.digest(input);
-		
-		return Arrays.copyOf(digest, this.keyLengthInBytes);
 	}
 	
 	/**
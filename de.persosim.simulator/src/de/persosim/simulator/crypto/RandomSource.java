@@ -0,0 +1,193 @@
+package de.persosim.simulator.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class provides the {@link SecureRandom} instances used by the protocols
+ * for nonces, challenges and ephemeral keys.
+ * <p/>
+ * Every thread uses its own generator so that concurrent sessions do not
+ * contend on a shared instance. In the default non-blocking mode each
+ * generator is a SHA1PRNG seeded once from a shared seed source, thus no
+ * thread blocks on the entropy pool of the operating system after the first
+ * seed has been drawn.
+ * <p/>
+ * In deterministic mode the generator of each thread is seeded from a fixed
+ * seed and the order in which threads first draw randomness. Runs using the
+ * same seed and a single thread (or a fixed thread order) produce identical
+ * nonces and keys, which allows reproducible benchmark runs. This mode must
+ * not be used for anything but testing. It can be selected programmatically or
+ * by setting the system property {@value #PROPERTY_SEED} to a numeric seed.
+ */
+public class RandomSource {
+
+	public static final String PROPERTY_SEED = "de.persosim.simulator.random.seed";
+
+	public static final String ALGORITHM = "SHA1PRNG";
+
+	private static final int SEED_LENGTH = 32;
+
+	private static volatile Configuration configuration = createInitialConfiguration();
+
+	private static final ThreadLocal<Generator> generators = new ThreadLocal<>();
+
+	private static SecureRandom seedSource;
+
+	/**
+	 * Ensure that this type can not be instantiated
+	 */
+	private RandomSource() {
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Returns the generator of the calling thread. The returned instance must
+	 * not be handed over to other threads.
+	 *
+	 * @return the generator of the calling thread
+	 */
+	public static SecureRandom getSecureRandom() {
+		Configuration currentConfiguration = configuration;
+		Generator generator = generators.get();
+
+		if ((generator == null) || (generator.configuration != currentConfiguration)) {
+			generator = new Generator(currentConfiguration, currentConfiguration.createSecureRandom());
+			generators.set(generator);
+		}
+
+		return generator.secureRandom;
+	}
+
+	/**
+	 * Fills the provided array with random bytes drawn from the generator of
+	 * the calling thread.
+	 *
+	 * @param bytes the array to be filled
+	 */
+	public static void nextBytes(byte[] bytes) {
+		getSecureRandom().nextBytes(bytes);
+	}
+
+	/**
+	 * Switches to deterministic mode. All threads create new generators
+	 * derived from the provided seed on their next access.
+	 *
+	 * @param seed the seed to derive all generators from
+	 */
+	public static void useDeterministicSeed(long seed) {
+		configuration = new Configuration(true, seed);
+	}
+
+	/**
+	 * Switches to non-blocking mode. All threads create new generators on
+	 * their next access.
+	 */
+	public static void useNonBlocking() {
+		configuration = new Configuration(false, 0);
+	}
+
+	/**
+	 * Provides the given generator to all threads until the mode is changed
+	 * again. This allows tests to replace randomness by fixed values and must
+	 * not be used for anything but testing.
+	 *
+	 * @param secureRandom the generator to be used by all threads
+	 */
+	public static void useSecureRandom(SecureRandom secureRandom) {
+		if (secureRandom == null) {throw new NullPointerException("secure random must not be null");}
+		configuration = new Configuration(secureRandom);
+	}
+
+	public static boolean isDeterministic() {
+		return configuration.deterministic;
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	private static Configuration createInitialConfiguration() {
+		Long seed = Long.getLong(PROPERTY_SEED);
+		return new Configuration(seed != null, (seed != null) ? seed : 0);
+	}
+
+	/**
+	 * Returns seed material for a new non-blocking generator. The shared seed
+	 * source is only accessed while creating generators, i.e. once per thread.
+	 */
+	private static synchronized byte[] generateSeed() {
+		if (seedSource == null) {
+			seedSource = new SecureRandom();
+		}
+
+		byte[] seed = new byte[SEED_LENGTH];
+		seedSource.nextBytes(seed);
+		return seed;
+	}
+
+	private static SecureRandom getSha1Prng() {
+		try {
+			return SecureRandom.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(ALGORITHM + " not available", e);
+		}
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Immutable mode of operation. Generators created for a previous
+	 * configuration are replaced on their next access.
+	 */
+	private static class Configuration {
+		final boolean deterministic;
+		final long seed;
+		final SecureRandom providedSecureRandom;
+		final AtomicInteger threadCounter = new AtomicInteger();
+
+		Configuration(boolean deterministic, long seed) {
+			this.deterministic = deterministic;
+			this.seed = seed;
+			this.providedSecureRandom = null;
+		}
+
+		Configuration(SecureRandom providedSecureRandom) {
+			this.deterministic = true;
+			this.seed = 0;
+			this.providedSecureRandom = providedSecureRandom;
+		}
+
+		SecureRandom createSecureRandom() {
+			if (providedSecureRandom != null) {
+				return providedSecureRandom;
+			}
+
+			SecureRandom secureRandom = getSha1Prng();
+
+			// SHA1PRNG does not seed itself if seeded before first use
+			if (deterministic) {
+				ByteBuffer seedBytes = ByteBuffer.allocate(12);
+				seedBytes.putLong(seed);
+				seedBytes.putInt(threadCounter.getAndIncrement());
+				secureRandom.setSeed(seedBytes.array());
+			} else {
+				secureRandom.setSeed(generateSeed());
+			}
+
+			return secureRandom;
+		}
+	}
+
+	private static class Generator {
+		final Configuration configuration;
+		final SecureRandom secureRandom;
+
+		Generator(Configuration configuration, SecureRandom secureRandom) {
+			this.configuration = configuration;
+			this.secureRandom = secureRandom;
+		}
+	}
+
+}
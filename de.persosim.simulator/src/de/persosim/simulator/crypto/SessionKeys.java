@@ -0,0 +1,50 @@
+package de.persosim.simulator.crypto;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Container for the symmetric keys derived by {@link KeyDerivationFunction}
+ * from a single shared secret, e.g. after PACE or CA.
+ */
+public class SessionKeys {
+	
+	private SecretKeySpec keyEnc;
+	private SecretKeySpec keyMac;
+	private SecretKeySpec keyPi;
+	
+	/**
+	 * @param keyEnc the key used for encryption
+	 * @param keyMac the key used for MAC computation
+	 * @param keyPi the key used for nonce encryption, may be null
+	 */
+	public SessionKeys(SecretKeySpec keyEnc, SecretKeySpec keyMac, SecretKeySpec keyPi) {
+		if(keyEnc == null) {throw new NullPointerException();}
+		if(keyMac == null) {throw new NullPointerException();}
+		
+		this.keyEnc = keyEnc;
+		this.keyMac = keyMac;
+		this.keyPi = keyPi;
+	}
+
+	/**
+	 * @return the key used for encryption
+	 */
+	public SecretKeySpec getKeyEnc() {
+		return keyEnc;
+	}
+
+	/**
+	 * @return the key used for MAC computation
+	 */
+	public SecretKeySpec getKeyMac() {
+		return keyMac;
+	}
+
+	/**
+	 * @return the key used for nonce encryption or null if it has not been derived
+	 */
+	public SecretKeySpec getKeyPi() {
+		return keyPi;
+	}
+	
+}
@@ -18,6 +18,7 @@ import de.persosim.simulator.exception.CertificateNotParseableException;
 import de.persosim.simulator.exception.NotImplementedException;
 import de.persosim.simulator.exception.NotParseableException;
 import de.persosim.simulator.jaxb.PublicKeyAdapter;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.TR03110Utils;
 import de.persosim.simulator.protocols.ta.CertificateHolderAuthorizationTemplate;
 import de.persosim.simulator.protocols.ta.CertificateRole;
@@ -98,7 +99,7 @@ public class CardVerifiableCertificate {
 		//public key
 		try {
 			ConstructedTlvDataObject publicKeyData = (ConstructedTlvDataObject) certificateBodyData.getTlvDataObject(TR03110Utils.TAG_7F49);
-			publicKeyOid = new TaOid(publicKeyData.getTlvDataObject(TR03110Utils.TAG_06).getValueField());
+			publicKeyOid = OidRegistry.getOid(publicKeyData.getTlvDataObject(TR03110Utils.TAG_06).getValueField(), TaOid.class);
 			publicKey = TR03110Utils.parseCertificatePublicKey(publicKeyData, currentPublicKey);
 			if (publicKey == null){
 				throw new CertificateNotParseableException("The public key data could not be parsed");
@@ -157,7 +158,7 @@ public class CardVerifiableCertificate {
 	private CertificateHolderAuthorizationTemplate parseChat(
 			ConstructedTlvDataObject chatData) throws CertificateNotParseableException {
 
-		TaOid objectIdentifier = new TaOid(chatData.getTlvDataObject(TR03110Utils.TAG_06).getValueField());
+		TaOid objectIdentifier = OidRegistry.getOid(chatData.getTlvDataObject(TR03110Utils.TAG_06).getValueField(), TaOid.class);
 		PrimitiveTlvDataObject relativeAuthorizationData = (PrimitiveTlvDataObject) chatData.getTlvDataObject(TR03110Utils.TAG_53);
 		CertificateRole role = CertificateRole.getFromMostSignificantBits(relativeAuthorizationData.getValueField()[0]);
 		BitField authorization = BitField.buildFromBigEndian(relativeAuthorizationData.getLengthValue() * 8 - 2, relativeAuthorizationData.getValueField());
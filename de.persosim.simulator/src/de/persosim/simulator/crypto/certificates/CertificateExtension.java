@@ -1,5 +1,6 @@
 package de.persosim.simulator.crypto.certificates;
 
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.TR03110Utils;
 import de.persosim.simulator.protocols.ta.TaOid;
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
@@ -19,7 +20,7 @@ public class CertificateExtension {
 	TlvDataObjectContainer dataObjects;
 
 	public CertificateExtension(ConstructedTlvDataObject extensionData) {
-		objectIdentifier = new TaOid(extensionData.getTlvDataObject(TR03110Utils.TAG_06).getValueField());
+		objectIdentifier = OidRegistry.getOid(extensionData.getTlvDataObject(TR03110Utils.TAG_06).getValueField(), TaOid.class);
 		dataObjects = new TlvDataObjectContainer();
 		boolean firstIgnored = false;
 		for (TlvDataObject object : extensionData.getTlvDataObjectContainer()){
@@ -19,8 +19,8 @@ import javax.xml.bind.annotation.XmlRootElement;
  * This class provides a singleton {@link JAXBContext} that is initialized to be
  * used with all de.persosim classes known to the current classloader.
  * <p/>
- * Note: as the provided JAXBContext is not Thread-safe neither this singleton
- * implementation is nor needs to be.
+ * The provided JAXBContext is thread-safe, personalizations may be
+ * (un)marshalled in parallel using their own (Un)Marshaller instances.
  * 
  * @author amay
  * 
@@ -30,7 +30,7 @@ public class PersoSimJaxbContextProvider {
 
 	private static JAXBContext context;
 
-	public static JAXBContext getContext() throws JAXBException {
+	public static synchronized JAXBContext getContext() throws JAXBException {
 		if (context == null) {
 			context = JAXBContext.newInstance(getJaxbClasses().toArray(
 					new Class<?>[] {}));
@@ -9,6 +9,7 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
+import de.persosim.simulator.tlv.ImmutableTlvDataObject;
 import de.persosim.simulator.tlv.TlvDataObject;
 
 public class TlvMapAdapter extends
@@ -27,7 +28,8 @@ public class TlvMapAdapter extends
 	public Map<TlvDataObject, TlvDataObject> unmarshal(TlvMap elements) {
 		Map<TlvDataObject, TlvDataObject> map = new HashMap<>();
 		for (TlvMapElement mapElement : elements.mapElements) {
-			map.put(mapElement.key, mapElement.value);
+			// keys are hashed frequently, so they are stored with a precomputed hash
+			map.put(new ImmutableTlvDataObject(mapElement.key), mapElement.value);
 		}
 		return map;
 	}
@@ -0,0 +1,180 @@
+package de.persosim.simulator.monitoring;
+
+import java.util.Locale;
+
+import de.persosim.simulator.apdu.CommandApdu;
+import de.persosim.simulator.apdu.ResponseApdu;
+import de.persosim.simulator.utils.HexString;
+
+/**
+ * Ring buffer of fixed-size trace records describing the processing of APDUs
+ * within a single simulated card.
+ * <p/>
+ * Every record consists of the id of the layer, the event type, a reference
+ * to the APDU (as received/returned byte[], {@link CommandApdu} or
+ * {@link ResponseApdu}), the status word and a timestamp. All storage is
+ * allocated at construction time, recording a trace event only stores these
+ * values and never builds strings. Records are rendered to text only when
+ * requested by {@link #toText()}, e.g. for a post-mortem analysis.
+ * <p/>
+ * When the buffer is full, the oldest records are overwritten.
+ */
+public class ApduTraceBuffer {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Status word recorded if none is known yet
+	 */
+	public static final int NO_STATUS_WORD = -1;
+
+	/**
+	 * Layer id recorded for events outside of the layers
+	 */
+	public static final int NO_LAYER = -1;
+
+	public enum TraceEvent {
+		HARDWARE_COMMAND, ASCENDING, DESCENDING, HARDWARE_RESPONSE
+	}
+
+	private final int[] layerIds;
+	private final TraceEvent[] events;
+	private final Object[] apdus;
+	private final int[] statusWords;
+	private final long[] timestamps;
+
+	/**
+	 * total number of records written, the next record is written to index
+	 * written % capacity
+	 */
+	private long written = 0;
+
+	public ApduTraceBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            the maximum number of records kept
+	 */
+	public ApduTraceBuffer(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		layerIds = new int[capacity];
+		events = new TraceEvent[capacity];
+		apdus = new Object[capacity];
+		statusWords = new int[capacity];
+		timestamps = new long[capacity];
+	}
+
+	/**
+	 * Record a trace event for a command APDU.
+	 *
+	 * @param layerId
+	 *            the id of the layer or {@link #NO_LAYER}
+	 * @param event
+	 *            the type of the event
+	 * @param apdu
+	 *            the APDU as byte[] or {@link CommandApdu}, the reference is
+	 *            stored, so it must not be modified afterwards
+	 */
+	public void recordCommand(int layerId, TraceEvent event, Object apdu) {
+		record(layerId, event, apdu, NO_STATUS_WORD);
+	}
+
+	/**
+	 * Record a trace event for a response APDU.
+	 *
+	 * @param layerId
+	 *            the id of the layer or {@link #NO_LAYER}
+	 * @param event
+	 *            the type of the event
+	 * @param apdu
+	 *            the APDU as byte[] or {@link ResponseApdu}, the reference is
+	 *            stored, so it must not be modified afterwards
+	 * @param statusWord
+	 *            the status word of the response
+	 */
+	public void recordResponse(int layerId, TraceEvent event, Object apdu, short statusWord) {
+		record(layerId, event, apdu, statusWord & 0xFFFF);
+	}
+
+	private synchronized void record(int layerId, TraceEvent event, Object apdu, int statusWord) {
+		int index = (int) (written % layerIds.length);
+		layerIds[index] = layerId;
+		events[index] = event;
+		apdus[index] = apdu;
+		statusWords[index] = statusWord;
+		timestamps[index] = System.nanoTime();
+		written++;
+	}
+
+	/**
+	 * @return the maximum number of records kept
+	 */
+	public int getCapacity() {
+		return layerIds.length;
+	}
+
+	/**
+	 * @return the number of records currently available
+	 */
+	public synchronized int size() {
+		return (int) Math.min(written, layerIds.length);
+	}
+
+	/**
+	 * Remove all records.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < apdus.length; i++) {
+			apdus[i] = null;
+			events[i] = null;
+		}
+		written = 0;
+	}
+
+	/**
+	 * Render all available records from the oldest to the newest one. Times
+	 * are given in milliseconds relative to the oldest record.
+	 *
+	 * @return one line per record
+	 */
+	public synchronized String toText() {
+		StringBuilder sb = new StringBuilder();
+		int size = size();
+		long first = written - size;
+		long startTime = (size > 0) ? timestamps[(int) (first % layerIds.length)] : 0;
+
+		for (long i = first; i < written; i++) {
+			int index = (int) (i % layerIds.length);
+			sb.append(String.format(Locale.US, "%10.3f ms  ", (timestamps[index] - startTime) / 1e6));
+			sb.append((layerIds[index] == NO_LAYER) ? "  -" : String.format("%3d", layerIds[index]));
+			sb.append(String.format("  %-17s  ", events[index]));
+			sb.append((statusWords[index] == NO_STATUS_WORD) ? "----" : HexString.hexifyShort(statusWords[index]));
+			sb.append("  ").append(encode(apdus[index])).append('\n');
+		}
+
+		return sb.toString();
+	}
+
+	private static String encode(Object apdu) {
+		if (apdu instanceof byte[]) {
+			return HexString.encode((byte[]) apdu);
+		}
+		if (apdu instanceof CommandApdu) {
+			return HexString.encode(((CommandApdu) apdu).toByteArray());
+		}
+		if (apdu instanceof ResponseApdu) {
+			return HexString.encode(((ResponseApdu) apdu).toByteArray());
+		}
+		return "";
+	}
+
+	@Override
+	public String toString() {
+		return toText();
+	}
+
+}
@@ -0,0 +1,153 @@
+package de.persosim.simulator.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe latency histogram using log-linear buckets similar to
+ * HdrHistogram. Values are recorded in nanoseconds; each power of two is
+ * split into {@value #SUB_BUCKET_HALF_COUNT} linear sub buckets which limits
+ * the relative error of reported percentiles to about 3%.
+ * <p/>
+ * Recording a value does not allocate any memory.
+ */
+public class LatencyHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_HALF_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT;
+	
+	private final String name;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalSum = new AtomicLong();
+	private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong maxValue = new AtomicLong(0);
+	
+	/**
+	 * @param name human readable name of the measured entity
+	 */
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	/**
+	 * Records a single latency value.
+	 * @param nanos the latency in nanoseconds, negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		
+		counts.incrementAndGet(getBucketIndex(value));
+		totalCount.incrementAndGet();
+		totalSum.addAndGet(value);
+		
+		long currentMin = minValue.get();
+		while (value < currentMin && !minValue.compareAndSet(currentMin, value)) {
+			currentMin = minValue.get();
+		}
+		
+		long currentMax = maxValue.get();
+		while (value > currentMax && !maxValue.compareAndSet(currentMax, value)) {
+			currentMax = maxValue.get();
+		}
+	}
+	
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalSum.set(0);
+		minValue.set(Long.MAX_VALUE);
+		maxValue.set(0);
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	static int getBucketIndex(long value) {
+		if (value < SUB_BUCKET_HALF_COUNT) {
+			return (int) value;
+		}
+		
+		int mostSignificantBit = 63 - Long.numberOfLeadingZeros(value);
+		int shift = mostSignificantBit - (SUB_BUCKET_BITS - 1);
+		
+		return (shift + 1) * SUB_BUCKET_HALF_COUNT + (int) ((value >>> shift) - SUB_BUCKET_HALF_COUNT);
+	}
+	
+	static long getBucketUpperBound(int index) {
+		if (index < SUB_BUCKET_HALF_COUNT) {
+			return index;
+		}
+		
+		int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		
+		return ((subBucket + 1) << shift) - 1;
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the value below or equal to which the given percentage of
+	 * recorded values fall. The result is the highest value equivalent to the
+	 * matching bucket, but never exceeds the maximum recorded value.
+	 * 
+	 * @param percentile the percentile in range 0 to 100
+	 * @return the latency in nanoseconds, 0 if no values have been recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("percentile must be in range 0 to 100");
+		}
+		
+		long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		
+		long threshold = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long accumulated = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			accumulated += counts.get(i);
+			if (accumulated >= threshold) {
+				return Math.min(getBucketUpperBound(i), getMax());
+			}
+		}
+		
+		return getMax();
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public long getCount() {
+		return totalCount.get();
+	}
+	
+	public long getTotal() {
+		return totalSum.get();
+	}
+	
+	public long getMin() {
+		long min = minValue.get();
+		return min == Long.MAX_VALUE ? 0 : min;
+	}
+	
+	public long getMax() {
+		return maxValue.get();
+	}
+	
+	public double getMean() {
+		long count = totalCount.get();
+		return count == 0 ? 0 : (double) totalSum.get() / count;
+	}
+	
+}
@@ -0,0 +1,135 @@
+package de.persosim.simulator.monitoring;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer of text lines, e.g. console and log output of the
+ * simulator that is to be displayed by a user interface.
+ * <p/>
+ * Producers never block: adding a line reserves the next sequence number and
+ * publishes the line into the slot of that sequence number. If the consumer
+ * does not keep up, the oldest lines are overwritten and counted as dropped,
+ * so a slow consumer never slows down the simulator. The consumer removes
+ * lines in bulk using {@link #drainTo(Collection, int)}.
+ */
+public class LogLineBuffer {
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * A published line together with the sequence number it was written for
+	 */
+	private static class Line {
+		private final long sequence;
+		private final String text;
+
+		Line(long sequence, String text) {
+			this.sequence = sequence;
+			this.text = text;
+		}
+	}
+
+	private final AtomicReferenceArray<Line> slots;
+	private final AtomicLong writeSequence = new AtomicLong();
+	private final AtomicLong droppedLines = new AtomicLong();
+
+	/** sequence number of the next line to be drained, only modified by the consumer */
+	private volatile long readSequence = 0;
+
+	public LogLineBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            the maximum number of lines kept
+	 */
+	public LogLineBuffer(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		slots = new AtomicReferenceArray<>(capacity);
+	}
+
+	/**
+	 * Add a line, overwriting the oldest one if the buffer is full. This
+	 * method may be called concurrently by any number of threads.
+	 *
+	 * @param line
+	 *            the line without line terminator
+	 */
+	public void offer(String line) {
+		long sequence = writeSequence.getAndIncrement();
+		slots.set(getIndex(sequence), new Line(sequence, line));
+	}
+
+	/**
+	 * Remove the oldest available lines from this buffer and add them to the
+	 * given collection in the order they were offered. Lines that have been
+	 * overwritten before they could be drained are counted as dropped.
+	 *
+	 * @param target
+	 *            the collection to add the lines to
+	 * @param maxLines
+	 *            the maximum number of lines to drain
+	 * @return the number of lines added to the collection
+	 */
+	public synchronized int drainTo(Collection<? super String> target, int maxLines) {
+		long read = readSequence;
+		long written = writeSequence.get();
+
+		if (written - read > slots.length()) {
+			droppedLines.addAndGet(written - slots.length() - read);
+			read = written - slots.length();
+		}
+
+		int drained = 0;
+		while (read < written && drained < maxLines) {
+			Line line = slots.get(getIndex(read));
+			if (line == null || line.sequence < read) {
+				// sequence number is reserved but the line is not yet published
+				break;
+			}
+			if (line.sequence == read) {
+				target.add(line.text);
+				drained++;
+			} else {
+				// overwritten by a newer line meanwhile
+				droppedLines.incrementAndGet();
+			}
+			read++;
+		}
+
+		readSequence = read;
+		return drained;
+	}
+
+	/**
+	 * @return true iff no lines are available to be drained
+	 */
+	public boolean isEmpty() {
+		return writeSequence.get() == readSequence;
+	}
+
+	/**
+	 * @return the total number of lines that were overwritten before they
+	 *         could be drained
+	 */
+	public long getDroppedCount() {
+		return droppedLines.get();
+	}
+
+	/**
+	 * @return the maximum number of lines kept
+	 */
+	public int getCapacity() {
+		return slots.length();
+	}
+
+	private int getIndex(long sequence) {
+		return (int) (sequence % slots.length());
+	}
+
+}
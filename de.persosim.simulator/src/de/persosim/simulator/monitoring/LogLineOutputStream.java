@@ -0,0 +1,90 @@
+package de.persosim.simulator.monitoring;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * {@link OutputStream} that splits the written text into lines and offers
+ * them to a {@link LogLineBuffer}. Line terminators (CR, LF or CRLF) are not
+ * included within the lines.
+ * <p/>
+ * Written bytes are processed in bulk and may additionally be passed on
+ * unchanged to a mirror stream, e.g. the original standard output.
+ */
+public class LogLineOutputStream extends OutputStream {
+
+	private final LogLineBuffer buffer;
+	private final OutputStream mirror;
+	private final Charset charset;
+
+	private final ByteArrayOutputStream currentLine = new ByteArrayOutputStream(128);
+	private boolean lastWasCarriageReturn = false;
+
+	/**
+	 * @param buffer
+	 *            the buffer to offer complete lines to
+	 * @param mirror
+	 *            stream receiving all written bytes as well, may be null
+	 */
+	public LogLineOutputStream(LogLineBuffer buffer, OutputStream mirror) {
+		this.buffer = buffer;
+		this.mirror = mirror;
+		this.charset = Charset.defaultCharset();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) throws IOException {
+		if (mirror != null) {
+			mirror.write(b, off, len);
+		}
+
+		int lineStart = off;
+		for (int i = off; i < off + len; i++) {
+			if (b[i] == '\n' || b[i] == '\r') {
+				currentLine.write(b, lineStart, i - lineStart);
+				lineStart = i + 1;
+
+				boolean isSecondPartOfCrLf = lastWasCarriageReturn && b[i] == '\n' && currentLine.size() == 0;
+				lastWasCarriageReturn = b[i] == '\r';
+				if (!isSecondPartOfCrLf) {
+					offerCurrentLine();
+				}
+			} else {
+				lastWasCarriageReturn = false;
+			}
+		}
+		currentLine.write(b, lineStart, off + len - lineStart);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (mirror != null) {
+			mirror.flush();
+		}
+	}
+
+	/**
+	 * Offers an incomplete last line to the buffer. The mirror stream is
+	 * flushed but not closed.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (currentLine.size() > 0) {
+			offerCurrentLine();
+		}
+		flush();
+	}
+
+	private void offerCurrentLine() {
+		buffer.offer(new String(currentLine.toByteArray(), charset));
+		currentLine.reset();
+	}
+
+}
@@ -0,0 +1,398 @@
+package de.persosim.simulator.monitoring;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.persosim.simulator.utils.HexString;
+
+/**
+ * This class collects latency histograms and counters for the processing of
+ * APDUs within the simulator. Measurements are grouped per layer and
+ * direction, per protocol, per INS byte and per crypto operation, status
+ * words returned by the kernel are counted.
+ * <p/>
+ * Collection is disabled by default. While disabled, the instrumented code
+ * only performs a single read of a volatile flag per measuring point.
+ * Collection can be enabled programmatically or by setting the system
+ * property {@value #PROPERTY_ENABLED} to true.
+ * <p/>
+ * Instrumented code is expected to use the following pattern:
+ * 
+ * <pre>
+ * long start = PerformanceMonitor.start();
+ * // measured code
+ * PerformanceMonitor.recordCrypto(&quot;operation&quot;, start);
+ * </pre>
+ * 
+ */
+public class PerformanceMonitor {
+	
+	public static final String PROPERTY_ENABLED = "de.persosim.simulator.monitoring";
+	
+	/**
+	 * Start value returned by {@link #start()} while collection is disabled
+	 */
+	public static final long NOT_MEASURED = Long.MIN_VALUE;
+	
+	public static final String CRYPTO_ENCRYPT = "encrypt";
+	public static final String CRYPTO_DECRYPT = "decrypt";
+	public static final String CRYPTO_MAC = "mac";
+	public static final String CRYPTO_KDF = "kdf";
+	public static final String CRYPTO_KEY_PAIR_GENERATION = "keyPairGeneration";
+	
+	private static final int NUMBER_OF_INS = 256;
+	private static final int NUMBER_OF_STATUS_WORDS = 0x10000;
+	
+	private static volatile boolean enabled = Boolean.getBoolean(PROPERTY_ENABLED);
+	
+	private static final LatencyHistogram apduHistogram = new LatencyHistogram("apdu");
+	private static final ConcurrentMap<String, LatencyHistogram> layerAscendingHistograms = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, LatencyHistogram> layerDescendingHistograms = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, LatencyHistogram> protocolHistograms = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, LatencyHistogram> cryptoHistograms = new ConcurrentHashMap<>();
+	private static final AtomicReferenceArray<LatencyHistogram> insHistograms = new AtomicReferenceArray<>(NUMBER_OF_INS);
+	private static final AtomicLongArray statusWordCounters = new AtomicLongArray(NUMBER_OF_STATUS_WORDS);
+	
+	private static ScheduledExecutorService dumpExecutor;
+	private static ScheduledFuture<?> periodicDump;
+	
+	/**
+	 * Ensure that this type can not be instantiated
+	 */
+	private PerformanceMonitor() {
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	public static boolean isEnabled() {
+		return enabled;
+	}
+	
+	public static void setEnabled(boolean newState) {
+		enabled = newState;
+	}
+	
+	/**
+	 * Removes all collected measurements.
+	 */
+	public static void reset() {
+		apduHistogram.reset();
+		layerAscendingHistograms.clear();
+		layerDescendingHistograms.clear();
+		protocolHistograms.clear();
+		cryptoHistograms.clear();
+		for (int i = 0; i < NUMBER_OF_INS; i++) {
+			insHistograms.set(i, null);
+		}
+		for (int i = 0; i < NUMBER_OF_STATUS_WORDS; i++) {
+			statusWordCounters.set(i, 0);
+		}
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	/**
+	 * Returns the start time stamp for a measurement.
+	 * @return the current value of {@link System#nanoTime()} or {@link #NOT_MEASURED} if collection is disabled
+	 */
+	public static long start() {
+		return enabled ? System.nanoTime() : NOT_MEASURED;
+	}
+	
+	/**
+	 * Records the processing time of a single layer.
+	 * @param layerName name of the layer as provided by the layer itself
+	 * @param ascending true for ascending, false for descending processing
+	 * @param start time stamp as returned by {@link #start()}
+	 */
+	public static void recordLayer(String layerName, boolean ascending, long start) {
+		if (start == NOT_MEASURED) {
+			return;
+		}
+		
+		long duration = System.nanoTime() - start;
+		getHistogram(ascending ? layerAscendingHistograms : layerDescendingHistograms, layerName).record(duration);
+	}
+	
+	/**
+	 * Records the processing time of a single protocol.
+	 * @param protocolName name of the protocol that processed the APDU
+	 * @param start time stamp as returned by {@link #start()}
+	 */
+	public static void recordProtocol(String protocolName, long start) {
+		if (start == NOT_MEASURED) {
+			return;
+		}
+		
+		long duration = System.nanoTime() - start;
+		getHistogram(protocolHistograms, protocolName).record(duration);
+	}
+	
+	/**
+	 * Records the processing time of a single crypto operation.
+	 * @param operation name of the operation, e.g. {@link #CRYPTO_ENCRYPT}
+	 * @param start time stamp as returned by {@link #start()}
+	 */
+	public static void recordCrypto(String operation, long start) {
+		if (start == NOT_MEASURED) {
+			return;
+		}
+		
+		long duration = System.nanoTime() - start;
+		getHistogram(cryptoHistograms, operation).record(duration);
+	}
+	
+	/**
+	 * Records the overall processing time of an APDU as well as the status
+	 * word of the response.
+	 * @param commandApdu the command APDU as received from hardware
+	 * @param responseApdu the response APDU as returned to hardware
+	 * @param start time stamp as returned by {@link #start()}
+	 */
+	public static void recordApdu(byte[] commandApdu, byte[] responseApdu, long start) {
+		if (start == NOT_MEASURED) {
+			return;
+		}
+		
+		long duration = System.nanoTime() - start;
+		apduHistogram.record(duration);
+		
+		if ((commandApdu != null) && (commandApdu.length >= 2)) {
+			int ins = commandApdu[1] & 0xFF;
+			LatencyHistogram histogram = insHistograms.get(ins);
+			if (histogram == null) {
+				insHistograms.compareAndSet(ins, null, new LatencyHistogram("INS " + HexString.hexifyByte(ins)));
+				histogram = insHistograms.get(ins);
+			}
+			histogram.record(duration);
+		}
+		
+		if ((responseApdu != null) && (responseApdu.length >= 2)) {
+			int sw = ((responseApdu[responseApdu.length - 2] & 0xFF) << 8) | (responseApdu[responseApdu.length - 1] & 0xFF);
+			statusWordCounters.incrementAndGet(sw);
+		}
+	}
+	
+	private static LatencyHistogram getHistogram(ConcurrentMap<String, LatencyHistogram> histograms, String key) {
+		LatencyHistogram histogram = histograms.get(key);
+		
+		if (histogram == null) {
+			histograms.putIfAbsent(key, new LatencyHistogram(key));
+			histogram = histograms.get(key);
+		}
+		
+		return histogram;
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	public static LatencyHistogram getApduHistogram() {
+		return apduHistogram;
+	}
+	
+	public static LatencyHistogram getLayerHistogram(String layerName, boolean ascending) {
+		return (ascending ? layerAscendingHistograms : layerDescendingHistograms).get(layerName);
+	}
+	
+	public static LatencyHistogram getProtocolHistogram(String protocolName) {
+		return protocolHistograms.get(protocolName);
+	}
+	
+	public static LatencyHistogram getCryptoHistogram(String operation) {
+		return cryptoHistograms.get(operation);
+	}
+	
+	public static LatencyHistogram getInsHistogram(byte ins) {
+		return insHistograms.get(ins & 0xFF);
+	}
+	
+	public static long getStatusWordCount(short sw) {
+		return statusWordCounters.get(sw & 0xFFFF);
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	/**
+	 * Returns all collected measurements as human readable text. Latencies are
+	 * given in microseconds.
+	 * @return the text representation
+	 */
+	public static String toText() {
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append("APDU processing statistics (latencies in us)\n");
+		appendText(sb, "kernel", Collections.singletonList(apduHistogram));
+		appendText(sb, "layer ascending", sorted(layerAscendingHistograms));
+		appendText(sb, "layer descending", sorted(layerDescendingHistograms));
+		appendText(sb, "protocol", sorted(protocolHistograms));
+		appendText(sb, "ins", getInsHistograms());
+		appendText(sb, "crypto", sorted(cryptoHistograms));
+		
+		sb.append("status words\n");
+		for (int i = 0; i < NUMBER_OF_STATUS_WORDS; i++) {
+			long count = statusWordCounters.get(i);
+			if (count > 0) {
+				sb.append("  ").append(HexString.hexifyShort(i)).append(": ").append(count).append('\n');
+			}
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns all collected measurements as JSON object. Latencies are given in
+	 * nanoseconds.
+	 * @return the JSON representation
+	 */
+	public static String toJson() {
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append('{');
+		sb.append("\"kernel\":");
+		appendJson(sb, apduHistogram);
+		sb.append(",\"layerAscending\":");
+		appendJson(sb, sorted(layerAscendingHistograms));
+		sb.append(",\"layerDescending\":");
+		appendJson(sb, sorted(layerDescendingHistograms));
+		sb.append(",\"protocol\":");
+		appendJson(sb, sorted(protocolHistograms));
+		sb.append(",\"ins\":");
+		appendJson(sb, getInsHistograms());
+		sb.append(",\"crypto\":");
+		appendJson(sb, sorted(cryptoHistograms));
+		
+		sb.append(",\"statusWords\":{");
+		boolean first = true;
+		for (int i = 0; i < NUMBER_OF_STATUS_WORDS; i++) {
+			long count = statusWordCounters.get(i);
+			if (count > 0) {
+				if (!first) {
+					sb.append(',');
+				}
+				sb.append('"').append(HexString.hexifyShort(i)).append("\":").append(count);
+				first = false;
+			}
+		}
+		sb.append("}}");
+		
+		return sb.toString();
+	}
+	
+	private static List<LatencyHistogram> sorted(Map<String, LatencyHistogram> histograms) {
+		List<LatencyHistogram> result = new ArrayList<>(histograms.values());
+		Collections.sort(result, new Comparator<LatencyHistogram>() {
+			@Override
+			public int compare(LatencyHistogram o1, LatencyHistogram o2) {
+				return o1.getName().compareTo(o2.getName());
+			}
+		});
+		return result;
+	}
+	
+	private static List<LatencyHistogram> getInsHistograms() {
+		List<LatencyHistogram> result = new ArrayList<>();
+		for (int i = 0; i < NUMBER_OF_INS; i++) {
+			LatencyHistogram histogram = insHistograms.get(i);
+			if (histogram != null) {
+				result.add(histogram);
+			}
+		}
+		return result;
+	}
+	
+	private static void appendText(StringBuilder sb, String category, List<LatencyHistogram> histograms) {
+		sb.append(category).append('\n');
+		for (LatencyHistogram histogram : histograms) {
+			sb.append(String.format(Locale.US, "  %-24s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+					histogram.getName(), histogram.getCount(), histogram.getMean() / 1000.0,
+					histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+					histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+					histogram.getMax() / 1000.0));
+		}
+	}
+	
+	private static void appendJson(StringBuilder sb, List<LatencyHistogram> histograms) {
+		sb.append('{');
+		boolean first = true;
+		for (LatencyHistogram histogram : histograms) {
+			if (!first) {
+				sb.append(',');
+			}
+			sb.append('"').append(histogram.getName()).append("\":");
+			appendJson(sb, histogram);
+			first = false;
+		}
+		sb.append('}');
+	}
+	
+	private static void appendJson(StringBuilder sb, LatencyHistogram histogram) {
+		sb.append("{\"count\":").append(histogram.getCount());
+		sb.append(",\"min\":").append(histogram.getMin());
+		sb.append(",\"mean\":").append((long) histogram.getMean());
+		sb.append(",\"p50\":").append(histogram.getValueAtPercentile(50));
+		sb.append(",\"p90\":").append(histogram.getValueAtPercentile(90));
+		sb.append(",\"p99\":").append(histogram.getValueAtPercentile(99));
+		sb.append(",\"p999\":").append(histogram.getValueAtPercentile(99.9));
+		sb.append(",\"max\":").append(histogram.getMax());
+		sb.append('}');
+	}
+	
+	/*--------------------------------------------------------------------------------*/
+	
+	/**
+	 * Starts periodic dumping of all collected measurements. A previously
+	 * started periodic dump is replaced.
+	 * @param periodInSeconds the period between two dumps
+	 * @param out the stream to write the dumps to
+	 * @param json true for JSON output, false for text output
+	 */
+	public static synchronized void startPeriodicDump(long periodInSeconds, final PrintStream out, final boolean json) {
+		if (periodInSeconds <= 0) {throw new IllegalArgumentException("period must be > 0");}
+		if (out == null) {throw new NullPointerException();}
+		
+		stopPeriodicDump();
+		
+		if (dumpExecutor == null) {
+			dumpExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "PersoSim statistics dump");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		
+		periodicDump = dumpExecutor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				out.println(json ? toJson() : toText());
+			}
+		}, periodInSeconds, periodInSeconds, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * Stops periodic dumping of collected measurements, if any.
+	 */
+	public static synchronized void stopPeriodicDump() {
+		if (periodicDump != null) {
+			periodicDump.cancel(false);
+			periodicDump = null;
+		}
+	}
+	
+}
@@ -45,6 +45,17 @@ public abstract class AbstractProfile extends DefaultPersoTestPki implements Asn
 	
 	protected PersonalizationDataContainer persoDataContainer;
 	
+	public AbstractProfile() {
+		super();
+	}
+	
+	/**
+	 * @see DefaultPersonalization#DefaultPersonalization(boolean)
+	 */
+	protected AbstractProfile(boolean build) {
+		super(build);
+	}
+	
 	public abstract void setPersoDataContainer();
 	
 	public void initPersonalizationDataContainer() {
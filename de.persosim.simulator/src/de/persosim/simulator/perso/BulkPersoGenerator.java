@@ -0,0 +1,232 @@
+package de.persosim.simulator.perso;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import de.persosim.simulator.crypto.CryptoUtil;
+import de.persosim.simulator.crypto.DomainParameterSet;
+import de.persosim.simulator.crypto.StandardizedDomainParameters;
+import de.persosim.simulator.documents.Mrz;
+
+/**
+ * Generator for large numbers of distinct personalizations, e.g. for
+ * capacity tests with many virtual cards.
+ * <p/>
+ * Every generated personalization is derived from the data groups of a
+ * template profile and provided with individual document number, MRZ, CAN,
+ * PIN, names, date of birth and chip keys (one generated key pair for every
+ * CA and RI key of the template). All values are derived deterministically
+ * from the seed and the index of the personalization, so the same seed
+ * always produces the same personalizations. Document numbers are unique for
+ * up to 10^9, CANs and PINs for up to 10^6 personalizations.
+ * <p/>
+ * Personalizations are generated in batches on the {@link PersoTaskPool} and
+ * handed to the caller (or written to disk) in order of their index, so only
+ * the current batch is held in memory.
+ */
+public class BulkPersoGenerator {
+
+	/**
+	 * Handler for generated personalizations, e.g. to hand them to a
+	 * simulator instance.
+	 */
+	public interface PersonalizationHandler {
+		void handle(int index, GeneratedProfile perso) throws Exception;
+	}
+
+	public static final int DEFAULT_BATCH_SIZE = 4 * Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * brainpoolP256r1, as used by the keys of the predefined profiles
+	 */
+	private static final int DOMAIN_PARAMETER_SET_ID = 13;
+
+	private static final int MAX_NUMBER = 1000000000;
+	private static final int MAX_PASSWORD = 1000000;
+	// strides coprime to MAX_PASSWORD, so every index maps to another password
+	private static final int CAN_STRIDE = 7919;
+	private static final int PIN_STRIDE = 104729;
+
+	private static final String[] GIVEN_NAMES = { "ERIKA", "MAX", "ANNA", "PAUL", "LENA", "JONAS", "MARIE", "FELIX", "SOPHIE", "LUKAS" };
+	private static final String[] FAMILY_NAMES = { "MUSTERMANN", "SCHMIDT", "MEYER", "WEBER", "WAGNER", "BECKER", "HOFFMANN", "KOCH" };
+
+	private PersonalizationDataContainer templateData;
+	private long seed;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int documentNumberOffset;
+	private int canOffset;
+	private int pinOffset;
+
+	/**
+	 * @param template
+	 *            the profile providing all data that is not individualized
+	 * @param seed
+	 *            the seed all individual data is derived from
+	 */
+	public BulkPersoGenerator(AbstractProfile template, long seed) {
+		template.initPersonalizationDataContainer();
+		this.templateData = template.persoDataContainer;
+		this.seed = seed;
+
+		Random random = new Random(seed);
+		documentNumberOffset = random.nextInt(MAX_NUMBER);
+		canOffset = random.nextInt(MAX_PASSWORD);
+		pinOffset = random.nextInt(MAX_PASSWORD);
+	}
+
+	/**
+	 * @param batchSize
+	 *            the number of personalizations generated in parallel and
+	 *            held in memory at the same time
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batch size must be positive");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Generate the personalization with the given index.
+	 *
+	 * @param index
+	 *            the index of the personalization
+	 * @return the generated personalization, with completely built object
+	 *         tree
+	 * @throws GeneralSecurityException
+	 *             if generation of the chip keys fails
+	 */
+	public GeneratedProfile generate(int index) throws GeneralSecurityException {
+		Random random = new Random(seed ^ (index * 0x9E3779B97F4A7C15L));
+		PersonalizationDataContainer data = new PersonalizationDataContainer(templateData);
+
+		String givenName = GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+		String familyName = FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + getLetters(index);
+		data.setDg4PlainData(givenName);
+		data.setDg5PlainData(familyName);
+		data.setDg8PlainData(String.format("%04d%02d%02d", 1940 + random.nextInt(60), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+
+		String documentNumber = String.format("%09d", (documentNumberOffset + (long) index) % MAX_NUMBER);
+		String sex = random.nextBoolean() ? "F" : "M";
+		String mrz = data.createMrzFromDgs(documentNumber, sex, getMrzLine3(familyName, givenName));
+		data.setMrz(mrz);
+		data.setEpassDg1PlainData(mrz);
+
+		SecureRandom keyRandom = SecureRandom.getInstance("SHA1PRNG");
+		keyRandom.setSeed(ByteBuffer.allocate(12).putLong(seed).putInt(index).array());
+		DomainParameterSet domainParameters = StandardizedDomainParameters.getDomainParameterSetById(DOMAIN_PARAMETER_SET_ID);
+		for (int i = 0; i < data.getCaKeys().size(); i++) {
+			data.getCaKeys().set(i, CryptoUtil.generateKeyPair(domainParameters, keyRandom));
+		}
+		for (int i = 0; i < data.getRiKeys().size(); i++) {
+			data.getRiKeys().set(i, CryptoUtil.generateKeyPair(domainParameters, keyRandom));
+		}
+
+		String pin = String.format("%06d", (pinOffset + (long) index * PIN_STRIDE) % MAX_PASSWORD);
+		String can = String.format("%06d", (canOffset + (long) index * CAN_STRIDE) % MAX_PASSWORD);
+
+		return new GeneratedProfile(data, pin, can);
+	}
+
+	/**
+	 * Generate personalizations and hand them to the given handler.
+	 * <p/>
+	 * The handler is called on the calling thread in order of the indices
+	 * while the next batch is not yet generated.
+	 *
+	 * @param count
+	 *            the number of personalizations to generate
+	 * @param handler
+	 *            the handler to be called for every personalization
+	 * @throws Exception
+	 *             if generation fails or the handler throws an exception
+	 */
+	public void generate(int count, PersonalizationHandler handler) throws Exception {
+		for (int batchStart = 0; batchStart < count; batchStart += batchSize) {
+			List<Callable<GeneratedProfile>> tasks = new ArrayList<>();
+			for (int index = batchStart; index < Math.min(count, batchStart + batchSize); index++) {
+				final int curIndex = index;
+				tasks.add(new Callable<GeneratedProfile>() {
+					@Override
+					public GeneratedProfile call() throws Exception {
+						return generate(curIndex);
+					}
+				});
+			}
+
+			List<GeneratedProfile> batch = PersoTaskPool.invokeAll(tasks);
+			for (int i = 0; i < batch.size(); i++) {
+				handler.handle(batchStart + i, batch.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Generate personalizations and write them to the given directory using
+	 * the file names returned by {@link #getFileName(int)}. Generation and
+	 * writing are both performed in parallel.
+	 *
+	 * @param count
+	 *            the number of personalizations to generate
+	 * @param directory
+	 *            the directory to write to, it is created if necessary
+	 */
+	public void writeToDirectory(int count, final File directory) {
+		directory.mkdirs();
+
+		for (int batchStart = 0; batchStart < count; batchStart += batchSize) {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int index = batchStart; index < Math.min(count, batchStart + batchSize); index++) {
+				final int curIndex = index;
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						generate(curIndex).writeToFile(new File(directory, getFileName(curIndex)).getPath());
+						return null;
+					}
+				});
+			}
+
+			PersoTaskPool.invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * @param index
+	 *            the index of a personalization
+	 * @return the file name used by {@link #writeToDirectory(int, File)}
+	 */
+	public static String getFileName(int index) {
+		return String.format("perso_%06d.xml", index);
+	}
+
+	/**
+	 * Encode the index using letters only, so it can be used as part of a
+	 * name within the MRZ.
+	 */
+	private static String getLetters(int index) {
+		StringBuilder letters = new StringBuilder();
+		int remaining = index;
+		for (int i = 0; i < 4 || remaining > 0; i++) {
+			letters.insert(0, (char) ('A' + (remaining % 26)));
+			remaining /= 26;
+		}
+		return letters.toString();
+	}
+
+	private static String getMrzLine3(String familyName, String givenName) {
+		StringBuilder line3 = new StringBuilder(familyName).append(Mrz.Filler).append(Mrz.Filler).append(givenName);
+		while (line3.length() < 30) {
+			line3.append(Mrz.Filler);
+		}
+		return line3.substring(0, 30);
+	}
+
+}
@@ -1,12 +1,17 @@
 package de.persosim.simulator.perso;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import de.persosim.simulator.cardobjects.ElementaryFile;
+import de.persosim.simulator.cardobjects.FileContentProvider;
 import de.persosim.simulator.cardobjects.FileIdentifier;
 import de.persosim.simulator.cardobjects.ShortFileIdentifier;
 import de.persosim.simulator.protocols.Protocol;
@@ -29,6 +34,17 @@ import de.persosim.simulator.utils.HexString;
 /**
  * This can be used as callback on an {@link XmlPersonalization} in order to
  * automatically complete SecInfo files.
+ * <p/>
+ * The missing files are created as independent tasks within the
+ * {@link PersoTaskPool}, i.e. SecInfos are collected in parallel. The created
+ * files are added to the object tree in a fixed order after all tasks are
+ * completed.
+ * <p/>
+ * Signing of EF.CardSecurity and EF.ChipSecurity is deferred until the file is
+ * first selected or read, so personalizations whose signed SecInfos are never
+ * read do not pay for CMS construction. Signatures are shared between all
+ * personalizations with identical SecInfos via the
+ * {@link SignedDataFileCache}.
  * 
  * @author amay
  * 
@@ -41,6 +57,14 @@ public class DefaultNpaUnmarshallerCallback implements PersoUnmarshallerCallback
 	@XmlAnyElement(lax=true)
 	private SecInfoCmsBuilder cmsBuilder = new DefaultSecInfoCmsBuilder();
 	
+	/**
+	 * Whether signed SecInfo files are stored in the persistent
+	 * {@link SignedDataFileCache}. This is not useful for large numbers of
+	 * individual personalizations, as each of them needs to be signed anyway.
+	 */
+	@XmlElement
+	private boolean useSignedDataFileCache = true;
+	
 
 	/**
 	 * Empty default constructor using defaults for all fields
@@ -54,19 +78,49 @@ public class DefaultNpaUnmarshallerCallback implements PersoUnmarshallerCallback
 	public DefaultNpaUnmarshallerCallback(SecInfoCmsBuilder cmsBuilder) {
 		this.cmsBuilder = cmsBuilder;
 	}
+	
+	/**
+	 * Constructor using a specific {@link SecInfoCmsBuilder}
+	 * @param cmsBuilder
+	 * @param useSignedDataFileCache whether signed SecInfo files are cached persistently
+	 */
+	public DefaultNpaUnmarshallerCallback(SecInfoCmsBuilder cmsBuilder, boolean useSignedDataFileCache) {
+		this(cmsBuilder);
+		this.useSignedDataFileCache = useSignedDataFileCache;
+	}
 
 	@Override
-	public void afterUnmarshall(Personalization perso) {
+	public void afterUnmarshall(final Personalization perso) {
+		List<Callable<ElementaryFile>> tasks = new ArrayList<>();
 		if (fileIsMissing(perso, 0x011C)) {
-			createEfCardAccess(perso);
+			tasks.add(new Callable<ElementaryFile>() {
+				@Override
+				public ElementaryFile call() {
+					return createEfCardAccess(perso);
+				}
+			});
 		}
 		if (fileIsMissing(perso, 0x011D)) {
-			createEfCardSecurity(perso);
+			tasks.add(new Callable<ElementaryFile>() {
+				@Override
+				public ElementaryFile call() {
+					return createEfCardSecurity(perso);
+				}
+			});
 		}
 		if (fileIsMissing(perso, 0x011B)) {
-			createEfChipSecurity(perso);
+			tasks.add(new Callable<ElementaryFile>() {
+				@Override
+				public ElementaryFile call() {
+					return createEfChipSecurity(perso);
+				}
+			});
 		}
 
+		// the object tree is only modified after all tasks reading it are completed
+		for (ElementaryFile curFile : PersoTaskPool.invokeAll(tasks)) {
+			perso.getObjectTree().addChild(curFile);
+		}
 	}
 
 	private boolean fileIsMissing(Personalization perso, int fileIdentifier) {
@@ -84,34 +138,41 @@ public class DefaultNpaUnmarshallerCallback implements PersoUnmarshallerCallback
 		return secInfos;
 	}
 
-	protected void createEfCardAccess(Personalization perso) {
+	/**
+	 * Create EF.CardAccess, the caller is responsible to add it to the object
+	 * tree.
+	 */
+	protected ElementaryFile createEfCardAccess(Personalization perso) {
 		ConstructedTlvDataObject secInfos = getSecInfos(perso, SecInfoPublicity.PUBLIC);
 
-		// add file to object tree
-		ElementaryFile efCardAccess = new ElementaryFile(new FileIdentifier(
+		return new ElementaryFile(new FileIdentifier(
 				0x011C), new ShortFileIdentifier(0x1C),
 				secInfos.toByteArray(),
 				Arrays.asList((SecCondition) new NullSecurityCondition()),
 				Collections.<SecCondition> emptySet(),
 				Collections.<SecCondition> emptySet());
-		perso.getObjectTree().addChild(efCardAccess);
 	}
 
-	protected void createEfCardSecurity(Personalization perso) {
+	/**
+	 * Create EF.CardSecurity, the caller is responsible to add it to the
+	 * object tree.
+	 */
+	protected ElementaryFile createEfCardSecurity(Personalization perso) {
 		ConstructedTlvDataObject secInfos = getSecInfos(perso, SecInfoPublicity.AUTHENTICATED);
-		
-		TlvDataObject cmsSignedData = buildSignedDataFile(secInfos);
 
-		ElementaryFile efCardSecurity = new ElementaryFile(new FileIdentifier(
+		return new ElementaryFile(new FileIdentifier(
 				0x011D), new ShortFileIdentifier(0x1D),
-				cmsSignedData.toByteArray(), 
+				getSignedDataFileProvider(secInfos), 
 				Arrays.asList((SecCondition) new TaSecurityCondition(null, null)),
 				Collections.<SecCondition> emptySet(),
 				Collections.<SecCondition> emptySet());
-		perso.getObjectTree().addChild(efCardSecurity);
 	}
 
-	protected void createEfChipSecurity(Personalization perso) {
+	/**
+	 * Create EF.ChipSecurity, the caller is responsible to add it to the
+	 * object tree.
+	 */
+	protected ElementaryFile createEfChipSecurity(Personalization perso) {
 		ConstructedTlvDataObject secInfos = getSecInfos(perso, SecInfoPublicity.PRIVILEGED);
 		
 		SecCondition taWithIs = new TaSecurityCondition(TerminalType.IS, null);
@@ -119,22 +180,36 @@ public class DefaultNpaUnmarshallerCallback implements PersoUnmarshallerCallback
 				TerminalType.AT, new RelativeAuthorization(
 						CertificateRole.TERMINAL, new BitField(6).flipBit(3)));
 
-		TlvDataObject cmsSignedData = buildSignedDataFile(secInfos);
-
-		ElementaryFile efChipSecurity = new ElementaryFile(new FileIdentifier(
+		return new ElementaryFile(new FileIdentifier(
 				0x011B), new ShortFileIdentifier(0x1B),
-				cmsSignedData.toByteArray(), 
+				getSignedDataFileProvider(secInfos), 
 				Arrays.asList(taWithIs, taWithAtPrivileged),
 				Collections.<SecCondition> emptySet(),
 				Collections.<SecCondition> emptySet());
-		perso.getObjectTree().addChild(efChipSecurity);
+	}
+
+	/**
+	 * Returns a provider signing the given SecInfos on first access to the
+	 * file.
+	 */
+	protected FileContentProvider getSignedDataFileProvider(
+			final ConstructedTlvDataObject secInfos) {
+		return new FileContentProvider() {
+			@Override
+			public byte[] createContent() {
+				return buildSignedDataFile(secInfos).toByteArray();
+			}
+		};
 	}
 
 	protected TlvDataObject buildSignedDataFile(
 			ConstructedTlvDataObject secInfos) {
 		// return cached value if one is available
-		if (signedDataFileCache.containsKey(secInfos)) {
-			return signedDataFileCache.get(secInfos);
+		if (useSignedDataFileCache) {
+			TlvDataObject cachedSignedDataFile = signedDataFileCache.get(secInfos);
+			if (cachedSignedDataFile != null) {
+				return cachedSignedDataFile;
+			}
 		}
 		
 		TlvDataObject oidTlv = new PrimitiveTlvDataObject(TAG_OID, 
@@ -147,10 +222,12 @@ public class DefaultNpaUnmarshallerCallback implements PersoUnmarshallerCallback
 		signedDataFile.addTlvDataObject(oidTlv);
 		signedDataFile.addTlvDataObject(cmsContainer);
 		
-		//put the newly generated signedDataFile into the cache
-		signedDataFileCache.put(secInfos, signedDataFile);
+		if (!useSignedDataFileCache) {
+			return signedDataFile;
+		}
 		
-		return signedDataFile;
+		//put the newly generated signedDataFile into the cache
+		return signedDataFileCache.putIfAbsent(secInfos, signedDataFile);
 	}
 
 }
@@ -13,6 +13,17 @@ import de.persosim.simulator.utils.HexString;
 
 public class DefaultPersoTestPki extends DefaultPersonalization {
 
+	public DefaultPersoTestPki() {
+		super();
+	}
+
+	/**
+	 * @see DefaultPersonalization#DefaultPersonalization(boolean)
+	 */
+	protected DefaultPersoTestPki(boolean build) {
+		super(build);
+	}
+
 	@Override
 	protected void addUnmarshallerCallbacks() {
 		unmarshallerCallbacks.add(new DefaultNpaUnmarshallerCallback(new TestPkiCmsBuilder()));
@@ -85,8 +85,22 @@ public abstract class DefaultPersonalization extends XmlPersonalization implemen
 	
 
 	public DefaultPersonalization() {
+		this(true);
+	}
+
+	/**
+	 * Constructor for subclasses that need to initialize their own fields
+	 * before the personalization can be built. Such subclasses are expected
+	 * to call {@link #reset()} themselves once they are initialized.
+	 * 
+	 * @param build
+	 *            whether the personalization is built immediately
+	 */
+	protected DefaultPersonalization(boolean build) {
 		addUnmarshallerCallbacks();
-		reset();
+		if (build) {
+			reset();
+		}
 	}
 
 	/**
@@ -117,6 +131,7 @@ public abstract class DefaultPersonalization extends XmlPersonalization implemen
 			addAuxData();
 
 			addEfDir();
+			addEfAtrInfo();
 			addEfCardAccess();
 			addEfCardSecurity();
 			addEfChipSecurity();
@@ -233,6 +248,22 @@ public abstract class DefaultPersonalization extends XmlPersonalization implemen
 		mf.addChild(efCardAccess);
 	}
 	
+	/**
+	 * Add an EF.ATR/INFO below MF as described by ISO7816-4, advertising the
+	 * maximum command and response APDU lengths (extended length information)
+	 */
+	protected void addEfAtrInfo() {
+		byte[] content = HexString.toByteArray("7F660A020300FFFF020300FFFF");
+		
+		ElementaryFile efAtrInfo = new ElementaryFile(new FileIdentifier(
+				0x2F01), new ShortFileIdentifier(0x01),
+				content,
+				Arrays.asList((SecCondition) new NullSecurityCondition()),
+				Collections.<SecCondition> emptySet(),
+				Collections.<SecCondition> emptySet());
+		mf.addChild(efAtrInfo);
+	}
+	
 	/**
 	 * Add an EF.ChipSecurity below MF as described by TR03110
 	 */
@@ -0,0 +1,59 @@
+package de.persosim.simulator.perso;
+
+/**
+ * Profile with individual data provided at construction time, e.g. created
+ * by the {@link BulkPersoGenerator}.
+ * <p/>
+ * SecInfo files are signed using the {@link DefaultSecInfoCmsBuilder} and
+ * are not stored in the {@link SignedDataFileCache}, as every generated
+ * personalization contains individual chip keys.
+ */
+public class GeneratedProfile extends AbstractProfile {
+
+	private PersonalizationDataContainer generatedData;
+	private String pin;
+	private String can;
+
+	/**
+	 * Create and build the personalization.
+	 *
+	 * @param generatedData
+	 *            the data groups, MRZ and keys of this personalization
+	 * @param pin
+	 *            the 6 digit PIN
+	 * @param can
+	 *            the 6 digit CAN
+	 */
+	public GeneratedProfile(PersonalizationDataContainer generatedData, String pin, String can) {
+		super(false);
+		this.generatedData = generatedData;
+		this.pin = pin;
+		this.can = can;
+		reset();
+	}
+
+	@Override
+	protected void addUnmarshallerCallbacks() {
+		unmarshallerCallbacks.add(new DefaultNpaUnmarshallerCallback(new DefaultSecInfoCmsBuilder(), false));
+	}
+
+	@Override
+	public void setPersoDataContainer() {
+		persoDataContainer = generatedData;
+	}
+
+	@Override
+	public String getPin() {
+		return pin;
+	}
+
+	@Override
+	public String getCan() {
+		return can;
+	}
+
+	public String getMrz() {
+		return generatedData.getMrz();
+	}
+
+}
@@ -0,0 +1,64 @@
+package de.persosim.simulator.perso;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join pool shared by all tasks creating or completing
+ * {@link Personalization}s, e.g. collecting SecInfos and signing the
+ * resulting CMS structures.
+ * <p/>
+ * Tasks may be invoked from within tasks already running in this pool (e.g.
+ * completing a single personalization while many personalizations are loaded
+ * in parallel), in that case the nested tasks are forked into the same pool
+ * instead of blocking a worker.
+ */
+public class PersoTaskPool {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private PersoTaskPool() {
+		// no instances, all methods are static
+	}
+
+	/**
+	 * Execute all given tasks in parallel and wait for their completion.
+	 *
+	 * @param callables
+	 *            the tasks to execute
+	 * @return the results of the tasks in the order of the given tasks
+	 * @throws RuntimeException
+	 *             if any of the tasks failed, checked exceptions are provided
+	 *             as cause
+	 */
+	public static <T> List<T> invokeAll(List<? extends Callable<T>> callables) {
+		final List<ForkJoinTask<T>> tasks = new ArrayList<>(callables.size());
+		for (Callable<T> curCallable : callables) {
+			tasks.add(ForkJoinTask.adapt(curCallable));
+		}
+
+		if (ForkJoinTask.getPool() == POOL) {
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			POOL.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		}
+
+		List<T> results = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<T> curTask : tasks) {
+			results.add(curTask.join());
+		}
+		return results;
+	}
+
+}
@@ -3,9 +3,11 @@ package de.persosim.simulator.perso;
 import java.util.List;
 
 import de.persosim.simulator.cardobjects.MasterFile;
+import de.persosim.simulator.cardobjects.ObjectTreeCopier;
 import de.persosim.simulator.platform.CardStateAccessor;
 import de.persosim.simulator.platform.CommandProcessor;
 import de.persosim.simulator.protocols.Protocol;
+import de.persosim.simulator.protocols.ProtocolDefinitions;
 
 /**
  * This interface describes all essential aspects of a simulated SmartCard
@@ -21,15 +23,21 @@ public interface Personalization {
 
 	/**
 	 * Returns the root element of the object tree.
+	 * <p/>
+	 * This object tree is shared by all simulated cards using this
+	 * personalization. Each {@link CommandProcessor} works on its own copy
+	 * (see {@link ObjectTreeCopier}).
 	 */
 	MasterFile getObjectTree();
 
 	/**
 	 * Returns the list of activated protocols.
 	 * <p/>
-	 * The protocols contained in this List are required to be already
-	 * initialized and ready to be added to a {@link CardStateAccessor} and
-	 * used afterwards
+	 * The protocols contained in this List are definitions shared by all
+	 * simulated cards using this personalization. Each {@link CommandProcessor}
+	 * creates its own instances from them (see {@link ProtocolDefinitions}),
+	 * those are added to its {@link CardStateAccessor} and hold the session
+	 * state.
 	 * 
 	 * @return
 	 */
@@ -59,6 +59,53 @@ public class PersonalizationDataContainer {
 		this.riKeyIds             = new ArrayList<>();
 	}
 	
+	/**
+	 * Create a copy of the given container, e.g. to derive individual
+	 * personalizations from a template. The data group contents and key pairs
+	 * are immutable and therefore shared, the key lists are copied.
+	 * 
+	 * @param template
+	 *            the container to copy
+	 */
+	public PersonalizationDataContainer(PersonalizationDataContainer template) {
+		this.mrz                  = template.mrz;
+		
+		this.dg1PlainData         = template.dg1PlainData;
+		this.dg2PlainData         = template.dg2PlainData;
+		this.dg3PlainData         = template.dg3PlainData;
+		this.dg4PlainData         = template.dg4PlainData;
+		this.dg5PlainData         = template.dg5PlainData;
+		this.dg6PlainData         = template.dg6PlainData;
+		this.dg7PlainData         = template.dg7PlainData;
+		this.dg8PlainData         = template.dg8PlainData;
+		this.dg9PlainData         = template.dg9PlainData;
+		this.dg10PlainData        = template.dg10PlainData;
+		this.dg11PlainData        = template.dg11PlainData;
+		this.dg12PlainData        = template.dg12PlainData;
+		this.dg13PlainData        = template.dg13PlainData;
+		this.dg14PlainData        = template.dg14PlainData;
+		this.dg15PlainData        = template.dg15PlainData;
+		this.dg16PlainData        = template.dg16PlainData;
+		this.dg17StreetPlainData  = template.dg17StreetPlainData;
+		this.dg17CityPlainData    = template.dg17CityPlainData;
+		this.dg17StatePlainData   = template.dg17StatePlainData;
+		this.dg17CountryPlainData = template.dg17CountryPlainData;
+		this.dg17ZipPlainData     = template.dg17ZipPlainData;
+		this.dg18PlainData        = template.dg18PlainData;
+		this.dg19PlainData        = template.dg19PlainData;
+		this.dg20PlainData        = template.dg20PlainData;
+		this.dg21PlainData        = template.dg21PlainData;
+		
+		this.epassDg1PlainData    = template.epassDg1PlainData;
+		
+		this.caKeys               = new ArrayList<>(template.caKeys);
+		this.caKeyIds             = new ArrayList<>(template.caKeyIds);
+		this.caKeyPrivileges      = new ArrayList<>(template.caKeyPrivileges);
+		
+		this.riKeys               = new ArrayList<>(template.riKeys);
+		this.riKeyIds             = new ArrayList<>(template.riKeyIds);
+	}
+	
 	public void addCaKeyPair(KeyPair keyPair, int keyId, boolean privileged) {
 		this.caKeys.add(keyPair);
 		this.caKeyIds.add(keyId);
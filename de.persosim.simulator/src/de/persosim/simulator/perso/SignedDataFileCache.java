@@ -1,8 +1,12 @@
 package de.persosim.simulator.perso;
 
 import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXB;
 import javax.xml.bind.Unmarshaller;
@@ -15,8 +19,17 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import de.persosim.simulator.jaxb.PersoSimJaxbContextProvider;
 import de.persosim.simulator.jaxb.TlvMapAdapter;
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
+import de.persosim.simulator.tlv.ImmutableTlvDataObject;
 import de.persosim.simulator.tlv.TlvDataObject;
+import de.persosim.simulator.utils.HexString;
 
+/**
+ * Persistent cache of signed SecInfo files.
+ * <p/>
+ * Entries are persisted keyed by the complete SecInfos. Lookups are served
+ * from an in-memory index keyed by the SHA-256 digest of the DER encoded
+ * SecInfos, so they neither lock nor compare complete TLV structures.
+ */
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.FIELD)
 public class SignedDataFileCache {
@@ -26,23 +39,49 @@ public class SignedDataFileCache {
 
 	@XmlTransient
 	private File file;
+	
+	@XmlTransient
+	private ConcurrentMap<String, TlvDataObject> digestIndex = new ConcurrentHashMap<>();
 
 	private SignedDataFileCache() {
 
 	}
 
 	public boolean containsKey(ConstructedTlvDataObject key) {
-		return map.containsKey(key);
+		return digestIndex.containsKey(getDigest(key));
 	}
 
 	public TlvDataObject get(ConstructedTlvDataObject key) {
-		return map.get(key);
+		return digestIndex.get(getDigest(key));
+	}
+
+	/**
+	 * Store the given signedDataFile unless another one was stored for the
+	 * same SecInfos in the meantime (e.g. by a concurrently loaded
+	 * personalization), so all users of the cache get the same signature.
+	 * 
+	 * @return the signedDataFile stored within the cache
+	 */
+	public TlvDataObject putIfAbsent(ConstructedTlvDataObject secInfos,
+			ConstructedTlvDataObject signedDataFile) {
+		TlvDataObject existing = digestIndex.putIfAbsent(getDigest(secInfos), signedDataFile);
+		if (existing != null) {
+			return existing;
+		}
+		persist(secInfos, signedDataFile);
+		return signedDataFile;
 	}
 
 	public void put(ConstructedTlvDataObject secInfos,
 			ConstructedTlvDataObject signedDataFile) {
-		// store new value in actual map
-		map.put(secInfos, signedDataFile);
+		digestIndex.put(getDigest(secInfos), signedDataFile);
+		persist(secInfos, signedDataFile);
+	}
+
+	private synchronized void persist(ConstructedTlvDataObject secInfos,
+			ConstructedTlvDataObject signedDataFile) {
+		// store new value in actual map, the key is copied to protect it from later modifications
+		map.put(new ImmutableTlvDataObject(secInfos), signedDataFile);
 		
 		//ensure that the cache file is updated
 		if (file != null) {
@@ -69,7 +108,22 @@ public class SignedDataFileCache {
 			retVal = new SignedDataFileCache();
 		}
 		retVal.file = file;
+		for (Map.Entry<TlvDataObject, TlvDataObject> curEntry : retVal.map.entrySet()) {
+			retVal.digestIndex.put(getDigest(curEntry.getKey()), curEntry.getValue());
+		}
 
 		return retVal;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Returns the key of the in-memory index for the given SecInfos.
+	 */
+	private static String getDigest(TlvDataObject secInfos) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			return HexString.encode(md.digest(secInfos.toByteArray()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+}
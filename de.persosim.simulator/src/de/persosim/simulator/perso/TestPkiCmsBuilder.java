@@ -22,12 +22,19 @@ import de.persosim.simulator.tlv.ConstructedTlvDataObject;
  * The superclass may cache these results in order to provide valid signatures
  * without the need to provide a smartcard, as long as the provided value
  * already was signed.
+ * <p/>
+ * The smart card can only be accessed by one thread at a time, so all access
+ * to the card is synchronized on a lock shared by all instances, even if
+ * several SecInfo files or personalizations are signed in parallel.
  * 
  * @author amay, tsenger
  * 
  */
 public class TestPkiCmsBuilder extends DefaultSecInfoCmsBuilder {
 	
+	/** serializes access to the signer smart card across all instances */
+	private static final Object CARD_LOCK = new Object();
+	
 	private CardSigner cardSigner;
 		
 	public TestPkiCmsBuilder() {
@@ -40,7 +47,9 @@ public class TestPkiCmsBuilder extends DefaultSecInfoCmsBuilder {
 		byte[] dsCertBytes = null;
 		
 		try {
-			dsCertBytes = cardSigner.getDSCertificate();
+			synchronized (CARD_LOCK) {
+				dsCertBytes = cardSigner.getDSCertificate();
+			}
 			if (dsCertBytes==null) return super.getCertificate();
 			else return new ConstructedTlvDataObject(dsCertBytes);
 		} catch (CardException | IOException e) {
@@ -56,7 +65,9 @@ public class TestPkiCmsBuilder extends DefaultSecInfoCmsBuilder {
 		byte[] signature = null;
 		
 		try {
-			signature = cardSigner.getSignature(digestAlgorithm, sigInput);
+			synchronized (CARD_LOCK) {
+				signature = cardSigner.getSignature(digestAlgorithm, sigInput);
+			}
 			if (signature==null) signature = super.getSignature(sigInput);
 		} catch (CardException | NoSuchAlgorithmException | NoSuchProviderException e) {
 			log(TestPkiCmsBuilder.class, e.getMessage(), WARN);
@@ -20,6 +20,7 @@ import de.persosim.simulator.cardobjects.MasterFile;
 import de.persosim.simulator.cardobjects.ObjectStore;
 import de.persosim.simulator.cardobjects.Scope;
 import de.persosim.simulator.exception.NotImplementedException;
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 import de.persosim.simulator.processing.UpdatePropagation;
 import de.persosim.simulator.protocols.Protocol;
 import de.persosim.simulator.protocols.ProtocolStateMachine;
@@ -106,6 +107,44 @@ public abstract class AbstractCommandProcessor extends Layer implements
 
 	}
 
+	@Override
+	public Object createCheckpoint() {
+		return new CommandProcessorCheckpoint(new ArrayList<>(protocolStack),
+				new SecStatus(securityStatus), objectStore.getCurrentFile());
+	}
+
+	@Override
+	public void restoreCheckpoint(Object state) {
+		CommandProcessorCheckpoint checkpoint = (CommandProcessorCheckpoint) state;
+
+		log(this, "restoreCheckpoint, restore protocol stack", TRACE);
+		protocolStack = new ArrayList<>(checkpoint.protocolStack);
+		setStackPointerToBottom();
+
+		log(this, "restoreCheckpoint, restore SecStatus and selected file", TRACE);
+		securityStatus.restore(checkpoint.securityStatus);
+		objectStore.selectFileForPersonalization(checkpoint.currentFile);
+		// implicitly caches the selected file as done during checkpoint creation
+		objectStore.getCurrentFile();
+	}
+
+	/**
+	 * Session state of the command processor. The protocols on the stack are
+	 * referenced, i.e. their internal state is not part of the checkpoint.
+	 */
+	private static class CommandProcessorCheckpoint {
+		private final ArrayList<Protocol> protocolStack;
+		private final SecStatus securityStatus;
+		private final CardFile currentFile;
+
+		CommandProcessorCheckpoint(ArrayList<Protocol> protocolStack,
+				SecStatus securityStatus, CardFile currentFile) {
+			this.protocolStack = protocolStack;
+			this.securityStatus = securityStatus;
+			this.currentFile = currentFile;
+		}
+	}
+
 	// ---------------------------------------------------
 	// methods/fields handling/representing the card state
 	// ---------------------------------------------------
@@ -235,7 +274,12 @@ public abstract class AbstractCommandProcessor extends Layer implements
 	public void currentProtocolProcess() {
 		log(this, "protocol chosen for processing is: "
 				+ currentlyActiveProtocol.getProtocolName()); 
-		currentlyActiveProtocol.process(processingData);
+		long start = PerformanceMonitor.start();
+		try {
+			currentlyActiveProtocol.process(processingData);
+		} finally {
+			PerformanceMonitor.recordProtocol(currentlyActiveProtocol.getProtocolName(), start);
+		}
 	}
 
 	/**
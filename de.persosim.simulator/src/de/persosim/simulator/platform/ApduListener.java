@@ -0,0 +1,32 @@
+package de.persosim.simulator.platform;
+
+import de.persosim.simulator.apdu.CommandApdu;
+import de.persosim.simulator.apdu.ResponseApdu;
+
+/**
+ * Implementations of this interface can be registered at the
+ * {@link PersoSimKernel} in order to be notified about every processed APDU.
+ *
+ * Listeners are called synchronously from within
+ * {@link PersoSimKernel#process(byte[])} and should therefore return quickly.
+ */
+public interface ApduListener {
+
+	/**
+	 * Called after an APDU has been completely processed.
+	 *
+	 * @param commandApdu
+	 *            the command APDU as received from the hardware
+	 * @param responseApdu
+	 *            the response APDU as returned to the hardware
+	 * @param applicationCommandApdu
+	 *            the command APDU as seen by the topmost layer, i.e. after
+	 *            removal of secure messaging; may be null if the APDU could not
+	 *            be parsed
+	 * @param applicationResponseApdu
+	 *            the response APDU as created by the topmost layer, i.e.
+	 *            before secure messaging is applied; may be null
+	 */
+	public abstract void apduProcessed(byte[] commandApdu, byte[] responseApdu, CommandApdu applicationCommandApdu, ResponseApdu applicationResponseApdu);
+
+}
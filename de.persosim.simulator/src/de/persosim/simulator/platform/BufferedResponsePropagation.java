@@ -0,0 +1,25 @@
+package de.persosim.simulator.platform;
+
+import de.persosim.simulator.processing.UpdatePropagation;
+
+/**
+ * This UpdatePropagation marks a command APDU that has been answered by the
+ * {@link ResponseBuffer} from its buffered response (i.e. GET RESPONSE).
+ * 
+ * The {@link PersoSimKernel} does not propagate such APDUs to the layers above
+ * the {@link ResponseBuffer}. Responses set by other layers while ascending do
+ * not stop the propagation.
+ * 
+ */
+public class BufferedResponsePropagation implements UpdatePropagation {
+
+	@Override
+	public Class<? extends UpdatePropagation> getKey() {
+		return BufferedResponsePropagation.class;
+	}
+
+	BufferedResponsePropagation() {
+		super();
+	}
+
+}
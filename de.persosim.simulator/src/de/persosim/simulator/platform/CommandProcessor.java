@@ -1,14 +1,27 @@
 package de.persosim.simulator.platform;
 
+import static de.persosim.simulator.utils.PersoSimLogger.WARN;
+import static de.persosim.simulator.utils.PersoSimLogger.log;
+import static de.persosim.simulator.utils.PersoSimLogger.logException;
+
+import javax.xml.bind.JAXBException;
 
 import de.persosim.simulator.cardobjects.CardFile;
+import de.persosim.simulator.cardobjects.MasterFile;
 import de.persosim.simulator.cardobjects.ObjectStore;
+import de.persosim.simulator.cardobjects.ObjectTreeCopier;
 import de.persosim.simulator.perso.Personalization;
 import de.persosim.simulator.protocols.Protocol;
+import de.persosim.simulator.protocols.ProtocolDefinitions;
 
 /**
  * This class realizes a generic means to provide a {@link Personalization} that
  * fills a CommandProcessor with content and concrete behavior.
+ * <p/>
+ * The protocols provided by the {@link Personalization} are used as
+ * definitions only, every CommandProcessor works on its own protocol instances
+ * (see {@link ProtocolDefinitions}). Likewise every CommandProcessor works on
+ * its own copy of the object tree (see {@link ObjectTreeCopier}).
  * 
  * @author amay
  * 
@@ -26,16 +39,32 @@ public class CommandProcessor extends CommandProcessorStateMachine {
 	public void init() {
 		super.init();
 		
-		//create object tree
-		objectStore.reset(perso.getObjectTree(), securityStatus);
+		//create object tree, the perso only provides the original shared by all sessions
+		objectStore.reset(createSessionObjectTree(), securityStatus);
 		
-		//register protocols
-		for (Protocol curProtocol : perso.getProtocolList()) {
+		//register protocols, the perso only provides shareable definitions
+		for (Protocol curProtocol : ProtocolDefinitions.createSessionInstances(perso.getProtocolList())) {
 			addProtocol(curProtocol);
 		}
 		
 	}
 
+	/**
+	 * Returns a copy of the object tree provided by the {@link Personalization}.
+	 * Object trees that can not be copied are used unchanged and can therefore
+	 * only be used within a single card session.
+	 */
+	private MasterFile createSessionObjectTree() {
+		MasterFile objectTree = perso.getObjectTree();
+		try {
+			return ObjectTreeCopier.copy(objectTree);
+		} catch (JAXBException e) {
+			log(this, "object tree can not be copied, it is used as session object tree", WARN);
+			logException(this, e, WARN);
+			return objectTree;
+		}
+	}
+
 	/**
 	 * @see ObjectStore#selectFileForPersonalization(CardFile)
 	 */
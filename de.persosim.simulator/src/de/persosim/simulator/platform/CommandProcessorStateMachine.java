@@ -1,376 +1,211 @@
-package de.persosim.simulator.platform; 
-/*
- * AUTOMATICALLY GENERATED CODE - DO NOT EDIT!
- * 
- * (C) 2013 HJP-Consulting GmbH
- */
- @SuppressWarnings("all")//generated code 
-
-/* Command line options: -verbose -p EA -o CommandProcessorStateMachine -l java -t commandProcessor:commandProcessorClass C:\develop\wd\commandProcessor.xml   */
-/* This file is generated from commandProcessor.xml - do not edit manually  */
-/* Generated on: Mon Oct 27 16:12:43 CET 2014 / version 3.52beta2 */
-
-
-
-public class CommandProcessorStateMachine extends AbstractCommandProcessor
-{
-
-	public static final int INITIALIZATION = 0;
-	public static final int PROTOCOL_UNABLE_TO_PROCESS_APDU = 1;
-	public static final int END_OF_STACK_OR_EMPTY = 2;
-	public static final int PROTOCOL_INACTIVE = 3;
-	public static final int PROTOCOL_FROM_STACK_ACTIVE = 4;
-	public static final int COMMAND_PROCESSOR = 5;
-	public static final int PROTOCOL_PROCESSED = 6;
-	public static final int PROTOCOL_FROM_LIST_ACTIVE = 7;
-	public static final int WAITING_FOR_COMMAND = 8;
-	public static final int START_OF_STACK = 9;
-	public static final int WAITING_FOR_PROTOCOL_TO_PROCESS_APDU = 10;
-	public static final int __UNKNOWN_STATE__ = 11;
-
-
-	public static final int COMMANDPROCESSORSTATEMACHINE_NO_MSG = 0;
-	
-
-
-	// flag if initialized
-	protected boolean m_initialized=false;
-
-	int  stateVar;
-	int  stateVarCOMMAND_PROCESSOR;
-
-	// State handler class default ctor
-	public CommandProcessorStateMachine()
-	{
-	}
-
-	/* Helper(s) to reset history */
-	public void resetHistoryCOMMAND_PROCESSOR(){stateVarCOMMAND_PROCESSOR= WAITING_FOR_COMMAND;}
-
-	/* Helper to get innermost active state id */
-	public int getInnermostActiveState() {
-		if(isInWAITING_FOR_PROTOCOL_TO_PROCESS_APDU()){
-			return WAITING_FOR_PROTOCOL_TO_PROCESS_APDU;
-		}else if(isInSTART_OF_STACK()){
-			return START_OF_STACK;
-		}else if(isInWAITING_FOR_COMMAND()){
-			return WAITING_FOR_COMMAND;
-		}else if(isInPROTOCOL_FROM_LIST_ACTIVE()){
-			return PROTOCOL_FROM_LIST_ACTIVE;
-		}else if(isInPROTOCOL_PROCESSED()){
-			return PROTOCOL_PROCESSED;
-		}else if(isInPROTOCOL_FROM_STACK_ACTIVE()){
-			return PROTOCOL_FROM_STACK_ACTIVE;
-		}else if(isInPROTOCOL_INACTIVE()){
-			return PROTOCOL_INACTIVE;
-		}else if(isInEND_OF_STACK_OR_EMPTY()){
-			return END_OF_STACK_OR_EMPTY;
-		}else if(isInPROTOCOL_UNABLE_TO_PROCESS_APDU()){
-			return PROTOCOL_UNABLE_TO_PROCESS_APDU;
-		}else if(isInINITIALIZATION()){
-			return INITIALIZATION;
-		}else{
-			return __UNKNOWN_STATE__;
-		}
-	}
-
-	// Helper(s) to find out if the machine is in a certain state
-	public boolean isInINITIALIZATION(){return (((stateVar==  INITIALIZATION)) ? (true) : (false));}
-	public boolean isInPROTOCOL_UNABLE_TO_PROCESS_APDU(){return (((stateVarCOMMAND_PROCESSOR==  PROTOCOL_UNABLE_TO_PROCESS_APDU)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInEND_OF_STACK_OR_EMPTY(){return (((stateVarCOMMAND_PROCESSOR==  END_OF_STACK_OR_EMPTY)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInPROTOCOL_INACTIVE(){return (((stateVarCOMMAND_PROCESSOR==  PROTOCOL_INACTIVE)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInPROTOCOL_FROM_STACK_ACTIVE(){return (((stateVarCOMMAND_PROCESSOR==  PROTOCOL_FROM_STACK_ACTIVE)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInCOMMAND_PROCESSOR(){return (((stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInPROTOCOL_PROCESSED(){return (((stateVarCOMMAND_PROCESSOR==  PROTOCOL_PROCESSED)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInPROTOCOL_FROM_LIST_ACTIVE(){return (((stateVarCOMMAND_PROCESSOR==  PROTOCOL_FROM_LIST_ACTIVE)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInWAITING_FOR_COMMAND(){return (((stateVarCOMMAND_PROCESSOR==  WAITING_FOR_COMMAND)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInSTART_OF_STACK(){return (((stateVarCOMMAND_PROCESSOR==  START_OF_STACK)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-	public boolean isInWAITING_FOR_PROTOCOL_TO_PROCESS_APDU(){return (((stateVarCOMMAND_PROCESSOR==  WAITING_FOR_PROTOCOL_TO_PROCESS_APDU)&&(stateVar==  COMMAND_PROCESSOR)) ? (true) : (false));}
-
-
-
-
-	// Reinitialize the state machine
-	public void reInitialize(){
-			m_initialized=false;
-			initialize();
-	}
-
-	public void initialize(){
-
-		if(m_initialized==false){
-
-			m_initialized=true;
-			//call on entry code of default states
-			initialize();
-
-
-			// Set state vars to default states
-			stateVar =  INITIALIZATION; /* set init state of top state */
-			stateVarCOMMAND_PROCESSOR =  WAITING_FOR_COMMAND; /* set init state of COMMAND_PROCESSOR */
-
-		}
-
-	}
-
-	protected void commandprocessorstatemachineChangeToState(int  state){
-		stateVar=state;
-	}
-
-	protected void commandprocessorstatemachineChangeToStateCOMMAND_PROCESSOR(int  state){
-		stateVarCOMMAND_PROCESSOR = state;
-	}
-	
-
-
-
-	public int processEvent(int msg){
-
-		int evConsumed = 0;
-
-		
-
-		if(m_initialized==false) return 0;
-
-		/* action code */
-		this.continueProcessing = true;
-		do{
-		evConsumed = 0;
-
-
-		switch (stateVar) {
-
-			case COMMAND_PROCESSOR:
-
-				switch (stateVarCOMMAND_PROCESSOR) {
-
-					case END_OF_STACK_OR_EMPTY:
-						if(true){
-							if(apduHasBeenProcessed()){
-								/* Transition from END_OF_STACK_OR_EMPTY to WAITING_FOR_COMMAND */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								returnResult();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  WAITING_FOR_COMMAND;
-							}else{
-								/* Transition from END_OF_STACK_OR_EMPTY to WAITING_FOR_PROTOCOL_TO_PROCESS_APDU */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								setProtocolPointerToFirstElementOfProtocolList();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  WAITING_FOR_PROTOCOL_TO_PROCESS_APDU;
-							} /*end of event selection */
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case END_OF_STACK_OR_EMPTY  */
-
-					case PROTOCOL_FROM_LIST_ACTIVE:
-						if(true){
-							if(apduHasBeenProcessed() || protocolAtPointerWantsToGetOnStack()){
-								/* Transition from PROTOCOL_FROM_LIST_ACTIVE to PROTOCOL_PROCESSED */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								addProtocolAtProtocolPointerToStack();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  PROTOCOL_PROCESSED;
-							}else{
-								/* Transition from PROTOCOL_FROM_LIST_ACTIVE to PROTOCOL_UNABLE_TO_PROCESS_APDU */
-								evConsumed=16;
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  PROTOCOL_UNABLE_TO_PROCESS_APDU;
-							} /*end of event selection */
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PROTOCOL_FROM_LIST_ACTIVE  */
-
-					case PROTOCOL_FROM_STACK_ACTIVE:
-						if(true){
-							/* Transition from PROTOCOL_FROM_STACK_ACTIVE to PROTOCOL_PROCESSED */
-							evConsumed=16;
-
-							/* Action code for transition  */
-							currentProtocolProcess();
-
-
-							/* adjust state variables  */
-							stateVarCOMMAND_PROCESSOR =  PROTOCOL_PROCESSED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PROTOCOL_FROM_STACK_ACTIVE  */
-
-					case PROTOCOL_INACTIVE:
-						if(true){
-							/* Transition from PROTOCOL_INACTIVE to START_OF_STACK */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarCOMMAND_PROCESSOR =  START_OF_STACK;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PROTOCOL_INACTIVE  */
-
-					case PROTOCOL_PROCESSED:
-						if(true){
-							if(isProtocolFinished()){
-								/* Transition from PROTOCOL_PROCESSED to PROTOCOL_INACTIVE */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								removeCurrentProtocolAndAboveFromStack();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  PROTOCOL_INACTIVE;
-							}else{
-								/* Transition from PROTOCOL_PROCESSED to PROTOCOL_INACTIVE */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								incrementStackPointer();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  PROTOCOL_INACTIVE;
-							} /*end of event selection */
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PROTOCOL_PROCESSED  */
-
-					case PROTOCOL_UNABLE_TO_PROCESS_APDU:
-						if(true){
-							if(protocolAtProtocolPointerIsLastElementOfProtocolList()){
-								/* Transition from PROTOCOL_UNABLE_TO_PROCESS_APDU to WAITING_FOR_COMMAND */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								setStatusWordForUnsupportedCommand();
-								returnResult();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  WAITING_FOR_COMMAND;
-							}else{
-								/* Transition from PROTOCOL_UNABLE_TO_PROCESS_APDU to WAITING_FOR_PROTOCOL_TO_PROCESS_APDU */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								setProtocolPointerToNextElementOfProtocolList();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  WAITING_FOR_PROTOCOL_TO_PROCESS_APDU;
-							} /*end of event selection */
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PROTOCOL_UNABLE_TO_PROCESS_APDU  */
-
-					case START_OF_STACK:
-						if(true){
-							if(stackPointerIsNull()){
-								/* Transition from START_OF_STACK to END_OF_STACK_OR_EMPTY */
-								evConsumed=16;
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  END_OF_STACK_OR_EMPTY;
-							}else{
-								/* Transition from START_OF_STACK to PROTOCOL_FROM_STACK_ACTIVE */
-								evConsumed=16;
-
-								/* Action code for transition  */
-								makeStackPointerCurrentlyActiveProtocol();
-
-
-								/* adjust state variables  */
-								stateVarCOMMAND_PROCESSOR =  PROTOCOL_FROM_STACK_ACTIVE;
-							} /*end of event selection */
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case START_OF_STACK  */
-
-					case WAITING_FOR_COMMAND:
-						if(true){
-							/* Transition from WAITING_FOR_COMMAND to START_OF_STACK */
-							evConsumed=16;
-
-							/* Action code for transition  */
-							setStackPointerToBottom();
-
-
-							/* adjust state variables  */
-							stateVarCOMMAND_PROCESSOR =  START_OF_STACK;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case WAITING_FOR_COMMAND  */
-
-					case WAITING_FOR_PROTOCOL_TO_PROCESS_APDU:
-						if(true){
-							/* Transition from WAITING_FOR_PROTOCOL_TO_PROCESS_APDU to PROTOCOL_FROM_LIST_ACTIVE */
-							evConsumed=16;
-
-							/* Action code for transition  */
-							resetProtocolAtProtocolPointer();
-							makeProtocolAtProtocolPointerCurrentlyActiveProtocol();
-							currentProtocolProcess();
-
-
-							/* adjust state variables  */
-							stateVarCOMMAND_PROCESSOR =  PROTOCOL_FROM_LIST_ACTIVE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case WAITING_FOR_PROTOCOL_TO_PROCESS_APDU  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch COMMAND_PROCESSOR */
-			break; /* end of case COMMAND_PROCESSOR  */
-
-			case INITIALIZATION:
-				if(true){
-					/* Transition from INITIALIZATION to COMMAND_PROCESSOR */
-					evConsumed=16;
-
-					/* Action code for transition  */
-					returnResult();
-
-					stateVar =  COMMAND_PROCESSOR;/* Default in entry chain  */
-					stateVarCOMMAND_PROCESSOR =  WAITING_FOR_COMMAND;/* Default in entry chain  */
-
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case INITIALIZATION  */
-
-			default:
-				/* Intentionally left blank */
-			break;
-		} /* end switch stateVar_root */
-
-	/* Post Action Code */
-	}while (this.continueProcessing);
-		return evConsumed;
-	}
-}
+package de.persosim.simulator.platform;
+
+import static de.persosim.simulator.statemachine.StateChart.ALWAYS;
+import static de.persosim.simulator.statemachine.StateChart.NONE;
+import static de.persosim.simulator.statemachine.StateChart.TOP;
+import static de.persosim.simulator.utils.PersoSimLogger.DEBUG;
+import static de.persosim.simulator.utils.PersoSimLogger.isLoggable;
+import static de.persosim.simulator.utils.PersoSimLogger.log;
+
+import de.persosim.simulator.statemachine.StateChart;
+import de.persosim.simulator.statemachine.StateChartHandler;
+
+/**
+ * State machine of the {@link CommandProcessor}, dispatching every APDU to the
+ * protocols on the stack and in the protocol list. The chart is defined once
+ * as {@link StateChart} and shared by all instances, only the active
+ * configuration is kept per instance.
+ */
+public class CommandProcessorStateMachine extends AbstractCommandProcessor implements StateChartHandler {
+
+	public static final int INITIALIZATION = 0;
+	public static final int PROTOCOL_UNABLE_TO_PROCESS_APDU = 1;
+	public static final int END_OF_STACK_OR_EMPTY = 2;
+	public static final int PROTOCOL_INACTIVE = 3;
+	public static final int PROTOCOL_FROM_STACK_ACTIVE = 4;
+	public static final int COMMAND_PROCESSOR = 5;
+	public static final int PROTOCOL_PROCESSED = 6;
+	public static final int PROTOCOL_FROM_LIST_ACTIVE = 7;
+	public static final int WAITING_FOR_COMMAND = 8;
+	public static final int START_OF_STACK = 9;
+	public static final int WAITING_FOR_PROTOCOL_TO_PROCESS_APDU = 10;
+	public static final int __UNKNOWN_STATE__ = 11;
+
+	public static final int COMMANDPROCESSORSTATEMACHINE_NO_MSG = 0;
+
+	// guards
+	private static final int APDU_PROCESSED = 0;
+	private static final int APDU_PROCESSED_OR_PROTOCOL_WANTS_TO_GET_ON_STACK = 1;
+	private static final int PROTOCOL_FINISHED = 2;
+	private static final int LAST_ELEMENT_OF_PROTOCOL_LIST = 3;
+	private static final int STACK_POINTER_IS_NULL = 4;
+
+	// actions
+	private static final int RETURN_RESULT = 0;
+	private static final int SET_STACK_POINTER_TO_BOTTOM = 1;
+	private static final int MAKE_STACK_POINTER_ACTIVE = 2;
+	private static final int INCREMENT_STACK_POINTER = 3;
+	private static final int PROCESS_CURRENT_PROTOCOL = 4;
+	private static final int REMOVE_CURRENT_PROTOCOL_FROM_STACK = 5;
+	private static final int ADD_PROTOCOL_TO_STACK = 6;
+	private static final int SET_PROTOCOL_POINTER_TO_FIRST = 7;
+	private static final int SET_PROTOCOL_POINTER_TO_NEXT = 8;
+	private static final int PROCESS_PROTOCOL_AT_PROTOCOL_POINTER = 9;
+	private static final int REJECT_UNSUPPORTED_COMMAND = 10;
+
+	private static final StateChart CHART = new StateChart(__UNKNOWN_STATE__, INITIALIZATION);
+
+	static {
+		CHART.addState(INITIALIZATION, TOP, null, NONE);
+		CHART.addCompositeState(COMMAND_PROCESSOR, TOP, WAITING_FOR_COMMAND, false, null, NONE);
+		CHART.addState(WAITING_FOR_COMMAND, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(START_OF_STACK, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(PROTOCOL_FROM_STACK_ACTIVE, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(PROTOCOL_PROCESSED, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(PROTOCOL_INACTIVE, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(END_OF_STACK_OR_EMPTY, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(WAITING_FOR_PROTOCOL_TO_PROCESS_APDU, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(PROTOCOL_FROM_LIST_ACTIVE, COMMAND_PROCESSOR, null, NONE);
+		CHART.addState(PROTOCOL_UNABLE_TO_PROCESS_APDU, COMMAND_PROCESSOR, null, NONE);
+
+		CHART.addTransition(INITIALIZATION, ALWAYS, RETURN_RESULT, COMMAND_PROCESSOR);
+		CHART.addTransition(WAITING_FOR_COMMAND, ALWAYS, SET_STACK_POINTER_TO_BOTTOM, START_OF_STACK);
+		CHART.addTransition(START_OF_STACK, STACK_POINTER_IS_NULL, NONE, END_OF_STACK_OR_EMPTY);
+		CHART.addTransition(START_OF_STACK, ALWAYS, MAKE_STACK_POINTER_ACTIVE, PROTOCOL_FROM_STACK_ACTIVE);
+		CHART.addTransition(PROTOCOL_FROM_STACK_ACTIVE, ALWAYS, PROCESS_CURRENT_PROTOCOL, PROTOCOL_PROCESSED);
+		CHART.addTransition(PROTOCOL_PROCESSED, PROTOCOL_FINISHED, REMOVE_CURRENT_PROTOCOL_FROM_STACK, PROTOCOL_INACTIVE);
+		CHART.addTransition(PROTOCOL_PROCESSED, ALWAYS, INCREMENT_STACK_POINTER, PROTOCOL_INACTIVE);
+		CHART.addTransition(PROTOCOL_INACTIVE, ALWAYS, NONE, START_OF_STACK);
+		CHART.addTransition(END_OF_STACK_OR_EMPTY, APDU_PROCESSED, RETURN_RESULT, WAITING_FOR_COMMAND);
+		CHART.addTransition(END_OF_STACK_OR_EMPTY, ALWAYS, SET_PROTOCOL_POINTER_TO_FIRST, WAITING_FOR_PROTOCOL_TO_PROCESS_APDU);
+		CHART.addTransition(WAITING_FOR_PROTOCOL_TO_PROCESS_APDU, ALWAYS, PROCESS_PROTOCOL_AT_PROTOCOL_POINTER, PROTOCOL_FROM_LIST_ACTIVE);
+		CHART.addTransition(PROTOCOL_FROM_LIST_ACTIVE, APDU_PROCESSED_OR_PROTOCOL_WANTS_TO_GET_ON_STACK, ADD_PROTOCOL_TO_STACK, PROTOCOL_PROCESSED);
+		CHART.addTransition(PROTOCOL_FROM_LIST_ACTIVE, ALWAYS, NONE, PROTOCOL_UNABLE_TO_PROCESS_APDU);
+		CHART.addTransition(PROTOCOL_UNABLE_TO_PROCESS_APDU, LAST_ELEMENT_OF_PROTOCOL_LIST, REJECT_UNSUPPORTED_COMMAND, WAITING_FOR_COMMAND);
+		CHART.addTransition(PROTOCOL_UNABLE_TO_PROCESS_APDU, ALWAYS, SET_PROTOCOL_POINTER_TO_NEXT, WAITING_FOR_PROTOCOL_TO_PROCESS_APDU);
+	}
+
+	private final int[] activeStates = CHART.createActiveStates();
+	private boolean chartInitialized = false;
+
+	@Override
+	public void reInitialize() {
+		chartInitialized = false;
+		initialize();
+	}
+
+	@Override
+	public void initialize() {
+		if (!chartInitialized) {
+			chartInitialized = true;
+			CHART.initialize(activeStates);
+		}
+	}
+
+	@Override
+	public int processEvent(int event) {
+		if (!chartInitialized) {
+			return 0;
+		}
+
+		continueProcessing = true;
+		boolean eventConsumed;
+		do {
+			eventConsumed = CHART.processStep(activeStates, this);
+		} while (continueProcessing);
+
+		return eventConsumed ? StateChart.EVENT_CONSUMED : 0;
+	}
+
+	@Override
+	public boolean evaluateGuard(int guard) {
+		switch (guard) {
+		case APDU_PROCESSED:
+			return apduHasBeenProcessed();
+		case APDU_PROCESSED_OR_PROTOCOL_WANTS_TO_GET_ON_STACK:
+			return apduHasBeenProcessed() || protocolAtPointerWantsToGetOnStack();
+		case PROTOCOL_FINISHED:
+			return isProtocolFinished();
+		case LAST_ELEMENT_OF_PROTOCOL_LIST:
+			return protocolAtProtocolPointerIsLastElementOfProtocolList();
+		case STACK_POINTER_IS_NULL:
+			return stackPointerIsNull();
+		default:
+			throw new IllegalArgumentException("unknown guard " + guard);
+		}
+	}
+
+	@Override
+	public void performAction(int action) {
+		switch (action) {
+		case RETURN_RESULT:
+			returnResult();
+			break;
+		case SET_STACK_POINTER_TO_BOTTOM:
+			setStackPointerToBottom();
+			break;
+		case MAKE_STACK_POINTER_ACTIVE:
+			makeStackPointerCurrentlyActiveProtocol();
+			break;
+		case INCREMENT_STACK_POINTER:
+			incrementStackPointer();
+			break;
+		case PROCESS_CURRENT_PROTOCOL:
+			currentProtocolProcess();
+			break;
+		case REMOVE_CURRENT_PROTOCOL_FROM_STACK:
+			removeCurrentProtocolAndAboveFromStack();
+			break;
+		case ADD_PROTOCOL_TO_STACK:
+			addProtocolAtProtocolPointerToStack();
+			break;
+		case SET_PROTOCOL_POINTER_TO_FIRST:
+			setProtocolPointerToFirstElementOfProtocolList();
+			break;
+		case SET_PROTOCOL_POINTER_TO_NEXT:
+			setProtocolPointerToNextElementOfProtocolList();
+			break;
+		case PROCESS_PROTOCOL_AT_PROTOCOL_POINTER:
+			resetProtocolAtProtocolPointer();
+			makeProtocolAtProtocolPointerCurrentlyActiveProtocol();
+			currentProtocolProcess();
+			break;
+		case REJECT_UNSUPPORTED_COMMAND:
+			setStatusWordForUnsupportedCommand();
+			returnResult();
+			break;
+		default:
+			throw new IllegalArgumentException("unknown action " + action);
+		}
+	}
+
+	@Override
+	public void logs(String state) {
+		if (isLoggable(DEBUG)) {
+			log(this, "State changed to " + state, DEBUG);
+		}
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Returns the id of the innermost active state.
+	 */
+	public int getInnermostActiveState() {
+		return CHART.getInnermostActiveState(activeStates);
+	}
+
+	// Helper(s) to find out if the machine is in a certain state
+	public boolean isInINITIALIZATION(){return CHART.isActive(activeStates, INITIALIZATION);}
+	public boolean isInPROTOCOL_UNABLE_TO_PROCESS_APDU(){return CHART.isActive(activeStates, PROTOCOL_UNABLE_TO_PROCESS_APDU);}
+	public boolean isInEND_OF_STACK_OR_EMPTY(){return CHART.isActive(activeStates, END_OF_STACK_OR_EMPTY);}
+	public boolean isInPROTOCOL_INACTIVE(){return CHART.isActive(activeStates, PROTOCOL_INACTIVE);}
+	public boolean isInPROTOCOL_FROM_STACK_ACTIVE(){return CHART.isActive(activeStates, PROTOCOL_FROM_STACK_ACTIVE);}
+	public boolean isInCOMMAND_PROCESSOR(){return CHART.isActive(activeStates, COMMAND_PROCESSOR);}
+	public boolean isInPROTOCOL_PROCESSED(){return CHART.isActive(activeStates, PROTOCOL_PROCESSED);}
+	public boolean isInPROTOCOL_FROM_LIST_ACTIVE(){return CHART.isActive(activeStates, PROTOCOL_FROM_LIST_ACTIVE);}
+	public boolean isInWAITING_FOR_COMMAND(){return CHART.isActive(activeStates, WAITING_FOR_COMMAND);}
+	public boolean isInSTART_OF_STACK(){return CHART.isActive(activeStates, START_OF_STACK);}
+	public boolean isInWAITING_FOR_PROTOCOL_TO_PROCESS_APDU(){return CHART.isActive(activeStates, WAITING_FOR_PROTOCOL_TO_PROCESS_APDU);}
+
+}
@@ -6,7 +6,6 @@ import java.util.LinkedList;
 import de.persosim.simulator.apdu.CommandApdu;
 import de.persosim.simulator.apdu.CommandApduFactory;
 import de.persosim.simulator.processing.UpdatePropagation;
-import de.persosim.simulator.utils.HexString;
 
 /**
  * This class implements the lowest Layer that is in charge of converting the
@@ -14,6 +13,9 @@ import de.persosim.simulator.utils.HexString;
  * while it is processed upwards and returning a byte[] apdu to the hardware
  * from a {@link de.persosim.simulator.apdu.ResponseApdu} while it is processed
  * downwards.
+ * <p/>
+ * The APDUs are not included within the messages, they are available from the
+ * trace of the kernel (see {@link PersoSimKernel#getTrace()}).
  * 
  * @author amay
  * 
@@ -43,7 +45,7 @@ public class IoManager extends Layer {
 			if (updatePropagation != null && updatePropagation instanceof HardwareCommandApduPropagation) {
 				CommandApdu commandApdu = CommandApduFactory.createCommandApdu(((HardwareCommandApduPropagation)updatePropagation).getCommandApdu());
 				
-				processingData.updateCommandApdu(this, "CommandApduFactory.createCommandApdu from hardware : "+ commandApdu , commandApdu);
+				processingData.updateCommandApdu(this, "CommandApduFactory.createCommandApdu from hardware", commandApdu);
 			}
 		}
 		
@@ -54,7 +56,6 @@ public class IoManager extends Layer {
 		// convert the ResponseApdu
 		HardwareResponseApduPropagation responseApduPropagation = new HardwareResponseApduPropagation(
 				processingData.getResponseApdu().toByteArray());
-		processingData.addUpdatePropagation(this, "Converted response APDU to hardware representation: "+ HexString.dump(responseApduPropagation.getResponseApdu()),
-				responseApduPropagation);
+		processingData.addUpdatePropagation(this, "Converted response APDU to hardware representation", responseApduPropagation);
 	}
 }
@@ -708,15 +708,15 @@ public abstract class Iso7816Lib implements Iso7816 {
 	 * @param isoCase the ISO case of the provided APDU
 	 * @return the N_c encoded in the provided APDU
 	 */
-	public static short getNc(byte[] apdu) {
+	public static int getNc(byte[] apdu) {
 		if(getISOcase(apdu) < ISO_CASE_3) {
 			return 0;
 		}
 		
 		if(isExtendedLengthLCLE(apdu)) {
-			return Utils.concatenate(apdu[OFFSET_LC + 1], apdu[OFFSET_LC + 2]);
+			return Utils.maskUnsignedShortToInt(Utils.concatenate(apdu[OFFSET_LC + 1], apdu[OFFSET_LC + 2]));
 		} else{
-			return Utils.maskUnsignedByteToShort(apdu[OFFSET_LC]);
+			return Utils.maskUnsignedByteToInt(apdu[OFFSET_LC]);
 		}
 	}
 	
@@ -734,9 +734,9 @@ public abstract class Iso7816Lib implements Iso7816 {
 			int apduLength = apdu.length;
 			
 			if(isExtendedLengthLCLE(apdu)) {
-				short retVal = Utils.concatenate(apdu[apduLength - 2], apdu[apduLength - 1]);
-				if (retVal <= 0) {
-					return 65536 + retVal;
+				int retVal = Utils.maskUnsignedShortToInt(Utils.concatenate(apdu[apduLength - 2], apdu[apduLength - 1]));
+				if (retVal == 0) {
+					return 65536;
 				} else {
 					return retVal;
 				}
@@ -978,8 +978,8 @@ public abstract class Iso7816Lib implements Iso7816 {
 	 * @return a TLV structure of the APDU's command data field.
 	 */
 	public static TlvValue getCommandData(byte[] apdu) {
-		short offsetData = getOffsetData(apdu);
-		short nc = getNc(apdu);
+		int offsetData = getOffsetData(apdu);
+		int nc = getNc(apdu);
 		return new TlvValuePlain(apdu, offsetData, offsetData + nc);
 	}
 	
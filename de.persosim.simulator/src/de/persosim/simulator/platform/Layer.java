@@ -5,6 +5,7 @@ import static de.persosim.simulator.utils.PersoSimLogger.log;
 import static de.persosim.simulator.utils.PersoSimLogger.logException;
 import de.persosim.simulator.apdu.ResponseApdu;
 import de.persosim.simulator.exception.GeneralException;
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 import de.persosim.simulator.processing.ProcessingData;
 import de.persosim.simulator.utils.InfoSource;
 
@@ -45,6 +46,37 @@ public abstract class Layer implements Iso7816, InfoSource {
 	public void powerOff() {
 		log(this, "powerOff, nothing needs to be done for this layer", TRACE);
 	}
+
+	/**
+	 * Session management function. This method is called by the
+	 * {@link PersoSimKernel} when a {@link SessionCheckpoint} is created and
+	 * returns the layer specific session state. The returned object must not
+	 * be modified by further processing of this layer, as the same checkpoint
+	 * may be restored several times.
+	 *
+	 * Default implementation returns null as it has no session state.
+	 * Subclasses are expected to override this behavior if needed.
+	 *
+	 * @return the current session state of this layer (may be null)
+	 */
+	public Object createCheckpoint() {
+		return null;
+	}
+
+	/**
+	 * Session management function. This method is called by the
+	 * {@link PersoSimKernel} to restore the session state previously returned
+	 * by {@link #createCheckpoint()}.
+	 *
+	 * Default implementation does nothing. Subclasses are expected to override
+	 * this behavior if needed.
+	 *
+	 * @param state
+	 *            the session state as returned by {@link #createCheckpoint()}
+	 */
+	public void restoreCheckpoint(Object state) {
+		log(this, "restoreCheckpoint, nothing needs to be done for this layer", TRACE);
+	}
 	
 	/**
 	 * Central processing routine for events handed up from a lower layer.
@@ -52,6 +84,7 @@ public abstract class Layer implements Iso7816, InfoSource {
 	 * @param pData processingData collected during processing of the APDU
 	 */
 	public final void processAscending(ProcessingData pData) {
+		long start = PerformanceMonitor.start();
 		try{
 			this.processingData = pData;
 			processAscending();
@@ -62,6 +95,8 @@ public abstract class Layer implements Iso7816, InfoSource {
 			//create and propagate response APDU
 			ResponseApdu resp = new ResponseApdu(e.getStatusWord());
 			pData.updateResponseAPDU(this, "Generic error handling", resp);
+		} finally {
+			PerformanceMonitor.recordLayer(getLayerName(), true, start);
 		}
 	}
 	
@@ -84,6 +119,7 @@ public abstract class Layer implements Iso7816, InfoSource {
 	 * @param pData processingData collected during processing of the APDU
 	 */
 	public final void processDescending(ProcessingData pData) {
+		long start = PerformanceMonitor.start();
 		try{
 			this.processingData = pData;
 			this.processDescending();
@@ -93,6 +129,8 @@ public abstract class Layer implements Iso7816, InfoSource {
 			//create and propagate response APDU
 			ResponseApdu resp = new ResponseApdu(e.getStatusWord());
 			pData.updateResponseAPDU(this, "Generic error handling", resp);
+		} finally {
+			PerformanceMonitor.recordLayer(getLayerName(), false, start);
 		}
 	}
 
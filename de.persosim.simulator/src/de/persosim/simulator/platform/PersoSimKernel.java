@@ -1,10 +1,18 @@
 package de.persosim.simulator.platform;
 
 import static de.persosim.simulator.utils.PersoSimLogger.TRACE;
+import static de.persosim.simulator.utils.PersoSimLogger.isLoggable;
 import static de.persosim.simulator.utils.PersoSimLogger.log;
 
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import de.persosim.simulator.apdu.CommandApdu;
+import de.persosim.simulator.apdu.ResponseApdu;
+import de.persosim.simulator.monitoring.ApduTraceBuffer;
+import de.persosim.simulator.monitoring.ApduTraceBuffer.TraceEvent;
+import de.persosim.simulator.monitoring.PerformanceMonitor;
 import de.persosim.simulator.perso.Personalization;
 import de.persosim.simulator.processing.ProcessingData;
 import de.persosim.simulator.processing.UpdatePropagation;
@@ -25,6 +33,8 @@ public class PersoSimKernel implements InfoSource {
 
 	private LinkedList<Layer> layers;
 	private Personalization perso;
+	private List<ApduListener> apduListeners = new CopyOnWriteArrayList<>();
+	private ApduTraceBuffer trace = new ApduTraceBuffer();
 	
 	/**
 	 * Constructor that provides the inital {@link Personalization}
@@ -44,6 +54,7 @@ public class PersoSimKernel implements InfoSource {
 		int layerId = 0;
 		layers = new LinkedList<>();
 		layers.add(new IoManager(layerId++));
+		layers.add(new ResponseBuffer(layerId++));
 		layers.add(new SecureMessaging(layerId++));
 		CommandProcessor commandProcessor = new CommandProcessor(layerId++, perso);
 		commandProcessor.init();
@@ -68,8 +79,12 @@ public class PersoSimKernel implements InfoSource {
 		}
 				
 		//TODO AMY move atr definition to Personalization
-		String atr = "3BE800008131FE00506572736F53696D" + "AA";
-		//                            P e r s o S i m      XOR Checksum (required for T=1)
+		// historical bytes: category indicator 80 followed by compact-TLV
+		// card capabilities 73 (selection by DF name, FID and SFI; extended
+		// Lc/Le supported, extended length information in EF.ATR/INFO) and
+		// pre-issuing data 68
+		String atr = "3BEE00008131FE00" + "80" + "73940060" + "68506572736F53696D" + "C3";
+		//                                                       P e r s o S i m      XOR Checksum (required for T=1)
 		return HexString.toByteArray(atr);
 	}
 
@@ -80,6 +95,52 @@ public class PersoSimKernel implements InfoSource {
 		return powerOn();
 	}
 
+	/**
+	 * Create a checkpoint of the current session state of all layers, e.g.
+	 * the established secure messaging session and the security status.
+	 *
+	 * @return the checkpoint, which can be restored using
+	 *         {@link #restoreCheckpoint(SessionCheckpoint)}
+	 * @throws IllegalStateException
+	 *             if a layer is not able to create a checkpoint of its
+	 *             current state
+	 */
+	public SessionCheckpoint createCheckpoint() {
+		log(this, "create session checkpoint", TRACE);
+
+		Object[] layerStates = new Object[layers.size()];
+		for (int curLayerId = 0; curLayerId < layers.size(); curLayerId++) {
+			layerStates[curLayerId] = layers.get(curLayerId).createCheckpoint();
+		}
+
+		return new SessionCheckpoint(this, layerStates);
+	}
+
+	/**
+	 * Restore the session state of all layers from a checkpoint previously
+	 * created by this kernel. Processing of the next APDU continues within
+	 * the session as it was established when the checkpoint was created.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint to restore
+	 * @return the status word to be returned to the caller
+	 * @throws IllegalArgumentException
+	 *             if the checkpoint was created by another kernel
+	 */
+	public byte[] restoreCheckpoint(SessionCheckpoint checkpoint) {
+		if (checkpoint.getKernel() != this || checkpoint.getNumberOfLayers() != layers.size()) {
+			throw new IllegalArgumentException("checkpoint was not created by this kernel");
+		}
+
+		log(this, "restore session checkpoint", TRACE);
+
+		for (int curLayerId = 0; curLayerId < layers.size(); curLayerId++) {
+			layers.get(curLayerId).restoreCheckpoint(checkpoint.getLayerState(curLayerId));
+		}
+
+		return Utils.toUnsignedByteArray(Iso7816.SW_9000_NO_ERROR);
+	}
+
 	@Override
 	public String getIDString() {
 		return "PersoSimKernel";
@@ -88,28 +149,53 @@ public class PersoSimKernel implements InfoSource {
 	/**
 	 * This method represents the simulator's actual core. APDUs and
 	 * accompanying ProcessingData-Objects are propagated through all available
-	 * layers from bottom to the top and back down again.
+	 * layers from bottom to the top and back down again. Only if the
+	 * {@link ResponseBuffer} answers GET RESPONSE from its buffered response
+	 * (see {@link BufferedResponsePropagation}) the layers above are skipped.
 	 * 
 	 * @param apdu
 	 *            the APDU that was recently received
 	 */
 	public byte[] process(byte[] apdu) {
+		long start = PerformanceMonitor.start();
 		
 		log(this, "processing incoming APDU", TRACE);
-		log(this, "incoming APDU:\n" + HexString.dump(apdu), TRACE);
+		if (isLoggable(TRACE)) {
+			log(this, "incoming APDU:\n" + HexString.dump(apdu), TRACE);
+		}
+		
+		trace.recordCommand(ApduTraceBuffer.NO_LAYER, TraceEvent.HARDWARE_COMMAND, apdu);
 		
 		ProcessingData processingData = new ProcessingData();
 		processingData.addUpdatePropagation(this, "initial hardware info", new HardwareCommandApduPropagation(apdu));
 		
-		//propagate the event all layers up
+		//propagate the event all layers up, unless answered from a buffered response
 		int curLayerId = 0;
-		for (; curLayerId < layers.size(); curLayerId++) {
+		while (curLayerId < layers.size()) {
 			layers.get(curLayerId).processAscending(processingData);	
+			trace.recordCommand(curLayerId, TraceEvent.ASCENDING, processingData.getCommandApdu());
+			curLayerId++;
+			if (!processingData.getUpdatePropagations(BufferedResponsePropagation.class).isEmpty()) {
+				log(this, "answered from buffered response by layer " + (curLayerId - 1), TRACE);
+				break;
+			}
 		}
+		int topLayerId = curLayerId - 1;
+		
+		CommandApdu applicationCommandApdu = processingData.getCommandApdu();
+		ResponseApdu applicationResponseApdu = null;
 		
 		//propagate the event all layers down
 		for (curLayerId--; curLayerId >= 0; curLayerId--) {
 			layers.get(curLayerId).processDescending(processingData);
+			ResponseApdu responseApdu = processingData.getResponseApdu();
+			if (responseApdu != null) {
+				trace.recordResponse(curLayerId, TraceEvent.DESCENDING, responseApdu, responseApdu.getStatusWord());
+			}
+			
+			if (curLayerId == topLayerId) {
+				applicationResponseApdu = processingData.getResponseApdu();
+			}
 		}
 		
 		//extract prepared response
@@ -123,9 +209,48 @@ public class PersoSimKernel implements InfoSource {
 			retVal = Utils.toUnsignedByteArray(Iso7816.SW_6F00_UNKNOWN);
 		}
 		
+		trace.recordResponse(ApduTraceBuffer.NO_LAYER, TraceEvent.HARDWARE_RESPONSE, retVal,
+				Utils.concatenate(retVal[retVal.length - 2], retVal[retVal.length - 1]));
+		
 		log(this, "finished processing APDU");
-		log(this, "outgoing APDU:\n" + HexString.dump(retVal), TRACE);
+		if (isLoggable(TRACE)) {
+			log(this, "outgoing APDU:\n" + HexString.dump(retVal), TRACE);
+		}
+		
+		for (ApduListener listener : apduListeners) {
+			listener.apduProcessed(apdu, retVal, applicationCommandApdu, applicationResponseApdu);
+		}
+		
+		PerformanceMonitor.recordApdu(apdu, retVal, start);
 		return retVal;
 		
 	}
+	
+	/**
+	 * @return the trace of the APDUs recently processed by this kernel
+	 */
+	public ApduTraceBuffer getTrace() {
+		return trace;
+	}
+	
+	/**
+	 * Register a listener to be notified about every APDU processed by this
+	 * kernel.
+	 * 
+	 * @param listener
+	 *            the listener to add
+	 */
+	public void addApduListener(ApduListener listener) {
+		apduListeners.add(listener);
+	}
+	
+	/**
+	 * Remove a previously registered listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 */
+	public void removeApduListener(ApduListener listener) {
+		apduListeners.remove(listener);
+	}
 }
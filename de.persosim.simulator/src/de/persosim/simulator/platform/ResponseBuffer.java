@@ -0,0 +1,175 @@
+package de.persosim.simulator.platform;
+
+import static de.persosim.simulator.utils.PersoSimLogger.DEBUG;
+import static de.persosim.simulator.utils.PersoSimLogger.TRACE;
+import static de.persosim.simulator.utils.PersoSimLogger.log;
+
+import de.persosim.simulator.apdu.CommandApdu;
+import de.persosim.simulator.apdu.IsoSecureMessagingCommandApdu;
+import de.persosim.simulator.apdu.ResponseApdu;
+import de.persosim.simulator.tlv.TlvValue;
+import de.persosim.simulator.tlv.TlvValueSlice;
+
+/**
+ * This layer implements the transmission of large responses in several chunks
+ * as known from T=0 (see ISO7816-4 GET RESPONSE). It is located between the
+ * {@link IoManager} and the
+ * {@link de.persosim.simulator.securemessaging.SecureMessaging} layer, i.e. it
+ * handles the responses as they are returned to the hardware.
+ * <p/>
+ * If the data of a response exceeds the Ne of the received command APDU, only
+ * the first Ne bytes are returned together with status word 61xx, the rest
+ * is kept in a per-session buffer. The remaining data is returned by
+ * subsequent GET RESPONSE commands, the last chunk carries the status word of
+ * the original response. Every other command discards the buffer. Chunks are
+ * returned as {@link TlvValueSlice}s of the buffered response, so secured
+ * responses are neither recomputed nor copied per chunk.
+ * <p/>
+ * GET RESPONSE commands are answered by this layer directly and marked by a
+ * {@link BufferedResponsePropagation}, they are not propagated to the layers
+ * above. Commands without Le receive their complete
+ * response as before.
+ */
+public class ResponseBuffer extends Layer {
+
+	private byte[] bufferedData;
+	private int bufferedOffset;
+	private short bufferedStatusWord;
+
+	/** Ne of the command APDU currently processed as received from the hardware */
+	private int commandNe;
+
+	/** whether the command APDU currently processed was answered by this layer */
+	private boolean answered;
+
+	public ResponseBuffer(int id) {
+		super(id);
+	}
+
+	@Override
+	public String getLayerName() {
+		return "ResponseBuffer";
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	@Override
+	public void powerOn() {
+		super.powerOn();
+		discardBuffer();
+	}
+
+	@Override
+	public void restoreCheckpoint(Object state) {
+		log(this, "restoreCheckpoint, discard buffered response", TRACE);
+		discardBuffer();
+	}
+
+	@Override
+	public void processAscending() {
+		CommandApdu commandApdu = processingData.getCommandApdu();
+		answered = false;
+		commandNe = (commandApdu != null) ? commandApdu.getNe() : 0;
+
+		if (commandApdu == null) {
+			discardBuffer();
+			return;
+		}
+
+		if (bufferedData != null && isGetResponse(commandApdu)) {
+			answered = true;
+			processGetResponse(commandApdu);
+			return;
+		}
+
+		if (bufferedData != null) {
+			log(this, "discard buffered response, " + getRemainingLength() + " bytes have not been requested", DEBUG);
+			discardBuffer();
+		}
+	}
+
+	@Override
+	public void processDescending() {
+		if (answered) {
+			return;
+		}
+
+		ResponseApdu responseApdu = processingData.getResponseApdu();
+		if (responseApdu == null || commandNe == 0) {
+			return;
+		}
+
+		TlvValue data = responseApdu.getData();
+		if (data == null || data.getLength() <= commandNe) {
+			return;
+		}
+
+		bufferedData = data.toByteArray();
+		bufferedOffset = 0;
+		bufferedStatusWord = responseApdu.getStatusWord();
+		log(this, "buffered response of " + bufferedData.length + " bytes exceeding Ne of " + commandNe, DEBUG);
+
+		processingData.updateResponseAPDU(this, "first chunk of buffered response", nextChunk(commandNe));
+	}
+
+	/**
+	 * Returns whether the given APDU is a plain GET RESPONSE command.
+	 */
+	private static boolean isGetResponse(CommandApdu commandApdu) {
+		if (!(commandApdu instanceof IsoSecureMessagingCommandApdu)) {
+			return false;
+		}
+		if (((IsoSecureMessagingCommandApdu) commandApdu).getSecureMessaging() != SM_OFF_OR_NO_INDICATION) {
+			return false;
+		}
+		return commandApdu.getIns() == INS_C0_GET_RESPONSE;
+	}
+
+	private void processGetResponse(CommandApdu commandApdu) {
+		ResponseApdu resp;
+		if (commandApdu.getP1P2() != 0) {
+			resp = new ResponseApdu(SW_6A86_INCORRECT_PARAMETERS_P1P2);
+		} else if (commandApdu.getNe() == 0) {
+			resp = new ResponseApdu(SW_6700_WRONG_LENGTH);
+		} else {
+			resp = nextChunk(commandApdu.getNe());
+		}
+		processingData.updateResponseAPDU(this, "GET RESPONSE answered from buffered response", resp);
+		processingData.addUpdatePropagation(this, "GET RESPONSE answered from buffered response", new BufferedResponsePropagation());
+	}
+
+	/**
+	 * Create the response containing the next chunk of the buffered data.
+	 * The buffer is discarded after its last chunk.
+	 *
+	 * @param ne
+	 *            the maximum number of bytes to return
+	 * @return the response APDU
+	 */
+	private ResponseApdu nextChunk(int ne) {
+		int chunkLength = Math.min(ne, getRemainingLength());
+		TlvValueSlice chunk = new TlvValueSlice(bufferedData, bufferedOffset, bufferedOffset + chunkLength);
+		bufferedOffset += chunkLength;
+
+		int remaining = getRemainingLength();
+		if (remaining == 0) {
+			short statusWord = bufferedStatusWord;
+			discardBuffer();
+			return new ResponseApdu(chunk, statusWord);
+		}
+
+		// 6100 indicates 256 or more remaining bytes
+		short statusWord = (short) (SW_6100_BYTES_REMAINING | ((remaining > 0xFF) ? 0 : remaining));
+		return new ResponseApdu(chunk, statusWord);
+	}
+
+	private int getRemainingLength() {
+		return bufferedData.length - bufferedOffset;
+	}
+
+	private void discardBuffer() {
+		bufferedData = null;
+		bufferedOffset = 0;
+	}
+
+}
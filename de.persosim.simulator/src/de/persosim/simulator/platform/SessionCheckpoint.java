@@ -0,0 +1,39 @@
+package de.persosim.simulator.platform;
+
+/**
+ * Snapshot of the session state of a {@link PersoSimKernel}, e.g. the card
+ * state after PACE, TA and CA have been performed.
+ * <p/>
+ * A checkpoint is created by {@link PersoSimKernel#createCheckpoint()} and
+ * contains the state of every layer as returned by
+ * {@link Layer#createCheckpoint()}. It can be restored by the kernel that
+ * created it arbitrarily often, which allows to continue an established
+ * session without performing the protocols again.
+ * <p/>
+ * Card objects and protocol instances are referenced and not copied, so a
+ * checkpoint is only valid for the kernel that created it and only as long as
+ * the personalization of that kernel is not changed.
+ */
+public final class SessionCheckpoint {
+
+	private final PersoSimKernel kernel;
+	private final Object[] layerStates;
+
+	SessionCheckpoint(PersoSimKernel kernel, Object[] layerStates) {
+		this.kernel = kernel;
+		this.layerStates = layerStates;
+	}
+
+	PersoSimKernel getKernel() {
+		return kernel;
+	}
+
+	Object getLayerState(int layerIndex) {
+		return layerStates[layerIndex];
+	}
+
+	int getNumberOfLayers() {
+		return layerStates.length;
+	}
+
+}
@@ -2,6 +2,7 @@ package de.persosim.simulator.processing;
 
 import static de.persosim.simulator.utils.PersoSimLogger.TRACE;
 import static de.persosim.simulator.utils.PersoSimLogger.WARN;
+import static de.persosim.simulator.utils.PersoSimLogger.isLoggable;
 import static de.persosim.simulator.utils.PersoSimLogger.log;
 
 import java.util.HashMap;
@@ -30,8 +31,6 @@ public class ProcessingData implements Iso7816, InfoSource {
 	
 	protected HashMap<Class<? extends UpdatePropagation>, LinkedList<UpdatePropagation>> updatePropagations = new HashMap<>();
 	
-	protected LinkedList<ProcessingStateUpdate> processingHistory = new LinkedList<>();
-	
 	/*--------------------------------------------------------------------------------*/
 	/* Variables concerning APDU processing status */
 	/*--------------------------------------------------------------------------------*/
@@ -67,15 +66,17 @@ public class ProcessingData implements Iso7816, InfoSource {
 	 */
 	public void updateProcessingState(InfoSource source, String message, ProcessingStateDelta... update) {
 		//log modifications accordingly
-		log(source, "Update processing state with " + update.length + " deltas.", TRACE);
-		log(source, "Update message\n" + message, TRACE);
+		boolean logTrace = isLoggable(TRACE);
+		if (logTrace) {
+			log(source, "Update processing state with " + update.length + " deltas.", TRACE);
+			log(source, "Update message\n" + message, TRACE);
+		}
 		for (ProcessingStateDelta curStateDelta : update) {
 			if (curStateDelta != null && curStateDelta.getNrOfModifications() > 0) {
-				// add to state history
-				processingHistory.add(new ProcessingStateUpdate(source, message, curStateDelta));
-
 				//log modifications accordingly
-				log(source, curStateDelta.toString(), TRACE);
+				if (logTrace) {
+					log(source, curStateDelta.toString(), TRACE);
+				}
 				
 				// update command APDU if present
 				if (curStateDelta.getCommandApdu() != null) {
@@ -94,13 +95,17 @@ public class ProcessingData implements Iso7816, InfoSource {
 					
 					
 					this.commandApdu = curStateDelta.getCommandApdu();
-					log(source, "Command APDU updated\n" + commandApdu, TRACE);
+					if (logTrace) {
+						log(source, "Command APDU updated\n" + commandApdu, TRACE);
+					}
 				}
 
 				// update response APDU if present
 				if (curStateDelta.getResponseApdu() != null) {
 					this.responseApdu = curStateDelta.getResponseApdu();
-					log(source, "Response APDU updated\n" + responseApdu + "\nreason is: " + message, TRACE);
+					if (logTrace) {
+						log(source, "Response APDU updated\n" + responseApdu + "\nreason is: " + message, TRACE);
+					}
 				}
 				
 				// update updatePropagations if present
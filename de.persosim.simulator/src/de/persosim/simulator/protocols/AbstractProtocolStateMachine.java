@@ -1,12 +1,15 @@
 package de.persosim.simulator.protocols;
 
 import static de.persosim.simulator.utils.PersoSimLogger.DEBUG;
+import static de.persosim.simulator.utils.PersoSimLogger.isLoggable;
 import static de.persosim.simulator.utils.PersoSimLogger.log;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import de.persosim.simulator.apdu.CommandApdu;
 import de.persosim.simulator.apdu.ResponseApdu;
@@ -32,12 +35,26 @@ import de.persosim.simulator.utils.InfoSource;
  */
 public abstract class AbstractProtocolStateMachine extends AbstractStateMachine implements ProtocolStateMachine, Iso7816, ApduSpecificationConstants, InfoSource {
 
+	/**
+	 * {@link ApduSpecification}s registered so far, shared between all
+	 * instances of the same protocol class
+	 */
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<String, ApduSpecification>> SHARED_APDU_SPECIFICATIONS = new ConcurrentHashMap<>();
+
 	protected String protocolName;
 
 	protected ProcessingData processingData; 
 	protected boolean continueProcessing;
 	
 	protected HashMap<String, ApduSpecification> apdus  = new HashMap<>();
+	
+	/**
+	 * {@link ApduSpecification}s resolved by
+	 * {@link #resolveApduSpecifications(String...)}, indexed by the position
+	 * of their id within the resolved ids
+	 */
+	private ApduSpecification[] resolvedApdus = new ApduSpecification[0];
+	private String[] resolvedApduIds = new String[0];
 
 	protected ApduSpecification apduSpecification;
 	protected TlvSpecification tagSpecification;
@@ -102,14 +119,30 @@ public abstract class AbstractProtocolStateMachine extends AbstractStateMachine
 	// Methods to implement {@link ProtocolStateMachine} functionality
 	// -------------------------------------------------------
 	
+	/**
+	 * Register the given {@link ApduSpecification}. If an equally named
+	 * specification was already registered by another instance of the same
+	 * protocol class, that one is used instead, so specifications need to be
+	 * independent of the instance state and must not be modified after
+	 * registration.
+	 */
 	@Override
 	public void registerApduSpecification(ApduSpecification apduSpecification) {
-		this.apdus.put(apduSpecification.getId(), apduSpecification);
+		ConcurrentMap<String, ApduSpecification> sharedSpecifications = SHARED_APDU_SPECIFICATIONS.get(getClass());
+		if (sharedSpecifications == null) {
+			SHARED_APDU_SPECIFICATIONS.putIfAbsent(getClass(), new ConcurrentHashMap<String, ApduSpecification>());
+			sharedSpecifications = SHARED_APDU_SPECIFICATIONS.get(getClass());
+		}
+		
+		ApduSpecification sharedSpecification = sharedSpecifications.putIfAbsent(apduSpecification.getId(), apduSpecification);
+		this.apdus.put(apduSpecification.getId(), sharedSpecification != null ? sharedSpecification : apduSpecification);
 	}
 	
 	@Override
 	public void logs(String state) {
-		log(this, "State changed to " + state, DEBUG);
+		if (isLoggable(DEBUG)) {
+			log(this, "State changed to " + state, DEBUG);
+		}
 	}
 
 	@Override
@@ -158,12 +191,50 @@ public abstract class AbstractProtocolStateMachine extends AbstractStateMachine
 		return false;
 	}
 
+	/**
+	 * Resolve the registered {@link ApduSpecification}s with the given ids.
+	 * Afterwards {@link #isAPDU(int)} accesses them by their index within
+	 * apduIds, so the specifications need not be looked up by name for every
+	 * processed APDU. This is expected to be called once, after all
+	 * specifications have been registered.
+	 * 
+	 * @param apduIds
+	 *            ids of the specifications, the index of an id is used as
+	 *            argument to {@link #isAPDU(int)}
+	 */
+	protected void resolveApduSpecifications(String... apduIds) {
+		ApduSpecification[] resolved = new ApduSpecification[apduIds.length];
+		for (int i = 0; i < apduIds.length; i++) {
+			resolved[i] = apdus.get(apduIds[i]);
+		}
+		resolvedApduIds = apduIds;
+		resolvedApdus = resolved;
+	}
+
 	@Override
 	public boolean isAPDU(String apduId) {
+		return matchesApdu(apdus.get(apduId), apduId);
+	}
+	
+	/**
+	 * Compare the APDU contained in current processingData with the
+	 * ApduSpecification resolved at the given index by
+	 * {@link #resolveApduSpecifications(String...)}.
+	 * <p/>
+	 * Returns false if either the current APDU or the requested
+	 * ApduSpecification could not be found.
+	 * 
+	 * @param apduIndex
+	 *            index of the specification within the resolved ids
+	 * @return
+	 */
+	protected boolean isAPDU(int apduIndex) {
+		return matchesApdu(resolvedApdus[apduIndex], resolvedApduIds[apduIndex]);
+	}
+	
+	private boolean matchesApdu(ApduSpecification apduSpec, String apduId) {
 		CommandApdu apdu;
 		
-		ApduSpecification apduSpec = apdus.get(apduId);
-		
 		if(apduSpec == null) {
 			log(this, "APDU matching failed due to command \"" + apduId + "\" being unknown", DEBUG);
 			return false;
@@ -176,7 +247,7 @@ public abstract class AbstractProtocolStateMachine extends AbstractStateMachine
 		apdu = processingData.getCommandApdu();
 		boolean match = apduSpec.matchesFullApdu(apdu);
 		
-		if(match) {
+		if(match && isLoggable(DEBUG)) {
 			log(this, "received APDU matches definition of command \"" + apduId + "\"", DEBUG);
 		}
 		
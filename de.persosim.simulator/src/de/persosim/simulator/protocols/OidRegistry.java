@@ -0,0 +1,113 @@
+package de.persosim.simulator.protocols;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.persosim.simulator.protocols.ca.Ca;
+import de.persosim.simulator.protocols.pace.Pace;
+import de.persosim.simulator.protocols.ri.Ri;
+import de.persosim.simulator.protocols.ta.TaOid;
+import de.persosim.simulator.utils.HexString;
+
+/**
+ * Registry of all {@link Oid}s supported by the simulator.
+ * <p/>
+ * Every supported OID is interned exactly once when this class is
+ * initialized. The registered instances precompute all metadata derived from
+ * their OID (e.g. algorithm names and key lengths), so resolving an OID
+ * received within an APDU is a single hash lookup that returns the shared
+ * instance instead of constructing and validating a new object.
+ * <p/>
+ * Registered instances are shared between all simulator instances and
+ * threads and must not be modified.
+ */
+public class OidRegistry {
+
+	private static final Map<ByteBuffer, Oid> REGISTERED_OIDS;
+
+	static {
+		Map<ByteBuffer, Oid> registeredOids = new HashMap<>();
+		registerConstants(registeredOids, Pace.class);
+		registerConstants(registeredOids, Ca.class);
+		registerConstants(registeredOids, Ri.class);
+		registerConstants(registeredOids, TaOid.class);
+		REGISTERED_OIDS = Collections.unmodifiableMap(registeredOids);
+	}
+
+	private OidRegistry() {
+		// no instances, all methods are static
+	}
+
+	/**
+	 * Register all OIDs defined as public static constants of the given class.
+	 */
+	private static void registerConstants(Map<ByteBuffer, Oid> registeredOids, Class<?> definingClass) {
+		for (Field curField : definingClass.getFields()) {
+			if (Modifier.isStatic(curField.getModifiers()) && Oid.class.isAssignableFrom(curField.getType())) {
+				try {
+					Oid oid = (Oid) curField.get(null);
+					registeredOids.put(ByteBuffer.wrap(oid.toByteArray()), oid);
+				} catch (IllegalAccessException e) {
+					// ignore the current field
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the registered instance of the given OID.
+	 *
+	 * @param oidByteArray
+	 *            the byte array representation of the OID
+	 * @param oidClass
+	 *            the expected type of the OID
+	 * @return the shared instance representing the OID
+	 * @throws IllegalArgumentException
+	 *             if the OID is unknown or not of the expected type
+	 */
+	public static <T extends Oid> T getOid(byte[] oidByteArray, Class<T> oidClass) {
+		return getOid(oidByteArray, 0, oidByteArray.length, oidClass);
+	}
+
+	/**
+	 * Returns the registered instance of the OID stored within the given
+	 * range of a byte array, e.g. the value field of a TLV data object
+	 * within an APDU.
+	 *
+	 * @param data
+	 *            byte array containing the OID
+	 * @param offset
+	 *            offset of the OID within data
+	 * @param length
+	 *            length of the OID
+	 * @param oidClass
+	 *            the expected type of the OID
+	 * @return the shared instance representing the OID
+	 * @throws IllegalArgumentException
+	 *             if the OID is unknown or not of the expected type
+	 */
+	public static <T extends Oid> T getOid(byte[] data, int offset, int length, Class<T> oidClass) {
+		Oid oid = REGISTERED_OIDS.get(ByteBuffer.wrap(data, offset, length));
+
+		if (!oidClass.isInstance(oid)) {
+			throw new IllegalArgumentException("OID " + HexString.encode(Arrays.copyOfRange(data, offset, offset + length)) + " is invalid or unknown (not supported) as " + oidClass.getSimpleName());
+		}
+
+		return oidClass.cast(oid);
+	}
+
+	/**
+	 * @param oidByteArray
+	 *            the byte array representation of the OID
+	 * @return true iff the OID is registered
+	 */
+	public static boolean isRegistered(byte[] oidByteArray) {
+		return REGISTERED_OIDS.containsKey(ByteBuffer.wrap(oidByteArray));
+	}
+
+}
@@ -0,0 +1,85 @@
+package de.persosim.simulator.protocols;
+
+import static de.persosim.simulator.utils.PersoSimLogger.DEBUG;
+import static de.persosim.simulator.utils.PersoSimLogger.log;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import de.persosim.simulator.apdumatching.ApduSpecification;
+import de.persosim.simulator.perso.Personalization;
+import de.persosim.simulator.statemachine.StateMachine;
+
+/**
+ * The {@link Protocol}s provided by a {@link Personalization} are definitions
+ * only. They do not carry any configuration beyond their class, all static
+ * data (domain parameters, keys, passwords etc.) is stored within the object
+ * tree. This allows the same definitions to be shared between any number of
+ * simulated cards, each of them working on its own protocol instances holding
+ * the session state (nonces, ephemeral keys, certificates, challenges etc.).
+ * <p/>
+ * The {@link ApduSpecification}s registered by
+ * {@link AbstractProtocolStateMachine}s are immutable after registration and
+ * shared between all instances of the same protocol class.
+ */
+public class ProtocolDefinitions {
+
+	private ProtocolDefinitions() {
+		// no instances, all methods are static
+	}
+
+	/**
+	 * Create a new protocol instance for use within a single card session.
+	 * The new instance is initialized if the definition is an initialized
+	 * {@link StateMachine}.
+	 * <p/>
+	 * Definitions that can not be instantiated through a public no-arg
+	 * constructor (e.g. anonymous classes) are returned unchanged and can
+	 * therefore only be used within a single card session.
+	 *
+	 * @param definition
+	 *            the protocol as provided by the {@link Personalization}
+	 * @return a new instance of the same protocol class
+	 */
+	public static Protocol createSessionInstance(Protocol definition) {
+		Class<? extends Protocol> protocolClass = definition.getClass();
+		if (!Modifier.isPublic(protocolClass.getModifiers())) {
+			log(ProtocolDefinitions.class, "protocol " + definition.getProtocolName() + " is used as session instance", DEBUG);
+			return definition;
+		}
+
+		try {
+			Constructor<? extends Protocol> constructor = protocolClass.getConstructor();
+			Protocol instance = constructor.newInstance();
+			if ((definition instanceof StateMachine) && ((StateMachine) definition).isInitialized()) {
+				((StateMachine) instance).init();
+			}
+			return instance;
+		} catch (NoSuchMethodException e) {
+			log(ProtocolDefinitions.class, "protocol " + definition.getProtocolName() + " is used as session instance", DEBUG);
+			return definition;
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("unable to instantiate protocol " + definition.getProtocolName(), e);
+		}
+	}
+
+	/**
+	 * Create new protocol instances for use within a single card session.
+	 *
+	 * @see #createSessionInstance(Protocol)
+	 * @param definitions
+	 *            the protocols as provided by the {@link Personalization}
+	 * @return new protocol instances in the order of the given definitions
+	 */
+	public static List<Protocol> createSessionInstances(Collection<? extends Protocol> definitions) {
+		List<Protocol> instances = new ArrayList<>(definitions.size());
+		for (Protocol curDefinition : definitions) {
+			instances.add(createSessionInstance(curDefinition));
+		}
+		return instances;
+	}
+
+}
@@ -56,8 +56,8 @@ public class TR03110Utils implements TlvConstants {
 	public static PublicKey parseCertificatePublicKey(
 			ConstructedTlvDataObject publicKeyData,
 			PublicKey trustPointPublicKey) throws GeneralSecurityException {
-		TaOid oid = new TaOid(publicKeyData.getTlvDataObject(TAG_06)
-				.getValueField());
+		TaOid oid = OidRegistry.getOid(publicKeyData.getTlvDataObject(TAG_06)
+				.getValueField(), TaOid.class);
 
 		if (oid.getIdString().contains("ECDSA")) {
 			ECParameterSpec paramSpec = null;
@@ -22,6 +22,7 @@ import de.persosim.simulator.platform.CardStateAccessor;
 import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.platform.PlatformUtil;
 import de.persosim.simulator.processing.ProcessingData;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.Protocol;
 import de.persosim.simulator.protocols.ca.ChipAuthenticationMechanism;
 import de.persosim.simulator.protocols.ta.AuthenticatedAuxiliaryData;
@@ -72,7 +73,7 @@ public class AuxProtocol implements Protocol, Iso7816, InfoSource, TlvConstants
 			TlvDataObjectContainer commandData = processingData.getCommandApdu().getCommandDataObjectContainer();
 			if (commandData.containsTlvDataObject(TlvConstants.TAG_06)){
 				try{
-					TaOid oid = new TaOid(commandData.getTlvDataObject(TlvConstants.TAG_06).getValueField());
+					TaOid oid = OidRegistry.getOid(commandData.getTlvDataObject(TlvConstants.TAG_06).getValueField(), TaOid.class);
 					processOid(processingData, oid);
 					
 					ResponseApdu resp = new ResponseApdu(Iso7816.SW_9000_NO_ERROR);
@@ -13,7 +13,6 @@ import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,9 +33,12 @@ import de.persosim.simulator.cardobjects.Scope;
 import de.persosim.simulator.crypto.CryptoSupport;
 import de.persosim.simulator.crypto.DomainParameterSet;
 import de.persosim.simulator.crypto.KeyDerivationFunction;
+import de.persosim.simulator.crypto.RandomSource;
+import de.persosim.simulator.crypto.SessionKeys;
 import de.persosim.simulator.crypto.StandardizedDomainParameters;
 import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.protocols.AbstractProtocolStateMachine;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.ProtocolUpdate;
 import de.persosim.simulator.protocols.TR03110Utils;
 import de.persosim.simulator.protocols.Tr03110;
@@ -66,7 +68,6 @@ import de.persosim.simulator.utils.Utils;
  */
 //XXX SLS generalize code overlapping with {@link AbstractPaceProtocol} where possible.
 public abstract class AbstractCaProtocol extends AbstractProtocolStateMachine implements Ca, TlvConstants {
-	protected SecureRandom secureRandom;
 	
 	protected CaOid caOid;
 	
@@ -84,8 +85,6 @@ public abstract class AbstractCaProtocol extends AbstractProtocolStateMachine im
 	
 	public AbstractCaProtocol() {
 		super("CA");
-		
-		secureRandom = new SecureRandom();
 	}
 	
 	@Override
@@ -110,7 +109,7 @@ public abstract class AbstractCaProtocol extends AbstractProtocolStateMachine im
 		TlvDataObject tlvObject = commandData.getTlvDataObject(TAG_80);
 		
 		try {
-			caOid = new CaOid(tlvObject.getValueField());
+			caOid = OidRegistry.getOid(tlvObject.getValueField(), CaOid.class);
 		} catch (RuntimeException e) {
 			ResponseApdu resp = new ResponseApdu(Iso7816.SW_6A80_WRONG_DATA);
 			this.processingData.updateResponseAPDU(this, e.getMessage(), resp);
@@ -267,20 +266,19 @@ public abstract class AbstractCaProtocol extends AbstractProtocolStateMachine im
 		//get nonce r_PICC
 		int nonceSizeInBytes = 8;
 		byte[] rPiccNonce = new byte[nonceSizeInBytes];
-		this.secureRandom.nextBytes(rPiccNonce);
+		RandomSource.nextBytes(rPiccNonce);
 		log(this, "nonce r_PICC of " + nonceSizeInBytes + " bytes length is: " + HexString.encode(rPiccNonce), DEBUG);
 		
 		//compute session keys
 		KeyDerivationFunction kdf = new KeyDerivationFunction(caOid.getSymmetricCipherKeyLengthInBytes());
 		
-		byte[] keyMaterialMac = kdf.deriveMAC(sharedSecret, rPiccNonce);
-		byte[] keyMaterialEnc = kdf.deriveENC(sharedSecret, rPiccNonce);
+		SessionKeys sessionKeys = kdf.deriveSessionKeys(sharedSecret, rPiccNonce, cryptoSupport);
 		
-		log(this, "PICC's session key for MAC of " + keyMaterialMac.length + " bytes length is: " + HexString.encode(keyMaterialMac), DEBUG);
-		log(this, "PICC's session key for ENC of " + keyMaterialMac.length + " bytes length is: " + HexString.encode(keyMaterialEnc), DEBUG);
+		secretKeySpecMAC = sessionKeys.getKeyMac();
+		secretKeySpecENC = sessionKeys.getKeyEnc();
 		
-		secretKeySpecMAC = cryptoSupport.generateSecretKeySpecMac(keyMaterialMac);
-		secretKeySpecENC = cryptoSupport.generateSecretKeySpecCipher(keyMaterialEnc);
+		log(this, "PICC's session key for MAC of " + secretKeySpecMAC.getEncoded().length + " bytes length is: " + HexString.encode(secretKeySpecMAC.getEncoded()), DEBUG);
+		log(this, "PICC's session key for ENC of " + secretKeySpecENC.getEncoded().length + " bytes length is: " + HexString.encode(secretKeySpecENC.getEncoded()), DEBUG);
 		
 		//compute authentication token T_PICC
 		TlvDataObjectContainer authenticationTokenInput = buildAuthenticationTokenInput(ephemeralPublicKeyPcd, caDomainParameters, caOid);
@@ -1,21 +1,50 @@
 package de.persosim.simulator.protocols.ca;
 
 import java.security.InvalidParameterException;
-import java.util.Arrays;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import de.persosim.simulator.crypto.CryptoSupport;
 import de.persosim.simulator.crypto.CryptoSupportAes;
 import de.persosim.simulator.crypto.CryptoUtil;
 import de.persosim.simulator.protocols.Oid;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.Utils;
 
 //XXX SLS continue extracting code shared with {@link PaceOid} to {@link Oid}
+/**
+ * OID identifying a CA variant.
+ * <p/>
+ * All information derived from the OID is computed once on construction, the
+ * instances for all supported OIDs are interned by the {@link OidRegistry}.
+ */
 @XmlRootElement
 public class CaOid extends Oid implements Ca {
 	
+	/**
+	 * Common names of all supported OIDs indexed by key agreement and
+	 * symmetric cipher
+	 */
+	private static final String[][] ID_STRINGS = new String[][] {
+		{id_CA_DH_3DES_CBC_CBC_STRING,   id_CA_DH_AES_CBC_CMAC_128_STRING,   id_CA_DH_AES_CBC_CMAC_192_STRING,   id_CA_DH_AES_CBC_CMAC_256_STRING},
+		{id_CA_ECDH_3DES_CBC_CBC_STRING, id_CA_ECDH_AES_CBC_CMAC_128_STRING, id_CA_ECDH_AES_CBC_CMAC_192_STRING, id_CA_ECDH_AES_CBC_CMAC_256_STRING}
+	};
+	
 	private String idString;
+	
+	@XmlTransient
+	private String keyAgreementName;
+	@XmlTransient
+	private String symmetricCipherAlgorithmNameModePadding;
+	@XmlTransient
+	private String symmetricCipherAlgorithmName;
+	@XmlTransient
+	private int symmetricCipherKeyLengthInBytes;
+	@XmlTransient
+	private String macName;
 
 	public CaOid() {}
 	
@@ -31,9 +60,58 @@ public class CaOid extends Oid implements Ca {
 		if(idString == null) {
 			throw new IllegalArgumentException("CA OID " + HexString.encode(oidByteArray) + " is invalid or unknown (not supported)");
 		}
+		
+		initMetadata();
 	}
 	
+	/**
+	 * Precompute all information derived from the OID.
+	 */
+	private void initMetadata() {
+		keyAgreementName = (getKeyAgreementAsByte() == Ca.DH) ? "DH" : "ECDH";
+		
+		switch (getSymmetricCipherAndKeySizeAsByte()) {
+		case Ca.DES3_CBC_CBC:
+			symmetricCipherAlgorithmNameModePadding = "DESede/CBC/NoPadding";
+			/* 
+			 * this is the actual key length,
+			 * effective key length is only 14 bytes as 1 bit per byte is parity information
+			 */
+			symmetricCipherKeyLengthInBytes = 16;
+			macName = "ISO9797ALG3WITHISO7816-4PADDING";
+			break;
+		case Ca.AES_CBC_CMAC_128:
+			symmetricCipherAlgorithmNameModePadding = "AES/CBC/NoPadding";
+			symmetricCipherKeyLengthInBytes = 16;
+			macName = "aescmac";
+			break;
+		case Ca.AES_CBC_CMAC_192:
+			symmetricCipherAlgorithmNameModePadding = "AES/CBC/NoPadding";
+			symmetricCipherKeyLengthInBytes = 24;
+			macName = "aescmac";
+			break;
+		default:
+			symmetricCipherAlgorithmNameModePadding = "AES/CBC/NoPadding";
+			symmetricCipherKeyLengthInBytes = 32;
+			macName = "aescmac";
+			break;
+		}
+		symmetricCipherAlgorithmName = CryptoUtil.getCipherNameAsString(symmetricCipherAlgorithmNameModePadding);
+	}
 	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to initialize idString and the derived information
+	 * @param u
+	 * @param parent
+	 */
+	protected void afterUnmarshal(Unmarshaller u, Object parent) {
+		idString = getStringRepresentation(oidByteArray);
+		if (idString != null) {
+			initMetadata();
+		}
+	}
 	
 	/*----------------------------------------------------------------*/
 	
@@ -60,36 +138,29 @@ public class CaOid extends Oid implements Ca {
 	 * @return the common name of the used key agreement
 	 */
 	public String getKeyAgreementName() {
-		switch (this.getKeyAgreementAsByte()) {
-		case Ca.DH:
-			return "DH";
-		case Ca.ECDH:
-			return "ECDH";
-		default:
+		if (keyAgreementName == null) {
 			throw new InvalidParameterException("no or invalid key agreement selected");
 		}
+		return keyAgreementName;
 	}
 	
-	protected CryptoSupport cryptoSupportCache = null;
 	/**
-	 * This method returns the {@link CryptoSupport} object matching the crypto systems indicated by the OID.
+	 * This method returns a new {@link CryptoSupport} object matching the
+	 * crypto systems indicated by the OID. As {@link CryptoSupport} objects
+	 * are stateful and OIDs are shared, a new instance is created for every
+	 * call.
+	 * 
 	 * @return the {@link CryptoSupport} object matching the crypto systems indicated by the OID
 	 */
 	public CryptoSupport getCryptoSupport() {
-		if(cryptoSupportCache == null) {
-			String cipherName = getSymmetricCipherAlgorithmNameModePadding();
-			String macName = getMacName();
-			
-			switch (CryptoUtil.getCipherNameAsString(cipherName)) {
-			case "AES":
-				cryptoSupportCache = new CryptoSupportAes(cipherName, macName);
-				break;
-			default:
-				throw new IllegalArgumentException("algorithm " + cipherName + " is unknown or not supported");
-			}
-		}
+		String cipherName = getSymmetricCipherAlgorithmNameModePadding();
 		
-		return cryptoSupportCache;
+		switch (getSymmetricCipherAlgorithmName()) {
+		case "AES":
+			return new CryptoSupportAes(cipherName, getMacName());
+		default:
+			throw new IllegalArgumentException("algorithm " + cipherName + " is unknown or not supported");
+		}
 	}
 	
 	/*----------------------------------------------------------------*/
@@ -101,18 +172,10 @@ public class CaOid extends Oid implements Ca {
 	 * @return the used cipher algorithm name, mode and padding
 	 */
 	public String getSymmetricCipherAlgorithmNameModePadding() {
-		switch (this.getSymmetricCipherAndKeySizeAsByte()) {
-		case Ca.DES3_CBC_CBC:
-			return "DESede/CBC/NoPadding";
-		case Ca.AES_CBC_CMAC_128:
-			return "AES/CBC/NoPadding";
-		case Ca.AES_CBC_CMAC_192:
-			return "AES/CBC/NoPadding";
-		case Ca.AES_CBC_CMAC_256:
-			return "AES/CBC/NoPadding";
-		default:
+		if (symmetricCipherAlgorithmNameModePadding == null) {
 			throw new InvalidParameterException("no or invalid symmetric cipher selected");
 		}
+		return symmetricCipherAlgorithmNameModePadding;
 	}
 	
 	/**
@@ -120,7 +183,10 @@ public class CaOid extends Oid implements Ca {
 	 * @return the used cipher algorithm's name
 	 */
 	public String getSymmetricCipherAlgorithmName() {
-		return CryptoUtil.getCipherNameAsString(this.getSymmetricCipherAlgorithmNameModePadding());
+		if (symmetricCipherAlgorithmName == null) {
+			throw new InvalidParameterException("no or invalid symmetric cipher selected");
+		}
+		return symmetricCipherAlgorithmName;
 	}
 	
 	/**
@@ -144,22 +210,10 @@ public class CaOid extends Oid implements Ca {
 	 * @return the key length in byte as indicated by the OID
 	 */
 	public int getSymmetricCipherKeyLengthInBytes() {
-		switch (this.getSymmetricCipherAndKeySizeAsByte()) {
-		case Ca.DES3_CBC_CBC:
-			/* 
-			 * this is the actual key length,
-			 * effective key length is only 14 bytes as 1 bit per byte is parity information
-			 */
-			return 16;
-		case Ca.AES_CBC_CMAC_128:
-			return 16;
-		case Ca.AES_CBC_CMAC_192:
-			return 24;
-		case Ca.AES_CBC_CMAC_256:
-			return 32;
-		default:
+		if (symmetricCipherKeyLengthInBytes == 0) {
 			throw new InvalidParameterException("no or invalid symmetric cipher selected");
 		}
+		return symmetricCipherKeyLengthInBytes;
 	}
 	
 	/**
@@ -167,14 +221,10 @@ public class CaOid extends Oid implements Ca {
 	 * @return the MAC name indicated by the OID
 	 */
 	public String getMacName() {
-		switch (this.getSymmetricCipherAlgorithmName()) {
-		case "DESede":
-			return "ISO9797ALG3WITHISO7816-4PADDING";
-		case "AES":
-			return "aescmac";
-		default:
+		if (macName == null) {
 			throw new InvalidParameterException("no or invalid mac selected");
 		}
+		return macName;
 	}
 	
 	/*----------------------------------------------------------------*/
@@ -184,17 +234,17 @@ public class CaOid extends Oid implements Ca {
 	 * @return common name of OID or null if parameter does not encode a CaOid
 	 */
 	public static String getStringRepresentation(byte[] oidByteArray) {
-		if (Arrays.equals(oidByteArray, id_CA_DH_3DES_CBC_CBC))     return id_CA_DH_3DES_CBC_CBC_STRING;
-		if (Arrays.equals(oidByteArray, id_CA_DH_AES_CBC_CMAC_128)) return id_CA_DH_AES_CBC_CMAC_128_STRING;
-		if (Arrays.equals(oidByteArray, id_CA_DH_AES_CBC_CMAC_192)) return id_CA_DH_AES_CBC_CMAC_192_STRING;
-		if (Arrays.equals(oidByteArray, id_CA_DH_AES_CBC_CMAC_256)) return id_CA_DH_AES_CBC_CMAC_256_STRING;
-		 
-		if (Arrays.equals(oidByteArray, id_CA_ECDH_3DES_CBC_CBC))     return id_CA_ECDH_3DES_CBC_CBC_STRING;
-		if (Arrays.equals(oidByteArray, id_CA_ECDH_AES_CBC_CMAC_128)) return id_CA_ECDH_AES_CBC_CMAC_128_STRING;
-		if (Arrays.equals(oidByteArray, id_CA_ECDH_AES_CBC_CMAC_192)) return id_CA_ECDH_AES_CBC_CMAC_192_STRING;
-		if (Arrays.equals(oidByteArray, id_CA_ECDH_AES_CBC_CMAC_256)) return id_CA_ECDH_AES_CBC_CMAC_256_STRING;
+		if ((oidByteArray.length != id_CA.length + 2) || !Utils.arrayHasPrefix(oidByteArray, id_CA)) {
+			return null;
+		}
+		
+		int keyAgreement = oidByteArray[id_CA.length] - 1;
+		int symmetricCipher = oidByteArray[id_CA.length + 1] - 1;
+		if ((keyAgreement < 0) || (keyAgreement >= ID_STRINGS.length) || (symmetricCipher < 0) || (symmetricCipher >= ID_STRINGS[keyAgreement].length)) {
+			return null;
+		}
 		
-		return null;
+		return ID_STRINGS[keyAgreement][symmetricCipher];
 	}
 	
 	@Override
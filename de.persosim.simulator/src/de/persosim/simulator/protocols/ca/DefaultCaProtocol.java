@@ -1,499 +1,229 @@
-package de.persosim.simulator.protocols.ca; 
-/*
- * AUTOMATICALLY GENERATED CODE - DO NOT EDIT!
- * 
- * (C) 2013 HJP-Consulting GmbH
- */
- @SuppressWarnings("all")//generated code 
-
-/* Command line options: -verbose -p EA -o DefaultCaProtocol -l java -t CA:caclass C:\develop\wd\protocol_ca.xml   */
-/* This file is generated from protocol_ca.xml - do not edit manually  */
-/* Generated on: Fri Aug 01 12:45:22 CEST 2014 / version 3.52beta2 */
-
-
-
-public class DefaultCaProtocol extends AbstractCaProtocol
-{
-
-	public static final int CA_GENERAL_AUTHENTICATE_RECEIVED = 0;
-	public static final int REGISTER_APDU_SET_AT = 1;
-	public static final int CA_SET_AT_RECEIVED = 2;
-	public static final int DUMMY_INITIAL = 3;
-	public static final int CA_INIT = 4;
-	public static final int RESET = 5;
-	public static final int CA_IN_PROGRESS = 6;
-	public static final int PROCESSING_ERROR = 7;
-	public static final int REGISTER_APDUS = 8;
-	public static final int CA_COMPLETED = 9;
-	public static final int CA_GENERAL_AUTHENTICATE_PROCESSED = 10;
-	public static final int REGISTER_APDU_MAP_NONCE = 11;
-	public static final int CA_SET_AT_PROCESSED = 12;
-	public static final int __UNKNOWN_STATE__ = 13;
-
-
-	public static final int DEFAULTCAPROTOCOL_NO_MSG = 0;
-	
-
-
-	// flag if initialized
-	protected boolean m_initialized=false;
-
-	int  stateVar;
-	int  stateVarREGISTER_APDUS;
-	int  stateVarCA_IN_PROGRESS;
-
-	// State handler class default ctor
-	public DefaultCaProtocol()
-	{
-	}
-
-	/* Helper(s) to reset history */
-	public void resetHistoryREGISTER_APDUS(){stateVarREGISTER_APDUS= REGISTER_APDU_SET_AT;}
-	public void resetHistoryCA_IN_PROGRESS(){stateVarCA_IN_PROGRESS= CA_INIT;}
-
-	/* Helper to get innermost active state id */
-	public int getInnermostActiveState() {
-		if(isInCA_SET_AT_PROCESSED()){
-			return CA_SET_AT_PROCESSED;
-		}else if(isInREGISTER_APDU_MAP_NONCE()){
-			return REGISTER_APDU_MAP_NONCE;
-		}else if(isInCA_GENERAL_AUTHENTICATE_PROCESSED()){
-			return CA_GENERAL_AUTHENTICATE_PROCESSED;
-		}else if(isInCA_INIT()){
-			return CA_INIT;
-		}else if(isInCA_SET_AT_RECEIVED()){
-			return CA_SET_AT_RECEIVED;
-		}else if(isInREGISTER_APDU_SET_AT()){
-			return REGISTER_APDU_SET_AT;
-		}else if(isInCA_GENERAL_AUTHENTICATE_RECEIVED()){
-			return CA_GENERAL_AUTHENTICATE_RECEIVED;
-		}else if(isInCA_COMPLETED()){
-			return CA_COMPLETED;
-		}else if(isInPROCESSING_ERROR()){
-			return PROCESSING_ERROR;
-		}else if(isInRESET()){
-			return RESET;
-		}else if(isInDUMMY_INITIAL()){
-			return DUMMY_INITIAL;
-		}else{
-			return __UNKNOWN_STATE__;
-		}
-	}
-
-	// Helper(s) to find out if the machine is in a certain state
-	public boolean isInCA_GENERAL_AUTHENTICATE_RECEIVED(){return (((stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_RECEIVED)&&(stateVar==  CA_IN_PROGRESS)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_SET_AT(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_SET_AT)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInCA_SET_AT_RECEIVED(){return (((stateVarCA_IN_PROGRESS==  CA_SET_AT_RECEIVED)&&(stateVar==  CA_IN_PROGRESS)) ? (true) : (false));}
-	public boolean isInDUMMY_INITIAL(){return (((stateVar==  DUMMY_INITIAL)) ? (true) : (false));}
-	public boolean isInCA_INIT(){return (((stateVarCA_IN_PROGRESS==  CA_INIT)&&(stateVar==  CA_IN_PROGRESS)) ? (true) : (false));}
-	public boolean isInRESET(){return (((stateVar==  RESET)) ? (true) : (false));}
-	public boolean isInCA_IN_PROGRESS(){return (((stateVar==  CA_IN_PROGRESS)) ? (true) : (false));}
-	public boolean isInPROCESSING_ERROR(){return (((stateVar==  PROCESSING_ERROR)) ? (true) : (false));}
-	public boolean isInREGISTER_APDUS(){return (((stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInCA_COMPLETED(){return (((stateVar==  CA_COMPLETED)) ? (true) : (false));}
-	public boolean isInCA_GENERAL_AUTHENTICATE_PROCESSED(){return (((stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_PROCESSED)&&(stateVar==  CA_IN_PROGRESS)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_MAP_NONCE(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_MAP_NONCE)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInCA_SET_AT_PROCESSED(){return (((stateVarCA_IN_PROGRESS==  CA_SET_AT_PROCESSED)&&(stateVar==  CA_IN_PROGRESS)) ? (true) : (false));}
-
-
-
-
-	// Reinitialize the state machine
-	public void reInitialize(){
-			m_initialized=false;
-			initialize();
-	}
-
-	public void initialize(){
-
-		if(m_initialized==false){
-
-			m_initialized=true;
-			//call on entry code of default states
-			
-
-			// Set state vars to default states
-			stateVar =  DUMMY_INITIAL; /* set init state of top state */
-			stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT; /* set init state of REGISTER_APDUS */
-			stateVarCA_IN_PROGRESS =  CA_INIT; /* set init state of CA_IN_PROGRESS */
-
-		}
-
-	}
-
-	protected void defaultcaprotocolChangeToState(int  state){
-		stateVar=state;
-	}
-
-	protected void defaultcaprotocolChangeToStateREGISTER_APDUS(int  state){
-		stateVarREGISTER_APDUS = state;
-	}
-	
-	protected void defaultcaprotocolChangeToStateCA_IN_PROGRESS(int  state){
-		stateVarCA_IN_PROGRESS = state;
-	}
-	
-
-
-
-	public int processEvent(int msg){
-
-		int evConsumed = 0;
-
-		
-
-		if(m_initialized==false) return 0;
-
-		/* action code */
-		this.continueProcessing = true;
-		do{
-		evConsumed = 0;
-
-
-		switch (stateVar) {
-
-			case CA_COMPLETED:
-				if(true){
-					/* Transition from CA_COMPLETED to CA_INIT */
-					evConsumed=16;
-
-					/* OnEntry code of state CA_IN_PROGRESS */
-					logs("CA_ANNOUNCED");
-
-					/* OnEntry code of state CA_INIT */
-					logs("INIT");
-					returnResult();
-
-					/* adjust state variables  */
-					stateVar =  CA_IN_PROGRESS;
-					stateVarCA_IN_PROGRESS =  CA_INIT;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case CA_COMPLETED  */
-
-			case DUMMY_INITIAL:
-				if(true){
-					if(isInitialized()){
-						/* Transition from DUMMY_INITIAL to CA_IN_PROGRESS */
-						evConsumed=16;
-
-						/* OnEntry code of state CA_IN_PROGRESS */
-						logs("CA_ANNOUNCED");
-						stateVar =  CA_IN_PROGRESS;/* entry chain  */
-						if(stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_PROCESSED){
-							logs("GENERAL_AUTHENTICATE_PROCESSED");
-
-						}else if(stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_RECEIVED){
-							logs("GENERAL_AUTHENTICATE_RECEIVED");
-							processCommandGeneralAuthenticate();
-
-						}else if(stateVarCA_IN_PROGRESS==  CA_INIT){
-							logs("INIT");
-							returnResult();
-
-						}else if(stateVarCA_IN_PROGRESS==  CA_SET_AT_PROCESSED){
-							logs("SET_AT_PROCESSED");
-							returnResult();
-
-						}else if(stateVarCA_IN_PROGRESS==  CA_SET_AT_RECEIVED){
-							logs("SET_AT_RECEIVED");
-							processCommandSetAT();
-
-						}
-
-					}else{
-						/* Transition from DUMMY_INITIAL to REGISTER_APDUS */
-						evConsumed=16;
-
-						stateVar =  REGISTER_APDUS;/* Default in entry chain  */
-						stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT;/* Default in entry chain  */
-
-					} /*end of event selection */
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case DUMMY_INITIAL  */
-
-			case PROCESSING_ERROR:
-				if(true){
-					/* Transition from PROCESSING_ERROR to RESET */
-					evConsumed=16;
-
-
-					/* adjust state variables  */
-					stateVar =  RESET;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case PROCESSING_ERROR  */
-
-			case REGISTER_APDUS:
-
-				switch (stateVarREGISTER_APDUS) {
-
-					case REGISTER_APDU_MAP_NONCE:
-						/* action code  */
-						createNewApduSpecification("General Authenticate");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_4);
-						apduSpecification.setChaining(false);
-						apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						createNewTagSpecification(TAG_7C);
-						apduSpecification.addTag(tagSpecification);
-						createNewPath();
-						path.add(TAG_7C);
-						createNewTagSpecification(TAG_80);
-						apduSpecification.addTag(path, tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_MAP_NONCE to CA_IN_PROGRESS */
-							evConsumed=16;
-
-
-							/* OnEntry code of state CA_IN_PROGRESS */
-							logs("CA_ANNOUNCED");
-							stateVar =  CA_IN_PROGRESS;/* entry chain  */
-							if(stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_PROCESSED){
-								logs("GENERAL_AUTHENTICATE_PROCESSED");
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_RECEIVED){
-								logs("GENERAL_AUTHENTICATE_RECEIVED");
-								processCommandGeneralAuthenticate();
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_INIT){
-								logs("INIT");
-								returnResult();
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_SET_AT_PROCESSED){
-								logs("SET_AT_PROCESSED");
-								returnResult();
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_SET_AT_RECEIVED){
-								logs("SET_AT_RECEIVED");
-								processCommandSetAT();
-
-							}
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_MAP_NONCE  */
-
-					case REGISTER_APDU_SET_AT:
-						/* action code  */
-						createNewApduSpecification("Set AT");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_3);
-						apduSpecification.setChaining(false);
-						apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
-						apduSpecification.setP1((byte) 0x41);
-						apduSpecification.setP2((byte) 0xA4);
-						createNewTagSpecification(TAG_80);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_84);
-						tagSpecification.setRequired(REQ_OPTIONAL);
-						apduSpecification.addTag(tagSpecification);
-						apduSpecification.setInitialApdu();
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_SET_AT to REGISTER_APDU_MAP_NONCE */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_MAP_NONCE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_SET_AT  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch REGISTER_APDUS */
-			break; /* end of case REGISTER_APDUS  */
-
-			case RESET:
-				/* action code  */
-				logs("RESET");
-
-
-				if(true){
-					/* Transition from RESET to CA_INIT */
-					evConsumed=16;
-
-					/* OnEntry code of state CA_IN_PROGRESS */
-					logs("CA_ANNOUNCED");
-
-					/* OnEntry code of state CA_INIT */
-					logs("INIT");
-					returnResult();
-
-					/* adjust state variables  */
-					stateVar =  CA_IN_PROGRESS;
-					stateVarCA_IN_PROGRESS =  CA_INIT;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case RESET  */
-
-			case CA_IN_PROGRESS:
-
-				switch (stateVarCA_IN_PROGRESS) {
-
-					case CA_GENERAL_AUTHENTICATE_PROCESSED:
-						if(true){
-							/* Transition from CA_GENERAL_AUTHENTICATE_PROCESSED to CA_COMPLETED */
-							evConsumed=16;
-
-
-							/* OnEntry code of state CA_COMPLETED */
-							logs("COMPLETED");
-							returnResult();
-
-							/* adjust state variables  */
-							stateVar =  CA_COMPLETED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case CA_GENERAL_AUTHENTICATE_PROCESSED  */
-
-					case CA_GENERAL_AUTHENTICATE_RECEIVED:
-						if(isStatusWord(SW_9000_NO_ERROR)){
-							/* Transition from CA_GENERAL_AUTHENTICATE_RECEIVED to CA_GENERAL_AUTHENTICATE_PROCESSED */
-							evConsumed=16;
-
-							/* OnEntry code of state CA_GENERAL_AUTHENTICATE_PROCESSED */
-							logs("GENERAL_AUTHENTICATE_PROCESSED");
-
-							/* adjust state variables  */
-							stateVarCA_IN_PROGRESS =  CA_GENERAL_AUTHENTICATE_PROCESSED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case CA_GENERAL_AUTHENTICATE_RECEIVED  */
-
-					case CA_INIT:
-						if(isAPDU("Set AT")){
-							/* Transition from CA_INIT to CA_SET_AT_RECEIVED */
-							evConsumed=16;
-
-							/* OnEntry code of state CA_SET_AT_RECEIVED */
-							logs("SET_AT_RECEIVED");
-							processCommandSetAT();
-
-							/* adjust state variables  */
-							stateVarCA_IN_PROGRESS =  CA_SET_AT_RECEIVED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case CA_INIT  */
-
-					case CA_SET_AT_PROCESSED:
-						if(isAPDU("General Authenticate")){
-							/* Transition from CA_SET_AT_PROCESSED to CA_GENERAL_AUTHENTICATE_RECEIVED */
-							evConsumed=16;
-
-							/* OnEntry code of state CA_GENERAL_AUTHENTICATE_RECEIVED */
-							logs("GENERAL_AUTHENTICATE_RECEIVED");
-							processCommandGeneralAuthenticate();
-
-							/* adjust state variables  */
-							stateVarCA_IN_PROGRESS =  CA_GENERAL_AUTHENTICATE_RECEIVED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case CA_SET_AT_PROCESSED  */
-
-					case CA_SET_AT_RECEIVED:
-						if(isStatusWord(SW_9000_NO_ERROR)){
-							/* Transition from CA_SET_AT_RECEIVED to CA_SET_AT_PROCESSED */
-							evConsumed=16;
-
-							/* OnEntry code of state CA_SET_AT_PROCESSED */
-							logs("SET_AT_PROCESSED");
-							returnResult();
-
-							/* adjust state variables  */
-							stateVarCA_IN_PROGRESS =  CA_SET_AT_PROCESSED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case CA_SET_AT_RECEIVED  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch CA_IN_PROGRESS */
-
-				/* Check if event was already processed  */
-				if(evConsumed==0){
-
-					if(true){
-						if(warningOrErrorOccurredDuringProcessing()){
-							/* Transition from CA_IN_PROGRESS to PROCESSING_ERROR */
-							evConsumed=16;
-						
-							/* Action code for transition  */
-							logs("error occurred during processing");
-
-
-							/* adjust state variables  */
-							stateVar =  PROCESSING_ERROR;
-						}else{
-							/* Transition from CA_IN_PROGRESS to CA_IN_PROGRESS */
-							evConsumed=16;
-						
-							/* Action code for transition  */
-							logs("unable to process APDU - returning to previous state");
-
-							/* OnEntry code of state CA_IN_PROGRESS */
-							logs("CA_ANNOUNCED");
-							stateVar =  CA_IN_PROGRESS;/* entry chain  */
-							if(stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_PROCESSED){
-								logs("GENERAL_AUTHENTICATE_PROCESSED");
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_GENERAL_AUTHENTICATE_RECEIVED){
-								logs("GENERAL_AUTHENTICATE_RECEIVED");
-								processCommandGeneralAuthenticate();
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_INIT){
-								logs("INIT");
-								returnResult();
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_SET_AT_PROCESSED){
-								logs("SET_AT_PROCESSED");
-								returnResult();
-
-							}else if(stateVarCA_IN_PROGRESS==  CA_SET_AT_RECEIVED){
-								logs("SET_AT_RECEIVED");
-								processCommandSetAT();
-
-							}
-
-						} /*end of event selection */
-					}else{
-						/* Intentionally left blank */
-					} /*end of event selection */
-				}
-			break; /* end of case CA_IN_PROGRESS  */
-
-			default:
-				/* Intentionally left blank */
-			break;
-		} /* end switch stateVar_root */
-
-	/* Post Action Code */
-	}while (this.continueProcessing);
-		return evConsumed;
-	}
-}
+package de.persosim.simulator.protocols.ca;
+
+import static de.persosim.simulator.statemachine.StateChart.ALWAYS;
+import static de.persosim.simulator.statemachine.StateChart.NONE;
+import static de.persosim.simulator.statemachine.StateChart.TOP;
+
+import de.persosim.simulator.statemachine.StateChart;
+import de.persosim.simulator.statemachine.StateChartHandler;
+
+/**
+ * State machine of the Chip Authentication protocol. The chart is defined
+ * once as {@link StateChart} and shared by all instances, only the active
+ * configuration is kept per instance.
+ */
+public class DefaultCaProtocol extends AbstractCaProtocol implements StateChartHandler {
+
+	public static final int CA_GENERAL_AUTHENTICATE_RECEIVED = 0;
+	public static final int REGISTER_APDU_SET_AT = 1;
+	public static final int CA_SET_AT_RECEIVED = 2;
+	public static final int DUMMY_INITIAL = 3;
+	public static final int CA_INIT = 4;
+	public static final int RESET = 5;
+	public static final int CA_IN_PROGRESS = 6;
+	public static final int PROCESSING_ERROR = 7;
+	public static final int REGISTER_APDUS = 8;
+	public static final int CA_COMPLETED = 9;
+	public static final int CA_GENERAL_AUTHENTICATE_PROCESSED = 10;
+	public static final int REGISTER_APDU_MAP_NONCE = 11;
+	public static final int CA_SET_AT_PROCESSED = 12;
+	public static final int __UNKNOWN_STATE__ = 13;
+
+	public static final int DEFAULTCAPROTOCOL_NO_MSG = 0;
+
+	// guards
+	private static final int IS_SW_9000 = 0;
+	private static final int IS_APDU_SET_AT = 1;
+	private static final int IS_APDU_GENERAL_AUTHENTICATE = 2;
+	private static final int WARNING_OR_ERROR = 3;
+	private static final int IS_INITIALIZED = 4;
+
+	// actions
+	private static final int REGISTER_SET_AT = 0;
+	private static final int REGISTER_GENERAL_AUTHENTICATE = 1;
+	private static final int RETURN_RESULT = 2;
+	private static final int PROCESS_SET_AT = 3;
+	private static final int PROCESS_GENERAL_AUTHENTICATE = 4;
+	private static final int LOG_RESET = 5;
+	private static final int LOG_ERROR = 6;
+	private static final int LOG_UNABLE_TO_PROCESS = 7;
+	private static final int RESOLVE_APDUS = 8;
+
+	// APDU specifications, resolved to these indices once registered
+	private static final int APDU_SET_AT = 0;
+	private static final int APDU_GENERAL_AUTHENTICATE = 1;
+	private static final String[] APDU_IDS = {"Set AT", "General Authenticate"};
+
+	private static final StateChart CHART = new StateChart(__UNKNOWN_STATE__, DUMMY_INITIAL);
+
+	static {
+		CHART.addState(DUMMY_INITIAL, TOP, null, NONE);
+		CHART.addCompositeState(REGISTER_APDUS, TOP, REGISTER_APDU_SET_AT, false, null, NONE);
+		CHART.addState(REGISTER_APDU_SET_AT, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_MAP_NONCE, REGISTER_APDUS, null, NONE);
+		CHART.addState(RESET, TOP, null, NONE);
+		CHART.addState(PROCESSING_ERROR, TOP, null, NONE);
+		CHART.addCompositeState(CA_IN_PROGRESS, TOP, CA_INIT, true, "CA_ANNOUNCED", NONE);
+		CHART.addState(CA_INIT, CA_IN_PROGRESS, "INIT", RETURN_RESULT);
+		CHART.addState(CA_SET_AT_RECEIVED, CA_IN_PROGRESS, "SET_AT_RECEIVED", PROCESS_SET_AT);
+		CHART.addState(CA_SET_AT_PROCESSED, CA_IN_PROGRESS, "SET_AT_PROCESSED", RETURN_RESULT);
+		CHART.addState(CA_GENERAL_AUTHENTICATE_RECEIVED, CA_IN_PROGRESS, "GENERAL_AUTHENTICATE_RECEIVED", PROCESS_GENERAL_AUTHENTICATE);
+		CHART.addState(CA_GENERAL_AUTHENTICATE_PROCESSED, CA_IN_PROGRESS, "GENERAL_AUTHENTICATE_PROCESSED", NONE);
+		CHART.addState(CA_COMPLETED, TOP, "COMPLETED", RETURN_RESULT);
+
+		CHART.addDoAction(REGISTER_APDU_SET_AT, REGISTER_SET_AT);
+		CHART.addDoAction(REGISTER_APDU_MAP_NONCE, REGISTER_GENERAL_AUTHENTICATE);
+		CHART.addDoAction(RESET, LOG_RESET);
+
+		CHART.addTransition(DUMMY_INITIAL, IS_INITIALIZED, NONE, CA_IN_PROGRESS);
+		CHART.addTransition(DUMMY_INITIAL, ALWAYS, NONE, REGISTER_APDUS);
+		CHART.addTransition(REGISTER_APDU_SET_AT, ALWAYS, NONE, REGISTER_APDU_MAP_NONCE);
+		CHART.addTransition(REGISTER_APDU_MAP_NONCE, ALWAYS, RESOLVE_APDUS, CA_IN_PROGRESS);
+		CHART.addTransition(PROCESSING_ERROR, ALWAYS, NONE, RESET);
+		CHART.addTransition(RESET, ALWAYS, NONE, CA_INIT);
+		CHART.addTransition(CA_INIT, IS_APDU_SET_AT, NONE, CA_SET_AT_RECEIVED);
+		CHART.addTransition(CA_SET_AT_RECEIVED, IS_SW_9000, NONE, CA_SET_AT_PROCESSED);
+		CHART.addTransition(CA_SET_AT_PROCESSED, IS_APDU_GENERAL_AUTHENTICATE, NONE, CA_GENERAL_AUTHENTICATE_RECEIVED);
+		CHART.addTransition(CA_GENERAL_AUTHENTICATE_RECEIVED, IS_SW_9000, NONE, CA_GENERAL_AUTHENTICATE_PROCESSED);
+		CHART.addTransition(CA_GENERAL_AUTHENTICATE_PROCESSED, ALWAYS, NONE, CA_COMPLETED);
+		CHART.addTransition(CA_IN_PROGRESS, WARNING_OR_ERROR, LOG_ERROR, PROCESSING_ERROR);
+		CHART.addTransition(CA_IN_PROGRESS, ALWAYS, LOG_UNABLE_TO_PROCESS, CA_IN_PROGRESS);
+		CHART.addTransition(CA_COMPLETED, ALWAYS, NONE, CA_INIT);
+	}
+
+	private final int[] activeStates = CHART.createActiveStates();
+	private boolean chartInitialized = false;
+
+	@Override
+	public void reInitialize() {
+		chartInitialized = false;
+		initialize();
+	}
+
+	@Override
+	public void initialize() {
+		if (!chartInitialized) {
+			chartInitialized = true;
+			CHART.initialize(activeStates);
+		}
+	}
+
+	@Override
+	public int processEvent(int event) {
+		if (!chartInitialized) {
+			return 0;
+		}
+
+		continueProcessing = true;
+		boolean eventConsumed;
+		do {
+			eventConsumed = CHART.processStep(activeStates, this);
+		} while (continueProcessing);
+
+		return eventConsumed ? StateChart.EVENT_CONSUMED : 0;
+	}
+
+	@Override
+	public boolean evaluateGuard(int guard) {
+		switch (guard) {
+		case IS_SW_9000:
+			return isStatusWord(SW_9000_NO_ERROR);
+		case IS_APDU_SET_AT:
+			return isAPDU(APDU_SET_AT);
+		case IS_APDU_GENERAL_AUTHENTICATE:
+			return isAPDU(APDU_GENERAL_AUTHENTICATE);
+		case WARNING_OR_ERROR:
+			return warningOrErrorOccurredDuringProcessing();
+		case IS_INITIALIZED:
+			return isInitialized();
+		default:
+			throw new IllegalArgumentException("unknown guard " + guard);
+		}
+	}
+
+	@Override
+	public void performAction(int action) {
+		switch (action) {
+		case REGISTER_SET_AT:
+			createNewApduSpecification("Set AT");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_3);
+			apduSpecification.setChaining(false);
+			apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
+			apduSpecification.setP1((byte) 0x41);
+			apduSpecification.setP2((byte) 0xA4);
+			createNewTagSpecification(TAG_80);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_84);
+			tagSpecification.setRequired(REQ_OPTIONAL);
+			apduSpecification.addTag(tagSpecification);
+			apduSpecification.setInitialApdu();
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_GENERAL_AUTHENTICATE:
+			createNewApduSpecification("General Authenticate");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_4);
+			apduSpecification.setChaining(false);
+			apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			createNewTagSpecification(TAG_7C);
+			apduSpecification.addTag(tagSpecification);
+			createNewPath();
+			path.add(TAG_7C);
+			createNewTagSpecification(TAG_80);
+			apduSpecification.addTag(path, tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case RETURN_RESULT:
+			returnResult();
+			break;
+		case PROCESS_SET_AT:
+			processCommandSetAT();
+			break;
+		case PROCESS_GENERAL_AUTHENTICATE:
+			processCommandGeneralAuthenticate();
+			break;
+		case LOG_RESET:
+			logs("RESET");
+			break;
+		case LOG_ERROR:
+			logs("error occurred during processing");
+			break;
+		case LOG_UNABLE_TO_PROCESS:
+			logs("unable to process APDU - returning to previous state");
+			break;
+		case RESOLVE_APDUS:
+			resolveApduSpecifications(APDU_IDS);
+			break;
+		default:
+			throw new IllegalArgumentException("unknown action " + action);
+		}
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Returns the id of the innermost active state.
+	 */
+	public int getInnermostActiveState() {
+		return CHART.getInnermostActiveState(activeStates);
+	}
+
+	// Helper(s) to find out if the machine is in a certain state
+	public boolean isInCA_GENERAL_AUTHENTICATE_RECEIVED(){return CHART.isActive(activeStates, CA_GENERAL_AUTHENTICATE_RECEIVED);}
+	public boolean isInREGISTER_APDU_SET_AT(){return CHART.isActive(activeStates, REGISTER_APDU_SET_AT);}
+	public boolean isInCA_SET_AT_RECEIVED(){return CHART.isActive(activeStates, CA_SET_AT_RECEIVED);}
+	public boolean isInDUMMY_INITIAL(){return CHART.isActive(activeStates, DUMMY_INITIAL);}
+	public boolean isInCA_INIT(){return CHART.isActive(activeStates, CA_INIT);}
+	public boolean isInRESET(){return CHART.isActive(activeStates, RESET);}
+	public boolean isInCA_IN_PROGRESS(){return CHART.isActive(activeStates, CA_IN_PROGRESS);}
+	public boolean isInPROCESSING_ERROR(){return CHART.isActive(activeStates, PROCESSING_ERROR);}
+	public boolean isInREGISTER_APDUS(){return CHART.isActive(activeStates, REGISTER_APDUS);}
+	public boolean isInCA_COMPLETED(){return CHART.isActive(activeStates, CA_COMPLETED);}
+	public boolean isInCA_GENERAL_AUTHENTICATE_PROCESSED(){return CHART.isActive(activeStates, CA_GENERAL_AUTHENTICATE_PROCESSED);}
+	public boolean isInREGISTER_APDU_MAP_NONCE(){return CHART.isActive(activeStates, REGISTER_APDU_MAP_NONCE);}
+	public boolean isInCA_SET_AT_PROCESSED(){return CHART.isActive(activeStates, CA_SET_AT_PROCESSED);}
+
+}
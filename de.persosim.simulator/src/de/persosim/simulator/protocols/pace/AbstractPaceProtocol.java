@@ -14,7 +14,6 @@ import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PublicKey;
-import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Arrays;
 import java.util.Collection;
@@ -41,11 +40,14 @@ import de.persosim.simulator.cardobjects.TrustPointIdentifier;
 import de.persosim.simulator.crypto.CryptoSupport;
 import de.persosim.simulator.crypto.DomainParameterSet;
 import de.persosim.simulator.crypto.KeyDerivationFunction;
+import de.persosim.simulator.crypto.RandomSource;
+import de.persosim.simulator.crypto.SessionKeys;
 import de.persosim.simulator.crypto.certificates.PublicKeyReference;
 import de.persosim.simulator.platform.CardStateAccessor;
 import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.platform.Iso7816Lib;
 import de.persosim.simulator.protocols.AbstractProtocolStateMachine;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.ProtocolUpdate;
 import de.persosim.simulator.protocols.ResponseData;
 import de.persosim.simulator.protocols.TR03110Utils;
@@ -103,8 +105,6 @@ public abstract class AbstractPaceProtocol extends AbstractProtocolStateMachine
 	protected DomainParameterSet paceDomainParametersUnmapped;
 	protected DomainParameterSet paceDomainParametersMapped;
 	
-	protected SecureRandom secureRandom;
-	
 	protected SecretKeySpec secretKeySpecNonce;
 	protected SecretKeySpec secretKeySpecMAC;
 	protected SecretKeySpec secretKeySpecENC;
@@ -122,8 +122,6 @@ public abstract class AbstractPaceProtocol extends AbstractProtocolStateMachine
 	
 	public AbstractPaceProtocol() {
 		super("PACE");
-		
-		secureRandom = new SecureRandom();
 	}
 	
 	/**
@@ -143,7 +141,7 @@ public abstract class AbstractPaceProtocol extends AbstractProtocolStateMachine
 		TlvDataObject tlvObject = commandData.getTlvDataObject(TAG_80);
 		
 		try {
-			paceOid = new PaceOid(tlvObject.getValueField());
+			paceOid = OidRegistry.getOid(tlvObject.getValueField(), PaceOid.class);
 		} catch (RuntimeException e) {
 			ResponseApdu resp = new ResponseApdu(Iso7816.SW_6A80_WRONG_DATA);
 			this.processingData.updateResponseAPDU(this, e.getMessage(), resp);
@@ -214,7 +212,7 @@ public abstract class AbstractPaceProtocol extends AbstractProtocolStateMachine
 				ConstructedTlvDataObject chatData = (ConstructedTlvDataObject) tlvObject;
 				TlvDataObject oidData = chatData.getTlvDataObject(TAG_06);
 				byte[] roleData = chatData.getTlvDataObject(TAG_53).getValueField();
-				TaOid chatOid = new TaOid(oidData.getValueField());
+				TaOid chatOid = OidRegistry.getOid(oidData.getValueField(), TaOid.class);
 				RelativeAuthorization authorization = new RelativeAuthorization(
 						CertificateRole.getFromMostSignificantBits(roleData[0]), BitField.buildFromBigEndian(
 								(roleData.length * 8) - 2, roleData));
@@ -390,7 +388,7 @@ public abstract class AbstractPaceProtocol extends AbstractProtocolStateMachine
 		log(this, "key length k in Bytes is " + keySizeInBytes + ", block size in Bytes is " + blockSizeInBytes + " --> nonce s must be of smallest length l in Bytes, l being a multiple of the block size, such that l<=k", TRACE);
 		
 		this.piccsPlainNonceS = new byte[nonceSizeInBytes];
-		this.secureRandom.nextBytes(this.piccsPlainNonceS);
+		RandomSource.nextBytes(this.piccsPlainNonceS);
 		
 		log(this, "new (plain) nonce s of byte length " + this.piccsPlainNonceS.length + " is " + HexString.encode(this.piccsPlainNonceS), TRACE);
 		
@@ -553,11 +551,10 @@ public abstract class AbstractPaceProtocol extends AbstractProtocolStateMachine
 			
 			KeyDerivationFunction kdf = new KeyDerivationFunction(paceOid.getSymmetricCipherKeyLengthInBytes());
 			
-			byte[] keyMaterialMAC = kdf.deriveMAC(sharedSecret);
-			byte[] keyMaterialENC = kdf.deriveENC(sharedSecret);
+			SessionKeys sessionKeys = kdf.deriveSessionKeys(sharedSecret, null, this.cryptoSupport);
 			
-			this.secretKeySpecMAC = this.cryptoSupport.generateSecretKeySpecMac(keyMaterialMAC);
-			this.secretKeySpecENC = this.cryptoSupport.generateSecretKeySpecCipher(keyMaterialENC);
+			this.secretKeySpecMAC = sessionKeys.getKeyMac();
+			this.secretKeySpecENC = sessionKeys.getKeyEnc();
 			
 			log(this, "final " + secretKeySpecENC.getAlgorithm() + " symmetric key material ENC is " + HexString.encode(secretKeySpecENC.getEncoded()), DEBUG);
 			log(this, "final " + secretKeySpecMAC.getAlgorithm() + " symmetric key material MAC is " + HexString.encode(secretKeySpecMAC.getEncoded()), DEBUG);
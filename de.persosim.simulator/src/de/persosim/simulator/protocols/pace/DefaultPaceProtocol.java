@@ -1,887 +1,365 @@
-package de.persosim.simulator.protocols.pace; 
-/*
- * AUTOMATICALLY GENERATED CODE - DO NOT EDIT!
- * 
- * (C) 2013 HJP-Consulting GmbH
- */
- @SuppressWarnings("all")//generated code 
-
-/* Command line options: -verbose -p EA -o DefaultPaceProtocol -l java -t PACE:paceclass C:\develop\wd\protocol_pace.xml   */
-/* This file is generated from protocol_pace.xml - do not edit manually  */
-/* Generated on: Fri Aug 01 12:45:35 CEST 2014 / version 3.52beta2 */
-
-
-
-public class DefaultPaceProtocol extends AbstractPaceProtocol
-{
-
-	public static final int PACE_GET_NONCE_RECEIVED = 0;
-	public static final int REGISTER_APDU_MUTUAL_AUTHENTICATE = 1;
-	public static final int PACE_SET_AT_RECEIVED = 2;
-	public static final int PACE_MUTUAL_AUTHENTICATE_RECEIVED = 3;
-	public static final int DUMMY_INITIAL = 4;
-	public static final int PACE_MAP_NONCE_RECEIVED = 5;
-	public static final int REGISTER_APDU_GET_NONCE = 6;
-	public static final int PACE_PERFORM_KEY_AGREEMENT_RECEIVED = 7;
-	public static final int PACE_INIT = 8;
-	public static final int RESET = 9;
-	public static final int PACE_ANNOUNCED = 10;
-	public static final int PROCESSING_ERROR = 11;
-	public static final int PACE_PERFORM_KEY_AGREEMENT_PROCESSED = 12;
-	public static final int REGISTER_APDU_PERFORM_KEY_AGREEMENT = 13;
-	public static final int PACE_GET_NONCE_PROCESSED = 14;
-	public static final int PACE_MAP_NONCE_PROCESSED = 15;
-	public static final int REGISTER_APDU_SET_AT = 16;
-	public static final int CHAINING_INTERRUPTED = 17;
-	public static final int REGISTER_APDUS = 18;
-	public static final int PACE_COMPLETED = 19;
-	public static final int PACE_IN_PROGRESS = 20;
-	public static final int PACE_MUTUAL_AUTHENTICATE_PROCESSED = 21;
-	public static final int GENERAL_AUTHENTICATE_CHAINING = 22;
-	public static final int REGISTER_APDU_MAP_NONCE = 23;
-	public static final int PACE_SET_AT_PROCESSED = 24;
-	public static final int __UNKNOWN_STATE__ = 25;
-
-
-	public static final int DEFAULTPACEPROTOCOL_NO_MSG = 0;
-	
-
-
-	// flag if initialized
-	protected boolean m_initialized=false;
-
-	int  stateVar;
-	int  stateVarREGISTER_APDUS;
-	int  stateVarPACE_ANNOUNCED;
-	int  stateVarPACE_IN_PROGRESS;
-	int  stateVarGENERAL_AUTHENTICATE_CHAINING;
-
-	// State handler class default ctor
-	public DefaultPaceProtocol()
-	{
-	}
-
-	/* Helper(s) to reset history */
-	public void resetHistoryREGISTER_APDUS(){stateVarREGISTER_APDUS= REGISTER_APDU_SET_AT;}
-	public void resetHistoryPACE_ANNOUNCED(){stateVarPACE_ANNOUNCED= PACE_INIT;}
-	public void resetHistoryPACE_IN_PROGRESS(){stateVarPACE_IN_PROGRESS= PACE_SET_AT_RECEIVED;}
-	public void resetHistoryGENERAL_AUTHENTICATE_CHAINING(){stateVarGENERAL_AUTHENTICATE_CHAINING= PACE_GET_NONCE_PROCESSED;}
-
-	/* Helper to get innermost active state id */
-	public int getInnermostActiveState() {
-		if(isInPACE_MAP_NONCE_PROCESSED()){
-			return PACE_MAP_NONCE_PROCESSED;
-		}else if(isInPACE_GET_NONCE_PROCESSED()){
-			return PACE_GET_NONCE_PROCESSED;
-		}else if(isInPACE_PERFORM_KEY_AGREEMENT_PROCESSED()){
-			return PACE_PERFORM_KEY_AGREEMENT_PROCESSED;
-		}else if(isInPACE_PERFORM_KEY_AGREEMENT_RECEIVED()){
-			return PACE_PERFORM_KEY_AGREEMENT_RECEIVED;
-		}else if(isInPACE_MAP_NONCE_RECEIVED()){
-			return PACE_MAP_NONCE_RECEIVED;
-		}else if(isInPACE_MUTUAL_AUTHENTICATE_RECEIVED()){
-			return PACE_MUTUAL_AUTHENTICATE_RECEIVED;
-		}else if(isInPACE_SET_AT_PROCESSED()){
-			return PACE_SET_AT_PROCESSED;
-		}else if(isInPACE_SET_AT_RECEIVED()){
-			return PACE_SET_AT_RECEIVED;
-		}else if(isInPACE_GET_NONCE_RECEIVED()){
-			return PACE_GET_NONCE_RECEIVED;
-		}else if(isInREGISTER_APDU_MAP_NONCE()){
-			return REGISTER_APDU_MAP_NONCE;
-		}else if(isInPACE_MUTUAL_AUTHENTICATE_PROCESSED()){
-			return PACE_MUTUAL_AUTHENTICATE_PROCESSED;
-		}else if(isInREGISTER_APDU_SET_AT()){
-			return REGISTER_APDU_SET_AT;
-		}else if(isInREGISTER_APDU_PERFORM_KEY_AGREEMENT()){
-			return REGISTER_APDU_PERFORM_KEY_AGREEMENT;
-		}else if(isInPACE_INIT()){
-			return PACE_INIT;
-		}else if(isInREGISTER_APDU_GET_NONCE()){
-			return REGISTER_APDU_GET_NONCE;
-		}else if(isInREGISTER_APDU_MUTUAL_AUTHENTICATE()){
-			return REGISTER_APDU_MUTUAL_AUTHENTICATE;
-		}else if(isInPACE_COMPLETED()){
-			return PACE_COMPLETED;
-		}else if(isInCHAINING_INTERRUPTED()){
-			return CHAINING_INTERRUPTED;
-		}else if(isInPROCESSING_ERROR()){
-			return PROCESSING_ERROR;
-		}else if(isInRESET()){
-			return RESET;
-		}else if(isInDUMMY_INITIAL()){
-			return DUMMY_INITIAL;
-		}else{
-			return __UNKNOWN_STATE__;
-		}
-	}
-
-	// Helper(s) to find out if the machine is in a certain state
-	public boolean isInPACE_GET_NONCE_RECEIVED(){return (((stateVarPACE_IN_PROGRESS==  PACE_GET_NONCE_RECEIVED)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_MUTUAL_AUTHENTICATE(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_MUTUAL_AUTHENTICATE)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInPACE_SET_AT_RECEIVED(){return (((stateVarPACE_IN_PROGRESS==  PACE_SET_AT_RECEIVED)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInPACE_MUTUAL_AUTHENTICATE_RECEIVED(){return (((stateVarGENERAL_AUTHENTICATE_CHAINING==  PACE_MUTUAL_AUTHENTICATE_RECEIVED)&&(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInDUMMY_INITIAL(){return (((stateVar==  DUMMY_INITIAL)) ? (true) : (false));}
-	public boolean isInPACE_MAP_NONCE_RECEIVED(){return (((stateVarGENERAL_AUTHENTICATE_CHAINING==  PACE_MAP_NONCE_RECEIVED)&&(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_GET_NONCE(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_GET_NONCE)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInPACE_PERFORM_KEY_AGREEMENT_RECEIVED(){return (((stateVarGENERAL_AUTHENTICATE_CHAINING==  PACE_PERFORM_KEY_AGREEMENT_RECEIVED)&&(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInPACE_INIT(){return (((stateVarPACE_ANNOUNCED==  PACE_INIT)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInRESET(){return (((stateVar==  RESET)) ? (true) : (false));}
-	public boolean isInPACE_ANNOUNCED(){return (((stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInPROCESSING_ERROR(){return (((stateVar==  PROCESSING_ERROR)) ? (true) : (false));}
-	public boolean isInPACE_PERFORM_KEY_AGREEMENT_PROCESSED(){return (((stateVarGENERAL_AUTHENTICATE_CHAINING==  PACE_PERFORM_KEY_AGREEMENT_PROCESSED)&&(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_PERFORM_KEY_AGREEMENT(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_PERFORM_KEY_AGREEMENT)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInPACE_GET_NONCE_PROCESSED(){return (((stateVarGENERAL_AUTHENTICATE_CHAINING==  PACE_GET_NONCE_PROCESSED)&&(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInPACE_MAP_NONCE_PROCESSED(){return (((stateVarGENERAL_AUTHENTICATE_CHAINING==  PACE_MAP_NONCE_PROCESSED)&&(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_SET_AT(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_SET_AT)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInCHAINING_INTERRUPTED(){return (((stateVar==  CHAINING_INTERRUPTED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDUS(){return (((stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInPACE_COMPLETED(){return (((stateVar==  PACE_COMPLETED)) ? (true) : (false));}
-	public boolean isInPACE_IN_PROGRESS(){return (((stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInPACE_MUTUAL_AUTHENTICATE_PROCESSED(){return (((stateVarPACE_ANNOUNCED==  PACE_MUTUAL_AUTHENTICATE_PROCESSED)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInGENERAL_AUTHENTICATE_CHAINING(){return (((stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_MAP_NONCE(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_MAP_NONCE)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInPACE_SET_AT_PROCESSED(){return (((stateVarPACE_IN_PROGRESS==  PACE_SET_AT_PROCESSED)&&(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS)&&(stateVar==  PACE_ANNOUNCED)) ? (true) : (false));}
-
-
-
-
-	// Reinitialize the state machine
-	public void reInitialize(){
-			m_initialized=false;
-			initialize();
-	}
-
-	public void initialize(){
-
-		if(m_initialized==false){
-
-			m_initialized=true;
-			//call on entry code of default states
-			
-
-			// Set state vars to default states
-			stateVar =  DUMMY_INITIAL; /* set init state of top state */
-			stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT; /* set init state of REGISTER_APDUS */
-			stateVarPACE_ANNOUNCED =  PACE_INIT; /* set init state of PACE_ANNOUNCED */
-			stateVarPACE_IN_PROGRESS =  PACE_SET_AT_RECEIVED; /* set init state of PACE_IN_PROGRESS */
-			stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED; /* set init state of GENERAL_AUTHENTICATE_CHAINING */
-
-		}
-
-	}
-
-	protected void defaultpaceprotocolChangeToState(int  state){
-		stateVar=state;
-	}
-
-	protected void defaultpaceprotocolChangeToStateREGISTER_APDUS(int  state){
-		stateVarREGISTER_APDUS = state;
-	}
-	
-	protected void defaultpaceprotocolChangeToStatePACE_ANNOUNCED(int  state){
-		stateVarPACE_ANNOUNCED = state;
-	}
-	
-	protected void defaultpaceprotocolChangeToStatePACE_IN_PROGRESS(int  state){
-		stateVarPACE_IN_PROGRESS = state;
-	}
-	
-	protected void defaultpaceprotocolChangeToStateGENERAL_AUTHENTICATE_CHAINING(int  state){
-		stateVarGENERAL_AUTHENTICATE_CHAINING = state;
-	}
-	
-
-
-
-	public int processEvent(int msg){
-
-		int evConsumed = 0;
-
-		
-
-		if(m_initialized==false) return 0;
-
-		/* action code */
-		this.continueProcessing = true;
-		do{
-		evConsumed = 0;
-
-
-		switch (stateVar) {
-
-			case CHAINING_INTERRUPTED:
-				/* action code  */
-				processChainingInterrupted();
-
-
-				if(true){
-					/* Transition from CHAINING_INTERRUPTED to RESET */
-					evConsumed=16;
-
-
-					/* adjust state variables  */
-					stateVar =  RESET;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case CHAINING_INTERRUPTED  */
-
-			case DUMMY_INITIAL:
-				if(true){
-					if(isInitialized()){
-						/* Transition from DUMMY_INITIAL to PACE_ANNOUNCED */
-						evConsumed=16;
-
-						/* OnEntry code of state PACE_ANNOUNCED */
-						logs("PACE_ANNOUNCED");
-						stateVar =  PACE_ANNOUNCED;/* entry chain  */
-						if(stateVarPACE_ANNOUNCED==  PACE_INIT){
-							logs("INIT");
-							returnResult();
-
-						}else if(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS){
-							logs("PACE_IN_PROGRESS");
-
-							stateVarPACE_ANNOUNCED =  PACE_IN_PROGRESS;/* entry chain  */
-							if(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING){
-								
-								logs("GET_NONCE_PROCESSED");
-								returnResult();
-								stateVarPACE_IN_PROGRESS =  GENERAL_AUTHENTICATE_CHAINING;/* Default in entry chain  */
-								stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED;/* Default in entry chain  */
-							}else if(stateVarPACE_IN_PROGRESS==  PACE_GET_NONCE_RECEIVED){
-								logs("GET_NONCE_RECEIVED");
-								processCommandGetNonce();
-
-							}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_PROCESSED){
-								logs("SET_AT_PROCESSED");
-								returnResult();
-
-							}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_RECEIVED){
-								logs("SET_AT_RECEIVED");
-								processCommandSetAT();
-
-							}
-						}else if(stateVarPACE_ANNOUNCED==  PACE_MUTUAL_AUTHENTICATE_PROCESSED){
-							logs("MA_PROCESSED");
-
-						}
-
-					}else{
-						/* Transition from DUMMY_INITIAL to REGISTER_APDUS */
-						evConsumed=16;
-
-						stateVar =  REGISTER_APDUS;/* Default in entry chain  */
-						stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT;/* Default in entry chain  */
-
-					} /*end of event selection */
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case DUMMY_INITIAL  */
-
-			case PACE_COMPLETED:
-				if(true){
-					/* Transition from PACE_COMPLETED to PACE_INIT */
-					evConsumed=16;
-
-					/* OnEntry code of state PACE_ANNOUNCED */
-					logs("PACE_ANNOUNCED");
-
-					/* OnEntry code of state PACE_INIT */
-					logs("INIT");
-					returnResult();
-
-					/* adjust state variables  */
-					stateVar =  PACE_ANNOUNCED;
-					stateVarPACE_ANNOUNCED =  PACE_INIT;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case PACE_COMPLETED  */
-
-			case PROCESSING_ERROR:
-				if(true){
-					/* Transition from PROCESSING_ERROR to RESET */
-					evConsumed=16;
-
-
-					/* adjust state variables  */
-					stateVar =  RESET;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case PROCESSING_ERROR  */
-
-			case REGISTER_APDUS:
-
-				switch (stateVarREGISTER_APDUS) {
-
-					case REGISTER_APDU_GET_NONCE:
-						/* action code  */
-						createNewApduSpecification("Get Nonce");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_4);
-						apduSpecification.setChaining(true);
-						apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						apduSpecification.addTag(TAG_7C);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_GET_NONCE to REGISTER_APDU_MAP_NONCE */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_MAP_NONCE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_GET_NONCE  */
-
-					case REGISTER_APDU_MAP_NONCE:
-						/* action code  */
-						createNewApduSpecification("Map Nonce");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_4);
-						apduSpecification.setChaining(true);
-						apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						createNewTagSpecification(TAG_7C);
-						apduSpecification.addTag(tagSpecification);
-						createNewPath();
-						path.add(TAG_7C);
-						createNewTagSpecification(TAG_81);
-						apduSpecification.addTag(path, tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_MAP_NONCE to REGISTER_APDU_PERFORM_KEY_AGREEMENT */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_PERFORM_KEY_AGREEMENT;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_MAP_NONCE  */
-
-					case REGISTER_APDU_MUTUAL_AUTHENTICATE:
-						/* action code  */
-						createNewApduSpecification("Mutual Authenticate");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_4);
-						apduSpecification.setChaining(false);
-						apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						createNewTagSpecification(TAG_7C);
-						apduSpecification.addTag(tagSpecification);
-						createNewPath();
-						path.add(TAG_7C);
-						createNewTagSpecification(TAG_85);
-						apduSpecification.addTag(path, tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_MUTUAL_AUTHENTICATE to PACE_ANNOUNCED */
-							evConsumed=16;
-
-
-							/* OnEntry code of state PACE_ANNOUNCED */
-							logs("PACE_ANNOUNCED");
-							stateVar =  PACE_ANNOUNCED;/* entry chain  */
-							if(stateVarPACE_ANNOUNCED==  PACE_INIT){
-								logs("INIT");
-								returnResult();
-
-							}else if(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS){
-								logs("PACE_IN_PROGRESS");
-
-								stateVarPACE_ANNOUNCED =  PACE_IN_PROGRESS;/* entry chain  */
-								if(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING){
-									
-									logs("GET_NONCE_PROCESSED");
-									returnResult();
-									stateVarPACE_IN_PROGRESS =  GENERAL_AUTHENTICATE_CHAINING;/* Default in entry chain  */
-									stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED;/* Default in entry chain  */
-								}else if(stateVarPACE_IN_PROGRESS==  PACE_GET_NONCE_RECEIVED){
-									logs("GET_NONCE_RECEIVED");
-									processCommandGetNonce();
-
-								}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_PROCESSED){
-									logs("SET_AT_PROCESSED");
-									returnResult();
-
-								}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_RECEIVED){
-									logs("SET_AT_RECEIVED");
-									processCommandSetAT();
-
-								}
-							}else if(stateVarPACE_ANNOUNCED==  PACE_MUTUAL_AUTHENTICATE_PROCESSED){
-								logs("MA_PROCESSED");
-
-							}
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_MUTUAL_AUTHENTICATE  */
-
-					case REGISTER_APDU_PERFORM_KEY_AGREEMENT:
-						/* action code  */
-						createNewApduSpecification("Perform Key Agreement");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_4);
-						apduSpecification.setChaining(true);
-						apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						createNewTagSpecification(TAG_7C);
-						apduSpecification.addTag(tagSpecification);
-						createNewPath();
-						path.add(TAG_7C);
-						createNewTagSpecification(TAG_83);
-						apduSpecification.addTag(path, tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_PERFORM_KEY_AGREEMENT to REGISTER_APDU_MUTUAL_AUTHENTICATE */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_MUTUAL_AUTHENTICATE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_PERFORM_KEY_AGREEMENT  */
-
-					case REGISTER_APDU_SET_AT:
-						/* action code  */
-						createNewApduSpecification("Set AT");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_3);
-						apduSpecification.setChaining(false);
-						apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
-						apduSpecification.setP1((byte) 0xC1);
-						apduSpecification.setP2((byte) 0xA4);
-						createNewTagSpecification(TAG_80);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_83);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_7F4C);
-						tagSpecification.setRequired(REQ_OPTIONAL);
-						tagSpecification.setAllowUnspecifiedSubTags(true);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_84);
-						tagSpecification.setRequired(REQ_OPTIONAL);
-						apduSpecification.addTag(tagSpecification);
-						apduSpecification.setInitialApdu();
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_SET_AT to REGISTER_APDU_GET_NONCE */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_GET_NONCE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_SET_AT  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch REGISTER_APDUS */
-			break; /* end of case REGISTER_APDUS  */
-
-			case RESET:
-				/* action code  */
-				logs("RESET");
-
-
-				if(true){
-					/* Transition from RESET to PACE_INIT */
-					evConsumed=16;
-
-					/* OnEntry code of state PACE_ANNOUNCED */
-					logs("PACE_ANNOUNCED");
-
-					/* OnEntry code of state PACE_INIT */
-					logs("INIT");
-					returnResult();
-
-					/* adjust state variables  */
-					stateVar =  PACE_ANNOUNCED;
-					stateVarPACE_ANNOUNCED =  PACE_INIT;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case RESET  */
-
-			case PACE_ANNOUNCED:
-
-				switch (stateVarPACE_ANNOUNCED) {
-
-					case PACE_INIT:
-						if(isAPDU("Set AT")){
-							/* Transition from PACE_INIT to PACE_IN_PROGRESS */
-							evConsumed=16;
-
-							/* OnEntry code of state PACE_IN_PROGRESS */
-							logs("PACE_IN_PROGRESS");
-							stateVarPACE_ANNOUNCED =  PACE_IN_PROGRESS;/* entry chain  */
-							if(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING){
-								
-								logs("GET_NONCE_PROCESSED");
-								returnResult();
-								stateVarPACE_IN_PROGRESS =  GENERAL_AUTHENTICATE_CHAINING;/* Default in entry chain  */
-								stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED;/* Default in entry chain  */
-							}else if(stateVarPACE_IN_PROGRESS==  PACE_GET_NONCE_RECEIVED){
-								logs("GET_NONCE_RECEIVED");
-								processCommandGetNonce();
-
-							}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_PROCESSED){
-								logs("SET_AT_PROCESSED");
-								returnResult();
-
-							}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_RECEIVED){
-								logs("SET_AT_RECEIVED");
-								processCommandSetAT();
-
-							}
-
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PACE_INIT  */
-
-					case PACE_IN_PROGRESS:
-
-						switch (stateVarPACE_IN_PROGRESS) {
-
-							case GENERAL_AUTHENTICATE_CHAINING:
-
-								switch (stateVarGENERAL_AUTHENTICATE_CHAINING) {
-
-									case PACE_GET_NONCE_PROCESSED:
-										if(isAPDU("Map Nonce")){
-											/* Transition from PACE_GET_NONCE_PROCESSED to PACE_MAP_NONCE_RECEIVED */
-											evConsumed=16;
-
-											/* OnEntry code of state PACE_MAP_NONCE_RECEIVED */
-											logs("MAP_NONCE_RECEIVED");
-											processCommandMapNonce();
-
-											/* adjust state variables  */
-											stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_MAP_NONCE_RECEIVED;
-										}else{
-											/* Intentionally left blank */
-										} /*end of event selection */
-									break; /* end of case PACE_GET_NONCE_PROCESSED  */
-
-									case PACE_MAP_NONCE_PROCESSED:
-										if(isAPDU("Perform Key Agreement")){
-											/* Transition from PACE_MAP_NONCE_PROCESSED to PACE_PERFORM_KEY_AGREEMENT_RECEIVED */
-											evConsumed=16;
-
-											/* OnEntry code of state PACE_PERFORM_KEY_AGREEMENT_RECEIVED */
-											logs("PKA_RECEIVED");
-											processCommandPerformKeyAgreement();
-
-											/* adjust state variables  */
-											stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_PERFORM_KEY_AGREEMENT_RECEIVED;
-										}else{
-											/* Intentionally left blank */
-										} /*end of event selection */
-									break; /* end of case PACE_MAP_NONCE_PROCESSED  */
-
-									case PACE_MAP_NONCE_RECEIVED:
-										if(isStatusWord(SW_9000_NO_ERROR)){
-											/* Transition from PACE_MAP_NONCE_RECEIVED to PACE_MAP_NONCE_PROCESSED */
-											evConsumed=16;
-
-											/* OnEntry code of state PACE_MAP_NONCE_PROCESSED */
-											logs("MAP_NONCE_PROCESSED");
-											returnResult();
-
-											/* adjust state variables  */
-											stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_MAP_NONCE_PROCESSED;
-										}else{
-											/* Intentionally left blank */
-										} /*end of event selection */
-									break; /* end of case PACE_MAP_NONCE_RECEIVED  */
-
-									case PACE_PERFORM_KEY_AGREEMENT_PROCESSED:
-										if(isAPDU("Mutual Authenticate")){
-											/* Transition from PACE_PERFORM_KEY_AGREEMENT_PROCESSED to PACE_MUTUAL_AUTHENTICATE_RECEIVED */
-											evConsumed=16;
-
-											/* OnEntry code of state PACE_MUTUAL_AUTHENTICATE_RECEIVED */
-											logs("MA_RECEIVED");
-											processCommandMutualAuthenticate();
-
-											/* adjust state variables  */
-											stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_MUTUAL_AUTHENTICATE_RECEIVED;
-										}else{
-											/* Intentionally left blank */
-										} /*end of event selection */
-									break; /* end of case PACE_PERFORM_KEY_AGREEMENT_PROCESSED  */
-
-									case PACE_PERFORM_KEY_AGREEMENT_RECEIVED:
-										if(isStatusWord(SW_9000_NO_ERROR)){
-											/* Transition from PACE_PERFORM_KEY_AGREEMENT_RECEIVED to PACE_PERFORM_KEY_AGREEMENT_PROCESSED */
-											evConsumed=16;
-
-											/* OnEntry code of state PACE_PERFORM_KEY_AGREEMENT_PROCESSED */
-											logs("PKA_PROCESSED");
-											returnResult();
-
-											/* adjust state variables  */
-											stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_PERFORM_KEY_AGREEMENT_PROCESSED;
-										}else{
-											/* Intentionally left blank */
-										} /*end of event selection */
-									break; /* end of case PACE_PERFORM_KEY_AGREEMENT_RECEIVED  */
-
-									case PACE_MUTUAL_AUTHENTICATE_RECEIVED:
-										if(isStatusWord(SW_9000_NO_ERROR)){
-											/* Transition from PACE_MUTUAL_AUTHENTICATE_RECEIVED to PACE_MUTUAL_AUTHENTICATE_PROCESSED */
-											evConsumed=16;
-
-
-
-											/* OnEntry code of state PACE_MUTUAL_AUTHENTICATE_PROCESSED */
-											logs("MA_PROCESSED");
-
-											/* adjust state variables  */
-											stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED;
-											stateVarPACE_ANNOUNCED =  PACE_MUTUAL_AUTHENTICATE_PROCESSED;
-										}else{
-											/* Intentionally left blank */
-										} /*end of event selection */
-									break; /* end of case PACE_MUTUAL_AUTHENTICATE_RECEIVED  */
-
-									default:
-										/* Intentionally left blank */
-									break;
-								} /* end switch GENERAL_AUTHENTICATE_CHAINING */
-
-								/* Check if event was already processed  */
-								if(evConsumed==0){
-
-									if(true){
-										if(warningOrErrorOccurredDuringProcessing()){
-											/* Transition from GENERAL_AUTHENTICATE_CHAINING to PROCESSING_ERROR */
-											evConsumed=16;
-										
-
-
-
-											/* adjust state variables  */
-											stateVar =  PROCESSING_ERROR;
-										}else{
-											/* Transition from GENERAL_AUTHENTICATE_CHAINING to CHAINING_INTERRUPTED */
-											evConsumed=16;
-										
-
-
-
-											/* adjust state variables  */
-											stateVar =  CHAINING_INTERRUPTED;
-										} /*end of event selection */
-									}else{
-										/* Intentionally left blank */
-									} /*end of event selection */
-								}
-							break; /* end of case GENERAL_AUTHENTICATE_CHAINING  */
-
-							case PACE_GET_NONCE_RECEIVED:
-								if(isStatusWord(SW_9000_NO_ERROR)){
-									/* Transition from PACE_GET_NONCE_RECEIVED to GENERAL_AUTHENTICATE_CHAINING */
-									evConsumed=16;
-
-									logs("GET_NONCE_PROCESSED");
-									returnResult();
-									stateVarPACE_IN_PROGRESS =  GENERAL_AUTHENTICATE_CHAINING;/* Default in entry chain  */
-									stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED;/* Default in entry chain  */
-
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case PACE_GET_NONCE_RECEIVED  */
-
-							case PACE_SET_AT_PROCESSED:
-								if(isAPDU("Get Nonce")){
-									/* Transition from PACE_SET_AT_PROCESSED to PACE_GET_NONCE_RECEIVED */
-									evConsumed=16;
-
-									/* OnEntry code of state PACE_GET_NONCE_RECEIVED */
-									logs("GET_NONCE_RECEIVED");
-									processCommandGetNonce();
-
-									/* adjust state variables  */
-									stateVarPACE_IN_PROGRESS =  PACE_GET_NONCE_RECEIVED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case PACE_SET_AT_PROCESSED  */
-
-							case PACE_SET_AT_RECEIVED:
-								if(isStatusWord(SW_9000_NO_ERROR)){
-									/* Transition from PACE_SET_AT_RECEIVED to PACE_SET_AT_PROCESSED */
-									evConsumed=16;
-
-									/* OnEntry code of state PACE_SET_AT_PROCESSED */
-									logs("SET_AT_PROCESSED");
-									returnResult();
-
-									/* adjust state variables  */
-									stateVarPACE_IN_PROGRESS =  PACE_SET_AT_PROCESSED;
-								}else if(isStatusWord_63CX_Counter()){
-									/* Transition from PACE_SET_AT_RECEIVED to PACE_SET_AT_PROCESSED */
-									evConsumed=16;
-
-									/* OnEntry code of state PACE_SET_AT_PROCESSED */
-									logs("SET_AT_PROCESSED");
-									returnResult();
-
-									/* adjust state variables  */
-									stateVarPACE_IN_PROGRESS =  PACE_SET_AT_PROCESSED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case PACE_SET_AT_RECEIVED  */
-
-							default:
-								/* Intentionally left blank */
-							break;
-						} /* end switch PACE_IN_PROGRESS */
-					break; /* end of case PACE_IN_PROGRESS  */
-
-					case PACE_MUTUAL_AUTHENTICATE_PROCESSED:
-						if(true){
-							/* Transition from PACE_MUTUAL_AUTHENTICATE_PROCESSED to PACE_COMPLETED */
-							evConsumed=16;
-
-
-							/* OnEntry code of state PACE_COMPLETED */
-							logs("COMPLETED");
-							returnResult();
-
-							/* adjust state variables  */
-							stateVar =  PACE_COMPLETED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case PACE_MUTUAL_AUTHENTICATE_PROCESSED  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch PACE_ANNOUNCED */
-
-				/* Check if event was already processed  */
-				if(evConsumed==0){
-
-					if(true){
-						if(warningOrErrorOccurredDuringProcessing()){
-							/* Transition from PACE_ANNOUNCED to RESET */
-							evConsumed=16;
-						
-							if(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS){
-
-								if(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING){
-									
-								}
-								
-							}
-
-							/* Action code for transition  */
-							logs("error occurred during processing");
-
-
-							/* adjust state variables  */
-							stateVar =  RESET;
-						}else{
-							/* Transition from PACE_ANNOUNCED to PACE_ANNOUNCED */
-							evConsumed=16;
-						
-							if(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS){
-
-								if(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING){
-									
-								}
-								
-							}
-
-							/* Action code for transition  */
-							logs("unable to process APDU - returning to previous state");
-
-							/* OnEntry code of state PACE_ANNOUNCED */
-							logs("PACE_ANNOUNCED");
-							stateVar =  PACE_ANNOUNCED;/* entry chain  */
-							if(stateVarPACE_ANNOUNCED==  PACE_INIT){
-								logs("INIT");
-								returnResult();
-
-							}else if(stateVarPACE_ANNOUNCED==  PACE_IN_PROGRESS){
-								logs("PACE_IN_PROGRESS");
-
-								stateVarPACE_ANNOUNCED =  PACE_IN_PROGRESS;/* entry chain  */
-								if(stateVarPACE_IN_PROGRESS==  GENERAL_AUTHENTICATE_CHAINING){
-									
-									logs("GET_NONCE_PROCESSED");
-									returnResult();
-									stateVarPACE_IN_PROGRESS =  GENERAL_AUTHENTICATE_CHAINING;/* Default in entry chain  */
-									stateVarGENERAL_AUTHENTICATE_CHAINING =  PACE_GET_NONCE_PROCESSED;/* Default in entry chain  */
-								}else if(stateVarPACE_IN_PROGRESS==  PACE_GET_NONCE_RECEIVED){
-									logs("GET_NONCE_RECEIVED");
-									processCommandGetNonce();
-
-								}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_PROCESSED){
-									logs("SET_AT_PROCESSED");
-									returnResult();
-
-								}else if(stateVarPACE_IN_PROGRESS==  PACE_SET_AT_RECEIVED){
-									logs("SET_AT_RECEIVED");
-									processCommandSetAT();
-
-								}
-							}else if(stateVarPACE_ANNOUNCED==  PACE_MUTUAL_AUTHENTICATE_PROCESSED){
-								logs("MA_PROCESSED");
-
-							}
-
-						} /*end of event selection */
-					}else{
-						/* Intentionally left blank */
-					} /*end of event selection */
-				}
-			break; /* end of case PACE_ANNOUNCED  */
-
-			default:
-				/* Intentionally left blank */
-			break;
-		} /* end switch stateVar_root */
-
-	/* Post Action Code */
-	}while (this.continueProcessing);
-		return evConsumed;
-	}
-}
+package de.persosim.simulator.protocols.pace;
+
+import static de.persosim.simulator.statemachine.StateChart.ALWAYS;
+import static de.persosim.simulator.statemachine.StateChart.NONE;
+import static de.persosim.simulator.statemachine.StateChart.TOP;
+
+import de.persosim.simulator.statemachine.StateChart;
+import de.persosim.simulator.statemachine.StateChartHandler;
+
+/**
+ * State machine of the PACE protocol. The chart is defined once as
+ * {@link StateChart} and shared by all instances, only the active
+ * configuration is kept per instance.
+ */
+public class DefaultPaceProtocol extends AbstractPaceProtocol implements StateChartHandler {
+
+	public static final int PACE_GET_NONCE_RECEIVED = 0;
+	public static final int REGISTER_APDU_MUTUAL_AUTHENTICATE = 1;
+	public static final int PACE_SET_AT_RECEIVED = 2;
+	public static final int PACE_MUTUAL_AUTHENTICATE_RECEIVED = 3;
+	public static final int DUMMY_INITIAL = 4;
+	public static final int PACE_MAP_NONCE_RECEIVED = 5;
+	public static final int REGISTER_APDU_GET_NONCE = 6;
+	public static final int PACE_PERFORM_KEY_AGREEMENT_RECEIVED = 7;
+	public static final int PACE_INIT = 8;
+	public static final int RESET = 9;
+	public static final int PACE_ANNOUNCED = 10;
+	public static final int PROCESSING_ERROR = 11;
+	public static final int PACE_PERFORM_KEY_AGREEMENT_PROCESSED = 12;
+	public static final int REGISTER_APDU_PERFORM_KEY_AGREEMENT = 13;
+	public static final int PACE_GET_NONCE_PROCESSED = 14;
+	public static final int PACE_MAP_NONCE_PROCESSED = 15;
+	public static final int REGISTER_APDU_SET_AT = 16;
+	public static final int CHAINING_INTERRUPTED = 17;
+	public static final int REGISTER_APDUS = 18;
+	public static final int PACE_COMPLETED = 19;
+	public static final int PACE_IN_PROGRESS = 20;
+	public static final int PACE_MUTUAL_AUTHENTICATE_PROCESSED = 21;
+	public static final int GENERAL_AUTHENTICATE_CHAINING = 22;
+	public static final int REGISTER_APDU_MAP_NONCE = 23;
+	public static final int PACE_SET_AT_PROCESSED = 24;
+	public static final int __UNKNOWN_STATE__ = 25;
+
+	public static final int DEFAULTPACEPROTOCOL_NO_MSG = 0;
+
+	// guards
+	private static final int IS_SW_9000 = 0;
+	private static final int IS_SW_63CX_COUNTER = 1;
+	private static final int IS_APDU_SET_AT = 2;
+	private static final int IS_APDU_GET_NONCE = 3;
+	private static final int IS_APDU_MAP_NONCE = 4;
+	private static final int IS_APDU_PERFORM_KEY_AGREEMENT = 5;
+	private static final int IS_APDU_MUTUAL_AUTHENTICATE = 6;
+	private static final int WARNING_OR_ERROR = 7;
+	private static final int IS_INITIALIZED = 8;
+
+	// actions
+	private static final int REGISTER_SET_AT = 0;
+	private static final int REGISTER_GET_NONCE = 1;
+	private static final int REGISTER_MAP_NONCE = 2;
+	private static final int REGISTER_PERFORM_KEY_AGREEMENT = 3;
+	private static final int REGISTER_MUTUAL_AUTHENTICATE = 4;
+	private static final int RETURN_RESULT = 5;
+	private static final int PROCESS_SET_AT = 6;
+	private static final int PROCESS_GET_NONCE = 7;
+	private static final int PROCESS_MAP_NONCE = 8;
+	private static final int PROCESS_PERFORM_KEY_AGREEMENT = 9;
+	private static final int PROCESS_MUTUAL_AUTHENTICATE = 10;
+	private static final int PROCESS_CHAINING_INTERRUPTED = 11;
+	private static final int LOG_RESET = 12;
+	private static final int LOG_ERROR = 13;
+	private static final int LOG_UNABLE_TO_PROCESS = 14;
+	private static final int RESOLVE_APDUS = 15;
+
+	// APDU specifications, resolved to these indices once registered
+	private static final int APDU_SET_AT = 0;
+	private static final int APDU_GET_NONCE = 1;
+	private static final int APDU_MAP_NONCE = 2;
+	private static final int APDU_PERFORM_KEY_AGREEMENT = 3;
+	private static final int APDU_MUTUAL_AUTHENTICATE = 4;
+	private static final String[] APDU_IDS = {"Set AT", "Get Nonce", "Map Nonce", "Perform Key Agreement", "Mutual Authenticate"};
+
+	private static final StateChart CHART = new StateChart(__UNKNOWN_STATE__, DUMMY_INITIAL);
+
+	static {
+		CHART.addState(DUMMY_INITIAL, TOP, null, NONE);
+		CHART.addCompositeState(REGISTER_APDUS, TOP, REGISTER_APDU_SET_AT, false, null, NONE);
+		CHART.addState(REGISTER_APDU_SET_AT, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_GET_NONCE, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_MAP_NONCE, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_PERFORM_KEY_AGREEMENT, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_MUTUAL_AUTHENTICATE, REGISTER_APDUS, null, NONE);
+		CHART.addState(RESET, TOP, null, NONE);
+		CHART.addState(PROCESSING_ERROR, TOP, null, NONE);
+		CHART.addState(CHAINING_INTERRUPTED, TOP, null, NONE);
+		CHART.addCompositeState(PACE_ANNOUNCED, TOP, PACE_INIT, true, "PACE_ANNOUNCED", NONE);
+		CHART.addState(PACE_INIT, PACE_ANNOUNCED, "INIT", RETURN_RESULT);
+		CHART.addCompositeState(PACE_IN_PROGRESS, PACE_ANNOUNCED, PACE_SET_AT_RECEIVED, true, "PACE_IN_PROGRESS", NONE);
+		CHART.addState(PACE_SET_AT_RECEIVED, PACE_IN_PROGRESS, "SET_AT_RECEIVED", PROCESS_SET_AT);
+		CHART.addState(PACE_SET_AT_PROCESSED, PACE_IN_PROGRESS, "SET_AT_PROCESSED", RETURN_RESULT);
+		CHART.addState(PACE_GET_NONCE_RECEIVED, PACE_IN_PROGRESS, "GET_NONCE_RECEIVED", PROCESS_GET_NONCE);
+		CHART.addCompositeState(GENERAL_AUTHENTICATE_CHAINING, PACE_IN_PROGRESS, PACE_GET_NONCE_PROCESSED, false, null, NONE);
+		CHART.addState(PACE_GET_NONCE_PROCESSED, GENERAL_AUTHENTICATE_CHAINING, "GET_NONCE_PROCESSED", RETURN_RESULT);
+		CHART.addState(PACE_MAP_NONCE_RECEIVED, GENERAL_AUTHENTICATE_CHAINING, "MAP_NONCE_RECEIVED", PROCESS_MAP_NONCE);
+		CHART.addState(PACE_MAP_NONCE_PROCESSED, GENERAL_AUTHENTICATE_CHAINING, "MAP_NONCE_PROCESSED", RETURN_RESULT);
+		CHART.addState(PACE_PERFORM_KEY_AGREEMENT_RECEIVED, GENERAL_AUTHENTICATE_CHAINING, "PKA_RECEIVED", PROCESS_PERFORM_KEY_AGREEMENT);
+		CHART.addState(PACE_PERFORM_KEY_AGREEMENT_PROCESSED, GENERAL_AUTHENTICATE_CHAINING, "PKA_PROCESSED", RETURN_RESULT);
+		CHART.addState(PACE_MUTUAL_AUTHENTICATE_RECEIVED, GENERAL_AUTHENTICATE_CHAINING, "MA_RECEIVED", PROCESS_MUTUAL_AUTHENTICATE);
+		CHART.addState(PACE_MUTUAL_AUTHENTICATE_PROCESSED, PACE_ANNOUNCED, "MA_PROCESSED", NONE);
+		CHART.addState(PACE_COMPLETED, TOP, "COMPLETED", RETURN_RESULT);
+
+		CHART.addDoAction(REGISTER_APDU_SET_AT, REGISTER_SET_AT);
+		CHART.addDoAction(REGISTER_APDU_GET_NONCE, REGISTER_GET_NONCE);
+		CHART.addDoAction(REGISTER_APDU_MAP_NONCE, REGISTER_MAP_NONCE);
+		CHART.addDoAction(REGISTER_APDU_PERFORM_KEY_AGREEMENT, REGISTER_PERFORM_KEY_AGREEMENT);
+		CHART.addDoAction(REGISTER_APDU_MUTUAL_AUTHENTICATE, REGISTER_MUTUAL_AUTHENTICATE);
+		CHART.addDoAction(RESET, LOG_RESET);
+		CHART.addDoAction(CHAINING_INTERRUPTED, PROCESS_CHAINING_INTERRUPTED);
+
+		CHART.addTransition(DUMMY_INITIAL, IS_INITIALIZED, NONE, PACE_ANNOUNCED);
+		CHART.addTransition(DUMMY_INITIAL, ALWAYS, NONE, REGISTER_APDUS);
+		CHART.addTransition(REGISTER_APDU_SET_AT, ALWAYS, NONE, REGISTER_APDU_GET_NONCE);
+		CHART.addTransition(REGISTER_APDU_GET_NONCE, ALWAYS, NONE, REGISTER_APDU_MAP_NONCE);
+		CHART.addTransition(REGISTER_APDU_MAP_NONCE, ALWAYS, NONE, REGISTER_APDU_PERFORM_KEY_AGREEMENT);
+		CHART.addTransition(REGISTER_APDU_PERFORM_KEY_AGREEMENT, ALWAYS, NONE, REGISTER_APDU_MUTUAL_AUTHENTICATE);
+		CHART.addTransition(REGISTER_APDU_MUTUAL_AUTHENTICATE, ALWAYS, RESOLVE_APDUS, PACE_ANNOUNCED);
+		CHART.addTransition(RESET, ALWAYS, NONE, PACE_INIT);
+		CHART.addTransition(PROCESSING_ERROR, ALWAYS, NONE, RESET);
+		CHART.addTransition(CHAINING_INTERRUPTED, ALWAYS, NONE, RESET);
+		CHART.addTransition(PACE_INIT, IS_APDU_SET_AT, NONE, PACE_IN_PROGRESS);
+		CHART.addTransition(PACE_SET_AT_RECEIVED, IS_SW_9000, NONE, PACE_SET_AT_PROCESSED);
+		CHART.addTransition(PACE_SET_AT_RECEIVED, IS_SW_63CX_COUNTER, NONE, PACE_SET_AT_PROCESSED);
+		CHART.addTransition(PACE_SET_AT_PROCESSED, IS_APDU_GET_NONCE, NONE, PACE_GET_NONCE_RECEIVED);
+		CHART.addTransition(PACE_GET_NONCE_RECEIVED, IS_SW_9000, NONE, GENERAL_AUTHENTICATE_CHAINING);
+		CHART.addTransition(PACE_GET_NONCE_PROCESSED, IS_APDU_MAP_NONCE, NONE, PACE_MAP_NONCE_RECEIVED);
+		CHART.addTransition(PACE_MAP_NONCE_RECEIVED, IS_SW_9000, NONE, PACE_MAP_NONCE_PROCESSED);
+		CHART.addTransition(PACE_MAP_NONCE_PROCESSED, IS_APDU_PERFORM_KEY_AGREEMENT, NONE, PACE_PERFORM_KEY_AGREEMENT_RECEIVED);
+		CHART.addTransition(PACE_PERFORM_KEY_AGREEMENT_RECEIVED, IS_SW_9000, NONE, PACE_PERFORM_KEY_AGREEMENT_PROCESSED);
+		CHART.addTransition(PACE_PERFORM_KEY_AGREEMENT_PROCESSED, IS_APDU_MUTUAL_AUTHENTICATE, NONE, PACE_MUTUAL_AUTHENTICATE_RECEIVED);
+		CHART.addTransition(PACE_MUTUAL_AUTHENTICATE_RECEIVED, IS_SW_9000, NONE, PACE_MUTUAL_AUTHENTICATE_PROCESSED);
+		CHART.addTransition(GENERAL_AUTHENTICATE_CHAINING, WARNING_OR_ERROR, NONE, PROCESSING_ERROR);
+		CHART.addTransition(GENERAL_AUTHENTICATE_CHAINING, ALWAYS, NONE, CHAINING_INTERRUPTED);
+		CHART.addTransition(PACE_MUTUAL_AUTHENTICATE_PROCESSED, ALWAYS, NONE, PACE_COMPLETED);
+		CHART.addTransition(PACE_ANNOUNCED, WARNING_OR_ERROR, LOG_ERROR, RESET);
+		CHART.addTransition(PACE_ANNOUNCED, ALWAYS, LOG_UNABLE_TO_PROCESS, PACE_ANNOUNCED);
+		CHART.addTransition(PACE_COMPLETED, ALWAYS, NONE, PACE_INIT);
+	}
+
+	private final int[] activeStates = CHART.createActiveStates();
+	private boolean chartInitialized = false;
+
+	@Override
+	public void reInitialize() {
+		chartInitialized = false;
+		initialize();
+	}
+
+	@Override
+	public void initialize() {
+		if (!chartInitialized) {
+			chartInitialized = true;
+			CHART.initialize(activeStates);
+		}
+	}
+
+	@Override
+	public int processEvent(int event) {
+		if (!chartInitialized) {
+			return 0;
+		}
+
+		continueProcessing = true;
+		boolean eventConsumed;
+		do {
+			eventConsumed = CHART.processStep(activeStates, this);
+		} while (continueProcessing);
+
+		return eventConsumed ? StateChart.EVENT_CONSUMED : 0;
+	}
+
+	@Override
+	public boolean evaluateGuard(int guard) {
+		switch (guard) {
+		case IS_SW_9000:
+			return isStatusWord(SW_9000_NO_ERROR);
+		case IS_SW_63CX_COUNTER:
+			return isStatusWord_63CX_Counter();
+		case IS_APDU_SET_AT:
+			return isAPDU(APDU_SET_AT);
+		case IS_APDU_GET_NONCE:
+			return isAPDU(APDU_GET_NONCE);
+		case IS_APDU_MAP_NONCE:
+			return isAPDU(APDU_MAP_NONCE);
+		case IS_APDU_PERFORM_KEY_AGREEMENT:
+			return isAPDU(APDU_PERFORM_KEY_AGREEMENT);
+		case IS_APDU_MUTUAL_AUTHENTICATE:
+			return isAPDU(APDU_MUTUAL_AUTHENTICATE);
+		case WARNING_OR_ERROR:
+			return warningOrErrorOccurredDuringProcessing();
+		case IS_INITIALIZED:
+			return isInitialized();
+		default:
+			throw new IllegalArgumentException("unknown guard " + guard);
+		}
+	}
+
+	@Override
+	public void performAction(int action) {
+		switch (action) {
+		case REGISTER_SET_AT:
+			createNewApduSpecification("Set AT");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_3);
+			apduSpecification.setChaining(false);
+			apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
+			apduSpecification.setP1((byte) 0xC1);
+			apduSpecification.setP2((byte) 0xA4);
+			createNewTagSpecification(TAG_80);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_83);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_7F4C);
+			tagSpecification.setRequired(REQ_OPTIONAL);
+			tagSpecification.setAllowUnspecifiedSubTags(true);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_84);
+			tagSpecification.setRequired(REQ_OPTIONAL);
+			apduSpecification.addTag(tagSpecification);
+			apduSpecification.setInitialApdu();
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_GET_NONCE:
+			createNewApduSpecification("Get Nonce");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_4);
+			apduSpecification.setChaining(true);
+			apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			apduSpecification.addTag(TAG_7C);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_MAP_NONCE:
+			createNewApduSpecification("Map Nonce");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_4);
+			apduSpecification.setChaining(true);
+			apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			createNewTagSpecification(TAG_7C);
+			apduSpecification.addTag(tagSpecification);
+			createNewPath();
+			path.add(TAG_7C);
+			createNewTagSpecification(TAG_81);
+			apduSpecification.addTag(path, tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_PERFORM_KEY_AGREEMENT:
+			createNewApduSpecification("Perform Key Agreement");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_4);
+			apduSpecification.setChaining(true);
+			apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			createNewTagSpecification(TAG_7C);
+			apduSpecification.addTag(tagSpecification);
+			createNewPath();
+			path.add(TAG_7C);
+			createNewTagSpecification(TAG_83);
+			apduSpecification.addTag(path, tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_MUTUAL_AUTHENTICATE:
+			createNewApduSpecification("Mutual Authenticate");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_4);
+			apduSpecification.setChaining(false);
+			apduSpecification.setIns(INS_86_GENERAL_AUTHENTICATE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			createNewTagSpecification(TAG_7C);
+			apduSpecification.addTag(tagSpecification);
+			createNewPath();
+			path.add(TAG_7C);
+			createNewTagSpecification(TAG_85);
+			apduSpecification.addTag(path, tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case RETURN_RESULT:
+			returnResult();
+			break;
+		case PROCESS_SET_AT:
+			processCommandSetAT();
+			break;
+		case PROCESS_GET_NONCE:
+			processCommandGetNonce();
+			break;
+		case PROCESS_MAP_NONCE:
+			processCommandMapNonce();
+			break;
+		case PROCESS_PERFORM_KEY_AGREEMENT:
+			processCommandPerformKeyAgreement();
+			break;
+		case PROCESS_MUTUAL_AUTHENTICATE:
+			processCommandMutualAuthenticate();
+			break;
+		case PROCESS_CHAINING_INTERRUPTED:
+			processChainingInterrupted();
+			break;
+		case LOG_RESET:
+			logs("RESET");
+			break;
+		case LOG_ERROR:
+			logs("error occurred during processing");
+			break;
+		case LOG_UNABLE_TO_PROCESS:
+			logs("unable to process APDU - returning to previous state");
+			break;
+		case RESOLVE_APDUS:
+			resolveApduSpecifications(APDU_IDS);
+			break;
+		default:
+			throw new IllegalArgumentException("unknown action " + action);
+		}
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Returns the id of the innermost active state.
+	 */
+	public int getInnermostActiveState() {
+		return CHART.getInnermostActiveState(activeStates);
+	}
+
+	// Helper(s) to find out if the machine is in a certain state
+	public boolean isInPACE_GET_NONCE_RECEIVED(){return CHART.isActive(activeStates, PACE_GET_NONCE_RECEIVED);}
+	public boolean isInREGISTER_APDU_MUTUAL_AUTHENTICATE(){return CHART.isActive(activeStates, REGISTER_APDU_MUTUAL_AUTHENTICATE);}
+	public boolean isInPACE_SET_AT_RECEIVED(){return CHART.isActive(activeStates, PACE_SET_AT_RECEIVED);}
+	public boolean isInPACE_MUTUAL_AUTHENTICATE_RECEIVED(){return CHART.isActive(activeStates, PACE_MUTUAL_AUTHENTICATE_RECEIVED);}
+	public boolean isInDUMMY_INITIAL(){return CHART.isActive(activeStates, DUMMY_INITIAL);}
+	public boolean isInPACE_MAP_NONCE_RECEIVED(){return CHART.isActive(activeStates, PACE_MAP_NONCE_RECEIVED);}
+	public boolean isInREGISTER_APDU_GET_NONCE(){return CHART.isActive(activeStates, REGISTER_APDU_GET_NONCE);}
+	public boolean isInPACE_PERFORM_KEY_AGREEMENT_RECEIVED(){return CHART.isActive(activeStates, PACE_PERFORM_KEY_AGREEMENT_RECEIVED);}
+	public boolean isInPACE_INIT(){return CHART.isActive(activeStates, PACE_INIT);}
+	public boolean isInRESET(){return CHART.isActive(activeStates, RESET);}
+	public boolean isInPACE_ANNOUNCED(){return CHART.isActive(activeStates, PACE_ANNOUNCED);}
+	public boolean isInPROCESSING_ERROR(){return CHART.isActive(activeStates, PROCESSING_ERROR);}
+	public boolean isInPACE_PERFORM_KEY_AGREEMENT_PROCESSED(){return CHART.isActive(activeStates, PACE_PERFORM_KEY_AGREEMENT_PROCESSED);}
+	public boolean isInREGISTER_APDU_PERFORM_KEY_AGREEMENT(){return CHART.isActive(activeStates, REGISTER_APDU_PERFORM_KEY_AGREEMENT);}
+	public boolean isInPACE_GET_NONCE_PROCESSED(){return CHART.isActive(activeStates, PACE_GET_NONCE_PROCESSED);}
+	public boolean isInPACE_MAP_NONCE_PROCESSED(){return CHART.isActive(activeStates, PACE_MAP_NONCE_PROCESSED);}
+	public boolean isInREGISTER_APDU_SET_AT(){return CHART.isActive(activeStates, REGISTER_APDU_SET_AT);}
+	public boolean isInCHAINING_INTERRUPTED(){return CHART.isActive(activeStates, CHAINING_INTERRUPTED);}
+	public boolean isInREGISTER_APDUS(){return CHART.isActive(activeStates, REGISTER_APDUS);}
+	public boolean isInPACE_COMPLETED(){return CHART.isActive(activeStates, PACE_COMPLETED);}
+	public boolean isInPACE_IN_PROGRESS(){return CHART.isActive(activeStates, PACE_IN_PROGRESS);}
+	public boolean isInPACE_MUTUAL_AUTHENTICATE_PROCESSED(){return CHART.isActive(activeStates, PACE_MUTUAL_AUTHENTICATE_PROCESSED);}
+	public boolean isInGENERAL_AUTHENTICATE_CHAINING(){return CHART.isActive(activeStates, GENERAL_AUTHENTICATE_CHAINING);}
+	public boolean isInREGISTER_APDU_MAP_NONCE(){return CHART.isActive(activeStates, REGISTER_APDU_MAP_NONCE);}
+	public boolean isInPACE_SET_AT_PROCESSED(){return CHART.isActive(activeStates, PACE_SET_AT_PROCESSED);}
+
+}
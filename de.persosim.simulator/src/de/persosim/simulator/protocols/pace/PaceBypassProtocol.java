@@ -29,6 +29,7 @@ import de.persosim.simulator.platform.CardStateAccessor;
 import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.platform.Iso7816Lib;
 import de.persosim.simulator.processing.ProcessingData;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.Protocol;
 import de.persosim.simulator.protocols.ProtocolUpdate;
 import de.persosim.simulator.protocols.ResponseData;
@@ -177,7 +178,7 @@ public class PaceBypassProtocol implements Pace, Protocol, Iso7816, ApduSpecific
 			ConstructedTlvDataObject chatData = (ConstructedTlvDataObject) tlvObject;
 			TlvDataObject oidData = chatData.getTlvDataObject(TAG_06);
 			byte[] roleData = chatData.getTlvDataObject(TAG_53).getValueField();
-			TaOid chatOid = new TaOid(oidData.getValueField());
+			TaOid chatOid = OidRegistry.getOid(oidData.getValueField(), TaOid.class);
 			RelativeAuthorization authorization = new RelativeAuthorization(
 					CertificateRole.getFromMostSignificantBits(roleData[0]), BitField.buildFromBigEndian(
 							(roleData.length * 8) - 2, roleData));
@@ -1,22 +1,59 @@
 package de.persosim.simulator.protocols.pace;
 
 import java.security.InvalidParameterException;
-import java.util.Arrays;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import de.persosim.simulator.crypto.CryptoSupport;
 import de.persosim.simulator.crypto.CryptoSupportAes;
 import de.persosim.simulator.crypto.CryptoUtil;
 import de.persosim.simulator.protocols.Oid;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.Utils;
 
+/**
+ * OID identifying a PACE variant.
+ * <p/>
+ * All information derived from the OID (algorithm names, key length etc.) is
+ * computed once on construction. The instances for all supported OIDs are
+ * interned by the {@link OidRegistry}, which should be used to resolve OIDs
+ * received within APDUs.
+ */
 @XmlRootElement
 public class PaceOid extends Oid implements Pace {
 	public static final int HASHCODEMULTIPLICATOR = 3;
 	
+	/**
+	 * Common names of all supported OIDs indexed by key agreement/mapping and
+	 * symmetric cipher
+	 */
+	private static final String[][] ID_STRINGS = new String[][] {
+		{id_PACE_DH_GM_3DES_CBC_CBC_STRING,   id_PACE_DH_GM_AES_CBC_CMAC_128_STRING,   id_PACE_DH_GM_AES_CBC_CMAC_192_STRING,   id_PACE_DH_GM_AES_CBC_CMAC_256_STRING},
+		{id_PACE_ECDH_GM_3DES_CBC_CBC_STRING, id_PACE_ECDH_GM_AES_CBC_CMAC_128_STRING, id_PACE_ECDH_GM_AES_CBC_CMAC_192_STRING, id_PACE_ECDH_GM_AES_CBC_CMAC_256_STRING},
+		{id_PACE_DH_IM_3DES_CBC_CBC_STRING,   id_PACE_DH_IM_AES_CBC_CMAC_128_STRING,   id_PACE_DH_IM_AES_CBC_CMAC_192_STRING,   id_PACE_DH_IM_AES_CBC_CMAC_256_STRING},
+		{id_PACE_ECDH_IM_3DES_CBC_CBC_STRING, id_PACE_ECDH_IM_AES_CBC_CMAC_128_STRING, id_PACE_ECDH_IM_AES_CBC_CMAC_192_STRING, id_PACE_ECDH_IM_AES_CBC_CMAC_256_STRING}
+	};
+	
 	protected String idString;
 	
+	@XmlTransient
+	private String keyAgreementName;
+	@XmlTransient
+	private String mappingName;
+	@XmlTransient
+	private String symmetricCipherAlgorithmNameModePadding;
+	@XmlTransient
+	private String symmetricCipherAlgorithmName;
+	@XmlTransient
+	private int symmetricCipherKeyLengthInBytes;
+	@XmlTransient
+	private String macName;
+	@XmlTransient
+	private String messageDigestName;
+	
 	/*----------------------------------------------------------------*/
 	
 	public PaceOid() {
@@ -34,9 +71,69 @@ public class PaceOid extends Oid implements Pace {
 		if(idString == null) {
 			throw new IllegalArgumentException("PACE OID " + HexString.encode(oidByteArray) + " is invalid or unknown (not supported)");
 		}
+		
+		initMetadata();
 	}
 	
+	/**
+	 * Precompute all information derived from the OID.
+	 */
+	private void initMetadata() {
+		byte keyAgreementAndMapping = getKeyAgreementAndMappingAsByte();
+		switch (keyAgreementAndMapping) {
+		case Pace.DH_GM:
+		case Pace.DH_IM:
+			keyAgreementName = "DH";
+			break;
+		default:
+			keyAgreementName = "ECDH";
+			break;
+		}
+		mappingName = ((keyAgreementAndMapping == Pace.DH_GM) || (keyAgreementAndMapping == Pace.ECDH_GM)) ? "GM" : "IM";
+		
+		switch (getSymmetricCipherAndKeySizeAsByte()) {
+		case Pace.DES3_CBC_CBC:
+			symmetricCipherAlgorithmNameModePadding = "DESede/CBC/NoPadding";
+			/* 
+			 * this is the actual key length,
+			 * effective key length is only 14 bytes as 1 bit per byte is parity information
+			 */
+			symmetricCipherKeyLengthInBytes = 16;
+			macName = "ISO9797ALG3WITHISO7816-4PADDING";
+			break;
+		case Pace.AES_CBC_CMAC_128:
+			symmetricCipherAlgorithmNameModePadding = "AES/CBC/NoPadding";
+			symmetricCipherKeyLengthInBytes = 16;
+			macName = "aescmac";
+			break;
+		case Pace.AES_CBC_CMAC_192:
+			symmetricCipherAlgorithmNameModePadding = "AES/CBC/NoPadding";
+			symmetricCipherKeyLengthInBytes = 24;
+			macName = "aescmac";
+			break;
+		default:
+			symmetricCipherAlgorithmNameModePadding = "AES/CBC/NoPadding";
+			symmetricCipherKeyLengthInBytes = 32;
+			macName = "aescmac";
+			break;
+		}
+		symmetricCipherAlgorithmName = CryptoUtil.getCipherNameAsString(symmetricCipherAlgorithmNameModePadding);
+		messageDigestName = (symmetricCipherKeyLengthInBytes <= 20) ? "SHA-1" : "SHA-256";
+	}
 	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to initialize idString and the derived information
+	 * @param u
+	 * @param parent
+	 */
+	protected void afterUnmarshal(Unmarshaller u, Object parent) {
+		idString = getStringRepresentation(oidByteArray);
+		if (idString != null) {
+			initMetadata();
+		}
+	}
 	
 	/*----------------------------------------------------------------*/
 	
@@ -63,18 +160,10 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the common name of the used key agreement
 	 */
 	public String getKeyAgreementName() {
-		switch (this.getKeyAgreementAndMappingAsByte()) {
-		case Pace.DH_GM:
-			return "DH";
-		case Pace.ECDH_GM:
-			return "ECDH";
-		case Pace.DH_IM:
-			return "DH";
-		case Pace.ECDH_IM:
-			return "ECDH";
-		default:
+		if (keyAgreementName == null) {
 			throw new InvalidParameterException("no or invalid key agreement selected");
 		}
+		return keyAgreementName;
 	}
 	
 	/**
@@ -82,18 +171,10 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the mapping used with the key agreement
 	 */
 	public String getMappingName() {
-		switch (this.getKeyAgreementAndMappingAsByte()) {
-		case Pace.DH_GM:
-			return "GM";
-		case Pace.ECDH_GM:
-			return "GM";
-		case Pace.DH_IM:
-			return "IM";
-		case Pace.ECDH_IM:
-			return "IM";
-		default:
+		if (mappingName == null) {
 			throw new InvalidParameterException("no or invalid mapping selected");
 		}
+		return mappingName;
 	}
 	
 	/**
@@ -110,25 +191,22 @@ public class PaceOid extends Oid implements Pace {
 	}
 	
 	/**
-	 * This method returns the {@link CryptoSupport} object that provides support for the selected symmetric cipher.
+	 * This method returns a new {@link CryptoSupport} object that provides
+	 * support for the selected symmetric cipher. As {@link CryptoSupport}
+	 * objects are stateful and OIDs are shared, a new instance is created for
+	 * every call.
+	 * 
 	 * @return the {@link CryptoSupport} object that provides support for the selected symmetric cipher
 	 */
-	protected CryptoSupport cryptoSupportCache = null;
 	public CryptoSupport getCryptoSupport() {
-		if(cryptoSupportCache == null) {
-			String cipherName = getSymmetricCipherAlgorithmNameModePadding();
-			String macName = getMacName();
-			
-			switch (CryptoUtil.getCipherNameAsString(cipherName)) {
-			case "AES":
-				cryptoSupportCache = new CryptoSupportAes(cipherName, macName);
-				break;
-			default:
-				throw new IllegalArgumentException("algorithm " + cipherName + " is unknown or not supported");
-			}
-		}
+		String cipherName = getSymmetricCipherAlgorithmNameModePadding();
 		
-		return cryptoSupportCache;
+		switch (getSymmetricCipherAlgorithmName()) {
+		case "AES":
+			return new CryptoSupportAes(cipherName, getMacName());
+		default:
+			throw new IllegalArgumentException("algorithm " + cipherName + " is unknown or not supported");
+		}
 	}
 	
 	/*----------------------------------------------------------------*/
@@ -138,18 +216,10 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the symmetric cipher algorithm's name, mode and padding
 	 */
 	public String getSymmetricCipherAlgorithmNameModePadding() {
-		switch (this.getSymmetricCipherAndKeySizeAsByte()) {
-		case Pace.DES3_CBC_CBC:
-			return "DESede/CBC/NoPadding";
-		case Pace.AES_CBC_CMAC_128:
-			return "AES/CBC/NoPadding";
-		case Pace.AES_CBC_CMAC_192:
-			return "AES/CBC/NoPadding";
-		case Pace.AES_CBC_CMAC_256:
-			return "AES/CBC/NoPadding";
-		default:
+		if (symmetricCipherAlgorithmNameModePadding == null) {
 			throw new InvalidParameterException("no or invalid symmetric cipher selected");
 		}
+		return symmetricCipherAlgorithmNameModePadding;
 	}
 	
 	/**
@@ -157,7 +227,10 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the symmetric cipher algorithm's name
 	 */
 	public String getSymmetricCipherAlgorithmName() {
-		return CryptoUtil.getCipherNameAsString(this.getSymmetricCipherAlgorithmNameModePadding());
+		if (symmetricCipherAlgorithmName == null) {
+			throw new InvalidParameterException("no or invalid symmetric cipher selected");
+		}
+		return symmetricCipherAlgorithmName;
 	}
 	
 	/**
@@ -181,22 +254,10 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the key length in Bytes as indicated by the OID
 	 */
 	public int getSymmetricCipherKeyLengthInBytes() {
-		switch (this.getSymmetricCipherAndKeySizeAsByte()) {
-		case Pace.DES3_CBC_CBC:
-			/* 
-			 * this is the actual key length,
-			 * effective key length is only 14 bytes as 1 bit per byte is parity information
-			 */
-			return 16;
-		case Pace.AES_CBC_CMAC_128:
-			return 16;
-		case Pace.AES_CBC_CMAC_192:
-			return 24;
-		case Pace.AES_CBC_CMAC_256:
-			return 32;
-		default:
+		if (symmetricCipherKeyLengthInBytes == 0) {
 			throw new InvalidParameterException("no or invalid symmetric cipher selected");
 		}
+		return symmetricCipherKeyLengthInBytes;
 	}
 	
 	/**
@@ -204,14 +265,10 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the MAC name as indicated by the OID
 	 */
 	public String getMacName() {
-		switch (this.getSymmetricCipherAlgorithmName()) {
-		case "DESede":
-			return "ISO9797ALG3WITHISO7816-4PADDING";
-		case "AES":
-			return "aescmac";
-		default:
+		if (macName == null) {
 			throw new InvalidParameterException("no or invalid mac selected");
 		}
+		return macName;
 	}
 	
 	/**
@@ -219,45 +276,26 @@ public class PaceOid extends Oid implements Pace {
 	 * @return the name of the message digest as indicated by the OID
 	 */
 	public String getMessageDigestName() {
-		int keyLengthInBytes;
-		
-		keyLengthInBytes = this.getSymmetricCipherKeyLengthInBytes();
-		
-		if(keyLengthInBytes <= 20) {
-			return "SHA-1";
-		}
-		
-		if(keyLengthInBytes <= 32) {
-			return "SHA-256";
+		if (messageDigestName == null) {
+			throw new NullPointerException("no message digest specified");
 		}
-		
-		throw new NullPointerException("no message digest specified");
+		return messageDigestName;
 	}
 	
 	/*----------------------------------------------------------------*/
 	
 	public static String getStringRepresentation(byte[] oidByteArray) {
-		if (Arrays.equals(oidByteArray, id_PACE_DH_GM_3DES_CBC_CBC))     return id_PACE_DH_GM_3DES_CBC_CBC_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_DH_GM_AES_CBC_CMAC_128)) return id_PACE_DH_GM_AES_CBC_CMAC_128_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_DH_GM_AES_CBC_CMAC_192)) return id_PACE_DH_GM_AES_CBC_CMAC_192_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_DH_GM_AES_CBC_CMAC_256)) return id_PACE_DH_GM_AES_CBC_CMAC_256_STRING;
+		if ((oidByteArray.length != id_PACE.length + 2) || !Utils.arrayHasPrefix(oidByteArray, id_PACE)) {
+			return null;
+		}
 		
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_GM_3DES_CBC_CBC))     return id_PACE_ECDH_GM_3DES_CBC_CBC_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_GM_AES_CBC_CMAC_128)) return id_PACE_ECDH_GM_AES_CBC_CMAC_128_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_GM_AES_CBC_CMAC_192)) return id_PACE_ECDH_GM_AES_CBC_CMAC_192_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_GM_AES_CBC_CMAC_256)) return id_PACE_ECDH_GM_AES_CBC_CMAC_256_STRING;
-		 
-		if (Arrays.equals(oidByteArray, id_PACE_DH_IM_3DES_CBC_CBC))     return id_PACE_DH_IM_3DES_CBC_CBC_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_DH_IM_AES_CBC_CMAC_128)) return id_PACE_DH_IM_AES_CBC_CMAC_128_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_DH_IM_AES_CBC_CMAC_192)) return id_PACE_DH_IM_AES_CBC_CMAC_192_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_DH_IM_AES_CBC_CMAC_256)) return id_PACE_DH_IM_AES_CBC_CMAC_256_STRING;
-		 
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_IM_3DES_CBC_CBC))     return id_PACE_ECDH_IM_3DES_CBC_CBC_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_IM_AES_CBC_CMAC_128)) return id_PACE_ECDH_IM_AES_CBC_CMAC_128_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_IM_AES_CBC_CMAC_192)) return id_PACE_ECDH_IM_AES_CBC_CMAC_192_STRING;
-		if (Arrays.equals(oidByteArray, id_PACE_ECDH_IM_AES_CBC_CMAC_256)) return id_PACE_ECDH_IM_AES_CBC_CMAC_256_STRING;
+		int keyAgreementAndMapping = oidByteArray[id_PACE.length] - 1;
+		int symmetricCipher = oidByteArray[id_PACE.length + 1] - 1;
+		if ((keyAgreementAndMapping < 0) || (keyAgreementAndMapping >= ID_STRINGS.length) || (symmetricCipher < 0) || (symmetricCipher >= ID_STRINGS[keyAgreementAndMapping].length)) {
+			return null;
+		}
 		
-		return null;
+		return ID_STRINGS[keyAgreementAndMapping][symmetricCipher];
 	}
 
 	@Override
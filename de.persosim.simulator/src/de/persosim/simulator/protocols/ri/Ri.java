@@ -75,6 +75,21 @@ public interface Ri extends Tr03110 {
 	public final static String id_RI_ECDH_SHA_384_STRING = "id-RI-ECDH-SHA-384";
 	public final static String id_RI_ECDH_SHA_512_STRING = "id-RI-ECDH-SHA-512";
 
+	public final static RiOid OID_id_RI_DH = new RiOid(id_RI_DH);
+	public final static RiOid OID_id_RI_ECDH = new RiOid(id_RI_ECDH);
+
+	public final static RiOid OID_id_RI_DH_SHA_1 = new RiOid(id_RI_DH_SHA_1);
+	public final static RiOid OID_id_RI_DH_SHA_224 = new RiOid(id_RI_DH_SHA_224);
+	public final static RiOid OID_id_RI_DH_SHA_256 = new RiOid(id_RI_DH_SHA_256);
+	public final static RiOid OID_id_RI_DH_SHA_384 = new RiOid(id_RI_DH_SHA_384);
+	public final static RiOid OID_id_RI_DH_SHA_512 = new RiOid(id_RI_DH_SHA_512);
+
+	public final static RiOid OID_id_RI_ECDH_SHA_1 = new RiOid(id_RI_ECDH_SHA_1);
+	public final static RiOid OID_id_RI_ECDH_SHA_224 = new RiOid(id_RI_ECDH_SHA_224);
+	public final static RiOid OID_id_RI_ECDH_SHA_256 = new RiOid(id_RI_ECDH_SHA_256);
+	public final static RiOid OID_id_RI_ECDH_SHA_384 = new RiOid(id_RI_ECDH_SHA_384);
+	public final static RiOid OID_id_RI_ECDH_SHA_512 = new RiOid(id_RI_ECDH_SHA_512);
+
 	public final static TlvTag RI_FIRST_SECTOR_KEY_TAG = new TlvTag((byte) 0xA0);
 	public final static TlvTag RI_SECOND_SECTOR_KEY_TAG = new TlvTag((byte) 0xA2);
 
@@ -6,21 +6,26 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PublicKey;
-import java.util.Arrays;
 
 import javax.crypto.KeyAgreement;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import de.persosim.simulator.crypto.Crypto;
 import de.persosim.simulator.crypto.CryptoUtil;
 import de.persosim.simulator.protocols.Oid;
-import de.persosim.simulator.protocols.ca.Ca;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.tlv.ConstructedTlvDataObject;
 import de.persosim.simulator.tlv.TlvConstants;
 import de.persosim.simulator.utils.HexString;
+import de.persosim.simulator.utils.Utils;
 
 /**
  * This class implements functionalities for OIDs used in the {@link RiProtocol}.
+ * <p/>
+ * The algorithm names derived from the OID are computed once on construction,
+ * the instances for all supported OIDs are interned by the {@link OidRegistry}.
  * 
  * @author mboonk
  * 
@@ -28,7 +33,26 @@ import de.persosim.simulator.utils.HexString;
 @XmlRootElement
 public class RiOid extends Oid implements Ri, TlvConstants {
 
+	/**
+	 * Common names of all supported OIDs indexed by key agreement and hash
+	 * function, index 0 for the hash function denotes the OID without hash
+	 * function
+	 */
+	private static final String[][] ID_STRINGS = new String[][] {
+		{id_RI_DH_STRING,   id_RI_DH_SHA_1_STRING,   id_RI_DH_SHA_224_STRING,   id_RI_DH_SHA_256_STRING,   id_RI_DH_SHA_384_STRING,   id_RI_DH_SHA_512_STRING},
+		{id_RI_ECDH_STRING, id_RI_ECDH_SHA_1_STRING, id_RI_ECDH_SHA_224_STRING, id_RI_ECDH_SHA_256_STRING, id_RI_ECDH_SHA_384_STRING, id_RI_ECDH_SHA_512_STRING}
+	};
+	
+	private static final String[] KEY_AGREEMENT_NAMES = new String[] {DH_STRING, ECDH_STRING};
+	
+	private static final String[] HASH_NAMES = new String[] {SHA_1_STRING, SHA_224_STRING, SHA_256_STRING, SHA_384_STRING, SHA_512_STRING};
+	
 	private String idString;
+	
+	@XmlTransient
+	private String keyAgreementName;
+	@XmlTransient
+	private String hashName;
 
 	public RiOid() {}
 	
@@ -42,36 +66,50 @@ public class RiOid extends Oid implements Ri, TlvConstants {
 					+ HexString.encode(oidByteArray)
 					+ " is invalid or unknown (not supported)");
 		}
+		
+		initMetadata();
+	}
+	
+	/**
+	 * Precompute the algorithm names derived from the OID.
+	 */
+	private void initMetadata() {
+		keyAgreementName = KEY_AGREEMENT_NAMES[getKeyAgreementAsByte() - 1];
+		if (oidByteArray.length > id_RI.length + 1) {
+			hashName = HASH_NAMES[getHashAsByte() - 1];
+		}
+	}
+	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to initialize idString and the derived information
+	 * @param u
+	 * @param parent
+	 */
+	protected void afterUnmarshal(Unmarshaller u, Object parent) {
+		idString = getStringRepresentation(oidByteArray);
+		if (idString != null) {
+			initMetadata();
+		}
 	}
 
-	public String getStringRepresentation(byte[] oidByteArray) {
-		if (Arrays.equals(oidByteArray, id_RI_DH))
-			return id_RI_DH_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_ECDH))
-			return id_RI_ECDH_STRING;
-
-		if (Arrays.equals(oidByteArray, id_RI_DH_SHA_1))
-			return id_RI_DH_SHA_1_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_DH_SHA_224))
-			return id_RI_DH_SHA_224_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_DH_SHA_256))
-			return id_RI_DH_SHA_256_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_DH_SHA_384))
-			return id_RI_DH_SHA_384_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_DH_SHA_512))
-			return id_RI_DH_SHA_512_STRING;
-
-		if (Arrays.equals(oidByteArray, id_RI_ECDH_SHA_1))
-			return id_RI_ECDH_SHA_1_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_ECDH_SHA_224))
-			return id_RI_ECDH_SHA_224_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_ECDH_SHA_256))
-			return id_RI_ECDH_SHA_256_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_ECDH_SHA_384))
-			return id_RI_ECDH_SHA_384_STRING;
-		if (Arrays.equals(oidByteArray, id_RI_ECDH_SHA_512))
-			return id_RI_ECDH_SHA_512_STRING;
-		return null;
+	/**
+	 * @see Oid#getIdString()
+	 * @return common name of OID or null if parameter does not encode a RiOid
+	 */
+	public static String getStringRepresentation(byte[] oidByteArray) {
+		if ((oidByteArray.length < id_RI.length + 1) || (oidByteArray.length > id_RI.length + 2) || !Utils.arrayHasPrefix(oidByteArray, id_RI)) {
+			return null;
+		}
+		
+		int keyAgreement = oidByteArray[id_RI.length] - 1;
+		int hash = (oidByteArray.length > id_RI.length + 1) ? oidByteArray[id_RI.length + 1] : 0;
+		if ((keyAgreement < 0) || (keyAgreement >= ID_STRINGS.length) || (hash < 0) || (hash >= ID_STRINGS[keyAgreement].length)) {
+			return null;
+		}
+		
+		return ID_STRINGS[keyAgreement][hash];
 	}
 
 	@Override
@@ -100,15 +138,11 @@ public class RiOid extends Oid implements Ri, TlvConstants {
 	 */
 	public KeyAgreement getKeyAgreement() throws NoSuchAlgorithmException,
 			NoSuchProviderException {
-		switch (this.getKeyAgreementAsByte()) {
-		case Ca.DH:
-			return KeyAgreement.getInstance("DH", Crypto.getCryptoProvider());
-		case Ca.ECDH:
-			return KeyAgreement.getInstance("ECDH", Crypto.getCryptoProvider());
-		default:
+		if (keyAgreementName == null) {
 			throw new InvalidParameterException(
 					"no or invalid key agreement selected");
 		}
+		return KeyAgreement.getInstance(keyAgreementName, Crypto.getCryptoProvider());
 	}
 
 	/**
@@ -119,26 +153,11 @@ public class RiOid extends Oid implements Ri, TlvConstants {
 	 */
 	public MessageDigest getHash() throws NoSuchAlgorithmException,
 			NoSuchProviderException {
-		switch (getHashAsByte()) {
-		case SHA_1:
-			return MessageDigest.getInstance("SHA-1",
-					Crypto.getCryptoProvider());
-		case SHA_224:
-			return MessageDigest.getInstance("SHA-224",
-					Crypto.getCryptoProvider());
-		case SHA_256:
-			return MessageDigest.getInstance("SHA-256",
-					Crypto.getCryptoProvider());
-		case SHA_384:
-			return MessageDigest.getInstance("SHA-384",
-					Crypto.getCryptoProvider());
-		case SHA_512:
-			return MessageDigest.getInstance("SHA-512",
-					Crypto.getCryptoProvider());
-		default:
+		if (hashName == null) {
 			throw new InvalidParameterException(
 					"no or invalid hash function selected");
 		}
+		return MessageDigest.getInstance(hashName, Crypto.getCryptoProvider());
 	}
 	
 	/**
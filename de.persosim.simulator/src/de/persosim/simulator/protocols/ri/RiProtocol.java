@@ -33,6 +33,7 @@ import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.platform.PlatformUtil;
 import de.persosim.simulator.processing.ProcessingData;
 import de.persosim.simulator.protocols.Oid;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.Protocol;
 import de.persosim.simulator.protocols.ta.TerminalAuthenticationMechanism;
 import de.persosim.simulator.secstatus.SecMechanism;
@@ -232,7 +233,7 @@ public class RiProtocol implements Protocol, Iso7816, ApduSpecificationConstants
 			if (!checkSectorPublicKeyHash((ConstructedTlvDataObject)sectorPublicKeyData, publicKeyCheckingHash, sectorPublicKeyHash)){
 				throw new VerificationException("The public key hash transmitted during a previous protocol does not match the given public key");
 			}
-			RiOid oid = new RiOid(((ConstructedTlvDataObject)sectorPublicKeyData).getTlvDataObject(TlvConstants.TAG_06).getValueField());
+			RiOid oid = OidRegistry.getOid(((ConstructedTlvDataObject)sectorPublicKeyData).getTlvDataObject(TlvConstants.TAG_06).getValueField(), RiOid.class);
 			PublicKey sectorPublicKey = oid.parsePublicKey((ConstructedTlvDataObject) sectorPublicKeyData);
 			return new PrimitiveTlvDataObject(responseTag, calculateSectorIdentifier(staticPrivateKey, sectorPublicKey, oid.getKeyAgreement(), oid.getHash()));
 		}
@@ -341,8 +342,8 @@ public class RiProtocol implements Protocol, Iso7816, ApduSpecificationConstants
 
 		if (cryptographicMechanismReferenceData != null) {
 			try{
-				new RiOid(
-					cryptographicMechanismReferenceData.getValueField());
+				OidRegistry.getOid(
+					cryptographicMechanismReferenceData.getValueField(), RiOid.class);
 			} catch (IllegalArgumentException e){
 				ResponseApdu resp = new ResponseApdu(PlatformUtil.SW_4A80_WRONG_DATA);
 				processingData.updateResponseAPDU(this,
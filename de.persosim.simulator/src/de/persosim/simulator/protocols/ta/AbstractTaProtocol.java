@@ -6,7 +6,6 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PublicKey;
-import java.security.SecureRandom;
 import java.security.Signature;
 import java.security.SignatureException;
 import java.security.interfaces.ECPublicKey;
@@ -27,6 +26,7 @@ import de.persosim.simulator.cardobjects.Scope;
 import de.persosim.simulator.cardobjects.TrustPointCardObject;
 import de.persosim.simulator.cardobjects.TrustPointIdentifier;
 import de.persosim.simulator.crypto.CryptoUtil;
+import de.persosim.simulator.crypto.RandomSource;
 import de.persosim.simulator.crypto.certificates.CardVerifiableCertificate;
 import de.persosim.simulator.crypto.certificates.CertificateExtension;
 import de.persosim.simulator.crypto.certificates.PublicKeyReference;
@@ -35,6 +35,7 @@ import de.persosim.simulator.exception.CertificateNotParseableException;
 import de.persosim.simulator.exception.CertificateUpdateException;
 import de.persosim.simulator.platform.Iso7816;
 import de.persosim.simulator.protocols.AbstractProtocolStateMachine;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.TR03110Utils;
 import de.persosim.simulator.secstatus.PaceMechanism;
 import de.persosim.simulator.secstatus.SecMechanism;
@@ -78,7 +79,6 @@ public abstract class AbstractTaProtocol extends AbstractProtocolStateMachine im
 
 	public static final byte MASK_SFI_BYTE = (byte) 0x80;
 	
-	private SecureRandom secureRandom = new SecureRandom();
 	private CardVerifiableCertificate currentCertificate;
 	private CardVerifiableCertificate mostRecentTemporaryCertificate;
 
@@ -135,7 +135,7 @@ public abstract class AbstractTaProtocol extends AbstractProtocolStateMachine im
 		}		
 		
 		challenge = new byte [8];
-		secureRandom.nextBytes(challenge);	
+		RandomSource.nextBytes(challenge);	
 		
 		// create and propagate response APDU
 		ResponseApdu resp = new ResponseApdu(new TlvValuePlain(challenge), Iso7816.SW_9000_NO_ERROR);
@@ -299,7 +299,7 @@ public abstract class AbstractTaProtocol extends AbstractProtocolStateMachine im
 			//add missing Tag and Length
 			TlvDataObject cryptographicMechanismReferenceDataReconstructed = new PrimitiveTlvDataObject(TR03110Utils.TAG_06, cryptographicMechanismReferenceData.getValueField());
 			try {
-				crypographicMechanismReference = new TaOid(cryptographicMechanismReferenceDataReconstructed.getValueField());
+				crypographicMechanismReference = OidRegistry.getOid(cryptographicMechanismReferenceDataReconstructed.getValueField(), TaOid.class);
 			} catch (IllegalArgumentException e) {
 				// create and propagate response APDU
 				ResponseApdu resp = new ResponseApdu(Iso7816.SW_6A80_WRONG_DATA);
@@ -331,7 +331,7 @@ public abstract class AbstractTaProtocol extends AbstractProtocolStateMachine im
 					TlvDataObject objectIdentifier = ddo.getTlvDataObject(TR03110Utils.TAG_06);
 					TlvDataObject discretionaryData = ddo.getTlvDataObject(TR03110Utils.TAG_53);
 					try {
-						auxiliaryData.add(new AuthenticatedAuxiliaryData(new TaOid(objectIdentifier.getValueField()), discretionaryData.getValueField()));
+						auxiliaryData.add(new AuthenticatedAuxiliaryData(OidRegistry.getOid(objectIdentifier.getValueField(), TaOid.class), discretionaryData.getValueField()));
 					} catch (IllegalArgumentException e) {
 						// create and propagate response APDU
 						ResponseApdu resp = new ResponseApdu(Iso7816.SW_6A80_WRONG_DATA);
@@ -1,19 +1,18 @@
-package de.persosim.simulator.protocols.ta; 
-/*
- * AUTOMATICALLY GENERATED CODE - DO NOT EDIT!
- * 
- * (C) 2013 HJP-Consulting GmbH
- */
- @SuppressWarnings("all")//generated code 
-
-/* Command line options: -verbose -p EA -o DefaultTaProtocol -l java -t TA:taclass C:\develop\eclipse-persosim\git\de.persosim.models\exported\protocol_ta.xml   */
-/* This file is generated from protocol_ta.xml - do not edit manually  */
-/* Generated on: Wed Jul 30 09:45:19 CEST 2014 / version 3.52beta2 */
+package de.persosim.simulator.protocols.ta;
 
+import static de.persosim.simulator.statemachine.StateChart.ALWAYS;
+import static de.persosim.simulator.statemachine.StateChart.NONE;
+import static de.persosim.simulator.statemachine.StateChart.TOP;
 
+import de.persosim.simulator.statemachine.StateChart;
+import de.persosim.simulator.statemachine.StateChartHandler;
 
-public class DefaultTaProtocol extends AbstractTaProtocol
-{
+/**
+ * State machine of the Terminal Authentication protocol. The chart is
+ * defined once as {@link StateChart} and shared by all instances, only the
+ * active configuration is kept per instance.
+ */
+public class DefaultTaProtocol extends AbstractTaProtocol implements StateChartHandler {
 
 	public static final int TA_IN_PROGRESS = 0;
 	public static final int TA_SET_DST_RECEIVED = 1;
@@ -39,671 +38,278 @@ public class DefaultTaProtocol extends AbstractTaProtocol
 	public static final int TA_SET_DST_PROCESSED = 21;
 	public static final int __UNKNOWN_STATE__ = 22;
 
-
 	public static final int DEFAULTTAPROTOCOL_NO_MSG = 0;
-	
-
 
-	// flag if initialized
-	protected boolean m_initialized=false;
+	// guards
+	private static final int IS_SW_9000 = 0;
+	private static final int IS_APDU_SET_DST = 1;
+	private static final int IS_APDU_PSO = 2;
+	private static final int IS_APDU_SET_AT = 3;
+	private static final int IS_APDU_GET_CHALLENGE = 4;
+	private static final int IS_APDU_EXTERNAL_AUTHENTICATE = 5;
+	private static final int WARNING_OR_ERROR = 6;
+
+	// actions
+	private static final int REGISTER_SET_DST = 0;
+	private static final int REGISTER_PSO = 1;
+	private static final int REGISTER_SET_AT = 2;
+	private static final int REGISTER_GET_CHALLENGE = 3;
+	private static final int REGISTER_EXTERNAL_AUTHENTICATE = 4;
+	private static final int RETURN_RESULT = 5;
+	private static final int PERFORM_RESET = 6;
+	private static final int PROCESS_SET_DST = 7;
+	private static final int PROCESS_PSO = 8;
+	private static final int PROCESS_SET_AT = 9;
+	private static final int PROCESS_GET_CHALLENGE = 10;
+	private static final int PROCESS_EXTERNAL_AUTHENTICATE = 11;
+	private static final int RESOLVE_APDUS = 12;
+
+	// APDU specifications, resolved to these indices once registered
+	private static final int APDU_SET_DST = 0;
+	private static final int APDU_PSO = 1;
+	private static final int APDU_SET_AT = 2;
+	private static final int APDU_GET_CHALLENGE = 3;
+	private static final int APDU_EXTERNAL_AUTHENTICATE = 4;
+	private static final String[] APDU_IDS = {"Set DST", "PSO", "Set AT", "Get Challenge", "External Authenticate"};
+
+	private static final StateChart CHART = new StateChart(__UNKNOWN_STATE__, REGISTER_APDUS);
+
+	static {
+		CHART.addCompositeState(REGISTER_APDUS, TOP, REGISTER_APDU_SET_DST, false, null, NONE);
+		CHART.addState(REGISTER_APDU_SET_DST, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_PSO, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_SET_AT, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_GET_CHALLENGE, REGISTER_APDUS, null, NONE);
+		CHART.addState(REGISTER_APDU_EXTERNAL_AUTHENTICATE, REGISTER_APDUS, null, NONE);
+		CHART.addState(RESET, TOP, "Perform reset", PERFORM_RESET);
+		CHART.addCompositeState(TA_ANNOUNCED, TOP, TA_INIT, false, "TA_ANNOUNCED", NONE);
+		CHART.addState(TA_INIT, TA_ANNOUNCED, "INIT", RETURN_RESULT);
+		CHART.addState(TA_GET_CHALLENGE_RECEIVED, TA_ANNOUNCED, null, PROCESS_GET_CHALLENGE);
+		CHART.addState(TA_GET_CHALLENGE_PROCESSED, TA_ANNOUNCED, null, NONE);
+		CHART.addCompositeState(TA_IN_PROGRESS, TA_ANNOUNCED, TA_PROGRESS_INIT, true, null, NONE);
+		CHART.addState(TA_PROGRESS_INIT, TA_IN_PROGRESS, null, NONE);
+		CHART.addState(TA_SET_DST_RECEIVED, TA_IN_PROGRESS, null, PROCESS_SET_DST);
+		CHART.addState(TA_SET_DST_PROCESSED, TA_IN_PROGRESS, null, RETURN_RESULT);
+		CHART.addState(TA_PSO_RECEIVED, TA_IN_PROGRESS, null, PROCESS_PSO);
+		CHART.addState(TA_PSO_PROCESSED, TA_IN_PROGRESS, null, RETURN_RESULT);
+		CHART.addState(TA_SET_AT_RECEIVED, TA_IN_PROGRESS, null, PROCESS_SET_AT);
+		CHART.addState(TA_SET_AT_PROCESSED, TA_IN_PROGRESS, null, RETURN_RESULT);
+		CHART.addState(TA_EXTERNAL_AUTHENTICATE_RECEIVED, TA_IN_PROGRESS, null, PROCESS_EXTERNAL_AUTHENTICATE);
+		CHART.addState(TA_EXTERNAL_AUTHENTICATE_PROCESSED, TA_IN_PROGRESS, null, RETURN_RESULT);
+		CHART.addState(TA_COMPLETE, TOP, "Completed", NONE);
+
+		CHART.addDoAction(REGISTER_APDU_SET_DST, REGISTER_SET_DST);
+		CHART.addDoAction(REGISTER_APDU_PSO, REGISTER_PSO);
+		CHART.addDoAction(REGISTER_APDU_SET_AT, REGISTER_SET_AT);
+		CHART.addDoAction(REGISTER_APDU_GET_CHALLENGE, REGISTER_GET_CHALLENGE);
+		CHART.addDoAction(REGISTER_APDU_EXTERNAL_AUTHENTICATE, REGISTER_EXTERNAL_AUTHENTICATE);
+
+		CHART.addTransition(REGISTER_APDU_SET_DST, ALWAYS, NONE, REGISTER_APDU_PSO);
+		CHART.addTransition(REGISTER_APDU_PSO, ALWAYS, NONE, REGISTER_APDU_SET_AT);
+		CHART.addTransition(REGISTER_APDU_SET_AT, ALWAYS, NONE, REGISTER_APDU_GET_CHALLENGE);
+		CHART.addTransition(REGISTER_APDU_GET_CHALLENGE, ALWAYS, NONE, REGISTER_APDU_EXTERNAL_AUTHENTICATE);
+		CHART.addTransition(REGISTER_APDU_EXTERNAL_AUTHENTICATE, ALWAYS, RESOLVE_APDUS, TA_ANNOUNCED);
+		CHART.addTransition(RESET, ALWAYS, NONE, TA_INIT);
+		CHART.addTransition(TA_INIT, ALWAYS, NONE, TA_IN_PROGRESS);
+		CHART.addTransition(TA_GET_CHALLENGE_RECEIVED, IS_SW_9000, NONE, TA_GET_CHALLENGE_PROCESSED);
+		CHART.addTransition(TA_GET_CHALLENGE_PROCESSED, ALWAYS, RETURN_RESULT, TA_IN_PROGRESS);
+		CHART.addTransition(TA_PROGRESS_INIT, IS_APDU_SET_DST, NONE, TA_SET_DST_RECEIVED);
+		CHART.addTransition(TA_SET_DST_RECEIVED, IS_SW_9000, NONE, TA_SET_DST_PROCESSED);
+		CHART.addTransition(TA_SET_DST_PROCESSED, IS_APDU_PSO, NONE, TA_PSO_RECEIVED);
+		CHART.addTransition(TA_PSO_RECEIVED, IS_SW_9000, NONE, TA_PSO_PROCESSED);
+		CHART.addTransition(TA_PSO_PROCESSED, IS_APDU_SET_AT, NONE, TA_SET_AT_RECEIVED);
+		CHART.addTransition(TA_PSO_PROCESSED, IS_APDU_SET_DST, NONE, TA_SET_DST_RECEIVED);
+		CHART.addTransition(TA_SET_AT_RECEIVED, IS_SW_9000, NONE, TA_SET_AT_PROCESSED);
+		CHART.addTransition(TA_SET_AT_PROCESSED, IS_APDU_EXTERNAL_AUTHENTICATE, NONE, TA_EXTERNAL_AUTHENTICATE_RECEIVED);
+		CHART.addTransition(TA_EXTERNAL_AUTHENTICATE_RECEIVED, IS_SW_9000, NONE, TA_EXTERNAL_AUTHENTICATE_PROCESSED);
+		CHART.addTransition(TA_EXTERNAL_AUTHENTICATE_PROCESSED, ALWAYS, NONE, TA_COMPLETE);
+		CHART.addTransition(TA_IN_PROGRESS, IS_APDU_GET_CHALLENGE, NONE, TA_GET_CHALLENGE_RECEIVED);
+		CHART.addTransition(TA_ANNOUNCED, WARNING_OR_ERROR, NONE, RESET);
+		CHART.addTransition(TA_ANNOUNCED, ALWAYS, NONE, TA_ANNOUNCED);
+		CHART.addTransition(TA_COMPLETE, ALWAYS, NONE, TA_INIT);
+	}
 
-	int  stateVar;
-	int  stateVarREGISTER_APDUS;
-	int  stateVarTA_ANNOUNCED;
-	int  stateVarTA_IN_PROGRESS;
+	private final int[] activeStates = CHART.createActiveStates();
+	private boolean chartInitialized = false;
 
-	// State handler class default ctor
-	public DefaultTaProtocol()
-	{
+	@Override
+	public void reInitialize() {
+		chartInitialized = false;
+		initialize();
 	}
 
-	/* Helper(s) to reset history */
-	public void resetHistoryREGISTER_APDUS(){stateVarREGISTER_APDUS= REGISTER_APDU_SET_DST;}
-	public void resetHistoryTA_ANNOUNCED(){stateVarTA_ANNOUNCED= TA_INIT;}
-	public void resetHistoryTA_IN_PROGRESS(){stateVarTA_IN_PROGRESS= TA_PROGRESS_INIT;}
-
-	/* Helper to get innermost active state id */
-	public int getInnermostActiveState() {
-		if(isInTA_SET_DST_PROCESSED()){
-			return TA_SET_DST_PROCESSED;
-		}else if(isInTA_SET_AT_PROCESSED()){
-			return TA_SET_AT_PROCESSED;
-		}else if(isInTA_PSO_PROCESSED()){
-			return TA_PSO_PROCESSED;
-		}else if(isInTA_PSO_RECEIVED()){
-			return TA_PSO_RECEIVED;
-		}else if(isInTA_EXTERNAL_AUTHENTICATE_PROCESSED()){
-			return TA_EXTERNAL_AUTHENTICATE_PROCESSED;
-		}else if(isInTA_EXTERNAL_AUTHENTICATE_RECEIVED()){
-			return TA_EXTERNAL_AUTHENTICATE_RECEIVED;
-		}else if(isInTA_SET_AT_RECEIVED()){
-			return TA_SET_AT_RECEIVED;
-		}else if(isInTA_PROGRESS_INIT()){
-			return TA_PROGRESS_INIT;
-		}else if(isInTA_SET_DST_RECEIVED()){
-			return TA_SET_DST_RECEIVED;
-		}else if(isInREGISTER_APDU_GET_CHALLENGE()){
-			return REGISTER_APDU_GET_CHALLENGE;
-		}else if(isInREGISTER_APDU_SET_AT()){
-			return REGISTER_APDU_SET_AT;
-		}else if(isInREGISTER_APDU_PSO()){
-			return REGISTER_APDU_PSO;
-		}else if(isInREGISTER_APDU_EXTERNAL_AUTHENTICATE()){
-			return REGISTER_APDU_EXTERNAL_AUTHENTICATE;
-		}else if(isInTA_GET_CHALLENGE_PROCESSED()){
-			return TA_GET_CHALLENGE_PROCESSED;
-		}else if(isInTA_INIT()){
-			return TA_INIT;
-		}else if(isInREGISTER_APDU_SET_DST()){
-			return REGISTER_APDU_SET_DST;
-		}else if(isInTA_GET_CHALLENGE_RECEIVED()){
-			return TA_GET_CHALLENGE_RECEIVED;
-		}else if(isInRESET()){
-			return RESET;
-		}else if(isInTA_COMPLETE()){
-			return TA_COMPLETE;
-		}else{
-			return __UNKNOWN_STATE__;
+	@Override
+	public void initialize() {
+		if (!chartInitialized) {
+			chartInitialized = true;
+			CHART.initialize(activeStates);
 		}
 	}
 
-	// Helper(s) to find out if the machine is in a certain state
-	public boolean isInTA_IN_PROGRESS(){return (((stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_SET_DST_RECEIVED(){return (((stateVarTA_IN_PROGRESS==  TA_SET_DST_RECEIVED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_COMPLETE(){return (((stateVar==  TA_COMPLETE)) ? (true) : (false));}
-	public boolean isInTA_PROGRESS_INIT(){return (((stateVarTA_IN_PROGRESS==  TA_PROGRESS_INIT)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_GET_CHALLENGE_RECEIVED(){return (((stateVarTA_ANNOUNCED==  TA_GET_CHALLENGE_RECEIVED)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_SET_DST(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_SET_DST)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInTA_SET_AT_RECEIVED(){return (((stateVarTA_IN_PROGRESS==  TA_SET_AT_RECEIVED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_EXTERNAL_AUTHENTICATE_RECEIVED(){return (((stateVarTA_IN_PROGRESS==  TA_EXTERNAL_AUTHENTICATE_RECEIVED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_INIT(){return (((stateVarTA_ANNOUNCED==  TA_INIT)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_GET_CHALLENGE_PROCESSED(){return (((stateVarTA_ANNOUNCED==  TA_GET_CHALLENGE_PROCESSED)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_EXTERNAL_AUTHENTICATE_PROCESSED(){return (((stateVarTA_IN_PROGRESS==  TA_EXTERNAL_AUTHENTICATE_PROCESSED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_PSO_RECEIVED(){return (((stateVarTA_IN_PROGRESS==  TA_PSO_RECEIVED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDUS(){return (((stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_EXTERNAL_AUTHENTICATE(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_EXTERNAL_AUTHENTICATE)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_PSO(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_PSO)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInTA_ANNOUNCED(){return (((stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_SET_AT(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_SET_AT)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInTA_PSO_PROCESSED(){return (((stateVarTA_IN_PROGRESS==  TA_PSO_PROCESSED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInTA_SET_AT_PROCESSED(){return (((stateVarTA_IN_PROGRESS==  TA_SET_AT_PROCESSED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-	public boolean isInREGISTER_APDU_GET_CHALLENGE(){return (((stateVarREGISTER_APDUS==  REGISTER_APDU_GET_CHALLENGE)&&(stateVar==  REGISTER_APDUS)) ? (true) : (false));}
-	public boolean isInRESET(){return (((stateVar==  RESET)) ? (true) : (false));}
-	public boolean isInTA_SET_DST_PROCESSED(){return (((stateVarTA_IN_PROGRESS==  TA_SET_DST_PROCESSED)&&(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS)&&(stateVar==  TA_ANNOUNCED)) ? (true) : (false));}
-
-
+	@Override
+	public int processEvent(int event) {
+		if (!chartInitialized) {
+			return 0;
+		}
 
+		continueProcessing = true;
+		boolean eventConsumed;
+		do {
+			eventConsumed = CHART.processStep(activeStates, this);
+		} while (continueProcessing);
 
-	// Reinitialize the state machine
-	public void reInitialize(){
-			m_initialized=false;
-			initialize();
+		return eventConsumed ? StateChart.EVENT_CONSUMED : 0;
 	}
 
-	public void initialize(){
-
-		if(m_initialized==false){
-
-			m_initialized=true;
-			//call on entry code of default states
-			
-
-			// Set state vars to default states
-			stateVar =  REGISTER_APDUS; /* set init state of top state */
-			stateVarREGISTER_APDUS =  REGISTER_APDU_SET_DST; /* set init state of REGISTER_APDUS */
-			stateVarTA_ANNOUNCED =  TA_INIT; /* set init state of TA_ANNOUNCED */
-			stateVarTA_IN_PROGRESS =  TA_PROGRESS_INIT; /* set init state of TA_IN_PROGRESS */
-
+	@Override
+	public boolean evaluateGuard(int guard) {
+		switch (guard) {
+		case IS_SW_9000:
+			return isStatusWord(SW_9000_NO_ERROR);
+		case IS_APDU_SET_DST:
+			return isAPDU(APDU_SET_DST);
+		case IS_APDU_PSO:
+			return isAPDU(APDU_PSO);
+		case IS_APDU_SET_AT:
+			return isAPDU(APDU_SET_AT);
+		case IS_APDU_GET_CHALLENGE:
+			return isAPDU(APDU_GET_CHALLENGE);
+		case IS_APDU_EXTERNAL_AUTHENTICATE:
+			return isAPDU(APDU_EXTERNAL_AUTHENTICATE);
+		case WARNING_OR_ERROR:
+			return warningOrErrorOccurredDuringProcessing();
+		default:
+			throw new IllegalArgumentException("unknown guard " + guard);
 		}
-
 	}
 
-	protected void defaulttaprotocolChangeToState(int  state){
-		stateVar=state;
-	}
-
-	protected void defaulttaprotocolChangeToStateREGISTER_APDUS(int  state){
-		stateVarREGISTER_APDUS = state;
-	}
-	
-	protected void defaulttaprotocolChangeToStateTA_ANNOUNCED(int  state){
-		stateVarTA_ANNOUNCED = state;
-	}
-	
-	protected void defaulttaprotocolChangeToStateTA_IN_PROGRESS(int  state){
-		stateVarTA_IN_PROGRESS = state;
+	@Override
+	public void performAction(int action) {
+		switch (action) {
+		case REGISTER_SET_DST:
+			createNewApduSpecification("Set DST");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_3);
+			apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
+			apduSpecification.setP1((byte) 0x81);
+			apduSpecification.setP2((byte) 0xB6);
+			createNewTagSpecification(TAG_83);
+			apduSpecification.addTag(tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_PSO:
+			createNewApduSpecification("PSO");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_3);
+			apduSpecification.setIns(INS_2A_PERFORM_SECURITY_OPERATION);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0xBE);
+			createNewTagSpecification(TAG_7F4E);
+			tagSpecification.setAllowUnspecifiedSubTags(true);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_5F37);
+			tagSpecification.setAllowUnspecifiedSubTags(true);
+			apduSpecification.addTag(tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_SET_AT:
+			createNewApduSpecification("Set AT");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_3);
+			apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
+			apduSpecification.setP1((byte) 0x81);
+			apduSpecification.setP2((byte) 0xA4);
+			createNewTagSpecification(TAG_80);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_83);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_67);
+			tagSpecification.setRequired(REQ_OPTIONAL);
+			tagSpecification.setAllowUnspecifiedSubTags(true);
+			apduSpecification.addTag(tagSpecification);
+			createNewTagSpecification(TAG_91);
+			tagSpecification.setRequired(REQ_OPTIONAL);
+			apduSpecification.addTag(tagSpecification);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_GET_CHALLENGE:
+			createNewApduSpecification("Get Challenge");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_2);
+			apduSpecification.setIns(INS_84_GET_CHALLENGE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			registerApduSpecification(apduSpecification);
+			break;
+		case REGISTER_EXTERNAL_AUTHENTICATE:
+			createNewApduSpecification("External Authenticate");
+			apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
+			apduSpecification.setIsoCase(ISO_CASE_3);
+			apduSpecification.setIns(INS_82_EXTERNAL_AUTHENTICATE);
+			apduSpecification.setP1((byte) 0x00);
+			apduSpecification.setP2((byte) 0x00);
+			registerApduSpecification(apduSpecification);
+			break;
+		case RETURN_RESULT:
+			returnResult();
+			break;
+		case PERFORM_RESET:
+			reset();
+			break;
+		case PROCESS_SET_DST:
+			processCommandSetDst();
+			break;
+		case PROCESS_PSO:
+			processCommandPsoVerifyCertificate();
+			break;
+		case PROCESS_SET_AT:
+			processCommandSetAt();
+			break;
+		case PROCESS_GET_CHALLENGE:
+			processCommandGetChallenge();
+			break;
+		case PROCESS_EXTERNAL_AUTHENTICATE:
+			processCommandExternalAuthenticate();
+			break;
+		case RESOLVE_APDUS:
+			resolveApduSpecifications(APDU_IDS);
+			break;
+		default:
+			throw new IllegalArgumentException("unknown action " + action);
+		}
 	}
-	
-
-
-
-	public int processEvent(int msg){
-
-		int evConsumed = 0;
-
-		
-
-		if(m_initialized==false) return 0;
-
-		/* action code */
-		this.continueProcessing = true;
-		do{
-		evConsumed = 0;
-
-
-		switch (stateVar) {
-
-			case REGISTER_APDUS:
-
-				switch (stateVarREGISTER_APDUS) {
-
-					case REGISTER_APDU_EXTERNAL_AUTHENTICATE:
-						/* action code  */
-						createNewApduSpecification("External Authenticate");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_3);
-						apduSpecification.setIns(INS_82_EXTERNAL_AUTHENTICATE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_EXTERNAL_AUTHENTICATE to TA_ANNOUNCED */
-							evConsumed=16;
-
-
-							/* OnEntry code of state TA_ANNOUNCED */
-							logs("TA_ANNOUNCED");
-							logs("INIT");
-							returnResult();
-							stateVar =  TA_ANNOUNCED;/* Default in entry chain  */
-							stateVarTA_ANNOUNCED =  TA_INIT;/* Default in entry chain  */
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_SET_DST;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_EXTERNAL_AUTHENTICATE  */
-
-					case REGISTER_APDU_GET_CHALLENGE:
-						/* action code  */
-						createNewApduSpecification("Get Challenge");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_2);
-						apduSpecification.setIns(INS_84_GET_CHALLENGE);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0x00);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_GET_CHALLENGE to REGISTER_APDU_EXTERNAL_AUTHENTICATE */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_EXTERNAL_AUTHENTICATE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_GET_CHALLENGE  */
-
-					case REGISTER_APDU_PSO:
-						/* action code  */
-						createNewApduSpecification("PSO");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_3);
-						apduSpecification.setIns(INS_2A_PERFORM_SECURITY_OPERATION);
-						apduSpecification.setP1((byte) 0x00);
-						apduSpecification.setP2((byte) 0xBE);
-						createNewTagSpecification(TAG_7F4E);
-						tagSpecification.setAllowUnspecifiedSubTags(true);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_5F37);
-						tagSpecification.setAllowUnspecifiedSubTags(true);
-						apduSpecification.addTag(tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_PSO to REGISTER_APDU_SET_AT */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_SET_AT;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_PSO  */
-
-					case REGISTER_APDU_SET_AT:
-						/* action code  */
-						createNewApduSpecification("Set AT");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_3);
-						apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
-						apduSpecification.setP1((byte) 0x81);
-						apduSpecification.setP2((byte) 0xA4);
-						createNewTagSpecification(TAG_80);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_83);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_67);
-						tagSpecification.setRequired(REQ_OPTIONAL);
-						tagSpecification.setAllowUnspecifiedSubTags(true);
-						apduSpecification.addTag(tagSpecification);
-						createNewTagSpecification(TAG_91);
-						tagSpecification.setRequired(REQ_OPTIONAL);
-						apduSpecification.addTag(tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_SET_AT to REGISTER_APDU_GET_CHALLENGE */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_GET_CHALLENGE;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_SET_AT  */
-
-					case REGISTER_APDU_SET_DST:
-						/* action code  */
-						createNewApduSpecification("Set DST");
-						apduSpecification.setIsoFormat(ISO_FORMAT_FIRSTINTERINDUSTRY);
-						apduSpecification.setIsoCase(ISO_CASE_3);
-						apduSpecification.setIns(INS_22_MANAGE_SECURITY_ENVIRONMENT);
-						apduSpecification.setP1((byte) 0x81);
-						apduSpecification.setP2((byte) 0xB6);
-						createNewTagSpecification(TAG_83);
-						apduSpecification.addTag(tagSpecification);
-						registerApduSpecification(apduSpecification);
-
-
-						if(true){
-							/* Transition from REGISTER_APDU_SET_DST to REGISTER_APDU_PSO */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarREGISTER_APDUS =  REGISTER_APDU_PSO;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case REGISTER_APDU_SET_DST  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch REGISTER_APDUS */
-			break; /* end of case REGISTER_APDUS  */
-
-			case RESET:
-				if(true){
-					/* Transition from RESET to TA_INIT */
-					evConsumed=16;
-
-					/* OnEntry code of state TA_ANNOUNCED */
-					logs("TA_ANNOUNCED");
-
-					/* OnEntry code of state TA_INIT */
-					logs("INIT");
-					returnResult();
-
-					/* adjust state variables  */
-					stateVar =  TA_ANNOUNCED;
-					stateVarTA_ANNOUNCED =  TA_INIT;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case RESET  */
-
-			case TA_ANNOUNCED:
 
-				switch (stateVarTA_ANNOUNCED) {
+	/*--------------------------------------------------------------------------------*/
 
-					case TA_GET_CHALLENGE_PROCESSED:
-						if(true){
-							/* Transition from TA_GET_CHALLENGE_PROCESSED to TA_IN_PROGRESS */
-							evConsumed=16;
-
-							/* Action code for transition  */
-							returnResult();
-
-							stateVarTA_ANNOUNCED =  TA_IN_PROGRESS;/* entry chain  */
-							if(stateVarTA_IN_PROGRESS==  TA_EXTERNAL_AUTHENTICATE_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_EXTERNAL_AUTHENTICATE_RECEIVED){
-								processCommandExternalAuthenticate();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_PSO_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_PSO_RECEIVED){
-								processCommandPsoVerifyCertificate();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_AT_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_AT_RECEIVED){
-								processCommandSetAt();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_DST_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_DST_RECEIVED){
-								processCommandSetDst();
-
-							}
-
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case TA_GET_CHALLENGE_PROCESSED  */
-
-					case TA_GET_CHALLENGE_RECEIVED:
-						if(isStatusWord(SW_9000_NO_ERROR)){
-							/* Transition from TA_GET_CHALLENGE_RECEIVED to TA_GET_CHALLENGE_PROCESSED */
-							evConsumed=16;
-
-
-							/* adjust state variables  */
-							stateVarTA_ANNOUNCED =  TA_GET_CHALLENGE_PROCESSED;
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case TA_GET_CHALLENGE_RECEIVED  */
-
-					case TA_INIT:
-						if(true){
-							/* Transition from TA_INIT to TA_IN_PROGRESS */
-							evConsumed=16;
-
-							stateVarTA_ANNOUNCED =  TA_IN_PROGRESS;/* entry chain  */
-							if(stateVarTA_IN_PROGRESS==  TA_EXTERNAL_AUTHENTICATE_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_EXTERNAL_AUTHENTICATE_RECEIVED){
-								processCommandExternalAuthenticate();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_PSO_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_PSO_RECEIVED){
-								processCommandPsoVerifyCertificate();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_AT_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_AT_RECEIVED){
-								processCommandSetAt();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_DST_PROCESSED){
-								returnResult();
-
-							}else if(stateVarTA_IN_PROGRESS==  TA_SET_DST_RECEIVED){
-								processCommandSetDst();
-
-							}
-
-						}else{
-							/* Intentionally left blank */
-						} /*end of event selection */
-					break; /* end of case TA_INIT  */
-
-					case TA_IN_PROGRESS:
-
-						switch (stateVarTA_IN_PROGRESS) {
-
-							case TA_EXTERNAL_AUTHENTICATE_PROCESSED:
-								if(true){
-									/* Transition from TA_EXTERNAL_AUTHENTICATE_PROCESSED to TA_COMPLETE */
-									evConsumed=16;
-
-
-
-									/* OnEntry code of state TA_COMPLETE */
-									logs("Completed");
-
-									/* adjust state variables  */
-									stateVar =  TA_COMPLETE;
-									stateVarTA_ANNOUNCED =  TA_INIT;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_EXTERNAL_AUTHENTICATE_PROCESSED  */
-
-							case TA_EXTERNAL_AUTHENTICATE_RECEIVED:
-								if(isStatusWord(SW_9000_NO_ERROR)){
-									/* Transition from TA_EXTERNAL_AUTHENTICATE_RECEIVED to TA_EXTERNAL_AUTHENTICATE_PROCESSED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_EXTERNAL_AUTHENTICATE_PROCESSED */
-									returnResult();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_EXTERNAL_AUTHENTICATE_PROCESSED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_EXTERNAL_AUTHENTICATE_RECEIVED  */
-
-							case TA_PROGRESS_INIT:
-								if(isAPDU("Set DST")){
-									/* Transition from TA_PROGRESS_INIT to TA_SET_DST_RECEIVED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_SET_DST_RECEIVED */
-									processCommandSetDst();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_SET_DST_RECEIVED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_PROGRESS_INIT  */
-
-							case TA_PSO_PROCESSED:
-								if(isAPDU("Set AT")){
-									/* Transition from TA_PSO_PROCESSED to TA_SET_AT_RECEIVED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_SET_AT_RECEIVED */
-									processCommandSetAt();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_SET_AT_RECEIVED;
-								}else if(isAPDU("Set DST")){
-									/* Transition from TA_PSO_PROCESSED to TA_SET_DST_RECEIVED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_SET_DST_RECEIVED */
-									processCommandSetDst();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_SET_DST_RECEIVED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_PSO_PROCESSED  */
-
-							case TA_PSO_RECEIVED:
-								if(isStatusWord(SW_9000_NO_ERROR)){
-									/* Transition from TA_PSO_RECEIVED to TA_PSO_PROCESSED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_PSO_PROCESSED */
-									returnResult();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_PSO_PROCESSED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_PSO_RECEIVED  */
-
-							case TA_SET_AT_PROCESSED:
-								if(isAPDU("External Authenticate")){
-									/* Transition from TA_SET_AT_PROCESSED to TA_EXTERNAL_AUTHENTICATE_RECEIVED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_EXTERNAL_AUTHENTICATE_RECEIVED */
-									processCommandExternalAuthenticate();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_EXTERNAL_AUTHENTICATE_RECEIVED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_SET_AT_PROCESSED  */
-
-							case TA_SET_AT_RECEIVED:
-								if(isStatusWord(SW_9000_NO_ERROR)){
-									/* Transition from TA_SET_AT_RECEIVED to TA_SET_AT_PROCESSED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_SET_AT_PROCESSED */
-									returnResult();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_SET_AT_PROCESSED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_SET_AT_RECEIVED  */
-
-							case TA_SET_DST_PROCESSED:
-								if(isAPDU("PSO")){
-									/* Transition from TA_SET_DST_PROCESSED to TA_PSO_RECEIVED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_PSO_RECEIVED */
-									processCommandPsoVerifyCertificate();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_PSO_RECEIVED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_SET_DST_PROCESSED  */
-
-							case TA_SET_DST_RECEIVED:
-								if(isStatusWord(SW_9000_NO_ERROR)){
-									/* Transition from TA_SET_DST_RECEIVED to TA_SET_DST_PROCESSED */
-									evConsumed=16;
-
-									/* OnEntry code of state TA_SET_DST_PROCESSED */
-									returnResult();
-
-									/* adjust state variables  */
-									stateVarTA_IN_PROGRESS =  TA_SET_DST_PROCESSED;
-								}else{
-									/* Intentionally left blank */
-								} /*end of event selection */
-							break; /* end of case TA_SET_DST_RECEIVED  */
-
-							default:
-								/* Intentionally left blank */
-							break;
-						} /* end switch TA_IN_PROGRESS */
-
-						/* Check if event was already processed  */
-						if(evConsumed==0){
-
-							if(isAPDU("Get Challenge")){
-								/* Transition from TA_IN_PROGRESS to TA_GET_CHALLENGE_RECEIVED */
-								evConsumed=16;
-								
-								/* OnEntry code of state TA_GET_CHALLENGE_RECEIVED */
-								processCommandGetChallenge();
-
-								/* adjust state variables  */
-								stateVarTA_ANNOUNCED =  TA_GET_CHALLENGE_RECEIVED;
-							}else{
-								/* Intentionally left blank */
-							} /*end of event selection */
-						}
-					break; /* end of case TA_IN_PROGRESS  */
-
-					default:
-						/* Intentionally left blank */
-					break;
-				} /* end switch TA_ANNOUNCED */
-
-				/* Check if event was already processed  */
-				if(evConsumed==0){
-
-					if(true){
-						if(warningOrErrorOccurredDuringProcessing()){
-							/* Transition from TA_ANNOUNCED to RESET */
-							evConsumed=16;
-						
-							if(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS){
-								
-							}
-
-							/* OnEntry code of state RESET */
-							logs("Perform reset");
-							reset();
-
-							/* adjust state variables  */
-							stateVar =  RESET;
-						}else{
-							/* Transition from TA_ANNOUNCED to TA_ANNOUNCED */
-							evConsumed=16;
-						
-							if(stateVarTA_ANNOUNCED==  TA_IN_PROGRESS){
-								
-							}
-
-							/* OnEntry code of state TA_ANNOUNCED */
-							logs("TA_ANNOUNCED");
-							logs("INIT");
-							returnResult();
-							stateVar =  TA_ANNOUNCED;/* Default in entry chain  */
-							stateVarTA_ANNOUNCED =  TA_INIT;/* Default in entry chain  */
-
-						} /*end of event selection */
-					}else{
-						/* Intentionally left blank */
-					} /*end of event selection */
-				}
-			break; /* end of case TA_ANNOUNCED  */
-
-			case TA_COMPLETE:
-				if(true){
-					/* Transition from TA_COMPLETE to TA_INIT */
-					evConsumed=16;
-
-					/* OnEntry code of state TA_ANNOUNCED */
-					logs("TA_ANNOUNCED");
-
-					/* OnEntry code of state TA_INIT */
-					logs("INIT");
-					returnResult();
-
-					/* adjust state variables  */
-					stateVar =  TA_ANNOUNCED;
-					stateVarTA_ANNOUNCED =  TA_INIT;
-				}else{
-					/* Intentionally left blank */
-				} /*end of event selection */
-			break; /* end of case TA_COMPLETE  */
+	/**
+	 * Returns the id of the innermost active state.
+	 */
+	public int getInnermostActiveState() {
+		return CHART.getInnermostActiveState(activeStates);
+	}
 
-			default:
-				/* Intentionally left blank */
-			break;
-		} /* end switch stateVar_root */
+	// Helper(s) to find out if the machine is in a certain state
+	public boolean isInTA_IN_PROGRESS(){return CHART.isActive(activeStates, TA_IN_PROGRESS);}
+	public boolean isInTA_SET_DST_RECEIVED(){return CHART.isActive(activeStates, TA_SET_DST_RECEIVED);}
+	public boolean isInTA_COMPLETE(){return CHART.isActive(activeStates, TA_COMPLETE);}
+	public boolean isInTA_PROGRESS_INIT(){return CHART.isActive(activeStates, TA_PROGRESS_INIT);}
+	public boolean isInTA_GET_CHALLENGE_RECEIVED(){return CHART.isActive(activeStates, TA_GET_CHALLENGE_RECEIVED);}
+	public boolean isInREGISTER_APDU_SET_DST(){return CHART.isActive(activeStates, REGISTER_APDU_SET_DST);}
+	public boolean isInTA_SET_AT_RECEIVED(){return CHART.isActive(activeStates, TA_SET_AT_RECEIVED);}
+	public boolean isInTA_EXTERNAL_AUTHENTICATE_RECEIVED(){return CHART.isActive(activeStates, TA_EXTERNAL_AUTHENTICATE_RECEIVED);}
+	public boolean isInTA_INIT(){return CHART.isActive(activeStates, TA_INIT);}
+	public boolean isInTA_GET_CHALLENGE_PROCESSED(){return CHART.isActive(activeStates, TA_GET_CHALLENGE_PROCESSED);}
+	public boolean isInTA_EXTERNAL_AUTHENTICATE_PROCESSED(){return CHART.isActive(activeStates, TA_EXTERNAL_AUTHENTICATE_PROCESSED);}
+	public boolean isInTA_PSO_RECEIVED(){return CHART.isActive(activeStates, TA_PSO_RECEIVED);}
+	public boolean isInREGISTER_APDUS(){return CHART.isActive(activeStates, REGISTER_APDUS);}
+	public boolean isInREGISTER_APDU_EXTERNAL_AUTHENTICATE(){return CHART.isActive(activeStates, REGISTER_APDU_EXTERNAL_AUTHENTICATE);}
+	public boolean isInREGISTER_APDU_PSO(){return CHART.isActive(activeStates, REGISTER_APDU_PSO);}
+	public boolean isInTA_ANNOUNCED(){return CHART.isActive(activeStates, TA_ANNOUNCED);}
+	public boolean isInREGISTER_APDU_SET_AT(){return CHART.isActive(activeStates, REGISTER_APDU_SET_AT);}
+	public boolean isInTA_PSO_PROCESSED(){return CHART.isActive(activeStates, TA_PSO_PROCESSED);}
+	public boolean isInTA_SET_AT_PROCESSED(){return CHART.isActive(activeStates, TA_SET_AT_PROCESSED);}
+	public boolean isInREGISTER_APDU_GET_CHALLENGE(){return CHART.isActive(activeStates, REGISTER_APDU_GET_CHALLENGE);}
+	public boolean isInRESET(){return CHART.isActive(activeStates, RESET);}
+	public boolean isInTA_SET_DST_PROCESSED(){return CHART.isActive(activeStates, TA_SET_DST_PROCESSED);}
 
-	/* Post Action Code */
-	} while (this.continueProcessing);
-		return evConsumed;
-	}
 }
@@ -2,12 +2,12 @@ package de.persosim.simulator.protocols.ta;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.Signature;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -15,29 +15,37 @@ import javax.xml.bind.annotation.XmlTransient;
 
 import de.persosim.simulator.crypto.Crypto;
 import de.persosim.simulator.protocols.Oid;
+import de.persosim.simulator.protocols.OidRegistry;
 import de.persosim.simulator.protocols.Tr03110;
 import de.persosim.simulator.utils.HexString;
 import de.persosim.simulator.utils.Utils;
 
 //XXX MBK complete this class and extract according methods from TR03110
+/**
+ * OID used in the context of TA, e.g. signature algorithms, terminal types and
+ * certificate extensions.
+ * <p/>
+ * The algorithm names of the signature OIDs are defined along with the
+ * constants below, the constants are interned by the {@link OidRegistry}.
+ */
 @XmlRootElement
 public class TaOid extends Oid implements Tr03110 {
 	public final static TaOid id_TA                  = new TaOid(Utils.appendBytes(id_BSI, new byte[]{0x02, 0x02, 0x02}), "id-TA");
 	
 	public static final TaOid id_TA_RSA              = new TaOid(Utils.appendBytes(id_TA.oidByteArray,     (byte) 0x01),  "id-TA-RSA");
-	public static final TaOid id_TA_RSA_v1_5_SHA_1   = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x01),  "id-TA-RSA-v1-5-SHA-1");
-	public static final TaOid id_TA_RSA_v1_5_SHA_256 = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x02),  "id-TA-RSA-v1-5-SHA-256");
-	public static final TaOid id_TA_RSA_PSS_SHA_1    = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x03),  "id-TA-RSA-PSS-SHA-1");
-	public static final TaOid id_TA_RSA_PSS_SHA_256  = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x04),  "id-TA-RSA-PSS-SHA-256");
-	public static final TaOid id_TA_RSA_v1_5_SHA_512 = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x05),  "id-TA-RSA-v1-5-SHA-512");
-	public static final TaOid id_TA_RSA_PSS_SHA_512  = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x06),  "id-TA-RSA-PSS-SHA-512");
+	public static final TaOid id_TA_RSA_v1_5_SHA_1   = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x01),  "id-TA-RSA-v1-5-SHA-1", "SHA-1", "SHA1withRSA");
+	public static final TaOid id_TA_RSA_v1_5_SHA_256 = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x02),  "id-TA-RSA-v1-5-SHA-256", "SHA-256", "SHA256withRSA");
+	public static final TaOid id_TA_RSA_PSS_SHA_1    = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x03),  "id-TA-RSA-PSS-SHA-1", "SHA-1", "SHA1withRSA/PSS");
+	public static final TaOid id_TA_RSA_PSS_SHA_256  = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x04),  "id-TA-RSA-PSS-SHA-256", "SHA-256", "SHA256withRSA/PSS");
+	public static final TaOid id_TA_RSA_v1_5_SHA_512 = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x05),  "id-TA-RSA-v1-5-SHA-512", "SHA-512", "SHA512withRSA");
+	public static final TaOid id_TA_RSA_PSS_SHA_512  = new TaOid(Utils.appendBytes(id_TA_RSA.oidByteArray, (byte) 0x06),  "id-TA-RSA-PSS-SHA-512", "SHA-512", "SHA512withRSA/PSS");
 
 	public static final TaOid id_TA_ECDSA            = new TaOid(Utils.appendBytes(id_TA.oidByteArray,       (byte) 0x02), "id-TA-ECDSA");
-	public static final TaOid id_TA_ECDSA_SHA_1      = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x01), "id-TA-ECDSA-SHA-1");
-	public static final TaOid id_TA_ECDSA_SHA_224    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x02), "id-TA-ECDSA-SHA-224");
-	public static final TaOid id_TA_ECDSA_SHA_256    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x03), "id-TA-ECDSA-SHA-256");
-	public static final TaOid id_TA_ECDSA_SHA_384    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x04), "id-TA-ECDSA-SHA-384");
-	public static final TaOid id_TA_ECDSA_SHA_512    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x05), "id-TA-ECDSA-SHA-512");
+	public static final TaOid id_TA_ECDSA_SHA_1      = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x01), "id-TA-ECDSA-SHA-1", "SHA-1", "SHA1withECDSA");
+	public static final TaOid id_TA_ECDSA_SHA_224    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x02), "id-TA-ECDSA-SHA-224", "SHA-224", "SHA224withECDSA");
+	public static final TaOid id_TA_ECDSA_SHA_256    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x03), "id-TA-ECDSA-SHA-256", "SHA-256", "SHA256withECDSA");
+	public static final TaOid id_TA_ECDSA_SHA_384    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x04), "id-TA-ECDSA-SHA-384", "SHA-384", "SHA384withECDSA");
+	public static final TaOid id_TA_ECDSA_SHA_512    = new TaOid(Utils.appendBytes(id_TA_ECDSA.oidByteArray, (byte) 0x05), "id-TA-ECDSA-SHA-512", "SHA-512", "SHA512withECDSA");
 
 	// Auxiliary data verification
 	public final static TaOid id_AuxiliaryData       = new TaOid(Utils.appendBytes(id_BSI, new byte[]{0x03, 0x01, 0x04}), "id-AuxiliaryData");
@@ -60,7 +68,7 @@ public class TaOid extends Oid implements Tr03110 {
 	public static final TaOid id_Description         = new TaOid(Utils.appendBytes(id_Extensions.oidByteArray, (byte) 0x01), "id-description");
 	public static final TaOid id_Sector              = new TaOid(Utils.appendBytes(id_Extensions.oidByteArray, (byte) 0x02), "id-sector");
 	
-	private static Set<TaOid> allKnownTaOids= new HashSet<>();
+	private static Map<ByteBuffer, TaOid> allKnownTaOids = new HashMap<>();
 	static {
 		//add all static fields with name id_* to allKnownTaOids
 		Field[] fields = TaOid.class.getDeclaredFields();
@@ -72,7 +80,8 @@ public class TaOid extends Oid implements Tr03110 {
 					&& Modifier.isFinal(f.getModifiers())
 					&& f.getType().equals(TaOid.class)) {
 				try {
-					allKnownTaOids.add((TaOid) f.get(null));
+					TaOid curTaOid = (TaOid) f.get(null);
+					allKnownTaOids.put(ByteBuffer.wrap(curTaOid.oidByteArray), curTaOid);
 				} catch (IllegalArgumentException | IllegalAccessException e) {
 					// ignore the current field
 				}
@@ -83,13 +92,23 @@ public class TaOid extends Oid implements Tr03110 {
 	
 	@XmlTransient
 	private String idString;
+	@XmlTransient
+	private String hashAlgorithmName;
+	@XmlTransient
+	private String signatureAlgorithmName;
 
 	public TaOid() {
 	}
 	
 	private TaOid(byte[] oidByteArray, String idString) {
+		this(oidByteArray, idString, null, null);
+	}
+	
+	private TaOid(byte[] oidByteArray, String idString, String hashAlgorithmName, String signatureAlgorithmName) {
 		super(oidByteArray);
 		this.idString = idString;
+		this.hashAlgorithmName = hashAlgorithmName;
+		this.signatureAlgorithmName = signatureAlgorithmName;
 	}
 
 	/**
@@ -99,23 +118,33 @@ public class TaOid extends Oid implements Tr03110 {
 	public TaOid(byte[] oidByteArray) {
 		super(oidByteArray);
 		
-		idString = getStringRepresentation (oidByteArray);
-		if(idString == null) {
+		if(!initFromKnownOid()) {
 			throw new IllegalArgumentException("TA OID " + HexString.encode(oidByteArray) + " is invalid or unknown (not supported)");
 		}
 	}
 	
+	/**
+	 * Copy the information associated with the known OID matching this one.
+	 * @return true iff this OID is known
+	 */
+	private boolean initFromKnownOid() {
+		TaOid knownOid = allKnownTaOids.get(ByteBuffer.wrap(oidByteArray));
+		if (knownOid == null) {
+			return false;
+		}
+		idString = knownOid.idString;
+		hashAlgorithmName = knownOid.hashAlgorithmName;
+		signatureAlgorithmName = knownOid.signatureAlgorithmName;
+		return true;
+	}
+	
 	/**
 	 * @see Oid#getIdString()
 	 * @return common name of OID or null if parameter does not encode a TaOid
 	 */
 	public static String getStringRepresentation(byte[] oidByteArray) {
-		for (TaOid curTaOid : allKnownTaOids) {
-			if (Arrays.equals(curTaOid.oidByteArray, oidByteArray)) {
-				return curTaOid.idString;
-			}
-		}
-		return null;
+		TaOid knownOid = allKnownTaOids.get(ByteBuffer.wrap(oidByteArray));
+		return (knownOid != null) ? knownOid.idString : null;
 	}
 	
 	@Override
@@ -126,31 +155,21 @@ public class TaOid extends Oid implements Tr03110 {
 	/**
 	 * JAXB callback
 	 * <p/>
-	 * Used to initialize idString
+	 * Used to initialize idString and the algorithm names
 	 * @param u
 	 * @param parent
 	 */
 	protected void afterUnmarshal(Unmarshaller u, Object parent) {
-		idString = getStringRepresentation(oidByteArray);
+		if (!initFromKnownOid()) {
+			idString = null;
+		}
 	}
 
 	public String getHashAlgorithmName() {
-		if (Arrays.equals(oidByteArray, id_TA_ECDSA_SHA_1.oidByteArray) || Arrays.equals(oidByteArray, id_TA_RSA_PSS_SHA_1.oidByteArray) || Arrays.equals(oidByteArray, id_TA_RSA_v1_5_SHA_1.oidByteArray)){
-			return "SHA-1";
-		}
-		if (Arrays.equals(oidByteArray, id_TA_ECDSA_SHA_224.oidByteArray)){
-			return "SHA-224";
-		}
-		if (Arrays.equals(oidByteArray, id_TA_ECDSA_SHA_256.oidByteArray) || Arrays.equals(oidByteArray, id_TA_RSA_PSS_SHA_256.oidByteArray) || Arrays.equals(oidByteArray, id_TA_RSA_v1_5_SHA_256.oidByteArray)){
-			return "SHA-256";
-		}
-		if (Arrays.equals(oidByteArray, id_TA_ECDSA_SHA_384.oidByteArray)){
-			return "SHA-384";
-		}
-		if (Arrays.equals(oidByteArray, id_TA_ECDSA_SHA_512.oidByteArray) || Arrays.equals(oidByteArray, id_TA_RSA_PSS_SHA_512.oidByteArray) || Arrays.equals(oidByteArray, id_TA_RSA_v1_5_SHA_512.oidByteArray)){
-			return "SHA-512";
+		if (hashAlgorithmName == null) {
+			throw new IllegalArgumentException("unknown or invalid algorithm");
 		}
-		throw new IllegalArgumentException("unknown or invalid algorithm");
+		return hashAlgorithmName;
 	}
 
 
@@ -164,30 +183,10 @@ public class TaOid extends Oid implements Tr03110 {
 	 * @throws NoSuchProviderException
 	 */	
 	public Signature getSignature() throws NoSuchAlgorithmException, NoSuchProviderException {
-		if (equals(TaOid.id_TA_RSA_v1_5_SHA_1)){
-			return Signature.getInstance("SHA1withRSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_RSA_v1_5_SHA_256)){
-			return Signature.getInstance("SHA256withRSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_RSA_v1_5_SHA_512)){
-			return Signature.getInstance("SHA512withRSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_RSA_PSS_SHA_1)){
-			return Signature.getInstance("SHA1withRSA/PSS", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_RSA_PSS_SHA_256)){
-			return Signature.getInstance("SHA256withRSA/PSS", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_RSA_PSS_SHA_512)){
-			return Signature.getInstance("SHA512withRSA/PSS", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_ECDSA_SHA_1)){
-			return Signature.getInstance("SHA1withECDSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_ECDSA_SHA_224)){
-			return Signature.getInstance("SHA224withECDSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_ECDSA_SHA_256)){
-			return Signature.getInstance("SHA256withECDSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_ECDSA_SHA_384)){
-			return Signature.getInstance("SHA384withECDSA", Crypto.getCryptoProvider());
-		} else if (equals(TaOid.id_TA_ECDSA_SHA_512)){
-			return Signature.getInstance("SHA512withECDSA", Crypto.getCryptoProvider());
+		if (signatureAlgorithmName == null) {
+			return null;
 		}
-		return null;
+		return Signature.getInstance(signatureAlgorithmName, Crypto.getCryptoProvider());
 	}
 	
 }
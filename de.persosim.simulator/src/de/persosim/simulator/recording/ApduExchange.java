@@ -0,0 +1,66 @@
+package de.persosim.simulator.recording;
+
+import java.util.Arrays;
+
+/**
+ * A single recorded command/response pair.
+ * <p/>
+ * Besides the APDUs exchanged with the terminal this also holds the
+ * application level view of the exchange, i.e. command and response without
+ * secure messaging. For unprotected exchanges both views are identical.
+ */
+public class ApduExchange {
+
+	private final byte[] command;
+	private final byte[] response;
+	private final byte[] applicationCommand;
+	private final byte[] applicationResponse;
+
+	/**
+	 * @param command the command APDU as sent by the terminal
+	 * @param response the response APDU as sent by the card
+	 * @param applicationCommand the plain command APDU, null if identical to command
+	 * @param applicationResponse the plain response APDU, null if identical to response
+	 */
+	public ApduExchange(byte[] command, byte[] response, byte[] applicationCommand, byte[] applicationResponse) {
+		this.command = command;
+		this.response = response;
+		this.applicationCommand = (applicationCommand != null) ? applicationCommand : command;
+		this.applicationResponse = (applicationResponse != null) ? applicationResponse : response;
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	public byte[] getCommand() {
+		return command;
+	}
+
+	public byte[] getResponse() {
+		return response;
+	}
+
+	public byte[] getApplicationCommand() {
+		return applicationCommand;
+	}
+
+	public byte[] getApplicationResponse() {
+		return applicationResponse;
+	}
+
+	/**
+	 * @return true iff the application level command differs from the
+	 *         transmitted one, i.e. the exchange was protected by secure
+	 *         messaging
+	 */
+	public boolean isSecured() {
+		return !Arrays.equals(command, applicationCommand);
+	}
+
+	/**
+	 * @return the instruction byte of the application level command
+	 */
+	public byte getIns() {
+		return applicationCommand[1];
+	}
+
+}
@@ -0,0 +1,46 @@
+package de.persosim.simulator.recording;
+
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import de.persosim.simulator.apdu.CommandApdu;
+import de.persosim.simulator.apdu.ResponseApdu;
+import de.persosim.simulator.platform.ApduListener;
+
+/**
+ * {@link ApduListener} that records all processed APDUs in {@link ApduTrace}
+ * format, e.g. for later replay by a load generator.
+ */
+public class ApduRecorder implements ApduListener, Closeable {
+
+	private PrintWriter out;
+
+	/**
+	 * @param writer
+	 *            the writer the trace is written to, will be closed by
+	 *            {@link #close()}
+	 */
+	public ApduRecorder(Writer writer) {
+		out = new PrintWriter(writer);
+		out.println(ApduTrace.COMMENT + " PersoSim APDU trace started " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+		out.flush();
+	}
+
+	@Override
+	public synchronized void apduProcessed(byte[] commandApdu, byte[] responseApdu, CommandApdu applicationCommandApdu, ResponseApdu applicationResponseApdu) {
+		byte[] applicationCommand = (applicationCommandApdu != null) ? applicationCommandApdu.toByteArray() : null;
+		byte[] applicationResponse = (applicationResponseApdu != null) ? applicationResponseApdu.toByteArray() : null;
+
+		ApduTrace.write(out, new ApduExchange(commandApdu, responseApdu, applicationCommand, applicationResponse));
+		out.flush();
+	}
+
+	@Override
+	public synchronized void close() {
+		out.close();
+	}
+
+}
@@ -0,0 +1,131 @@
+package de.persosim.simulator.recording;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.persosim.simulator.utils.HexString;
+
+/**
+ * Line based text format for recorded APDU exchanges.
+ * <p/>
+ * Every exchange starts with a {@value #CMD} line followed by a {@value #RSP}
+ * line, both containing hex encoded APDUs. For exchanges protected by secure
+ * messaging the plain APDUs follow as {@value #APP_CMD} and {@value #APP_RSP}
+ * lines. Empty lines and lines starting with {@value #COMMENT} are ignored.
+ */
+public class ApduTrace {
+
+	public static final String COMMENT = "#";
+	public static final String CMD = "CMD";
+	public static final String RSP = "RSP";
+	public static final String APP_CMD = "APP_CMD";
+	public static final String APP_RSP = "APP_RSP";
+
+	private ApduTrace() {
+	}
+
+	/**
+	 * Write a single exchange.
+	 *
+	 * @param out
+	 *            the writer to write to
+	 * @param exchange
+	 *            the exchange to be written
+	 */
+	public static void write(PrintWriter out, ApduExchange exchange) {
+		out.println(CMD + " " + HexString.encode(exchange.getCommand()));
+		out.println(RSP + " " + HexString.encode(exchange.getResponse()));
+
+		if (exchange.isSecured()) {
+			out.println(APP_CMD + " " + HexString.encode(exchange.getApplicationCommand()));
+		}
+		if (!Arrays.equals(exchange.getResponse(), exchange.getApplicationResponse())) {
+			out.println(APP_RSP + " " + HexString.encode(exchange.getApplicationResponse()));
+		}
+	}
+
+	/**
+	 * Read all exchanges from the given trace.
+	 *
+	 * @param in
+	 *            the trace to read
+	 * @return the exchanges in recorded order
+	 * @throws IOException
+	 *             if reading fails
+	 * @throws IllegalArgumentException
+	 *             if the trace is malformed
+	 */
+	public static List<ApduExchange> read(Reader in) throws IOException {
+		BufferedReader reader = (in instanceof BufferedReader) ? (BufferedReader) in : new BufferedReader(in);
+		List<ApduExchange> exchanges = new ArrayList<>();
+
+		byte[] command = null;
+		byte[] response = null;
+		byte[] applicationCommand = null;
+		byte[] applicationResponse = null;
+		int lineNumber = 0;
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+
+			if (line.isEmpty() || line.startsWith(COMMENT)) {
+				continue;
+			}
+
+			int index = line.indexOf(' ');
+			if (index < 0) {
+				throw new IllegalArgumentException("malformed trace line " + lineNumber + ": " + line);
+			}
+			String type = line.substring(0, index);
+			byte[] apdu = HexString.toByteArray(line.substring(index + 1).trim());
+
+			switch (type) {
+			case CMD:
+				if (command != null) {
+					exchanges.add(createExchange(command, response, applicationCommand, applicationResponse, lineNumber));
+				}
+				command = apdu;
+				response = null;
+				applicationCommand = null;
+				applicationResponse = null;
+				break;
+			case RSP:
+				response = apdu;
+				break;
+			case APP_CMD:
+				applicationCommand = apdu;
+				break;
+			case APP_RSP:
+				applicationResponse = apdu;
+				break;
+			default:
+				throw new IllegalArgumentException("unknown type " + type + " in trace line " + lineNumber);
+			}
+
+			if (command == null) {
+				throw new IllegalArgumentException("trace line " + lineNumber + " does not belong to any command");
+			}
+		}
+
+		if (command != null) {
+			exchanges.add(createExchange(command, response, applicationCommand, applicationResponse, lineNumber));
+		}
+
+		return exchanges;
+	}
+
+	private static ApduExchange createExchange(byte[] command, byte[] response, byte[] applicationCommand, byte[] applicationResponse, int lineNumber) {
+		if (response == null) {
+			throw new IllegalArgumentException("missing response for command before trace line " + lineNumber);
+		}
+		return new ApduExchange(command, response, applicationCommand, applicationResponse);
+	}
+
+}
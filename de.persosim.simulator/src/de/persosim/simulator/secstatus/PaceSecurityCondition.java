@@ -1,7 +1,7 @@
 package de.persosim.simulator.secstatus;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 
 import javax.xml.bind.annotation.XmlRootElement;
 
@@ -13,6 +13,8 @@ import javax.xml.bind.annotation.XmlRootElement;
  */
 @XmlRootElement
 public class PaceSecurityCondition implements SecCondition {
+
+	private static final Collection<Class<? extends SecMechanism>> NEEDED_MECHANISMS = Collections.<Class<? extends SecMechanism>> singleton(PaceMechanism.class);
 	
 	@Override
 	public boolean check(Collection<SecMechanism> mechanisms) {
@@ -26,8 +28,6 @@ public class PaceSecurityCondition implements SecCondition {
 
 	@Override
 	public Collection<Class<? extends SecMechanism>> getNeededMechanisms() {
-		HashSet<Class<? extends SecMechanism>> result = new HashSet<>();
-		result.add(PaceMechanism.class);
-		return result;
+		return NEEDED_MECHANISMS;
 	}
 }
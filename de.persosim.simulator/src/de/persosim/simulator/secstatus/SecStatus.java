@@ -1,9 +1,14 @@
 package de.persosim.simulator.secstatus;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.persosim.simulator.platform.CommandProcessor;
 import de.persosim.simulator.processing.ProcessingData;
@@ -16,6 +21,13 @@ import de.persosim.simulator.processing.UpdatePropagation;
  * active protocols can query the SecStatus through a facade provided during
  * protocol initialization and modify by adding UpdatePropagations to the
  * ProcessingData.
+ * <p/>
+ * Every {@link SecMechanism} class is assigned a bit position, so the presence
+ * of mechanisms within a context is tracked as a bitmask. Access checks (see
+ * {@link #checkAccessConditions(SecContext, Collection)}) first test the
+ * mechanisms needed by a {@link SecCondition} against this mask and only
+ * provide the actual {@link SecMechanism} instances to the condition if any
+ * of them is present.
  * 
  * @author amay
  * 
@@ -26,19 +38,157 @@ public class SecStatus {
 		GLOBAL, APPLICATION, FILE, COMMAND
 	}
 
+	/**
+	 * Bit positions assigned to all {@link SecMechanism} classes seen so far
+	 */
+	private static final Map<Class<? extends SecMechanism>, Long> MECHANISM_BITS = new ConcurrentHashMap<>();
+	
 	EnumMap<SecContext, HashMap<Class<? extends SecMechanism>, SecMechanism>> contexts = new EnumMap<>(
 			SecContext.class);
+	
+	/**
+	 * Bitmask of the mechanisms present in each context, indexed by the
+	 * ordinal of the {@link SecContext}
+	 */
+	private long[] activeMechanisms = new long[SecContext.values().length];
+	
+	/**
+	 * Masks of the mechanisms needed by all {@link SecCondition}s checked so
+	 * far
+	 */
+	private Map<SecCondition, Long> conditionMasks = new IdentityHashMap<>();
 
 	public SecStatus() {
 		reset();
 	}
 
+	/**
+	 * Create a copy of the given SecStatus. {@link SecMechanism}s are
+	 * immutable and therefore shared between both instances.
+	 *
+	 * @param original
+	 *            the SecStatus to copy
+	 */
+	public SecStatus(SecStatus original) {
+		restore(original);
+	}
+
+	/**
+	 * Replace all mechanisms of this SecStatus by those of the given one, e.g.
+	 * to restore a copy created by {@link #SecStatus(SecStatus)}.
+	 *
+	 * @param source
+	 *            the SecStatus to copy the mechanisms from
+	 */
+	public void restore(SecStatus source) {
+		for (SecContext curSecContext : SecContext.values()) {
+			contexts.put(curSecContext,
+					new HashMap<>(source.contexts.get(curSecContext)));
+			activeMechanisms[curSecContext.ordinal()] = source.activeMechanisms[curSecContext.ordinal()];
+		}
+	}
+
 	public void reset(){
 		// initialize the contexts
 		for (SecContext curSecContext : SecContext.values()) {
 			contexts.put(curSecContext,
 					new HashMap<Class<? extends SecMechanism>, SecMechanism>());
+			activeMechanisms[curSecContext.ordinal()] = 0;
+		}
+	}
+	
+	/**
+	 * This method returns the bit assigned to the given mechanism class. Bits
+	 * are assigned on first use and are stable for the lifetime of the VM.
+	 * 
+	 * @param mechanism
+	 *            class of the {@link SecMechanism}
+	 * @return a long with exactly the bit of the given mechanism set
+	 */
+	public static long getMechanismBit(Class<? extends SecMechanism> mechanism) {
+		Long bit = MECHANISM_BITS.get(mechanism);
+		if (bit == null) {
+			synchronized (MECHANISM_BITS) {
+				bit = MECHANISM_BITS.get(mechanism);
+				if (bit == null) {
+					if (MECHANISM_BITS.size() >= Long.SIZE) {
+						throw new IllegalStateException("no more than " + Long.SIZE + " SecMechanism classes supported");
+					}
+					bit = 1L << MECHANISM_BITS.size();
+					MECHANISM_BITS.put(mechanism, bit);
+				}
+			}
 		}
+		return bit;
+	}
+	
+	/**
+	 * This method returns the combined bits of all given mechanism classes.
+	 * 
+	 * @param mechanisms
+	 *            classes of the {@link SecMechanism}s
+	 * @return the bitmask of the given mechanisms
+	 */
+	public static long getMechanismMask(Collection<Class<? extends SecMechanism>> mechanisms) {
+		long mask = 0;
+		for (Class<? extends SecMechanism> clazz : mechanisms) {
+			mask |= getMechanismBit(clazz);
+		}
+		return mask;
+	}
+	
+	/**
+	 * This method checks whether any of the given mechanisms is present in
+	 * the given context.
+	 * 
+	 * @param context
+	 *            to be searched for mechanisms
+	 * @param mechanismMask
+	 *            bitmask as returned by {@link #getMechanismMask(Collection)}
+	 * @return true iff at least one of the mechanisms is present
+	 */
+	public boolean containsAnyMechanism(SecContext context, long mechanismMask) {
+		return (activeMechanisms[context.ordinal()] & mechanismMask) != 0;
+	}
+	
+	/**
+	 * This method checks whether at least one of the given conditions is
+	 * fulfilled by the mechanisms present in the given context.
+	 * <p/>
+	 * The mechanisms needed by each condition are compiled into a bitmask on
+	 * first use, so the mechanisms returned by
+	 * {@link SecCondition#getNeededMechanisms()} must not change afterwards.
+	 * The actual {@link SecMechanism} instances are only collected if any of
+	 * them is present.
+	 * 
+	 * @param context
+	 *            to be searched for mechanisms
+	 * @param conditions
+	 *            alternative conditions to be checked
+	 * @return true iff at least one condition is fulfilled
+	 */
+	public boolean checkAccessConditions(SecContext context, Collection<SecCondition> conditions) {
+		long active = activeMechanisms[context.ordinal()];
+		
+		for (SecCondition condition : conditions) {
+			Long neededMask = conditionMasks.get(condition);
+			if (neededMask == null) {
+				neededMask = getMechanismMask(condition.getNeededMechanisms());
+				conditionMasks.put(condition, neededMask);
+			}
+			
+			Collection<SecMechanism> mechanisms;
+			if ((active & neededMask) == 0) {
+				mechanisms = Collections.emptySet();
+			} else {
+				mechanisms = getCurrentMechanisms(context, condition.getNeededMechanisms());
+			}
+			
+			if (condition.check(mechanisms)) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -53,11 +203,16 @@ public class SecStatus {
 	 */
 	public Collection<SecMechanism> getCurrentMechanisms(SecContext context,
 			Collection<Class<? extends SecMechanism>> wantedMechanisms) {
+		if (activeMechanisms[context.ordinal()] == 0) {
+			return Collections.emptySet();
+		}
+		
+		HashMap<Class<? extends SecMechanism>, SecMechanism> securityContext = contexts.get(context);
 		HashSet<SecMechanism> result = new HashSet<>();
 		for (Class<? extends SecMechanism> clazz : wantedMechanisms) {
-			HashMap<Class<? extends SecMechanism>, SecMechanism> securityContext = contexts.get(context);
-			if (securityContext.containsKey(clazz)){
-				result.add(contexts.get(context).get(clazz));
+			SecMechanism mechanism = securityContext.get(clazz);
+			if (mechanism != null){
+				result.add(mechanism);
 			}
 		}
 		return result;
@@ -73,9 +228,11 @@ public class SecStatus {
 			SecStatusMechanismUpdatePropagation... updatePropagation) {
 		for (SecStatusMechanismUpdatePropagation curUpdate : updatePropagation) {
 			SecStatusMechanismUpdatePropagation mechanismPropagation = (SecStatusMechanismUpdatePropagation) curUpdate;
+			Class<? extends SecMechanism> clazz = mechanismPropagation.getMechanism().getClass();
 			contexts.get(mechanismPropagation.getContext()).put(
-					mechanismPropagation.getMechanism().getClass(),
+					clazz,
 					mechanismPropagation.getMechanism());
+			activeMechanisms[mechanismPropagation.getContext().ordinal()] |= getMechanismBit(clazz);
 
 		}
 	}
@@ -91,17 +248,17 @@ public class SecStatus {
 
 			SecStatusEventUpdatePropagation eventPropagation = (SecStatusEventUpdatePropagation) curUpdate;
 			for (SecContext context : contexts.keySet()) {
-				Collection<Class<? extends SecMechanism>> toBeDeleted = new HashSet<Class<? extends SecMechanism>>();
-				for (Class<? extends SecMechanism> clazz : contexts
-						.get(context).keySet()) {
-					if (contexts.get(context).get(clazz)
-							.needsDeletionInCaseOf(eventPropagation.getEvent())) {
-						toBeDeleted.add(clazz);
-					}
+				if (activeMechanisms[context.ordinal()] == 0) {
+					continue;
 				}
-
-				for (Class<? extends SecMechanism> clazz : toBeDeleted) {
-					contexts.get(context).remove(clazz);
+				
+				Iterator<Map.Entry<Class<? extends SecMechanism>, SecMechanism>> iterator = contexts.get(context).entrySet().iterator();
+				while (iterator.hasNext()) {
+					Map.Entry<Class<? extends SecMechanism>, SecMechanism> entry = iterator.next();
+					if (entry.getValue().needsDeletionInCaseOf(eventPropagation.getEvent())) {
+						iterator.remove();
+						activeMechanisms[context.ordinal()] &= ~getMechanismBit(entry.getKey());
+					}
 				}
 			}
 		}
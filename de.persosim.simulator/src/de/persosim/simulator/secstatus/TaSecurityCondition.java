@@ -1,7 +1,7 @@
 package de.persosim.simulator.secstatus;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -9,7 +9,6 @@ import javax.xml.bind.annotation.XmlRootElement;
 import de.persosim.simulator.protocols.ta.RelativeAuthorization;
 import de.persosim.simulator.protocols.ta.TerminalAuthenticationMechanism;
 import de.persosim.simulator.protocols.ta.TerminalType;
-import de.persosim.simulator.utils.BitField;
 
 /**
  * This condition can be used to check for past executions of TA.
@@ -29,6 +28,8 @@ import de.persosim.simulator.utils.BitField;
 @XmlRootElement
 public class TaSecurityCondition implements SecCondition {
 
+	private static final Collection<Class<? extends SecMechanism>> NEEDED_MECHANISMS = Collections.<Class<? extends SecMechanism>> singleton(TerminalAuthenticationMechanism.class);
+
 	@XmlElement
 	TerminalType terminalType;
 	@XmlElement
@@ -55,13 +56,10 @@ public class TaSecurityCondition implements SecCondition {
 					if (authorization == null) {
 						return true;
 					} else {
-						BitField tempField = authorization.getRepresentation()
-								.or(terminalAuthenticationMechanism
+						if (authorization.getRepresentation().isSubsetOf(
+								terminalAuthenticationMechanism
 										.getEffectiveAuthorization()
-										.getRepresentation());
-						if (tempField.equals(terminalAuthenticationMechanism
-								.getEffectiveAuthorization()
-								.getRepresentation())) {
+										.getRepresentation())) {
 							return true;
 						}
 					}
@@ -73,9 +71,7 @@ public class TaSecurityCondition implements SecCondition {
 
 	@Override
 	public Collection<Class<? extends SecMechanism>> getNeededMechanisms() {
-		HashSet<Class<? extends SecMechanism>> result = new HashSet<>();
-		result.add(TerminalAuthenticationMechanism.class);
-		return result;
+		return NEEDED_MECHANISMS;
 	}
 
 }
@@ -8,6 +8,7 @@ import static de.persosim.simulator.utils.PersoSimLogger.logException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
 import java.util.LinkedList;
 
@@ -70,6 +71,40 @@ public class SecureMessaging extends Layer {
 		discardSecureMessagingSession();
 	}
 	
+	@Override
+	public Object createCheckpoint() {
+		if (dataProvider == null) {
+			return null;
+		}
+		if (!(dataProvider instanceof SmDataProviderTr03110)) {
+			throw new IllegalStateException("checkpoints are not supported for SmDataProvider " + dataProvider.getClass().getSimpleName());
+		}
+		return copyDataProvider((SmDataProviderTr03110) dataProvider);
+	}
+	
+	@Override
+	public void restoreCheckpoint(Object state) {
+		if (state == null) {
+			log(this, "restoreCheckpoint, no secure messaging session established", TRACE);
+			dataProvider = null;
+		} else {
+			log(this, "restoreCheckpoint, restore secure messaging session", TRACE);
+			dataProvider = copyDataProvider((SmDataProviderTr03110) state);
+		}
+	}
+	
+	/**
+	 * Copy the given data provider, so that the copy stored within a checkpoint
+	 * is not affected by further secure messaging.
+	 */
+	private static SmDataProviderTr03110 copyDataProvider(SmDataProviderTr03110 original) {
+		try {
+			return original.copy();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("unable to copy secure messaging session", e);
+		}
+	}
+	
 	@Override
 	public void processAscending() {
 		if(this.processingData.getCommandApdu() instanceof IsoSecureMessagingCommandApdu) {
@@ -269,6 +304,7 @@ public class SecureMessaging extends Layer {
 		TlvDataObject tlvObject87, tlvObject8E, tlvObject97;
 		byte[] encryptedData, paddedData, data, le, plainApduCommandData, dbgIv;
 		int isoCaseOfPlainAPDU;
+		boolean isExtendedLength;
 		ByteArrayOutputStream apduStream;
 		
 		log(this, "started extracting SM APDU", TRACE);
@@ -310,13 +346,10 @@ public class SecureMessaging extends Layer {
 			}
 		}
 		
-		apduStream = new ByteArrayOutputStream();
-		// append extendedLengthIndicator if needed
-		if (processingData.getCommandApdu().isExtendedLength()) {
-			apduStream.write(0x00);
-		}
+		data = null;
+		le = null;
 		
-		// append data if present 
+		// decrypt data if present
 		if(isoCaseOfPlainAPDU > 2) {
 			log(this, "TLV object 87 is: " + tlvObject87);
 			encryptedData = this.getEncryptedDataFromFormattedEncryptedData(tlvObject87);
@@ -331,31 +364,47 @@ public class SecureMessaging extends Layer {
 			
 			data = this.unpadPlainTextData(paddedData);
 			log(this, "plain text data is: " + HexString.encode(data));
+		}
+		
+		// extract le if present
+		if((isoCaseOfPlainAPDU == 2) || (isoCaseOfPlainAPDU == 4)) {
+			log(this, "TLV object 97 is: " + tlvObject97, TRACE);
+			le = tlvObject97.getValueField();
+		}
+		
+		/*
+		 * The plain APDU uses extended length fields if the SM APDU does or if
+		 * the plain data or the plain Le can not be encoded in short length
+		 * fields.
+		 */
+		isExtendedLength = processingData.getCommandApdu().isExtendedLength()
+				|| ((data != null) && (data.length > 255))
+				|| ((le != null) && (le.length > 1));
+		
+		apduStream = new ByteArrayOutputStream();
+		try {
+			// append extendedLengthIndicator if needed
+			if (isExtendedLength && (isoCaseOfPlainAPDU > 1)) {
+				apduStream.write(0x00);
+			}
 			
-			try {
-				if (processingData.getCommandApdu().isExtendedLength()) {
+			// append data if present 
+			if(data != null) {
+				if (isExtendedLength) {
 					apduStream.write(Utils.toUnsignedByteArray((short) data.length));
 				} else {			
 					apduStream.write(data.length);
 				}
 			
 				apduStream.write(data);
-			} catch (IOException e) {
-				logException(this, e);
 			}
 			
-		}
-		
-		// append le if present
-		if((isoCaseOfPlainAPDU == 2) || (isoCaseOfPlainAPDU == 4)) {
-			log(this, "TLV object 97 is: " + tlvObject97, TRACE);
-			le = tlvObject97.getValueField();
-			
-			try {
-				apduStream.write(le);
-			} catch (IOException e) {
-				logException(this, e);
+			// append le if present
+			if(le != null) {
+				apduStream.write(encodeLe(le, isExtendedLength));
 			}
+		} catch (IOException e) {
+			logException(this, e);
 		}
 		
 		plainApduCommandData = apduStream.toByteArray();
@@ -363,6 +412,28 @@ public class SecureMessaging extends Layer {
 		log(this, "completed extracting SM APDU", TRACE);
 		return result;
 	}
+
+	/**
+	 * Encodes the value of a DO'97 as Le field of the plain APDU.
+	 * <p/>
+	 * A short Le is converted into an extended one if needed, e.g. if the
+	 * plain APDU requires extended length fields because of its data field.
+	 * 
+	 * @param le the value of DO'97
+	 * @param isExtendedLength whether the plain APDU uses extended length fields
+	 * @return the Le field of the plain APDU
+	 */
+	private static byte[] encodeLe(byte[] le, boolean isExtendedLength) {
+		if (!isExtendedLength || (le.length != 1)) {
+			return le;
+		}
+		
+		int ne = Utils.maskUnsignedByteToInt(le[0]);
+		if (ne == 0) {
+			ne = 256;
+		}
+		return Utils.toUnsignedByteArray((short) ne);
+	}
 	
 	/**
 	 * This method performs the mac verification for an SM secured APDU.
@@ -22,10 +22,10 @@ public class SmDataProviderTr03110 implements SmDataProvider {
 	}
 
 	private Cipher cipher;
-	private SecretKey keyEnc;
+	private SecretKeySpec keyEnc;
 
 	private Mac mac;
-	private SecretKey keyMac;
+	private SecretKeySpec keyMac;
 	
 	/**
 	 * SendSequenceCounter according to BSI TR-03110
@@ -61,6 +61,20 @@ public class SmDataProviderTr03110 implements SmDataProvider {
 		ssc = new SendSequenceCounter(this.cipher.getBlockSize());
 	}
 
+	/**
+	 * Create a copy of this data provider that uses the same keys and starts
+	 * with the current value of the send sequence counter. Both instances can
+	 * be used independently afterwards.
+	 * 
+	 * @return the copy
+	 * @throws GeneralSecurityException
+	 */
+	public SmDataProviderTr03110 copy() throws GeneralSecurityException {
+		SmDataProviderTr03110 copy = new SmDataProviderTr03110(keyEnc, keyMac);
+		copy.ssc.setValue(ssc.getValue());
+		return copy;
+	}
+
 	@Override
 	public void init(SmDataProvider prev) {
 		// nothing to be done here
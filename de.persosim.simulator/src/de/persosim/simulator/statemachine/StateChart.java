@@ -0,0 +1,319 @@
+package de.persosim.simulator.statemachine;
+
+import java.util.Arrays;
+
+/**
+ * Table driven implementation of a hierarchical state chart.
+ * <p/>
+ * States, guards and actions are identified by integers. The structure of the
+ * chart (parents, initial children, history, entry and do actions) and the
+ * transitions of every state are kept in arrays indexed by state id, the
+ * states to be entered by every transition are computed while the chart is
+ * defined. A chart is meant to be defined once per class, usually within a
+ * static initializer, and must not be modified after first use. It does not
+ * hold any state of its own, so it can be shared by any number of instances
+ * using it. The active configuration of each instance is kept in an int array
+ * created by {@link #createActiveStates()}, guards and actions are delegated to
+ * a {@link StateChartHandler}.
+ * <p/>
+ * The semantics are those of the charts previously generated with Sinelabore:
+ * <ul>
+ * <li>Every event triggers the transitions of the active states, guards are
+ * evaluated in order of definition, starting at the innermost active state.
+ * Transitions of enclosing states are only considered if no transition of an
+ * inner state is enabled.</li>
+ * <li>Do actions of all active states are performed (outermost first) before
+ * transitions are evaluated.</li>
+ * <li>Taking a transition performs the transition action followed by the entry
+ * actions of all entered states (outermost first). Transitions are external,
+ * i.e. transitions to the source state or an enclosing state reenter that
+ * state.</li>
+ * <li>Entering a composite state enters its last active child if it has
+ * (shallow) history, its initial child otherwise.</li>
+ * <li>The active configuration is updated after all entry actions have been
+ * performed.</li>
+ * </ul>
+ */
+public class StateChart {
+
+	/** Parent to be used for states at the top level of the chart */
+	public static final int TOP = -1;
+
+	/** Guard of transitions that are always enabled */
+	public static final int ALWAYS = -1;
+
+	/** Action to be used if no action is to be performed */
+	public static final int NONE = -1;
+
+	/** Value returned from processEvent if the event was consumed */
+	public static final int EVENT_CONSUMED = 16;
+
+	private static final int NO_STATE = -1;
+
+	/** index of the top level within the arrays below */
+	private final int root;
+	private final int initialState;
+
+	private final int[] parent;
+	private final int[] initialChild;
+	private final boolean[] history;
+	private final String[] entryLog;
+	private final int[] entryAction;
+	private final int[] doAction;
+
+	/** per state: guard, action and transition id of each outgoing transition */
+	private final int[][] transitions;
+
+	/** per transition id: states to be entered, outermost first */
+	private int[][] entryPaths = new int[0][];
+
+	/**
+	 * Create an empty chart.
+	 *
+	 * @param numberOfStates
+	 *            number of states, state ids range from 0 to numberOfStates - 1
+	 * @param initialState
+	 *            the top level state that is active after initialization
+	 */
+	public StateChart(int numberOfStates, int initialState) {
+		root = numberOfStates;
+		this.initialState = initialState;
+
+		parent = new int[numberOfStates];
+		initialChild = new int[numberOfStates + 1];
+		history = new boolean[numberOfStates];
+		entryLog = new String[numberOfStates];
+		entryAction = new int[numberOfStates];
+		doAction = new int[numberOfStates];
+		transitions = new int[numberOfStates][];
+
+		Arrays.fill(parent, NO_STATE);
+		Arrays.fill(initialChild, NO_STATE);
+		Arrays.fill(doAction, NONE);
+		initialChild[root] = initialState;
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Define a simple state.
+	 *
+	 * @param state
+	 *            id of the state
+	 * @param parent
+	 *            id of the enclosing composite state or {@link #TOP}
+	 * @param entryLog
+	 *            name passed to {@link StateChartHandler#logs(String)} when the
+	 *            state is entered, may be null
+	 * @param entryAction
+	 *            action performed when the state is entered or {@link #NONE}
+	 */
+	public void addState(int state, int parent, String entryLog, int entryAction) {
+		if (this.parent[state] != NO_STATE) {
+			throw new IllegalArgumentException("state " + state + " is already defined");
+		}
+		this.parent[state] = (parent == TOP) ? root : parent;
+		this.entryLog[state] = entryLog;
+		this.entryAction[state] = entryAction;
+		transitions[state] = new int[0];
+	}
+
+	/**
+	 * Define a composite state. Its children need to be defined afterwards.
+	 *
+	 * @param initialChild
+	 *            id of the child state entered by default
+	 * @param history
+	 *            whether the last active child is entered when the state is
+	 *            reentered
+	 * @see #addState(int, int, String, int)
+	 */
+	public void addCompositeState(int state, int parent, int initialChild, boolean history, String entryLog, int entryAction) {
+		addState(state, parent, entryLog, entryAction);
+		this.initialChild[state] = initialChild;
+		this.history[state] = history;
+	}
+
+	/**
+	 * Define the action that is performed on every event while the given state
+	 * is active, before any transition is evaluated.
+	 */
+	public void addDoAction(int state, int action) {
+		doAction[state] = action;
+	}
+
+	/**
+	 * Define a transition. Transitions of the same source state are evaluated
+	 * in the order they are defined. Source and target need to be defined
+	 * before.
+	 *
+	 * @param source
+	 *            id of the source state
+	 * @param guard
+	 *            guard enabling the transition or {@link #ALWAYS}
+	 * @param action
+	 *            action performed when the transition is taken or
+	 *            {@link #NONE}
+	 * @param target
+	 *            id of the target state
+	 */
+	public void addTransition(int source, int guard, int action, int target) {
+		if (parent[source] == NO_STATE || parent[target] == NO_STATE) {
+			throw new IllegalArgumentException("transition between undefined states " + source + " and " + target);
+		}
+
+		// states to enter: the target and all of its ancestors that do not enclose the source
+		int[] path = new int[] {target};
+		for (int current = parent[target]; !isAncestor(current, source); current = parent[current]) {
+			int[] extendedPath = new int[path.length + 1];
+			extendedPath[0] = current;
+			System.arraycopy(path, 0, extendedPath, 1, path.length);
+			path = extendedPath;
+		}
+
+		int transitionId = entryPaths.length;
+		entryPaths = Arrays.copyOf(entryPaths, transitionId + 1);
+		entryPaths[transitionId] = path;
+
+		int[] sourceTransitions = Arrays.copyOf(transitions[source], transitions[source].length + 3);
+		sourceTransitions[sourceTransitions.length - 3] = guard;
+		sourceTransitions[sourceTransitions.length - 2] = action;
+		sourceTransitions[sourceTransitions.length - 1] = transitionId;
+		transitions[source] = sourceTransitions;
+	}
+
+	/**
+	 * Returns whether candidate is a proper ancestor of state (the top level
+	 * being the ancestor of all states).
+	 */
+	private boolean isAncestor(int candidate, int state) {
+		for (int current = parent[state]; current != NO_STATE; current = (current == root) ? NO_STATE : parent[current]) {
+			if (current == candidate) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isComposite(int state) {
+		return initialChild[state] != NO_STATE;
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Create the array holding the active configuration of a single instance.
+	 * It contains the active (or last active) child of every composite state
+	 * and of the top level and needs to be initialized by
+	 * {@link #initialize(int[])}.
+	 */
+	public int[] createActiveStates() {
+		return new int[root + 1];
+	}
+
+	/**
+	 * Reset the given configuration to the initial state, clearing all history.
+	 * No entry actions are performed.
+	 */
+	public void initialize(int[] activeStates) {
+		System.arraycopy(initialChild, 0, activeStates, 0, activeStates.length);
+	}
+
+	/**
+	 * Process a single step, i.e. perform the do actions of the active states
+	 * and take at most one transition.
+	 *
+	 * @param activeStates
+	 *            the configuration to operate on
+	 * @param handler
+	 *            handler evaluating guards and performing actions
+	 * @return true iff a transition was taken
+	 */
+	public boolean processStep(int[] activeStates, StateChartHandler handler) {
+		int innermostState = root;
+		do {
+			innermostState = activeStates[innermostState];
+			if (doAction[innermostState] != NONE) {
+				handler.performAction(doAction[innermostState]);
+			}
+		} while (isComposite(innermostState));
+
+		for (int state = innermostState; state != root; state = parent[state]) {
+			int[] stateTransitions = transitions[state];
+			for (int i = 0; i < stateTransitions.length; i += 3) {
+				int guard = stateTransitions[i];
+				if (guard == ALWAYS || handler.evaluateGuard(guard)) {
+					takeTransition(activeStates, handler, stateTransitions[i + 1], entryPaths[stateTransitions[i + 2]]);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void takeTransition(int[] activeStates, StateChartHandler handler, int action, int[] entryPath) {
+		if (action != NONE) {
+			handler.performAction(action);
+		}
+
+		for (int state : entryPath) {
+			enter(state, handler);
+		}
+		enterChildren(activeStates, handler, entryPath[entryPath.length - 1]);
+
+		for (int state : entryPath) {
+			activeStates[parent[state]] = state;
+		}
+	}
+
+	/**
+	 * Enter the child states of the given (entered) state recursively and
+	 * update the configuration accordingly afterwards.
+	 */
+	private void enterChildren(int[] activeStates, StateChartHandler handler, int state) {
+		if (!isComposite(state)) {
+			return;
+		}
+
+		int child = history[state] ? activeStates[state] : initialChild[state];
+		enter(child, handler);
+		enterChildren(activeStates, handler, child);
+		activeStates[state] = child;
+	}
+
+	private void enter(int state, StateChartHandler handler) {
+		if (entryLog[state] != null) {
+			handler.logs(entryLog[state]);
+		}
+		if (entryAction[state] != NONE) {
+			handler.performAction(entryAction[state]);
+		}
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Returns whether the given state is active within the given
+	 * configuration.
+	 */
+	public boolean isActive(int[] activeStates, int state) {
+		for (int current = state; current != root; current = parent[current]) {
+			if (activeStates[parent[current]] != current) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the innermost active state within the given configuration.
+	 */
+	public int getInnermostActiveState(int[] activeStates) {
+		int state = activeStates[root];
+		while (isComposite(state)) {
+			state = activeStates[state];
+		}
+		return state;
+	}
+
+}
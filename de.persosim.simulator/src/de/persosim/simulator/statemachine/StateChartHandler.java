@@ -0,0 +1,36 @@
+package de.persosim.simulator.statemachine;
+
+/**
+ * Callbacks used by a {@link StateChart} to evaluate the guards and perform
+ * the actions referenced within its tables.
+ */
+public interface StateChartHandler {
+
+	/**
+	 * Evaluate the guard with the given id.
+	 *
+	 * @param guard
+	 *            id of the guard as used when defining the transition
+	 * @return true iff the transition is enabled
+	 */
+	public abstract boolean evaluateGuard(int guard);
+
+	/**
+	 * Perform the action with the given id.
+	 *
+	 * @param action
+	 *            id of the action as used when defining the state or
+	 *            transition
+	 */
+	public abstract void performAction(int action);
+
+	/**
+	 * Log the entry into a state. Implementations should not create the log
+	 * message at all if it would be discarded anyway.
+	 *
+	 * @param state
+	 *            the log name defined for the entered state
+	 */
+	public abstract void logs(String state);
+
+}
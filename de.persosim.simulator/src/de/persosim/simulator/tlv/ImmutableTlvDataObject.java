@@ -0,0 +1,134 @@
+package de.persosim.simulator.tlv;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a TLV data object that can not be modified after
+ * construction. The encoding and the hash code are computed once, so
+ * {@link #hashCode()}, {@link #equals(Object)} and {@link #toByteArray()} do
+ * not need to re-encode the object. This makes instances well suited as keys
+ * within maps and sets, e.g. for large structures like SecInfos or
+ * certificates.
+ * <p/>
+ * Instances are equal to any other {@link TlvDataObject} with the same
+ * encoding and share its hash code. All methods modifying the object throw an
+ * {@link UnsupportedOperationException}.
+ *
+ */
+public final class ImmutableTlvDataObject extends TlvDataObject {
+
+	private final byte[] encoding;
+	private final TlvValueSlice tlvValue;
+	private final int hash;
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Constructor for this object based on a range defined on an array of raw
+	 * bytes. The relevant bytes are copied.
+	 *
+	 * @param byteArray the byte array that in a certain range contains the TLV data object
+	 * @param minOffset the first offset of the range to contain the TLV data object (inclusive)
+	 * @param maxOffset the first offset not to be part of the range to contain the TLV data object (exclusive).
+	 */
+	public ImmutableTlvDataObject(byte[] byteArray, int minOffset, int maxOffset) {
+		super(byteArray, minOffset, maxOffset);
+
+		int valueOffset = getNoOfTagBytes() + tlvLength.getLength();
+		encoding = Arrays.copyOfRange(byteArray, minOffset, minOffset + valueOffset + tlvLength.getIndicatedLength());
+		tlvValue = new TlvValueSlice(encoding, valueOffset, encoding.length);
+		hash = Arrays.hashCode(encoding);
+	}
+
+	/**
+	 * Constructor for this object based on a raw byte array.
+	 *
+	 * @param byteArray the byte array that contains the TLV data object
+	 */
+	public ImmutableTlvDataObject(byte[] byteArray) {
+		this(byteArray, 0, byteArray.length);
+	}
+
+	/**
+	 * Constructor for this object based on the current encoding of another
+	 * TLV data object. Later modifications of the provided object do not
+	 * affect this object.
+	 *
+	 * @param tlvDataObject the object to take the encoding from
+	 */
+	public ImmutableTlvDataObject(TlvDataObject tlvDataObject) {
+		this(tlvDataObject.toByteArray());
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	@Override
+	public void setTag(TlvTag tlvTag, boolean performValidityChecksInput) {
+		throw new UnsupportedOperationException("immutable TLV data object must not be modified");
+	}
+
+	@Override
+	public void setLength(TlvLength tlvLengthInput, boolean performValidityChecksInput) {
+		throw new UnsupportedOperationException("immutable TLV data object must not be modified");
+	}
+
+	@Override
+	public int getNoOfValueBytes() {
+		return tlvValue.getLength();
+	}
+
+	@Override
+	public int getLength() {
+		return encoding.length;
+	}
+
+	@Override
+	public byte[] getValueField() {
+		return tlvValue.toByteArray();
+	}
+
+	@Override
+	public TlvValue getTlvValue() {
+		return tlvValue;
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		return Arrays.copyOf(encoding, encoding.length);
+	}
+
+	/**
+	 * Returns a new, modifiable {@link PrimitiveTlvDataObject} or
+	 * {@link ConstructedTlvDataObject} with the same encoding.
+	 */
+	public TlvDataObject toTlvDataObject() {
+		return TlvDataObjectFactory.createTLVDataObject(encoding);
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	@Override
+	public boolean equals(Object anotherTlvDataObject) {
+		if (this == anotherTlvDataObject) {
+			return true;
+		}
+
+		if (anotherTlvDataObject instanceof ImmutableTlvDataObject) {
+			ImmutableTlvDataObject other = (ImmutableTlvDataObject) anotherTlvDataObject;
+			return (hash == other.hash) && Arrays.equals(encoding, other.encoding);
+		}
+
+		return super.equals(anotherTlvDataObject);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return toTlvDataObject().toString();
+	}
+
+}
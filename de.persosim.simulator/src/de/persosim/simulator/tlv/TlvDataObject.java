@@ -357,24 +357,30 @@ public abstract class TlvDataObject extends TlvElement implements Iso7816, Valid
 	
 	@Override
 	public boolean equals(Object anotherTlvDataObject) {
+		if(anotherTlvDataObject == this) {return true;}
 		if(anotherTlvDataObject == null) {return false;}
 		
 		if (!(anotherTlvDataObject instanceof TlvDataObject)) {
 			return false;
 		}
 		
+		TlvDataObject other = (TlvDataObject) anotherTlvDataObject;
+		
+		//objects of different length can be rejected without encoding them
+		if(getLength() != other.getLength()) {return false;}
+		
 		//TlvDataObjects are considered equal iff they encode the same T-L-V combination in the same way
-		return Arrays.equals(toByteArray(), ((TlvDataObject) anotherTlvDataObject).toByteArray());
+		return Arrays.equals(toByteArray(), other.toByteArray());
 	}
 	
+	/**
+	 * Returns the hash code of the encoding of this object. This requires the
+	 * complete object to be encoded, use {@link ImmutableTlvDataObject} for
+	 * objects that are hashed frequently, e.g. keys within maps.
+	 */
 	@Override
 	public int hashCode() {
-		int hash = 1;
-		byte[] byteArray = toByteArray();
-		for (int i = 0; i < byteArray.length; i++) {
-			hash *= byteArray[i];
-		}
-		return hash;
+		return Arrays.hashCode(toByteArray());
 	}
 	
 	public void setPerformValidityChecksTo(boolean performValidityChecksInput) {
@@ -88,11 +88,7 @@ public class TlvValuePlain extends TlvValue {
 	
 	@Override
 	public int hashCode() {
-		int hash = 1;
-		for (int i = 0; i < valueField.length; i++) {
-			hash *= valueField[i];
-		}
-		return hash;
+		return Arrays.hashCode(valueField);
 	}
 	
 	@Override
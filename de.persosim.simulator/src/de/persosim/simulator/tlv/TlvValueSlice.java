@@ -0,0 +1,61 @@
+package de.persosim.simulator.tlv;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a value field that is a read-only view on a range of
+ * a byte array. In contrast to {@link TlvValuePlain} the referenced array is
+ * not copied on construction, so any number of slices can be created from a
+ * large buffer at constant cost. The referenced array must therefore not be
+ * modified while slices of it are in use.
+ *
+ */
+public class TlvValueSlice extends TlvValue {
+
+	private final byte[] buffer;
+	private final int offset;
+	private final int length;
+
+	/*--------------------------------------------------------------------------------*/
+
+	/**
+	 * Constructor for this object based on a range defined on an array of raw bytes.
+	 *
+	 * @param buffer the byte array that in a certain range contains the TLV value, this array is referenced, not copied
+	 * @param minOffset the first offset of the range to contain the TLV value (inclusive)
+	 * @param maxOffset the first offset not to be part of the range to contain the TLV value (exclusive).
+	 */
+	public TlvValueSlice(byte[] buffer, int minOffset, int maxOffset) {
+		if(buffer == null) {throw new NullPointerException();}
+		if(minOffset < 0) {throw new IllegalArgumentException("min offset must not be less than 0");}
+		if(maxOffset < minOffset) {throw new IllegalArgumentException("max offset must not be smaller than min offset");}
+		if(maxOffset > buffer.length) {throw new IllegalArgumentException("selected array area must not lie outside of data array");}
+
+		this.buffer = buffer;
+		this.offset = minOffset;
+		this.length = maxOffset - minOffset;
+	}
+
+	/*--------------------------------------------------------------------------------*/
+
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		return Arrays.copyOfRange(buffer, offset, offset + length);
+	}
+
+	@Override
+	public boolean isValidBerEncoding() {
+		return true;
+	}
+
+	@Override
+	public boolean isValidDerEncoding() {
+		return isValidBerEncoding();
+	}
+
+}
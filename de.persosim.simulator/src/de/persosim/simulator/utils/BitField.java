@@ -2,6 +2,8 @@ package de.persosim.simulator.utils;
 
 import java.util.Arrays;
 
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
@@ -10,16 +12,29 @@ import de.persosim.simulator.exception.BitFieldOutOfBoundsException;
 /**
  * This class implements a little endian bitfield providing several bitwise
  * logical operations.
+ * <p/>
+ * The bits are stored in long words, bit i is stored at position i % 64 of
+ * word i / 64. All bits of the last word beyond the number of bits are kept
+ * zero, so logical operations and comparisons can work on whole words.
  * 
  * @author mboonk
  * 
  */
 @XmlRootElement
 public class BitField {
+	private static final int BITS_PER_WORD = Long.SIZE;
+	
+	/**
+	 * XML representation of the bits, only used during (un)marshalling
+	 */
 	@XmlElement
 	boolean[] storedBits;
+	
+	private long[] words;
+	private int numberOfBits;
 
 	public BitField() {
+		this(0);
 	}
 
 	/**
@@ -27,11 +42,14 @@ public class BitField {
 	 * @param numberOfBits
 	 */
 	public BitField(int numberOfBits){
-		storedBits = new boolean[numberOfBits];
+		this.numberOfBits = numberOfBits;
+		words = new long[getNumberOfWords(numberOfBits)];
 	}
 	
 	/**
-	 * Create a {@link BitField} from a big endian ordered byte array.
+	 * Create a {@link BitField} from a big endian ordered byte array. The
+	 * least significant numberOfBits bits of the array are stored, missing
+	 * leading bits are treated as zero.
 	 * @param numberOfBits
 	 * @param bitsToStore
 	 * @return
@@ -39,16 +57,11 @@ public class BitField {
 	public static BitField buildFromBigEndian(int numberOfBits, byte [] bitsToStore){
 		BitField result = new BitField(numberOfBits);
 		
-		boolean [] sourceBits = new boolean [bitsToStore.length*8];
-		
-		for (int i = 0; i < sourceBits.length; i++){
-			sourceBits[i] = ((bitsToStore[i/8] >>> 7-(i%8)) & 0b00000001) == 1;
-		}
-
-		int offset = bitsToStore.length*8 - numberOfBits;
-		for (int i = offset; i < sourceBits.length; i++){
-			result.setBit(numberOfBits - 1 - (i - offset), sourceBits[i]);
+		int numberOfBytes = Math.min(bitsToStore.length, getNumberOfBytes(numberOfBits));
+		for (int i = 0; i < numberOfBytes; i++){
+			result.words[i / 8] |= (bitsToStore[bitsToStore.length - 1 - i] & 0xFFL) << ((i % 8) * 8);
 		}
+		result.clearUnusedBits();
 		
 		return result;
 	}
@@ -65,17 +78,10 @@ public class BitField {
 	 */
 	public BitField(int numberOfBits, byte[] bitsToStore) {
 		this(numberOfBits);
-		for (int i = 0; i < numberOfBits; i++) {
-
-			/*
-			 * Access the next byte every 8 bits and mask away any potential
-			 * sign. Then shift this byte such that the currently interesting
-			 * bit is the LSB. Masking the other 7 bits away provides the value
-			 * that is added to the internal representation of the bit field.
-			 */
-			setBit(i,
-					(((bitsToStore[i / 8] & 0xFF) >>> i % 8) & 0b00000001) == 1);
+		for (int i = 0; i < getNumberOfBytes(numberOfBits); i++) {
+			words[i / 8] |= (bitsToStore[i] & 0xFFL) << ((i % 8) * 8);
 		}
+		clearUnusedBits();
 	}
 
 	/**
@@ -87,7 +93,35 @@ public class BitField {
 	 *            source data
 	 */
 	public BitField(boolean[] bitsToStore) {
-		storedBits = Arrays.copyOf(bitsToStore, bitsToStore.length);
+		this(bitsToStore.length);
+		for (int i = 0; i < bitsToStore.length; i++) {
+			setBit(i, bitsToStore[i]);
+		}
+	}
+	
+	private static int getNumberOfWords(int numberOfBits) {
+		return (numberOfBits + BITS_PER_WORD - 1) / BITS_PER_WORD;
+	}
+	
+	private static int getNumberOfBytes(int numberOfBits) {
+		return (numberOfBits + Byte.SIZE - 1) / Byte.SIZE;
+	}
+	
+	/**
+	 * Set all bits of the last word beyond the number of bits to zero.
+	 */
+	private void clearUnusedBits() {
+		int usedBitsInLastWord = numberOfBits % BITS_PER_WORD;
+		if (usedBitsInLastWord != 0) {
+			words[words.length - 1] &= (1L << usedBitsInLastWord) - 1;
+		}
+	}
+	
+	private long getZeroPaddedWord(int index) {
+		if (index >= words.length) {
+			return 0;
+		}
+		return words[index];
 	}
 
 	/**
@@ -100,13 +134,19 @@ public class BitField {
 	 * @return the concatenation of this object with
 	 */
 	public BitField concatenate(BitField field) {
-		boolean[] result = new boolean[field.getNumberOfBits()
-				+ getNumberOfBits()];
-
-		System.arraycopy(storedBits, 0, result, 0, getNumberOfBits());
-		System.arraycopy(field.storedBits, 0, result, getNumberOfBits(), field.getNumberOfBits());
+		BitField result = new BitField(numberOfBits + field.numberOfBits);
+		System.arraycopy(words, 0, result.words, 0, words.length);
+		
+		int wordOffset = numberOfBits / BITS_PER_WORD;
+		int bitOffset = numberOfBits % BITS_PER_WORD;
+		for (int i = 0; i < field.words.length; i++) {
+			result.words[wordOffset + i] |= field.words[i] << bitOffset;
+			if ((bitOffset != 0) && (wordOffset + i + 1 < result.words.length)) {
+				result.words[wordOffset + i + 1] |= field.words[i] >>> (BITS_PER_WORD - bitOffset);
+			}
+		}
 
-		return new BitField(result);
+		return result;
 	}
 
 	/**
@@ -116,13 +156,13 @@ public class BitField {
 	 * @return a new {@link BitField} containing the result
 	 */
 	public BitField or(BitField field) {
-		boolean[] result = new boolean[Math.max(getNumberOfBits(), field.getNumberOfBits())];
+		BitField result = new BitField(Math.max(numberOfBits, field.numberOfBits));
 
-		for (int i = 0; i < result.length; i++) {
-			result[i] = getZeroPaddedBit(i) | field.getZeroPaddedBit(i);
+		for (int i = 0; i < result.words.length; i++) {
+			result.words[i] = getZeroPaddedWord(i) | field.getZeroPaddedWord(i);
 		}
 
-		return new BitField(result);
+		return result;
 	}
 
 	/**
@@ -132,29 +172,45 @@ public class BitField {
 	 * @return a new {@link BitField} containing the result
 	 */
 	public BitField and(BitField field) {
-		boolean[] result = new boolean[Math.max(getNumberOfBits(), field.getNumberOfBits())];
+		BitField result = new BitField(Math.max(numberOfBits, field.numberOfBits));
 
-		for (int i = 0; i < result.length; i++) {
-			result[i] = getZeroPaddedBit(i) & field.getZeroPaddedBit(i);
+		for (int i = 0; i < result.words.length; i++) {
+			result.words[i] = getZeroPaddedWord(i) & field.getZeroPaddedWord(i);
 		}
 
-		return new BitField(result);
+		return result;
 	}
-
-	private boolean getZeroPaddedBit(int index) {
-		if (index >= storedBits.length) {
+	
+	/**
+	 * This method checks whether all bits set in this object are also set in
+	 * the given {@link BitField}, i.e. whether
+	 * <code>this.or(field).equals(field)</code> holds, without creating
+	 * intermediate objects.
+	 * 
+	 * @param field
+	 * @return true iff this object is not longer than the given field and
+	 *         all its bits are also set in the given field
+	 */
+	public boolean isSubsetOf(BitField field) {
+		if (numberOfBits > field.numberOfBits) {
 			return false;
 		}
-		return storedBits[index];
+		
+		for (int i = 0; i < words.length; i++) {
+			if ((words[i] & ~field.words[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	public int getNumberOfBits() {
-		return storedBits.length;
+		return numberOfBits;
 	}
 
 	public boolean getBit(int index) {
-		if (0 <= index && index < storedBits.length) {
-			return storedBits[index];
+		if (0 <= index && index < numberOfBits) {
+			return (words[index / BITS_PER_WORD] & (1L << (index % BITS_PER_WORD))) != 0;
 		} else {
 			throw new BitFieldOutOfBoundsException();
 		}
@@ -166,14 +222,19 @@ public class BitField {
 	 * @return
 	 */
 	public BitField flipBit(int index){
-		BitField result = new BitField(this.storedBits);
+		BitField result = new BitField(numberOfBits);
+		System.arraycopy(words, 0, result.words, 0, words.length);
 		result.setBit(index, !result.getBit(index));
 		return result;
 	}
 	
 	private void setBit(int index, boolean value) {
-		if (0 <= index && index < storedBits.length) {
-			storedBits[index] = value;
+		if (0 <= index && index < numberOfBits) {
+			if (value) {
+				words[index / BITS_PER_WORD] |= 1L << (index % BITS_PER_WORD);
+			} else {
+				words[index / BITS_PER_WORD] &= ~(1L << (index % BITS_PER_WORD));
+			}
 		} else {
 			throw new BitFieldOutOfBoundsException();
 		}
@@ -181,7 +242,7 @@ public class BitField {
 
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode(storedBits);
+		return 31 * numberOfBits + Arrays.hashCode(words);
 	}
 
 	@Override
@@ -193,10 +254,69 @@ public class BitField {
 		if (getClass() != obj.getClass())
 			return false;
 		BitField other = (BitField) obj;
-		if (!Arrays.equals(storedBits, other.storedBits))
+		if (numberOfBits != other.numberOfBits)
+			return false;
+		if (!Arrays.equals(words, other.words))
 			return false;
 		return true;
 	}
+	
+	/**
+	 * This method creates the big endian byte array representation of the
+	 * bitfield, i.e. the inverse of {@link #buildFromBigEndian(int, byte[])}.
+	 * The LSB of the field is the LSB of the last element, unused leading
+	 * bits of the first element are 0.
+	 * 
+	 * @return the big endian representation of the field
+	 */
+	public byte[] getAsBigEndianByteArray() {
+		byte[] result = new byte[getNumberOfBytes(numberOfBits)];
+		for (int i = 0; i < result.length; i++) {
+			result[result.length - 1 - i] = (byte) (words[i / 8] >>> ((i % 8) * 8));
+		}
+		return result;
+	}
+	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to provide the bits in their XML representation
+	 * @param m
+	 */
+	protected void beforeMarshal(Marshaller m) {
+		storedBits = new boolean[numberOfBits];
+		for (int i = 0; i < numberOfBits; i++) {
+			storedBits[i] = getBit(i);
+		}
+	}
+	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to release the XML representation of the bits
+	 * @param m
+	 */
+	protected void afterMarshal(Marshaller m) {
+		storedBits = null;
+	}
+	
+	/**
+	 * JAXB callback
+	 * <p/>
+	 * Used to initialize the words from the XML representation of the bits
+	 * @param u
+	 * @param parent
+	 */
+	protected void afterUnmarshal(Unmarshaller u, Object parent) {
+		boolean[] bits = (storedBits != null) ? storedBits : new boolean[0];
+		storedBits = null;
+		
+		numberOfBits = bits.length;
+		words = new long[getNumberOfWords(numberOfBits)];
+		for (int i = 0; i < bits.length; i++) {
+			setBit(i, bits[i]);
+		}
+	}
 
 	/**
 	 * This method creates a byte array representation of the bitfield. It
@@ -1,7 +1,6 @@
 package de.persosim.simulator.utils;
 
 import java.math.BigInteger;
-import java.util.Arrays;
 
 /**
  * Encapsulate methods handling String representations of byte Arrays.
@@ -145,30 +144,46 @@ public class HexString {
 	 */
 	public static byte[] toByteArray(String inputString) {
 		if(inputString == null) {throw new NullPointerException("string must not be null");};
-		inputString = inputString.replaceAll("\\s", "");
-		if(inputString.length() % 2 != 0) {throw new IllegalArgumentException("hexadecimal string must be of even length");};
 		
-		if(inputString.length() == 0) {return new byte[0];};
-		
-		int arrayLength = inputString.length() / 2;
-		
-		//TODO remove detour via BigInteger, clean up this method 
-		// add leading 00-byte to prevent BigInteger constructor from interpreting highest bit as sign
-		String inputStringMod = "00" + inputString;
-		BigInteger bigInt = new BigInteger(inputStringMod, 16);
-		
-		byte[] result = Utils.toUnsignedByteArray(bigInt);
+		// count the hex digits first, so whitespace can be skipped without copying the string
+		int numberOfDigits = 0;
+		for (int i = 0; i < inputString.length(); i++) {
+			if (!isWhitespace(inputString.charAt(i))) {
+				numberOfDigits++;
+			}
+		}
+		if(numberOfDigits % 2 != 0) {throw new IllegalArgumentException("hexadecimal string must be of even length");};
 		
-		if(arrayLength != result.length) {
-			// the String had leading 00-bytes
+		byte[] result = new byte[numberOfDigits / 2];
+		int highNibble = -1;
+		int resultIndex = 0;
+		for (int i = 0; i < inputString.length(); i++) {
+			char curChar = inputString.charAt(i);
+			if (isWhitespace(curChar)) {
+				continue;
+			}
 			
-			byte[] tmp = new byte[arrayLength];
-			Arrays.fill(tmp, (byte) 0x00);
-			System.arraycopy(result, 0, tmp, tmp.length - result.length, result.length);
-			result = tmp;
+			int digit = Character.digit(curChar, 16);
+			if (digit < 0) {
+				throw new NumberFormatException("illegal hexadecimal character '" + curChar + "' at index " + i);
+			}
+			
+			if (highNibble < 0) {
+				highNibble = digit;
+			} else {
+				result[resultIndex++] = (byte) ((highNibble << 4) | digit);
+				highNibble = -1;
+			}
 		}
 		
 		return result;
 	}
 	
+	/**
+	 * Whitespace as matched by the regular expression <code>\s</code>
+	 */
+	private static boolean isWhitespace(char c) {
+		return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r');
+	}
+	
 }
@@ -16,6 +16,11 @@ import de.persosim.simulator.PersoSim;
 
 /**
  * This class is used as primary Logger throughout all PersoSim classes.
+ * <p/>
+ * All messages are logged unless a minimum log level is set, either by
+ * {@link #setLogLevel(byte)} or by setting the system property
+ * {@value #PROPERTY_LOG_LEVEL} to one of the names accepted by
+ * {@link #parseLogLevel(String)}.
  * 
  * @author amay
  * 
@@ -29,7 +34,16 @@ public class PersoSimLogger {
 	public static final byte FATAL = 6;
 	private static final byte LOGLEVEL_DFLT = DEBUG;
 	
+	public static final String PROPERTY_LOG_LEVEL = "de.persosim.simulator.logLevel";
+	
+	private static final String[] LOGLEVEL_NAMES = {"trace", "debug", "info", "warn", "error", "fatal"};
+	
 	private static Logger logger;
+	
+	/**
+	 * Minimum level of logged messages, kept across {@link #init()}
+	 */
+	private static Level level = getInitialLevel();
 
 	/**
 	 * Ensure that this type can not be instantiated
@@ -59,7 +73,7 @@ public class PersoSimLogger {
 		}
 
 		// ALL | DEBUG | INFO | WARN | ERROR | FATAL | OFF:
-		logger.setLevel(Level.ALL);
+		logger.setLevel(level);
 	}
 
 	/**
@@ -118,6 +132,52 @@ public class PersoSimLogger {
 		log(className, message, LOGLEVEL_DFLT);
 	}
 
+	/**
+	 * Returns whether messages of the given log level are written to the log.
+	 * This allows callers to skip the creation of expensive messages that
+	 * would be discarded anyway.
+	 * 
+	 * @param logLevel
+	 *            log level to check
+	 * @return true iff messages of the given log level are written
+	 */
+	public static boolean isLoggable(byte logLevel) {
+		return (logger != null) && logger.isEnabledFor(getLevel(logLevel));
+	}
+
+	/**
+	 * Set the minimum log level of messages that are written to the log. The
+	 * level also applies if the logger is (re)initialized later on.
+	 * 
+	 * @param logLevel
+	 *            the minimum log level
+	 */
+	public static void setLogLevel(byte logLevel) {
+		level = getLevel(logLevel);
+		if (logger != null) {
+			logger.setLevel(level);
+		}
+	}
+
+	/**
+	 * Parse the name of a log level, i.e. one of "trace", "debug", "info",
+	 * "warn", "error" or "fatal", ignoring case.
+	 * 
+	 * @param name
+	 *            the name of the log level
+	 * @return the log level
+	 * @throws IllegalArgumentException
+	 *             if the name does not denote a log level
+	 */
+	public static byte parseLogLevel(String name) {
+		for (int i = 0; i < LOGLEVEL_NAMES.length; i++) {
+			if (LOGLEVEL_NAMES[i].equalsIgnoreCase(name)) {
+				return (byte) (TRACE + i);
+			}
+		}
+		throw new IllegalArgumentException("unknown log level " + name);
+	}
+
 	/*--------------------------------------------------------------------------------*/
 
 	/**
@@ -173,6 +233,9 @@ public class PersoSimLogger {
 	 *            log level on which the message is shown
 	 */
 	private static void log(String source, String message, byte logLevel) {
+		if (!isLoggable(logLevel)) {
+			return;
+		}
 		logPlain(String.format("%s: %s", source, message), logLevel);
 	}
 	
@@ -227,6 +290,36 @@ public class PersoSimLogger {
 		logException(className, e, LOGLEVEL_DFLT);
 	}
 
+	private static Level getInitialLevel() {
+		String name = System.getProperty(PROPERTY_LOG_LEVEL);
+		if (name == null) {
+			return Level.ALL;
+		}
+		try {
+			return getLevel(parseLogLevel(name.trim()));
+		} catch (IllegalArgumentException e) {
+			System.out.println("ignoring system property " + PROPERTY_LOG_LEVEL + ", reason is: " + e.getMessage());
+			return Level.ALL;
+		}
+	}
+
+	private static Level getLevel(byte logLevel) {
+		switch (logLevel) {
+		case TRACE:
+			return Level.TRACE;
+		case INFO:
+			return Level.INFO;
+		case WARN:
+			return Level.WARN;
+		case ERROR:
+			return Level.ERROR;
+		case FATAL:
+			return Level.FATAL;
+		default:
+			return Level.DEBUG;
+		}
+	}
+
 	private static void logPlain(String message, byte logLevel) {
 		if (logger != null) {
 			switch (logLevel) {